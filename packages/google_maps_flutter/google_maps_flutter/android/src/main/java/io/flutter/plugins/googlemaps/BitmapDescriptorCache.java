@@ -0,0 +1,72 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A least recently used cache of the {@link BitmapDescriptor}s created by {@link Convert}.
+ *
+ * <p>Markers commonly share a handful of icons, so every icon is decoded and uploaded once rather
+ * than once per marker and again on every marker change. Descriptors are keyed by their serialized
+ * form, where image bytes are compared by content.
+ */
+final class BitmapDescriptorCache {
+  static final int MAX_ENTRIES = 64;
+
+  private static final Map<Object, BitmapDescriptor> descriptors =
+      new LinkedHashMap<Object, BitmapDescriptor>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, BitmapDescriptor> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  private BitmapDescriptorCache() {}
+
+  static synchronized BitmapDescriptor get(Object key) {
+    return descriptors.get(key);
+  }
+
+  static synchronized void put(Object key, BitmapDescriptor descriptor) {
+    descriptors.put(key, descriptor);
+  }
+
+  /** Returns a key for the serialized descriptor {@code data} that compares arrays by content. */
+  static Object keyFor(List<?> data) {
+    final List<Object> key = new ArrayList<>(data.size());
+    for (Object value : data) {
+      key.add(value instanceof byte[] ? new Bytes((byte[]) value) : value);
+    }
+    return key;
+  }
+
+  private static final class Bytes {
+    private final byte[] bytes;
+    private final int hashCode;
+
+    Bytes(byte[] bytes) {
+      this.bytes = bytes;
+      this.hashCode = Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Bytes
+          && hashCode == ((Bytes) other).hashCode
+          && Arrays.equals(bytes, ((Bytes) other).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
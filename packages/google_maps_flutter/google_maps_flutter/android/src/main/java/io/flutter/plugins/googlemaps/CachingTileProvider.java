@@ -0,0 +1,140 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.util.LruCache;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * Provides the tiles of a tile overlay from a memory cache, then an optional disk cache, and only
+ * then from its {@link TileSource}.
+ *
+ * <p>The map calls {@link #getTile} on its own background threads, so loading tiles may block.
+ */
+class CachingTileProvider implements TileProvider {
+  private static final int MEMORY_CACHE_BYTES = 4 * 1024 * 1024;
+  // The width and height of a tile stored on disk precede its data.
+  private static final int HEADER_BYTES = 8;
+
+  /** Where the tiles that aren't cached come from. */
+  interface TileSource {
+    /**
+     * Returns the tile, {@link TileProvider#NO_TILE} if there is no tile at these coordinates, or
+     * null if the tile can't be loaded right now.
+     */
+    Tile load(int x, int y, int zoom);
+  }
+
+  private final TileSource source;
+  private final TileDiskCache diskCache;
+  private final LruCache<String, Tile> memoryCache =
+      new LruCache<String, Tile>(MEMORY_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(String key, Tile tile) {
+          return tile.data == null ? HEADER_BYTES : tile.data.length + HEADER_BYTES;
+        }
+      };
+  private volatile boolean released;
+  // Incremented by clear, so that the tiles loaded before aren't cached again. Guarded by
+  // memoryCache.
+  private int generation;
+
+  /** {@code diskCache} may be null to only cache tiles in memory. */
+  CachingTileProvider(TileSource source, TileDiskCache diskCache) {
+    this.source = source;
+    this.diskCache = diskCache;
+  }
+
+  @Override
+  public Tile getTile(int x, int y, int zoom) {
+    if (released) {
+      return null;
+    }
+    String key = zoom + "_" + x + "_" + y;
+    int memoryGeneration;
+    synchronized (memoryCache) {
+      memoryGeneration = generation;
+    }
+    int diskGeneration = diskCache == null ? 0 : diskCache.getGeneration();
+    Tile tile = memoryCache.get(key);
+    if (tile != null) {
+      return tile;
+    }
+    tile = diskCache == null ? null : decode(diskCache.get(key));
+    if (tile != null) {
+      putInMemory(key, tile, memoryGeneration);
+      return tile;
+    }
+    tile = source.load(x, y, zoom);
+    if (tile != null && !released) {
+      putInMemory(key, tile, memoryGeneration);
+      if (diskCache != null) {
+        diskCache.put(key, encode(tile), diskGeneration);
+      }
+    }
+    return tile;
+  }
+
+  private void putInMemory(String key, Tile tile, int memoryGeneration) {
+    synchronized (memoryCache) {
+      if (memoryGeneration == generation) {
+        memoryCache.put(key, tile);
+      }
+    }
+  }
+
+  void setDiskCacheSize(long diskCacheSize) {
+    if (diskCache != null) {
+      diskCache.setMaxBytes(diskCacheSize);
+    }
+  }
+
+  /** Forgets every cached tile, and returns the detached disk cache to delete if any. */
+  File clear() {
+    synchronized (memoryCache) {
+      generation++;
+      memoryCache.evictAll();
+    }
+    return diskCache == null ? null : diskCache.detach();
+  }
+
+  /**
+   * Stops providing tiles, and returns the detached disk cache to delete if {@code
+   * deleteDiskCache}.
+   */
+  File release(boolean deleteDiskCache) {
+    released = true;
+    memoryCache.evictAll();
+    return deleteDiskCache && diskCache != null ? diskCache.detach() : null;
+  }
+
+  static byte[] encode(Tile tile) {
+    int length = tile.data == null ? 0 : tile.data.length;
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + length);
+    buffer.putInt(tile.width).putInt(tile.height);
+    if (tile.data != null) {
+      buffer.put(tile.data);
+    }
+    return buffer.array();
+  }
+
+  static Tile decode(byte[] bytes) {
+    if (bytes == null || bytes.length < HEADER_BYTES) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    int width = buffer.getInt();
+    int height = buffer.getInt();
+    if (width < 0 || height < 0) {
+      return TileProvider.NO_TILE;
+    }
+    byte[] data = new byte[bytes.length - HEADER_BYTES];
+    buffer.get(data);
+    return new Tile(width, height, data);
+  }
+}
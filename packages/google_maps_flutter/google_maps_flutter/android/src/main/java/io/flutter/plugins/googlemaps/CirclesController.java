@@ -31,12 +31,37 @@ class CirclesController {
     this.googleMap = googleMap;
   }
 
-  void addCircles(List<Object> circlesToAdd) {
-    if (circlesToAdd != null) {
-      for (Object circleToAdd : circlesToAdd) {
-        addCircle(circleToAdd);
+  /**
+   * Returns an update that adds {@code circlesToAdd}, then changes and removes circles, and then
+   * resolves {@code result}, which may be null.
+   */
+  OverlayUpdateQueue.Update<CircleBuilder> update(
+      List<Object> circlesToAdd,
+      final List<Object> circlesToChange,
+      final List<Object> circleIdsToRemove,
+      MethodChannel.Result result) {
+    return new OverlayUpdateQueue.Update<CircleBuilder>(circlesToAdd, result) {
+      @Override
+      CircleBuilder newBuilder() {
+        return new CircleBuilder(density);
       }
-    }
+
+      @Override
+      String interpret(Object circle, CircleBuilder circleBuilder) {
+        return Convert.interpretCircleOptions(circle, circleBuilder);
+      }
+
+      @Override
+      void add(String circleId, CircleBuilder circleBuilder) {
+        addCircle(circleId, circleBuilder);
+      }
+
+      @Override
+      void finish() {
+        changeCircles(circlesToChange);
+        removeCircles(circleIdsToRemove);
+      }
+    };
   }
 
   void changeCircles(List<Object> circlesToChange) {
@@ -77,12 +102,7 @@ class CirclesController {
     return false;
   }
 
-  private void addCircle(Object circle) {
-    if (circle == null) {
-      return;
-    }
-    CircleBuilder circleBuilder = new CircleBuilder(density);
-    String circleId = Convert.interpretCircleOptions(circle, circleBuilder);
+  private void addCircle(String circleId, CircleBuilder circleBuilder) {
     CircleOptions options = circleBuilder.build();
     addCircle(circleId, options, circleBuilder.consumeTapEvents());
   }
@@ -23,6 +23,8 @@ import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.PatternItem;
 import com.google.android.gms.maps.model.RoundCap;
 import com.google.android.gms.maps.model.SquareCap;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
 import io.flutter.view.FlutterMain;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,11 +35,21 @@ import java.util.Map;
 /** Conversions between JSON-like values and GoogleMaps data types. */
 class Convert {
 
+  private static BitmapDescriptor toBitmapDescriptor(Object o) {
+    final List<?> data = toList(o);
+    final Object cacheKey = BitmapDescriptorCache.keyFor(data);
+    BitmapDescriptor descriptor = BitmapDescriptorCache.get(cacheKey);
+    if (descriptor == null) {
+      descriptor = createBitmapDescriptor(o, data);
+      BitmapDescriptorCache.put(cacheKey, descriptor);
+    }
+    return descriptor;
+  }
+
   // TODO(hamdikahloun): FlutterMain has been deprecated and should be replaced with FlutterLoader
   //  when it's available in Stable channel: https://github.com/flutter/flutter/issues/70923.
   @SuppressWarnings("deprecation")
-  private static BitmapDescriptor toBitmapDescriptor(Object o) {
-    final List<?> data = toList(o);
+  private static BitmapDescriptor createBitmapDescriptor(Object o, List<?> data) {
     switch (toString(data.get(0))) {
       case "defaultMarker":
         if (data.size() == 1) {
@@ -277,6 +289,87 @@ class Convert {
     return (String) o;
   }
 
+  static String interpretGeoJsonLayerOptions(Object o, GeoJsonLayerOptionsSink sink) {
+    final Map<?, ?> data = toMap(o);
+    final Object path = data.get("path");
+    if (path != null) {
+      sink.setPath(toString(path));
+    }
+    final Object bytes = data.get("data");
+    if (bytes != null) {
+      sink.setData((byte[]) bytes);
+    }
+    final Object fillColor = data.get("fillColor");
+    if (fillColor != null) {
+      sink.setFillColor(toInt(fillColor));
+    }
+    final Object strokeColor = data.get("strokeColor");
+    if (strokeColor != null) {
+      sink.setStrokeColor(toInt(strokeColor));
+    }
+    final Object strokeWidth = data.get("strokeWidth");
+    if (strokeWidth != null) {
+      sink.setStrokeWidth(toInt(strokeWidth));
+    }
+    final Object zIndex = data.get("zIndex");
+    if (zIndex != null) {
+      sink.setZIndex(toFloat(zIndex));
+    }
+    final Object visible = data.get("visible");
+    if (visible != null) {
+      sink.setVisible(toBoolean(visible));
+    }
+    final Object consumeTapEvents = data.get("consumeTapEvents");
+    if (consumeTapEvents != null) {
+      sink.setConsumeTapEvents(toBoolean(consumeTapEvents));
+    }
+    final String layerId = (String) data.get("layerId");
+    if (layerId == null) {
+      throw new IllegalArgumentException("layerId was null");
+    } else {
+      return layerId;
+    }
+  }
+
+  static SnapshotEncoder.Options toSnapshotOptions(Object o, float density) {
+    final SnapshotEncoder.Options options = new SnapshotEncoder.Options();
+    if (o == null) {
+      return options;
+    }
+    final Map<?, ?> data = toMap(o);
+    final Object format = data.get("format");
+    if (format != null) {
+      switch (toInt(format)) {
+        case 1:
+          options.format = Bitmap.CompressFormat.JPEG;
+          break;
+        case 2:
+          options.format = Bitmap.CompressFormat.WEBP;
+          break;
+        default:
+          options.format = Bitmap.CompressFormat.PNG;
+      }
+    }
+    final Object quality = data.get("quality");
+    if (quality != null) {
+      options.quality = toInt(quality);
+    }
+    final Object scale = data.get("scale");
+    if (scale != null) {
+      options.scale = toFloat(scale);
+    }
+    final Object region = data.get("region");
+    if (region != null) {
+      final List<?> bounds = toList(region);
+      options.region = new int[4];
+      for (int i = 0; i < 4; i++) {
+        options.region[i] = toPixels(bounds.get(i), density);
+      }
+    }
+    options.path = toString(data.get("path"));
+    return options;
+  }
+
   static void interpretGoogleMapOptions(Object o, GoogleMapOptionsSink sink) {
     final Map<?, ?> data = toMap(o);
     final Object cameraTargetBounds = data.get("cameraTargetBounds");
@@ -328,6 +421,14 @@ class Convert {
     if (trackCameraPosition != null) {
       sink.setTrackCameraPosition(toBoolean(trackCameraPosition));
     }
+    final Object trackVisibleRegion = data.get("trackVisibleRegion");
+    if (trackVisibleRegion != null) {
+      sink.setTrackVisibleRegion(toBoolean(trackVisibleRegion));
+    }
+    final Object cameraMoveThrottleMillis = data.get("cameraMoveThrottleMillis");
+    if (cameraMoveThrottleMillis != null) {
+      sink.setCameraMoveThrottleMillis(toInt(cameraMoveThrottleMillis));
+    }
     final Object zoomGesturesEnabled = data.get("zoomGesturesEnabled");
     if (zoomGesturesEnabled != null) {
       sink.setZoomGesturesEnabled(toBoolean(zoomGesturesEnabled));
@@ -360,6 +461,18 @@ class Convert {
     if (buildingsEnabled != null) {
       sink.setBuildingsEnabled(toBoolean(buildingsEnabled));
     }
+    final Object markerVirtualizationEnabled = data.get("markerVirtualizationEnabled");
+    if (markerVirtualizationEnabled != null) {
+      sink.setMarkerVirtualizationEnabled(toBoolean(markerVirtualizationEnabled));
+    }
+    final Object markerClusteringEnabled = data.get("markerClusteringEnabled");
+    if (markerClusteringEnabled != null) {
+      sink.setMarkerClusteringEnabled(toBoolean(markerClusteringEnabled));
+    }
+    final Object markerClusterGridSize = data.get("markerClusterGridSize");
+    if (markerClusterGridSize != null) {
+      sink.setMarkerClusterGridSize(toFloat(markerClusterGridSize));
+    }
   }
 
   /** Returns the dartMarkerId of the interpreted marker. */
@@ -498,6 +611,11 @@ class Convert {
     if (jointType != null) {
       sink.setJointType(toInt(jointType));
     }
+    // Before the points, so that a simplified polyline never gets its full geometry.
+    final Object simplify = data.get("simplify");
+    if (simplify != null) {
+      sink.setSimplify(toBoolean(simplify));
+    }
     final Object startCap = data.get("startCap");
     if (startCap != null) {
       sink.setStartCap(toCap(startCap));
@@ -572,13 +690,137 @@ class Convert {
     }
   }
 
-  private static List<LatLng> toPoints(Object o) {
+  static String interpretTileOverlayOptions(Object o, TileOverlayOptionsSink sink) {
+    final Map<?, ?> data = toMap(o);
+    final Object fadeIn = data.get("fadeIn");
+    if (fadeIn != null) {
+      sink.setFadeIn(toBoolean(fadeIn));
+    }
+    final Object transparency = data.get("transparency");
+    if (transparency != null) {
+      sink.setTransparency(toFloat(transparency));
+    }
+    final Object zIndex = data.get("zIndex");
+    if (zIndex != null) {
+      sink.setZIndex(toFloat(zIndex));
+    }
+    final Object visible = data.get("visible");
+    if (visible != null) {
+      sink.setVisible(toBoolean(visible));
+    }
+    final Object urlTemplate = data.get("urlTemplate");
+    if (urlTemplate != null) {
+      sink.setUrlTemplate(toString(urlTemplate));
+    }
+    final Object tileSize = data.get("tileSize");
+    if (tileSize != null) {
+      sink.setTileSize(toInt(tileSize));
+    }
+    final Object diskCacheSize = data.get("diskCacheSize");
+    if (diskCacheSize != null) {
+      sink.setDiskCacheSize(((Number) diskCacheSize).longValue());
+    }
+    final String tileOverlayId = (String) data.get("tileOverlayId");
+    if (tileOverlayId == null) {
+      throw new IllegalArgumentException("tileOverlayId was null");
+    } else {
+      return tileOverlayId;
+    }
+  }
+
+  static String interpretHeatmapOptions(Object o, HeatmapOptionsSink sink) {
+    final Map<?, ?> data = toMap(o);
+    final Object weightedPoints = data.get("weightedPoints");
+    if (weightedPoints != null) {
+      sink.setWeightedPoints(toDoubleArray(weightedPoints));
+    }
+    final Object radius = data.get("radius");
+    if (radius != null) {
+      sink.setRadius(toInt(radius));
+    }
+    final Object gradient = data.get("gradient");
+    if (gradient != null) {
+      final Map<?, ?> gradientData = toMap(gradient);
+      final List<?> colors = toList(gradientData.get("colors"));
+      final List<?> startPoints = toList(gradientData.get("startPoints"));
+      final int[] colorValues = new int[colors.size()];
+      final float[] startPointValues = new float[startPoints.size()];
+      for (int i = 0; i < colorValues.length; i++) {
+        colorValues[i] = toInt(colors.get(i));
+        startPointValues[i] = toFloat(startPoints.get(i));
+      }
+      sink.setGradient(colorValues, startPointValues, toInt(gradientData.get("colorMapSize")));
+    }
+    final Object opacity = data.get("opacity");
+    if (opacity != null) {
+      sink.setOpacity(toDouble(opacity));
+    }
+    // Left out when it is automatic, which the whole heatmap sent on every change has to restore.
+    final Object maxIntensity = data.get("maxIntensity");
+    sink.setMaxIntensity(maxIntensity != null ? toDouble(maxIntensity) : 0);
+    final Object visible = data.get("visible");
+    if (visible != null) {
+      sink.setVisible(toBoolean(visible));
+    }
+    final Object zIndex = data.get("zIndex");
+    if (zIndex != null) {
+      sink.setZIndex(toFloat(zIndex));
+    }
+    final String heatmapId = (String) data.get("heatmapId");
+    if (heatmapId == null) {
+      throw new IllegalArgumentException("heatmapId was null");
+    } else {
+      return heatmapId;
+    }
+  }
+
+  /** Decodes a {@code Float64List}, or a list of numbers. */
+  private static double[] toDoubleArray(Object o) {
+    if (o instanceof double[]) {
+      return (double[]) o;
+    }
+    final List<?> data = toList(o);
+    final double[] values = new double[data.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = toDouble(data.get(i));
+    }
+    return values;
+  }
+
+  /** Returns the tile a Dart tile provider returned, or null if it failed. */
+  static Tile toTile(Object o) {
+    if (o == null) {
+      return null;
+    }
+    final Map<?, ?> data = toMap(o);
+    final byte[] bytes = (byte[]) data.get("data");
+    if (bytes == null) {
+      return TileProvider.NO_TILE;
+    }
+    return new Tile(toInt(data.get("width")), toInt(data.get("height")), bytes);
+  }
+
+  /**
+   * Decodes points from a list of {@code [latitude, longitude]} pairs, or from a packed {@code
+   * Float64List} of alternating latitudes and longitudes, which crosses the channel as a single
+   * array.
+   */
+  static List<LatLng> toPoints(Object o) {
+    if (o instanceof double[]) {
+      final double[] data = (double[]) o;
+      final List<LatLng> points = new ArrayList<>(data.length / 2);
+      for (int i = 0; i + 1 < data.length; i += 2) {
+        points.add(new LatLng(data[i], data[i + 1]));
+      }
+      return points;
+    }
+
     final List<?> data = toList(o);
     final List<LatLng> points = new ArrayList<>(data.size());
 
     for (Object ob : data) {
       final List<?> point = toList(ob);
-      points.add(new LatLng(toFloat(point.get(0)), toFloat(point.get(1))));
+      points.add(new LatLng(toDouble(point.get(0)), toDouble(point.get(1))));
     }
     return points;
   }
@@ -0,0 +1,148 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.gms.maps.model.Tile;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests tiles from the tile providers of a map in Dart.
+ *
+ * <p>The map asks for the tiles it needs at about the same time, from several threads. The tiles of
+ * an overlay that are requested before the platform thread gets to send them go out in a single
+ * {@code tileOverlay#getTiles} call.
+ */
+class DartTileFetcher {
+  // Tiles that take longer are given up on, the map asks for them again later.
+  private static final long TIMEOUT_MILLIS = 10000;
+
+  private static class Request {
+    final int x;
+    final int y;
+    final int zoom;
+    final CountDownLatch done = new CountDownLatch(1);
+    volatile Tile tile;
+
+    Request(int x, int y, int zoom) {
+      this.x = x;
+      this.y = y;
+      this.zoom = zoom;
+    }
+  }
+
+  private final MethodChannel methodChannel;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  // Guarded by this.
+  private final Map<String, List<Request>> pendingRequests = new HashMap<>();
+  private final Set<Request> waitingRequests = new HashSet<>();
+  private boolean disposed;
+
+  DartTileFetcher(MethodChannel methodChannel) {
+    this.methodChannel = methodChannel;
+  }
+
+  /** Returns the tile from Dart, or null if it couldn't be fetched in time. */
+  Tile fetch(final String tileOverlayId, int x, int y, int zoom) {
+    Request request = new Request(x, y, zoom);
+    synchronized (this) {
+      if (disposed) {
+        return null;
+      }
+      List<Request> requests = pendingRequests.get(tileOverlayId);
+      if (requests == null) {
+        requests = new ArrayList<>();
+        pendingRequests.put(tileOverlayId, requests);
+        handler.post(
+            new Runnable() {
+              @Override
+              public void run() {
+                send(tileOverlayId);
+              }
+            });
+      }
+      requests.add(request);
+      waitingRequests.add(request);
+    }
+    try {
+      request.done.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      waitingRequests.remove(request);
+    }
+    return request.tile;
+  }
+
+  /** Releases the threads waiting for tiles, which won't be fetched anymore. */
+  synchronized void dispose() {
+    disposed = true;
+    pendingRequests.clear();
+    for (Request request : waitingRequests) {
+      request.done.countDown();
+    }
+  }
+
+  private void send(String tileOverlayId) {
+    final List<Request> requests;
+    synchronized (this) {
+      requests = pendingRequests.remove(tileOverlayId);
+      if (disposed || requests == null) {
+        return;
+      }
+    }
+    int[] coordinates = new int[requests.size() * 3];
+    for (int i = 0; i < requests.size(); i++) {
+      Request request = requests.get(i);
+      coordinates[i * 3] = request.x;
+      coordinates[i * 3 + 1] = request.y;
+      coordinates[i * 3 + 2] = request.zoom;
+    }
+    Map<String, Object> arguments = new HashMap<>(2);
+    arguments.put("tileOverlayId", tileOverlayId);
+    arguments.put("coordinates", coordinates);
+    methodChannel.invokeMethod(
+        "tileOverlay#getTiles",
+        arguments,
+        new MethodChannel.Result() {
+          @Override
+          public void success(Object result) {
+            List<?> tiles = (List<?>) result;
+            for (int i = 0; i < requests.size(); i++) {
+              if (tiles != null && i < tiles.size()) {
+                requests.get(i).tile = Convert.toTile(tiles.get(i));
+              }
+              requests.get(i).done.countDown();
+            }
+          }
+
+          @Override
+          public void error(String errorCode, String errorMessage, Object errorDetails) {
+            release(requests);
+          }
+
+          @Override
+          public void notImplemented() {
+            release(requests);
+          }
+        });
+  }
+
+  private static void release(List<Request> requests) {
+    for (Request request : requests) {
+      request.done.countDown();
+    }
+  }
+}
@@ -0,0 +1,347 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.Polygon;
+import com.google.android.gms.maps.model.PolygonOptions;
+import com.google.android.gms.maps.model.Polyline;
+import com.google.android.gms.maps.model.PolylineOptions;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A GeoJSON layer, whose document is parsed on a background thread and whose features are added to
+ * the map a few milliseconds per frame.
+ */
+class GeoJsonLayerController implements GeoJsonLayerOptionsSink, GeoJsonParser.Listener {
+  // The number of shapes the parsing thread hands over to the platform thread at once.
+  private static final int BATCH_SIZE = 100;
+  // Leaves most of a 60 Hz frame for rendering.
+  private static final long FRAME_BUDGET_MILLIS = 8;
+
+  // The options of a shape to add, and the arguments of its tap events if it consumes them.
+  private static final class PendingShape {
+    final Object options;
+    final Map<String, Object> feature;
+
+    PendingShape(Object options, Map<String, Object> feature) {
+      this.options = options;
+      this.feature = feature;
+    }
+  }
+
+  private final GoogleMap googleMap;
+  private final MethodChannel methodChannel;
+  private final Handler handler;
+  private final float density;
+  private String layerId;
+  private String path;
+  private byte[] data;
+  private int fillColor = 0x400000FF;
+  private int strokeColor = 0xFF000000;
+  private float strokeWidth = 2;
+  private float zIndex;
+  private boolean visible = true;
+  private boolean consumeTapEvents;
+
+  // Only accessed on the parsing thread.
+  private List<PendingShape> batch = new ArrayList<>();
+  private int featureCount;
+  private volatile boolean removed;
+
+  // Only accessed on the platform thread.
+  private final ArrayDeque<PendingShape> pending = new ArrayDeque<>();
+  private final List<Polygon> polygons = new ArrayList<>();
+  private final List<Polyline> polylines = new ArrayList<>();
+  private final List<Marker> markers = new ArrayList<>();
+  private final Map<String, Map<String, Object>> googleMapsIdToFeature = new HashMap<>();
+  private MethodChannel.Result result;
+  private boolean parsed;
+  private Exception error;
+  private int parsedFeatureCount;
+  private boolean frameScheduled;
+
+  private final Choreographer.FrameCallback frameCallback =
+      new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+          frameScheduled = false;
+          drain();
+        }
+      };
+
+  GeoJsonLayerController(
+      GoogleMap googleMap, MethodChannel methodChannel, Handler handler, float density) {
+    this.googleMap = googleMap;
+    this.methodChannel = methodChannel;
+    this.handler = handler;
+    this.density = density;
+  }
+
+  /**
+   * Parses the document of the layer on {@code executor} and adds its features to the map.
+   *
+   * <p>{@code result} is resolved with the number of features once all of them have been added.
+   */
+  void load(String layerId, ExecutorService executor, MethodChannel.Result result) {
+    this.layerId = layerId;
+    this.result = result;
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            Exception parseError = null;
+            try {
+              parse();
+            } catch (CancellationException e) {
+              return;
+            } catch (IOException | RuntimeException e) {
+              parseError = e;
+            }
+            final List<PendingShape> shapes = batch;
+            final int count = featureCount;
+            final Exception error = parseError;
+            handler.post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    if (removed) {
+                      return;
+                    }
+                    pending.addAll(shapes);
+                    parsed = true;
+                    parsedFeatureCount = count;
+                    GeoJsonLayerController.this.error = error;
+                    drain();
+                  }
+                });
+          }
+        });
+  }
+
+  /** Sends the tap event of the feature of a shape, returns false if it isn't in this layer. */
+  boolean onTap(String googleMapsId) {
+    Map<String, Object> feature = googleMapsIdToFeature.get(googleMapsId);
+    if (feature == null) {
+      return false;
+    }
+    methodChannel.invokeMethod("geoJsonFeature#onTap", feature);
+    return true;
+  }
+
+  /** Removes the features of the layer from the map, and stops adding any more of them. */
+  void remove() {
+    removed = true;
+    pending.clear();
+    if (frameScheduled) {
+      Choreographer.getInstance().removeFrameCallback(frameCallback);
+      frameScheduled = false;
+    }
+    for (Polygon polygon : polygons) {
+      polygon.remove();
+    }
+    for (Polyline polyline : polylines) {
+      polyline.remove();
+    }
+    for (Marker marker : markers) {
+      marker.remove();
+    }
+    polygons.clear();
+    polylines.clear();
+    markers.clear();
+    googleMapsIdToFeature.clear();
+    if (result != null) {
+      result.error("GeoJSON layer removed", "The layer was removed before it was loaded.", null);
+      result = null;
+    }
+  }
+
+  private void parse() throws IOException {
+    InputStream in = path != null ? new FileInputStream(path) : new ByteArrayInputStream(data);
+    data = null;
+    try {
+      GeoJsonParser.parse(
+          new BufferedReader(new InputStreamReader(in, "UTF-8")), consumeTapEvents, this);
+    } finally {
+      // The parser closes the reader, but not the stream if the reader couldn't be created.
+      in.close();
+    }
+  }
+
+  // GeoJsonParser.Listener, called on the parsing thread.
+
+  @Override
+  public void onFeature(GeoJsonParser.Feature feature) {
+    if (removed) {
+      throw new CancellationException();
+    }
+    Map<String, Object> arguments = null;
+    if (consumeTapEvents) {
+      arguments = new HashMap<>();
+      arguments.put("layerId", layerId);
+      arguments.put("featureId", feature.id);
+      arguments.put("featureIndex", featureCount);
+      arguments.put("properties", feature.properties);
+    }
+    featureCount++;
+    for (List<List<LatLng>> rings : feature.polygons) {
+      if (rings.isEmpty()) {
+        continue;
+      }
+      PolygonOptions options =
+          new PolygonOptions()
+              .addAll(rings.get(0))
+              .fillColor(fillColor)
+              .strokeColor(strokeColor)
+              .strokeWidth(strokeWidth * density)
+              .zIndex(zIndex)
+              .visible(visible)
+              .clickable(consumeTapEvents);
+      for (int i = 1; i < rings.size(); i++) {
+        options.addHole(rings.get(i));
+      }
+      batch.add(new PendingShape(options, arguments));
+    }
+    for (List<LatLng> lineString : feature.lineStrings) {
+      batch.add(
+          new PendingShape(
+              new PolylineOptions()
+                  .addAll(lineString)
+                  .color(strokeColor)
+                  .width(strokeWidth * density)
+                  .zIndex(zIndex)
+                  .visible(visible)
+                  .clickable(consumeTapEvents),
+              arguments));
+    }
+    for (LatLng point : feature.points) {
+      batch.add(
+          new PendingShape(
+              new MarkerOptions().position(point).zIndex(zIndex).visible(visible), arguments));
+    }
+    if (batch.size() >= BATCH_SIZE) {
+      final List<PendingShape> shapes = batch;
+      batch = new ArrayList<>();
+      handler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              if (removed) {
+                return;
+              }
+              pending.addAll(shapes);
+              drain();
+            }
+          });
+    }
+  }
+
+  private void drain() {
+    if (removed || frameScheduled) {
+      return;
+    }
+    // At least one shape is added per frame, so that the layer always makes progress.
+    long deadlineMillis = SystemClock.uptimeMillis() + FRAME_BUDGET_MILLIS;
+    boolean added = false;
+    while (!pending.isEmpty()) {
+      if (added && SystemClock.uptimeMillis() >= deadlineMillis) {
+        frameScheduled = true;
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+        return;
+      }
+      add(pending.poll());
+      added = true;
+    }
+    if (parsed && result != null) {
+      if (error != null) {
+        result.error("Invalid GeoJSON", error.getMessage(), null);
+      } else {
+        result.success(parsedFeatureCount);
+      }
+      result = null;
+    }
+  }
+
+  private void add(PendingShape shape) {
+    String googleMapsId;
+    if (shape.options instanceof PolygonOptions) {
+      Polygon polygon = googleMap.addPolygon((PolygonOptions) shape.options);
+      polygons.add(polygon);
+      googleMapsId = polygon.getId();
+    } else if (shape.options instanceof PolylineOptions) {
+      Polyline polyline = googleMap.addPolyline((PolylineOptions) shape.options);
+      polylines.add(polyline);
+      googleMapsId = polyline.getId();
+    } else {
+      Marker marker = googleMap.addMarker((MarkerOptions) shape.options);
+      markers.add(marker);
+      googleMapsId = marker.getId();
+    }
+    if (shape.feature != null) {
+      googleMapsIdToFeature.put(googleMapsId, shape.feature);
+    }
+  }
+
+  // GeoJsonLayerOptionsSink, called before the layer is loaded.
+
+  @Override
+  public void setPath(String path) {
+    this.path = path;
+  }
+
+  @Override
+  public void setData(byte[] data) {
+    this.data = data;
+  }
+
+  @Override
+  public void setFillColor(int color) {
+    this.fillColor = color;
+  }
+
+  @Override
+  public void setStrokeColor(int color) {
+    this.strokeColor = color;
+  }
+
+  @Override
+  public void setStrokeWidth(float width) {
+    this.strokeWidth = width;
+  }
+
+  @Override
+  public void setZIndex(float zIndex) {
+    this.zIndex = zIndex;
+  }
+
+  @Override
+  public void setVisible(boolean visible) {
+    this.visible = visible;
+  }
+
+  @Override
+  public void setConsumeTapEvents(boolean consumeTapEvents) {
+    this.consumeTapEvents = consumeTapEvents;
+  }
+}
@@ -0,0 +1,25 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+/** Receiver of GeoJsonLayer configuration options. */
+interface GeoJsonLayerOptionsSink {
+
+  void setPath(String path);
+
+  void setData(byte[] data);
+
+  void setFillColor(int color);
+
+  void setStrokeColor(int color);
+
+  void setStrokeWidth(float width);
+
+  void setZIndex(float zIndex);
+
+  void setVisible(boolean visible);
+
+  void setConsumeTapEvents(boolean consumeTapEvents);
+}
@@ -0,0 +1,94 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.gms.maps.GoogleMap;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+class GeoJsonLayersController {
+
+  private final Map<String, GeoJsonLayerController> layerIdToController;
+  private final MethodChannel methodChannel;
+  private final float density;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private GoogleMap googleMap;
+  private ExecutorService executor;
+
+  GeoJsonLayersController(MethodChannel methodChannel, float density) {
+    this.layerIdToController = new HashMap<>();
+    this.methodChannel = methodChannel;
+    this.density = density;
+  }
+
+  void setGoogleMap(GoogleMap googleMap) {
+    this.googleMap = googleMap;
+  }
+
+  /**
+   * Adds a layer in place of any layer with the same id, and resolves {@code result} once the layer
+   * is loaded.
+   */
+  void addLayer(Object layer, MethodChannel.Result result) {
+    GeoJsonLayerController controller =
+        new GeoJsonLayerController(googleMap, methodChannel, handler, density);
+    String layerId = Convert.interpretGeoJsonLayerOptions(layer, controller);
+    GeoJsonLayerController previous = layerIdToController.put(layerId, controller);
+    if (previous != null) {
+      previous.remove();
+    }
+    controller.load(layerId, getExecutor(), result);
+  }
+
+  void removeLayer(String layerId) {
+    GeoJsonLayerController controller = layerIdToController.remove(layerId);
+    if (controller != null) {
+      controller.remove();
+    }
+  }
+
+  /** Sends the tap event of a GeoJSON feature, returns false if the shape isn't in a layer. */
+  boolean onTap(String googleMapsId) {
+    for (GeoJsonLayerController controller : layerIdToController.values()) {
+      if (controller.onTap(googleMapsId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  void dispose() {
+    for (GeoJsonLayerController controller : layerIdToController.values()) {
+      controller.remove();
+    }
+    layerIdToController.clear();
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  private ExecutorService getExecutor() {
+    if (executor == null) {
+      executor =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                  Thread thread = new Thread(runnable, "google_maps-geojson");
+                  thread.setPriority(Thread.NORM_PRIORITY - 1);
+                  return thread;
+                }
+              });
+    }
+    return executor;
+  }
+}
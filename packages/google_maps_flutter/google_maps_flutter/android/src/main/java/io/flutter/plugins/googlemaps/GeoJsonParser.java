@@ -0,0 +1,322 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import com.google.android.gms.maps.model.LatLng;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the features of a GeoJSON document one at a time.
+ *
+ * <p>The features of a feature collection are passed to the {@link Listener} as soon as they are
+ * read, so that the document is never held in memory as a whole.
+ */
+final class GeoJsonParser {
+
+  /** A GeoJSON feature, with its geometry split into points, line strings and polygons. */
+  static final class Feature {
+    String id;
+    Map<String, Object> properties;
+    final List<LatLng> points = new ArrayList<>();
+    final List<List<LatLng>> lineStrings = new ArrayList<>();
+    // The first ring of each polygon is its outline, the other rings are its holes.
+    final List<List<List<LatLng>>> polygons = new ArrayList<>();
+  }
+
+  /** Receives the features of a document in order, on the thread that parses it. */
+  interface Listener {
+    void onFeature(Feature feature);
+  }
+
+  // A geometry whose coordinates can only be interpreted once its type is known.
+  private static final class Geometry {
+    String type;
+    Object coordinates;
+    List<Geometry> geometries;
+  }
+
+  private final JsonReader reader;
+  private final boolean readProperties;
+  private final Listener listener;
+
+  private GeoJsonParser(JsonReader reader, boolean readProperties, Listener listener) {
+    this.reader = reader;
+    this.readProperties = readProperties;
+    this.listener = listener;
+  }
+
+  /**
+   * Parses the GeoJSON document read from {@code in}, which is closed once it has been read.
+   *
+   * <p>The properties of the features are skipped unless {@code readProperties} is true.
+   */
+  static void parse(Reader in, boolean readProperties, Listener listener) throws IOException {
+    JsonReader reader = new JsonReader(in);
+    try {
+      new GeoJsonParser(reader, readProperties, listener).readDocument();
+    } finally {
+      reader.close();
+    }
+  }
+
+  // The root object is a feature collection, a feature or a geometry. Their members are told
+  // apart by name, as the type member isn't necessarily the first one.
+  private void readDocument() throws IOException {
+    Feature feature = new Feature();
+    Geometry geometry = new Geometry();
+    String type = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if ("type".equals(name)) {
+        type = reader.nextString();
+      } else if ("features".equals(name)) {
+        readFeatures();
+      } else {
+        readMember(name, feature, geometry);
+      }
+    }
+    reader.endObject();
+    if ("Feature".equals(type)) {
+      listener.onFeature(feature);
+    } else if (type != null && !"FeatureCollection".equals(type)) {
+      geometry.type = type;
+      addGeometry(feature, geometry);
+      listener.onFeature(feature);
+    }
+  }
+
+  private void readFeatures() throws IOException {
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      Feature feature = new Feature();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        readMember(reader.nextName(), feature, null);
+      }
+      reader.endObject();
+      listener.onFeature(feature);
+    }
+    reader.endArray();
+  }
+
+  // Reads the value of a member of a feature, or of a geometry if {@code geometry} isn't null.
+  private void readMember(String name, Feature feature, Geometry geometry) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return;
+    }
+    switch (name) {
+      case "id":
+        feature.id = reader.nextString();
+        break;
+      case "properties":
+        if (readProperties) {
+          feature.properties = readObject();
+        } else {
+          reader.skipValue();
+        }
+        break;
+      case "geometry":
+        addGeometry(feature, readGeometry());
+        break;
+      case "coordinates":
+        if (geometry == null) {
+          reader.skipValue();
+        } else {
+          geometry.coordinates = readCoordinates();
+        }
+        break;
+      case "geometries":
+        if (geometry == null) {
+          reader.skipValue();
+        } else {
+          geometry.geometries = readGeometries();
+        }
+        break;
+      default:
+        reader.skipValue();
+    }
+  }
+
+  private Geometry readGeometry() throws IOException {
+    Geometry geometry = new Geometry();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "type":
+          geometry.type = reader.nextString();
+          break;
+        case "coordinates":
+          geometry.coordinates = readCoordinates();
+          break;
+        case "geometries":
+          geometry.geometries = readGeometries();
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return geometry;
+  }
+
+  private List<Geometry> readGeometries() throws IOException {
+    List<Geometry> geometries = new ArrayList<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      geometries.add(readGeometry());
+    }
+    reader.endArray();
+    return geometries;
+  }
+
+  // Returns a LatLng for a position, and a list for any deeper array of positions.
+  private Object readCoordinates() throws IOException {
+    reader.beginArray();
+    if (reader.peek() == JsonToken.NUMBER) {
+      double longitude = reader.nextDouble();
+      double latitude = reader.nextDouble();
+      // Skips the altitude.
+      while (reader.hasNext()) {
+        reader.skipValue();
+      }
+      reader.endArray();
+      return new LatLng(latitude, longitude);
+    }
+    List<Object> coordinates = new ArrayList<>();
+    while (reader.hasNext()) {
+      coordinates.add(readCoordinates());
+    }
+    reader.endArray();
+    return coordinates;
+  }
+
+  private Map<String, Object> readObject() throws IOException {
+    Map<String, Object> object = new HashMap<>();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      object.put(name, readValue());
+    }
+    reader.endObject();
+    return object;
+  }
+
+  private Object readValue() throws IOException {
+    switch (reader.peek()) {
+      case BEGIN_OBJECT:
+        return readObject();
+      case BEGIN_ARRAY:
+        List<Object> array = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          array.add(readValue());
+        }
+        reader.endArray();
+        return array;
+      case NUMBER:
+        String number = reader.nextString();
+        try {
+          return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+          return Double.parseDouble(number);
+        }
+      case BOOLEAN:
+        return reader.nextBoolean();
+      case NULL:
+        reader.nextNull();
+        return null;
+      default:
+        return reader.nextString();
+    }
+  }
+
+  private static void addGeometry(Feature feature, Geometry geometry) throws IOException {
+    if (geometry.type == null) {
+      return;
+    }
+    switch (geometry.type) {
+      case "Point":
+        feature.points.add(toPosition(geometry.coordinates));
+        break;
+      case "MultiPoint":
+        feature.points.addAll(toPositions(geometry.coordinates));
+        break;
+      case "LineString":
+        feature.lineStrings.add(toPositions(geometry.coordinates));
+        break;
+      case "MultiLineString":
+        for (Object lineString : toList(geometry.coordinates)) {
+          feature.lineStrings.add(toPositions(lineString));
+        }
+        break;
+      case "Polygon":
+        feature.polygons.add(toRings(geometry.coordinates));
+        break;
+      case "MultiPolygon":
+        for (Object polygon : toList(geometry.coordinates)) {
+          feature.polygons.add(toRings(polygon));
+        }
+        break;
+      case "GeometryCollection":
+        if (geometry.geometries != null) {
+          for (Geometry member : geometry.geometries) {
+            addGeometry(feature, member);
+          }
+        }
+        break;
+      default:
+        throw new IOException("Unsupported GeoJSON geometry type: " + geometry.type);
+    }
+  }
+
+  private static List<List<LatLng>> toRings(Object coordinates) throws IOException {
+    List<List<LatLng>> rings = new ArrayList<>();
+    for (Object ring : toList(coordinates)) {
+      rings.add(toPositions(ring));
+    }
+    return rings;
+  }
+
+  private static List<LatLng> toPositions(Object coordinates) throws IOException {
+    List<LatLng> positions = new ArrayList<>();
+    for (Object position : toList(coordinates)) {
+      positions.add(toPosition(position));
+    }
+    return positions;
+  }
+
+  private static LatLng toPosition(Object coordinates) throws IOException {
+    if (!(coordinates instanceof LatLng)) {
+      throw new IOException("Invalid GeoJSON position.");
+    }
+    return (LatLng) coordinates;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> toList(Object coordinates) throws IOException {
+    if (!(coordinates instanceof List)) {
+      throw new IOException("Invalid GeoJSON coordinates.");
+    }
+    return (List<Object>) coordinates;
+  }
+}
@@ -6,6 +6,7 @@ package io.flutter.plugins.googlemaps;
 
 import android.content.Context;
 import android.graphics.Rect;
+import androidx.annotation.Nullable;
 import com.google.android.gms.maps.GoogleMapOptions;
 import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.LatLngBounds;
@@ -14,24 +15,32 @@ import io.flutter.plugin.common.BinaryMessenger;
 class GoogleMapBuilder implements GoogleMapOptionsSink {
   private final GoogleMapOptions options = new GoogleMapOptions();
   private boolean trackCameraPosition = false;
+  private boolean trackVisibleRegion = false;
+  private int cameraMoveThrottleMillis = 0;
   private boolean myLocationEnabled = false;
   private boolean myLocationButtonEnabled = false;
   private boolean indoorEnabled = true;
   private boolean trafficEnabled = false;
   private boolean buildingsEnabled = true;
+  private boolean markerVirtualizationEnabled = false;
+  private boolean markerClusteringEnabled = false;
+  private Float markerClusterGridSize;
   private Object initialMarkers;
   private Object initialPolygons;
   private Object initialPolylines;
   private Object initialCircles;
+  private Object initialHeatmaps;
   private Rect padding = new Rect(0, 0, 0, 0);
 
   GoogleMapController build(
       int id,
       Context context,
       BinaryMessenger binaryMessenger,
-      LifecycleProvider lifecycleProvider) {
+      LifecycleProvider lifecycleProvider,
+      @Nullable MapViewPool mapViewPool) {
     final GoogleMapController controller =
-        new GoogleMapController(id, context, binaryMessenger, lifecycleProvider, options);
+        new GoogleMapController(
+            id, context, binaryMessenger, lifecycleProvider, options, mapViewPool);
     controller.init();
     controller.setMyLocationEnabled(myLocationEnabled);
     controller.setMyLocationButtonEnabled(myLocationButtonEnabled);
@@ -39,10 +48,18 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     controller.setTrafficEnabled(trafficEnabled);
     controller.setBuildingsEnabled(buildingsEnabled);
     controller.setTrackCameraPosition(trackCameraPosition);
+    controller.setTrackVisibleRegion(trackVisibleRegion);
+    controller.setCameraMoveThrottleMillis(cameraMoveThrottleMillis);
+    controller.setMarkerVirtualizationEnabled(markerVirtualizationEnabled);
+    if (markerClusterGridSize != null) {
+      controller.setMarkerClusterGridSize(markerClusterGridSize);
+    }
+    controller.setMarkerClusteringEnabled(markerClusteringEnabled);
     controller.setInitialMarkers(initialMarkers);
     controller.setInitialPolygons(initialPolygons);
     controller.setInitialPolylines(initialPolylines);
     controller.setInitialCircles(initialCircles);
+    controller.setInitialHeatmaps(initialHeatmaps);
     controller.setPadding(padding.top, padding.left, padding.bottom, padding.right);
     return controller;
   }
@@ -91,6 +108,16 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     this.trackCameraPosition = trackCameraPosition;
   }
 
+  @Override
+  public void setTrackVisibleRegion(boolean trackVisibleRegion) {
+    this.trackVisibleRegion = trackVisibleRegion;
+  }
+
+  @Override
+  public void setCameraMoveThrottleMillis(int cameraMoveThrottleMillis) {
+    this.cameraMoveThrottleMillis = cameraMoveThrottleMillis;
+  }
+
   @Override
   public void setRotateGesturesEnabled(boolean rotateGesturesEnabled) {
     options.rotateGesturesEnabled(rotateGesturesEnabled);
@@ -131,6 +158,21 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     this.buildingsEnabled = buildingsEnabled;
   }
 
+  @Override
+  public void setMarkerVirtualizationEnabled(boolean markerVirtualizationEnabled) {
+    this.markerVirtualizationEnabled = markerVirtualizationEnabled;
+  }
+
+  @Override
+  public void setMarkerClusteringEnabled(boolean markerClusteringEnabled) {
+    this.markerClusteringEnabled = markerClusteringEnabled;
+  }
+
+  @Override
+  public void setMarkerClusterGridSize(float markerClusterGridSize) {
+    this.markerClusterGridSize = markerClusterGridSize;
+  }
+
   @Override
   public void setMyLocationEnabled(boolean myLocationEnabled) {
     this.myLocationEnabled = myLocationEnabled;
@@ -165,4 +207,9 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
   public void setInitialCircles(Object initialCircles) {
     this.initialCircles = initialCircles;
   }
+
+  @Override
+  public void setInitialHeatmaps(Object initialHeatmaps) {
+    this.initialHeatmaps = initialHeatmaps;
+  }
 }
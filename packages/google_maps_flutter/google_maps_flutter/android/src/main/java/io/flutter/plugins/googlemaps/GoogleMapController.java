@@ -11,6 +11,9 @@ import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.Point;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
@@ -37,7 +40,6 @@ import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.platform.PlatformView;
-import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -55,12 +57,49 @@ final class GoogleMapController
         PlatformView {
 
   private static final String TAG = "GoogleMapController";
+  // Sent in reply to map#waitForMap, lets the Dart side use the encodings this side understands.
+  private static final Map<String, Object> CAPABILITIES = new HashMap<>();
+
+  static {
+    CAPABILITIES.put("packedPoints", true);
+    CAPABILITIES.put("overlaysUpdate", true);
+    CAPABILITIES.put("tileOverlays", true);
+    CAPABILITIES.put("heatmaps", true);
+  }
+
   private final int id;
   private final MethodChannel methodChannel;
   private final GoogleMapOptions options;
-  @Nullable private MapView mapView;
+  @Nullable private MapViewHolder mapViewHolder;
+  @Nullable private final MapViewPool mapViewPool;
+  // Whether the map view comes from the pool, and has to be set up with the options when ready.
+  private final boolean pooledMapView;
   private GoogleMap googleMap;
   private boolean trackCameraPosition = false;
+  private boolean trackVisibleRegion = false;
+  private int cameraMoveThrottleMillis = 0;
+  // When the last camera#onMove was sent, and whether a newer move is waiting for the throttle.
+  private long lastCameraMoveMillis;
+  private boolean cameraMovePending;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  // Reclusters markers once a marker update has been applied.
+  private final Runnable updateMarkerClusters =
+      new Runnable() {
+        @Override
+        public void run() {
+          markerClusterManager.update();
+        }
+      };
+  private final Runnable sendPendingCameraMove =
+      new Runnable() {
+        @Override
+        public void run() {
+          cameraMovePending = false;
+          if (googleMap != null && trackCameraPosition) {
+            sendCameraMove();
+          }
+        }
+      };
   private boolean myLocationEnabled = false;
   private boolean myLocationButtonEnabled = false;
   private boolean zoomControlsEnabled = true;
@@ -72,43 +111,66 @@ final class GoogleMapController
   private MethodChannel.Result mapReadyResult;
   private final Context context;
   private final LifecycleProvider lifecycleProvider;
+  private final OverlayUpdateQueue overlayUpdateQueue = new OverlayUpdateQueue();
   private final MarkersController markersController;
+  private final MarkerClusterManager markerClusterManager;
   private final PolygonsController polygonsController;
   private final PolylinesController polylinesController;
   private final CirclesController circlesController;
+  private final TileOverlaysController tileOverlaysController;
+  private final HeatmapsController heatmapsController;
+  private final GeoJsonLayersController geoJsonLayersController;
+  private final SnapshotEncoder snapshotEncoder = new SnapshotEncoder();
   private List<Object> initialMarkers;
   private List<Object> initialPolygons;
   private List<Object> initialPolylines;
   private List<Object> initialCircles;
+  private List<Object> initialHeatmaps;
 
   GoogleMapController(
       int id,
       Context context,
       BinaryMessenger binaryMessenger,
       LifecycleProvider lifecycleProvider,
-      GoogleMapOptions options) {
+      GoogleMapOptions options,
+      @Nullable MapViewPool mapViewPool) {
     this.id = id;
     this.context = context;
     this.options = options;
-    this.mapView = new MapView(context, options);
+    this.mapViewPool = mapViewPool;
+    MapViewHolder pooled = mapViewPool != null ? mapViewPool.acquire(context, options) : null;
+    this.pooledMapView = pooled != null;
+    if (pooled != null) {
+      this.mapViewHolder = pooled;
+    } else if (mapViewPool != null) {
+      this.mapViewHolder = MapViewPool.create(context, options);
+    } else {
+      this.mapViewHolder = new MapViewHolder(new MapView(context, options));
+    }
     this.density = context.getResources().getDisplayMetrics().density;
     methodChannel = new MethodChannel(binaryMessenger, "plugins.flutter.io/google_maps_" + id);
     methodChannel.setMethodCallHandler(this);
     this.lifecycleProvider = lifecycleProvider;
     this.markersController = new MarkersController(methodChannel);
+    this.markerClusterManager =
+        new MarkerClusterManager(methodChannel, markersController, density);
     this.polygonsController = new PolygonsController(methodChannel, density);
     this.polylinesController = new PolylinesController(methodChannel, density);
     this.circlesController = new CirclesController(methodChannel, density);
+    this.tileOverlaysController =
+        new TileOverlaysController(methodChannel, context.getCacheDir(), id);
+    this.heatmapsController = new HeatmapsController();
+    this.geoJsonLayersController = new GeoJsonLayersController(methodChannel, density);
   }
 
   @Override
   public View getView() {
-    return mapView;
+    return mapViewHolder != null ? mapViewHolder.mapView : null;
   }
 
   void init() {
     lifecycleProvider.getLifecycle().addObserver(this);
-    mapView.getMapAsync(this);
+    mapViewHolder.mapView.getMapAsync(this);
   }
 
   private void moveCamera(CameraUpdate cameraUpdate) {
@@ -126,24 +188,35 @@ final class GoogleMapController
   @Override
   public void onMapReady(GoogleMap googleMap) {
     this.googleMap = googleMap;
+    if (mapViewHolder != null) {
+      mapViewHolder.googleMap = googleMap;
+    }
+    if (pooledMapView) {
+      MapViewPool.applyOptions(googleMap, options);
+    }
     this.googleMap.setIndoorEnabled(this.indoorEnabled);
     this.googleMap.setTrafficEnabled(this.trafficEnabled);
     this.googleMap.setBuildingsEnabled(this.buildingsEnabled);
     googleMap.setOnInfoWindowClickListener(this);
     if (mapReadyResult != null) {
-      mapReadyResult.success(null);
+      mapReadyResult.success(CAPABILITIES);
       mapReadyResult = null;
     }
     setGoogleMapListener(this);
     updateMyLocationSettings();
     markersController.setGoogleMap(googleMap);
+    markerClusterManager.setGoogleMap(googleMap);
     polygonsController.setGoogleMap(googleMap);
     polylinesController.setGoogleMap(googleMap);
     circlesController.setGoogleMap(googleMap);
+    tileOverlaysController.setGoogleMap(googleMap);
+    heatmapsController.setGoogleMap(googleMap);
+    geoJsonLayersController.setGoogleMap(googleMap);
     updateInitialMarkers();
     updateInitialPolygons();
     updateInitialPolylines();
     updateInitialCircles();
+    updateInitialHeatmaps();
   }
 
   @Override
@@ -151,7 +224,7 @@ final class GoogleMapController
     switch (call.method) {
       case "map#waitForMap":
         if (googleMap != null) {
-          result.success(null);
+          result.success(CAPABILITIES);
           return;
         }
         mapReadyResult = result;
@@ -205,15 +278,13 @@ final class GoogleMapController
         {
           if (googleMap != null) {
             final MethodChannel.Result _result = result;
+            final SnapshotEncoder.Options snapshotOptions =
+                Convert.toSnapshotOptions(call.arguments, density);
             googleMap.snapshot(
                 new SnapshotReadyCallback() {
                   @Override
                   public void onSnapshotReady(Bitmap bitmap) {
-                    ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                    bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
-                    byte[] byteArray = stream.toByteArray();
-                    bitmap.recycle();
-                    _result.success(byteArray);
+                    snapshotEncoder.encode(bitmap, snapshotOptions, _result);
                   }
                 });
           } else {
@@ -240,62 +311,178 @@ final class GoogleMapController
       case "markers#update":
         {
           List<Object> markersToAdd = call.argument("markersToAdd");
-          markersController.addMarkers(markersToAdd);
           List<Object> markersToChange = call.argument("markersToChange");
-          markersController.changeMarkers(markersToChange);
           List<Object> markerIdsToRemove = call.argument("markerIdsToRemove");
-          markersController.removeMarkers(markerIdsToRemove);
-          result.success(null);
+          overlayUpdateQueue.enqueue(
+              markersController.update(
+                  markersToAdd,
+                  markersToChange,
+                  markerIdsToRemove,
+                  updateMarkerClusters,
+                  result));
           break;
         }
+      // The info window calls wait for the marker updates sent before them.
       case "markers#showInfoWindow":
         {
-          Object markerId = call.argument("markerId");
-          markersController.showMarkerInfoWindow((String) markerId, result);
+          final String markerId = call.argument("markerId");
+          overlayUpdateQueue.enqueue(
+              new OverlayUpdateQueue.Query(result) {
+                @Override
+                void resolve(MethodChannel.Result result) {
+                  markersController.showMarkerInfoWindow(markerId, result);
+                }
+              });
           break;
         }
       case "markers#hideInfoWindow":
         {
-          Object markerId = call.argument("markerId");
-          markersController.hideMarkerInfoWindow((String) markerId, result);
+          final String markerId = call.argument("markerId");
+          overlayUpdateQueue.enqueue(
+              new OverlayUpdateQueue.Query(result) {
+                @Override
+                void resolve(MethodChannel.Result result) {
+                  markersController.hideMarkerInfoWindow(markerId, result);
+                }
+              });
           break;
         }
       case "markers#isInfoWindowShown":
         {
-          Object markerId = call.argument("markerId");
-          markersController.isInfoWindowShown((String) markerId, result);
+          final String markerId = call.argument("markerId");
+          overlayUpdateQueue.enqueue(
+              new OverlayUpdateQueue.Query(result) {
+                @Override
+                void resolve(MethodChannel.Result result) {
+                  markersController.isInfoWindowShown(markerId, result);
+                }
+              });
           break;
         }
       case "polygons#update":
         {
           List<Object> polygonsToAdd = call.argument("polygonsToAdd");
-          polygonsController.addPolygons(polygonsToAdd);
           List<Object> polygonsToChange = call.argument("polygonsToChange");
-          polygonsController.changePolygons(polygonsToChange);
           List<Object> polygonIdsToRemove = call.argument("polygonIdsToRemove");
-          polygonsController.removePolygons(polygonIdsToRemove);
-          result.success(null);
+          overlayUpdateQueue.enqueue(
+              polygonsController.update(
+                  polygonsToAdd, polygonsToChange, polygonIdsToRemove, result));
           break;
         }
       case "polylines#update":
         {
           List<Object> polylinesToAdd = call.argument("polylinesToAdd");
-          polylinesController.addPolylines(polylinesToAdd);
           List<Object> polylinesToChange = call.argument("polylinesToChange");
-          polylinesController.changePolylines(polylinesToChange);
           List<Object> polylineIdsToRemove = call.argument("polylineIdsToRemove");
-          polylinesController.removePolylines(polylineIdsToRemove);
-          result.success(null);
+          overlayUpdateQueue.enqueue(
+              polylinesController.update(
+                  polylinesToAdd, polylinesToChange, polylineIdsToRemove, result));
           break;
         }
       case "circles#update":
         {
           List<Object> circlesToAdd = call.argument("circlesToAdd");
-          circlesController.addCircles(circlesToAdd);
           List<Object> circlesToChange = call.argument("circlesToChange");
-          circlesController.changeCircles(circlesToChange);
           List<Object> circleIdsToRemove = call.argument("circleIdsToRemove");
-          circlesController.removeCircles(circleIdsToRemove);
+          overlayUpdateQueue.enqueue(
+              circlesController.update(circlesToAdd, circlesToChange, circleIdsToRemove, result));
+          break;
+        }
+      case "overlays#update":
+        {
+          // Every kind of overlay is updated while handling the same call, so that small updates
+          // are drawn in the same frame, and the call is resolved once all of them are applied.
+          List<Object> markersToAdd = call.argument("markersToAdd");
+          List<Object> markersToChange = call.argument("markersToChange");
+          List<Object> markerIdsToRemove = call.argument("markerIdsToRemove");
+          List<Object> polygonsToAdd = call.argument("polygonsToAdd");
+          List<Object> polygonsToChange = call.argument("polygonsToChange");
+          List<Object> polygonIdsToRemove = call.argument("polygonIdsToRemove");
+          List<Object> polylinesToAdd = call.argument("polylinesToAdd");
+          List<Object> polylinesToChange = call.argument("polylinesToChange");
+          List<Object> polylineIdsToRemove = call.argument("polylineIdsToRemove");
+          List<Object> circlesToAdd = call.argument("circlesToAdd");
+          List<Object> circlesToChange = call.argument("circlesToChange");
+          List<Object> circleIdsToRemove = call.argument("circleIdsToRemove");
+          boolean updateMarkers = hasUpdates(markersToAdd, markersToChange, markerIdsToRemove);
+          boolean updatePolygons = hasUpdates(polygonsToAdd, polygonsToChange, polygonIdsToRemove);
+          boolean updatePolylines =
+              hasUpdates(polylinesToAdd, polylinesToChange, polylineIdsToRemove);
+          boolean updateCircles = hasUpdates(circlesToAdd, circlesToChange, circleIdsToRemove);
+          int updateCount =
+              (updateMarkers ? 1 : 0)
+                  + (updatePolygons ? 1 : 0)
+                  + (updatePolylines ? 1 : 0)
+                  + (updateCircles ? 1 : 0);
+          if (updateCount == 0) {
+            result.success(null);
+            break;
+          }
+          MethodChannel.Result joinedResult = OverlayUpdateQueue.join(result, updateCount);
+          if (updateMarkers) {
+            overlayUpdateQueue.enqueue(
+                markersController.update(
+                    markersToAdd,
+                    markersToChange,
+                    markerIdsToRemove,
+                    updateMarkerClusters,
+                    joinedResult));
+          }
+          if (updatePolygons) {
+            overlayUpdateQueue.enqueue(
+                polygonsController.update(
+                    polygonsToAdd, polygonsToChange, polygonIdsToRemove, joinedResult));
+          }
+          if (updatePolylines) {
+            overlayUpdateQueue.enqueue(
+                polylinesController.update(
+                    polylinesToAdd, polylinesToChange, polylineIdsToRemove, joinedResult));
+          }
+          if (updateCircles) {
+            overlayUpdateQueue.enqueue(
+                circlesController.update(
+                    circlesToAdd, circlesToChange, circleIdsToRemove, joinedResult));
+          }
+          break;
+        }
+      case "tileOverlays#update":
+        {
+          List<Object> tileOverlaysToAdd = call.argument("tileOverlaysToAdd");
+          tileOverlaysController.addTileOverlays(tileOverlaysToAdd);
+          List<Object> tileOverlaysToChange = call.argument("tileOverlaysToChange");
+          tileOverlaysController.changeTileOverlays(tileOverlaysToChange);
+          List<Object> tileOverlayIdsToRemove = call.argument("tileOverlayIdsToRemove");
+          tileOverlaysController.removeTileOverlays(tileOverlayIdsToRemove);
+          result.success(null);
+          break;
+        }
+      case "heatmaps#update":
+        {
+          List<Object> heatmapsToAdd = call.argument("heatmapsToAdd");
+          heatmapsController.addHeatmaps(heatmapsToAdd);
+          List<Object> heatmapsToChange = call.argument("heatmapsToChange");
+          heatmapsController.changeHeatmaps(heatmapsToChange);
+          List<Object> heatmapIdsToRemove = call.argument("heatmapIdsToRemove");
+          heatmapsController.removeHeatmaps(heatmapIdsToRemove);
+          result.success(null);
+          break;
+        }
+      case "geoJsonLayers#add":
+        {
+          geoJsonLayersController.addLayer(call.arguments, result);
+          break;
+        }
+      case "geoJsonLayers#remove":
+        {
+          String layerId = call.argument("layerId");
+          geoJsonLayersController.removeLayer(layerId);
+          result.success(null);
+          break;
+        }
+      case "tileOverlays#clearTileCache":
+        {
+          String tileOverlayId = call.argument("tileOverlayId");
+          tileOverlaysController.clearTileCache(tileOverlayId);
           result.success(null);
           break;
         }
@@ -422,18 +609,54 @@ final class GoogleMapController
     if (!trackCameraPosition) {
       return;
     }
+    if (cameraMoveThrottleMillis <= 0) {
+      sendCameraMove();
+      return;
+    }
+    // Moves within the interval are coalesced into one that is sent at its end, with the camera
+    // position at that time.
+    long nextCameraMoveMillis = lastCameraMoveMillis + cameraMoveThrottleMillis;
+    if (SystemClock.uptimeMillis() >= nextCameraMoveMillis) {
+      handler.removeCallbacks(sendPendingCameraMove);
+      cameraMovePending = false;
+      sendCameraMove();
+    } else if (!cameraMovePending) {
+      cameraMovePending = true;
+      handler.postAtTime(sendPendingCameraMove, nextCameraMoveMillis);
+    }
+  }
+
+  private void sendCameraMove() {
+    lastCameraMoveMillis = SystemClock.uptimeMillis();
     final Map<String, Object> arguments = new HashMap<>(2);
     arguments.put("position", Convert.cameraPositionToJson(googleMap.getCameraPosition()));
+    if (trackVisibleRegion) {
+      arguments.put(
+          "visibleRegion",
+          Convert.latlngBoundsToJson(googleMap.getProjection().getVisibleRegion().latLngBounds));
+    }
     methodChannel.invokeMethod("camera#onMove", arguments);
   }
 
   @Override
   public void onCameraIdle() {
+    // The final position is always sent before camera#onIdle.
+    if (cameraMovePending) {
+      handler.removeCallbacks(sendPendingCameraMove);
+      sendPendingCameraMove.run();
+    }
+    markersController.onCameraIdle();
+    markerClusterManager.onCameraIdle();
+    polylinesController.onCameraIdle();
     methodChannel.invokeMethod("camera#onIdle", Collections.singletonMap("map", id));
   }
 
   @Override
   public boolean onMarkerClick(Marker marker) {
+    if (markerClusterManager.onMarkerTap(marker.getId())
+        || geoJsonLayersController.onTap(marker.getId())) {
+      return true;
+    }
     return markersController.onMarkerTap(marker.getId());
   }
 
@@ -450,11 +673,17 @@ final class GoogleMapController
 
   @Override
   public void onPolygonClick(Polygon polygon) {
+    if (geoJsonLayersController.onTap(polygon.getId())) {
+      return;
+    }
     polygonsController.onPolygonTap(polygon.getId());
   }
 
   @Override
   public void onPolylineClick(Polyline polyline) {
+    if (geoJsonLayersController.onTap(polyline.getId())) {
+      return;
+    }
     polylinesController.onPolylineTap(polyline.getId());
   }
 
@@ -469,9 +698,16 @@ final class GoogleMapController
       return;
     }
     disposed = true;
+    handler.removeCallbacks(sendPendingCameraMove);
     methodChannel.setMethodCallHandler(null);
     setGoogleMapListener(null);
-    destroyMapViewIfNecessary();
+    markerClusterManager.dispose();
+    overlayUpdateQueue.dispose();
+    tileOverlaysController.dispose();
+    heatmapsController.dispose();
+    geoJsonLayersController.dispose();
+    snapshotEncoder.dispose();
+    releaseMapView();
     Lifecycle lifecycle = lifecycleProvider.getLifecycle();
     if (lifecycle != null) {
       lifecycle.removeObserver(this);
@@ -512,7 +748,7 @@ final class GoogleMapController
     if (disposed) {
       return;
     }
-    mapView.onCreate(null);
+    mapViewHolder.create(null);
   }
 
   @Override
@@ -520,7 +756,7 @@ final class GoogleMapController
     if (disposed) {
       return;
     }
-    mapView.onStart();
+    mapViewHolder.start();
   }
 
   @Override
@@ -528,7 +764,7 @@ final class GoogleMapController
     if (disposed) {
       return;
     }
-    mapView.onResume();
+    mapViewHolder.resume();
   }
 
   @Override
@@ -536,7 +772,7 @@ final class GoogleMapController
     if (disposed) {
       return;
     }
-    mapView.onResume();
+    mapViewHolder.pause();
   }
 
   @Override
@@ -544,7 +780,7 @@ final class GoogleMapController
     if (disposed) {
       return;
     }
-    mapView.onStop();
+    mapViewHolder.stop();
   }
 
   @Override
@@ -561,7 +797,7 @@ final class GoogleMapController
     if (disposed) {
       return;
     }
-    mapView.onCreate(bundle);
+    mapViewHolder.create(bundle);
   }
 
   @Override
@@ -569,7 +805,7 @@ final class GoogleMapController
     if (disposed) {
       return;
     }
-    mapView.onSaveInstanceState(bundle);
+    mapViewHolder.saveInstanceState(bundle);
   }
 
   // GoogleMapOptionsSink methods
@@ -599,6 +835,16 @@ final class GoogleMapController
     this.trackCameraPosition = trackCameraPosition;
   }
 
+  @Override
+  public void setTrackVisibleRegion(boolean trackVisibleRegion) {
+    this.trackVisibleRegion = trackVisibleRegion;
+  }
+
+  @Override
+  public void setCameraMoveThrottleMillis(int cameraMoveThrottleMillis) {
+    this.cameraMoveThrottleMillis = cameraMoveThrottleMillis;
+  }
+
   @Override
   public void setRotateGesturesEnabled(boolean rotateGesturesEnabled) {
     googleMap.getUiSettings().setRotateGesturesEnabled(rotateGesturesEnabled);
@@ -690,7 +936,8 @@ final class GoogleMapController
   }
 
   private void updateInitialMarkers() {
-    markersController.addMarkers(initialMarkers);
+    overlayUpdateQueue.enqueue(
+        markersController.update(initialMarkers, null, null, updateMarkerClusters, null));
   }
 
   @Override
@@ -703,7 +950,7 @@ final class GoogleMapController
   }
 
   private void updateInitialPolygons() {
-    polygonsController.addPolygons(initialPolygons);
+    overlayUpdateQueue.enqueue(polygonsController.update(initialPolygons, null, null, null));
   }
 
   @Override
@@ -716,7 +963,7 @@ final class GoogleMapController
   }
 
   private void updateInitialPolylines() {
-    polylinesController.addPolylines(initialPolylines);
+    overlayUpdateQueue.enqueue(polylinesController.update(initialPolylines, null, null, null));
   }
 
   @Override
@@ -729,7 +976,20 @@ final class GoogleMapController
   }
 
   private void updateInitialCircles() {
-    circlesController.addCircles(initialCircles);
+    overlayUpdateQueue.enqueue(circlesController.update(initialCircles, null, null, null));
+  }
+
+  @Override
+  public void setInitialHeatmaps(Object initialHeatmaps) {
+    ArrayList<?> heatmaps = (ArrayList<?>) initialHeatmaps;
+    this.initialHeatmaps = heatmaps != null ? new ArrayList<>(heatmaps) : null;
+    if (googleMap != null) {
+      updateInitialHeatmaps();
+    }
+  }
+
+  private void updateInitialHeatmaps() {
+    heatmapsController.addHeatmaps(initialHeatmaps);
   }
 
   @SuppressLint("MissingPermission")
@@ -749,6 +1009,14 @@ final class GoogleMapController
     }
   }
 
+  // Whether an overlays#update call adds, changes or removes overlays of a kind.
+  private static boolean hasUpdates(
+      List<Object> objectsToAdd, List<Object> objectsToChange, List<Object> idsToRemove) {
+    return (objectsToAdd != null && !objectsToAdd.isEmpty())
+        || (objectsToChange != null && !objectsToChange.isEmpty())
+        || (idsToRemove != null && !idsToRemove.isEmpty());
+  }
+
   private boolean hasLocationPermission() {
     return checkSelfPermission(Manifest.permission.ACCESS_FINE_LOCATION)
             == PackageManager.PERMISSION_GRANTED
@@ -765,11 +1033,31 @@ final class GoogleMapController
   }
 
   private void destroyMapViewIfNecessary() {
-    if (mapView == null) {
+    if (mapViewHolder == null) {
       return;
     }
-    mapView.onDestroy();
-    mapView = null;
+    mapViewHolder.destroy();
+    mapViewHolder = null;
+  }
+
+  /** Returns the map view to the pool if there is one, and destroys it otherwise. */
+  @SuppressLint("MissingPermission")
+  private void releaseMapView() {
+    if (mapViewHolder == null) {
+      return;
+    }
+    if (mapViewPool != null && googleMap != null) {
+      googleMap.setOnInfoWindowClickListener(null);
+      if (myLocationEnabled && hasLocationPermission()) {
+        //noinspection ResourceType
+        googleMap.setMyLocationEnabled(false);
+      }
+      if (mapViewPool.release(mapViewHolder, options)) {
+        mapViewHolder = null;
+        return;
+      }
+    }
+    destroyMapViewIfNecessary();
   }
 
   public void setIndoorEnabled(boolean indoorEnabled) {
@@ -787,4 +1075,20 @@ final class GoogleMapController
   public void setBuildingsEnabled(boolean buildingsEnabled) {
     this.buildingsEnabled = buildingsEnabled;
   }
+
+  @Override
+  public void setMarkerVirtualizationEnabled(boolean markerVirtualizationEnabled) {
+    markersController.setVirtualizationEnabled(markerVirtualizationEnabled);
+    markerClusterManager.onMaterializedRegionChanged();
+  }
+
+  @Override
+  public void setMarkerClusteringEnabled(boolean markerClusteringEnabled) {
+    markerClusterManager.setEnabled(markerClusteringEnabled);
+  }
+
+  @Override
+  public void setMarkerClusterGridSize(float markerClusterGridSize) {
+    markerClusterManager.setGridSize(markerClusterGridSize);
+  }
 }
@@ -5,6 +5,7 @@
 package io.flutter.plugins.googlemaps;
 
 import android.content.Context;
+import androidx.annotation.Nullable;
 import com.google.android.gms.maps.model.CameraPosition;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.StandardMessageCodec;
@@ -16,11 +17,20 @@ public class GoogleMapFactory extends PlatformViewFactory {
 
   private final BinaryMessenger binaryMessenger;
   private final LifecycleProvider lifecycleProvider;
+  @Nullable private final MapViewPool mapViewPool;
 
   GoogleMapFactory(BinaryMessenger binaryMessenger, LifecycleProvider lifecycleProvider) {
+    this(binaryMessenger, lifecycleProvider, null);
+  }
+
+  GoogleMapFactory(
+      BinaryMessenger binaryMessenger,
+      LifecycleProvider lifecycleProvider,
+      @Nullable MapViewPool mapViewPool) {
     super(StandardMessageCodec.INSTANCE);
     this.binaryMessenger = binaryMessenger;
     this.lifecycleProvider = lifecycleProvider;
+    this.mapViewPool = mapViewPool;
   }
 
   @SuppressWarnings("unchecked")
@@ -46,6 +56,9 @@ public class GoogleMapFactory extends PlatformViewFactory {
     if (params.containsKey("circlesToAdd")) {
       builder.setInitialCircles(params.get("circlesToAdd"));
     }
-    return builder.build(id, context, binaryMessenger, lifecycleProvider);
+    if (params.containsKey("heatmapsToAdd")) {
+      builder.setInitialHeatmaps(params.get("heatmapsToAdd"));
+    }
+    return builder.build(id, context, binaryMessenger, lifecycleProvider, mapViewPool);
   }
 }
@@ -28,6 +28,10 @@ interface GoogleMapOptionsSink {
 
   void setTrackCameraPosition(boolean trackCameraPosition);
 
+  void setTrackVisibleRegion(boolean trackVisibleRegion);
+
+  void setCameraMoveThrottleMillis(int cameraMoveThrottleMillis);
+
   void setZoomGesturesEnabled(boolean zoomGesturesEnabled);
 
   void setLiteModeEnabled(boolean liteModeEnabled);
@@ -44,6 +48,12 @@ interface GoogleMapOptionsSink {
 
   void setBuildingsEnabled(boolean buildingsEnabled);
 
+  void setMarkerVirtualizationEnabled(boolean markerVirtualizationEnabled);
+
+  void setMarkerClusteringEnabled(boolean markerClusteringEnabled);
+
+  void setMarkerClusterGridSize(float markerClusterGridSize);
+
   void setInitialMarkers(Object initialMarkers);
 
   void setInitialPolygons(Object initialPolygons);
@@ -51,4 +61,6 @@ interface GoogleMapOptionsSink {
   void setInitialPolylines(Object initialPolylines);
 
   void setInitialCircles(Object initialCircles);
+
+  void setInitialHeatmaps(Object initialHeatmaps);
 }
@@ -27,6 +27,8 @@ import io.flutter.embedding.engine.plugins.lifecycle.FlutterLifecycleAdapter;
 public class GoogleMapsPlugin implements FlutterPlugin, ActivityAware {
 
   @Nullable private Lifecycle lifecycle;
+  // Only created when the application opts in to pooling map views.
+  @Nullable private MapViewPool mapViewPool;
 
   private static final String VIEW_TYPE = "plugins.flutter.io/google_maps";
 
@@ -67,6 +69,10 @@ public class GoogleMapsPlugin implements FlutterPlugin, ActivityAware {
 
   @Override
   public void onAttachedToEngine(FlutterPluginBinding binding) {
+    int mapViewPoolSize = MapViewPool.readCapacity(binding.getApplicationContext());
+    if (mapViewPoolSize > 0) {
+      mapViewPool = new MapViewPool(mapViewPoolSize);
+    }
     binding
         .getPlatformViewRegistry()
         .registerViewFactory(
@@ -79,22 +85,34 @@ public class GoogleMapsPlugin implements FlutterPlugin, ActivityAware {
                   public Lifecycle getLifecycle() {
                     return lifecycle;
                   }
-                }));
+                },
+                mapViewPool));
   }
 
   @Override
-  public void onDetachedFromEngine(FlutterPluginBinding binding) {}
+  public void onDetachedFromEngine(FlutterPluginBinding binding) {
+    if (mapViewPool != null) {
+      mapViewPool.detach();
+      mapViewPool = null;
+    }
+  }
 
   // ActivityAware
 
   @Override
   public void onAttachedToActivity(ActivityPluginBinding binding) {
     lifecycle = FlutterLifecycleAdapter.getActivityLifecycle(binding);
+    if (mapViewPool != null) {
+      mapViewPool.attach(binding.getActivity(), lifecycle);
+    }
   }
 
   @Override
   public void onDetachedFromActivity() {
     lifecycle = null;
+    if (mapViewPool != null) {
+      mapViewPool.detach();
+    }
   }
 
   @Override
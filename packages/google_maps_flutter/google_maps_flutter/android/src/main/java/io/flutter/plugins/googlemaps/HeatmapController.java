@@ -0,0 +1,173 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.TileOverlay;
+import com.google.android.gms.maps.model.TileOverlayOptions;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Controller of a single heatmap on the map, drawn by a tile overlay.
+ *
+ * <p>Options are applied by {@link #render}. The points are indexed on a background thread, and the
+ * tile overlay is only added once the first renderer is ready, so the map doesn't ask for tiles
+ * that can't be drawn yet. There is no builder, options go straight to the controller.
+ */
+class HeatmapController implements HeatmapOptionsSink {
+  private static final int[] DEFAULT_COLORS = {0xff66e100, 0xffff0000};
+  private static final float[] DEFAULT_START_POINTS = {0.2f, 1f};
+
+  private final GoogleMap googleMap;
+  private final Executor executor;
+  private final Handler handler;
+  private final TileOverlayOptions tileOverlayOptions = new TileOverlayOptions();
+  private final HeatmapTileSource tileSource = new HeatmapTileSource();
+  private final CachingTileProvider tileProvider = new CachingTileProvider(tileSource, null);
+  private TileOverlay tileOverlay;
+
+  private double[] weightedPoints = new double[0];
+  private int radius = 20;
+  private int[] colors = DEFAULT_COLORS;
+  private float[] startPoints = DEFAULT_START_POINTS;
+  private int colorMapSize = 256;
+  private double opacity = 0.7;
+  private double maxIntensity;
+  // Whether the heatmap has to be drawn again, options that are sent again unchanged don't count.
+  private boolean changed = true;
+  // The points of the last renderer, reused while the weighted points are the same array.
+  private double[] indexedWeightedPoints;
+  private HeatmapRenderer.Points indexedPoints;
+  private int generation;
+  private boolean removed;
+
+  HeatmapController(GoogleMap googleMap, Executor executor, Handler handler) {
+    this.googleMap = googleMap;
+    this.executor = executor;
+    this.handler = handler;
+  }
+
+  /** Draws the heatmap again if its points or its style changed since the last call. */
+  void render() {
+    if (!changed || removed) {
+      return;
+    }
+    changed = false;
+    final int renderGeneration = ++generation;
+    final double[] weightedPoints = this.weightedPoints;
+    final double[] previousWeightedPoints = indexedWeightedPoints;
+    final HeatmapRenderer.Points previousPoints = indexedPoints;
+    final int radius = this.radius;
+    final int[] colorMap = HeatmapRenderer.colorMap(colors, startPoints, colorMapSize, opacity);
+    final double maxIntensity = this.maxIntensity;
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final HeatmapRenderer.Points points =
+                weightedPoints == previousWeightedPoints
+                    ? previousPoints
+                    : new HeatmapRenderer.Points(weightedPoints);
+            final HeatmapRenderer renderer =
+                new HeatmapRenderer(points, radius, colorMap, maxIntensity);
+            handler.post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    if (removed || renderGeneration != generation) {
+                      return;
+                    }
+                    indexedWeightedPoints = weightedPoints;
+                    indexedPoints = points;
+                    show(renderer);
+                  }
+                });
+          }
+        });
+  }
+
+  void remove() {
+    removed = true;
+    if (tileOverlay != null) {
+      tileOverlay.remove();
+    }
+    tileProvider.release(false);
+  }
+
+  private void show(HeatmapRenderer renderer) {
+    tileSource.setRenderer(renderer);
+    if (tileOverlay == null) {
+      tileOverlay = googleMap.addTileOverlay(tileOverlayOptions.tileProvider(tileProvider));
+    } else {
+      tileProvider.clear();
+      tileOverlay.clearTileCache();
+    }
+  }
+
+  @Override
+  public void setWeightedPoints(double[] weightedPoints) {
+    // Every change of the heatmap sends its points, equal points keep the indexed ones.
+    if (Arrays.equals(weightedPoints, this.weightedPoints)) {
+      return;
+    }
+    this.weightedPoints = weightedPoints;
+    changed = true;
+  }
+
+  @Override
+  public void setRadius(int radius) {
+    if (radius != this.radius) {
+      this.radius = radius;
+      changed = true;
+    }
+  }
+
+  @Override
+  public void setGradient(int[] colors, float[] startPoints, int colorMapSize) {
+    if (Arrays.equals(colors, this.colors)
+        && Arrays.equals(startPoints, this.startPoints)
+        && colorMapSize == this.colorMapSize) {
+      return;
+    }
+    this.colors = colors;
+    this.startPoints = startPoints;
+    this.colorMapSize = colorMapSize;
+    changed = true;
+  }
+
+  @Override
+  public void setOpacity(double opacity) {
+    if (opacity != this.opacity) {
+      this.opacity = opacity;
+      changed = true;
+    }
+  }
+
+  @Override
+  public void setMaxIntensity(double maxIntensity) {
+    if (maxIntensity != this.maxIntensity) {
+      this.maxIntensity = maxIntensity;
+      changed = true;
+    }
+  }
+
+  @Override
+  public void setVisible(boolean visible) {
+    tileOverlayOptions.visible(visible);
+    if (tileOverlay != null) {
+      tileOverlay.setVisible(visible);
+    }
+  }
+
+  @Override
+  public void setZIndex(float zIndex) {
+    tileOverlayOptions.zIndex(zIndex);
+    if (tileOverlay != null) {
+      tileOverlay.setZIndex(zIndex);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+/** Receiver of Heatmap configuration options. */
+interface HeatmapOptionsSink {
+
+  void setWeightedPoints(double[] weightedPoints);
+
+  void setRadius(int radius);
+
+  void setGradient(int[] colors, float[] startPoints, int colorMapSize);
+
+  void setOpacity(double opacity);
+
+  /** Sets the fixed maximum intensity, or 0 to compute it at each zoom level. */
+  void setMaxIntensity(double maxIntensity);
+
+  void setVisible(boolean visible);
+
+  void setZIndex(float zIndex);
+}
@@ -0,0 +1,230 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rasterizes weighted points into the tiles of a heatmap.
+ *
+ * <p>Every point adds its weight to the pixel it falls on, the pixels are blurred with a Gaussian
+ * kernel as wide as the radius of the heatmap, and the resulting intensities are looked up in a
+ * color map. The blur is applied in two one-dimensional passes that skip empty pixels, so sparse
+ * tiles are cheap. A renderer can draw tiles on several threads at once.
+ */
+class HeatmapRenderer {
+  static final int TILE_SIZE = 256;
+  private static final int MAX_ZOOM = 22;
+
+  /** Weighted points projected on a world that is 1 wide and 1 high, with a spatial index. */
+  static final class Points {
+    final double[] xs;
+    final double[] ys;
+    final double[] weights;
+    final PointQuadTree<Integer> index = new PointQuadTree<>(0, 1, 0, 1);
+
+    /** Indexes {@code weightedPoints}, alternating latitudes, longitudes and weights. */
+    Points(double[] weightedPoints) {
+      int count = weightedPoints.length / 3;
+      xs = new double[count];
+      ys = new double[count];
+      weights = new double[count];
+      for (int i = 0; i < count; i++) {
+        ys[i] = MarkerClusterer.projectY(weightedPoints[i * 3]);
+        xs[i] = MarkerClusterer.projectX(weightedPoints[i * 3 + 1]);
+        weights[i] = weightedPoints[i * 3 + 2];
+        index.add(i, xs[i], ys[i]);
+      }
+    }
+  }
+
+  private final Points points;
+  private final int radius;
+  private final double[] kernel;
+  private final int[] colorMap;
+  private final double fixedMaxIntensity;
+  // Computed for each zoom level on first use, 0 until then. Guarded by this.
+  private final double[] maxIntensities = new double[MAX_ZOOM + 1];
+
+  /**
+   * Creates a renderer that blurs points over {@code radius} pixels. Intensities are divided by
+   * {@code maxIntensity}, or by an estimate of the densest area at each zoom level if it is not
+   * positive.
+   */
+  HeatmapRenderer(Points points, int radius, int[] colorMap, double maxIntensity) {
+    this.points = points;
+    this.radius = radius;
+    this.kernel = kernel(radius);
+    this.colorMap = colorMap;
+    this.fixedMaxIntensity = maxIntensity;
+  }
+
+  /**
+   * Returns the {@link #TILE_SIZE} by {@link #TILE_SIZE} ARGB pixels of a tile, or null if no point
+   * is close enough to it to color any pixel.
+   */
+  int[] render(int x, int y, int zoom) {
+    double tileWorldSize = 1.0 / Math.pow(2, zoom);
+    double pixelWorldSize = tileWorldSize / TILE_SIZE;
+    double minX = x * tileWorldSize - radius * pixelWorldSize;
+    double maxX = (x + 1) * tileWorldSize + radius * pixelWorldSize;
+    double minY = y * tileWorldSize - radius * pixelWorldSize;
+    double maxY = (y + 1) * tileWorldSize + radius * pixelWorldSize;
+
+    int size = TILE_SIZE + 2 * radius;
+    double[] weights = new double[size * size];
+    boolean empty = true;
+    List<Integer> found = new ArrayList<>();
+    // Points across the antimeridian blur into the tiles at the other edge of the world.
+    for (int shift = -1; shift <= 1; shift++) {
+      if (minX - shift > 1 || maxX - shift < 0) {
+        continue;
+      }
+      found.clear();
+      points.index.search(minX - shift, maxX - shift, minY, maxY, found);
+      for (int i : found) {
+        int column = (int) ((points.xs[i] + shift - minX) / pixelWorldSize);
+        int row = (int) ((points.ys[i] - minY) / pixelWorldSize);
+        if (column >= 0 && column < size && row >= 0 && row < size) {
+          weights[row * size + column] += points.weights[i];
+          empty = false;
+        }
+      }
+    }
+    if (empty) {
+      return null;
+    }
+
+    // Blurs the rows, keeping only the columns of the tile.
+    double[] rows = new double[size * TILE_SIZE];
+    for (int row = 0; row < size; row++) {
+      for (int column = 0; column < size; column++) {
+        double weight = weights[row * size + column];
+        if (weight == 0) {
+          continue;
+        }
+        int start = Math.max(0, column - 2 * radius);
+        int end = Math.min(TILE_SIZE - 1, column);
+        for (int target = start; target <= end; target++) {
+          rows[row * TILE_SIZE + target] += weight * kernel[target - column + 2 * radius];
+        }
+      }
+    }
+    // Then the columns, keeping only the rows of the tile.
+    double[] intensities = new double[TILE_SIZE * TILE_SIZE];
+    for (int row = 0; row < size; row++) {
+      int start = Math.max(0, row - 2 * radius);
+      int end = Math.min(TILE_SIZE - 1, row);
+      for (int column = 0; column < TILE_SIZE; column++) {
+        double weight = rows[row * TILE_SIZE + column];
+        if (weight == 0) {
+          continue;
+        }
+        for (int target = start; target <= end; target++) {
+          intensities[target * TILE_SIZE + column] += weight * kernel[target - row + 2 * radius];
+        }
+      }
+    }
+
+    double maxIntensity = maxIntensity(zoom);
+    int maxColor = colorMap.length - 1;
+    int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+    for (int i = 0; i < pixels.length; i++) {
+      if (intensities[i] > 0) {
+        pixels[i] = colorMap[Math.min(maxColor, (int) (intensities[i] / maxIntensity * maxColor))];
+      }
+    }
+    return pixels;
+  }
+
+  /**
+   * Returns the intensity that gets the last color of the color map at {@code zoom}.
+   *
+   * <p>Unless it is fixed, it is the largest sum of weights in a grid of cells as wide as the
+   * radius, which a single blurred pixel comes close to in the densest area of the map.
+   */
+  synchronized double maxIntensity(int zoom) {
+    if (fixedMaxIntensity > 0) {
+      return fixedMaxIntensity;
+    }
+    int level = Math.max(0, Math.min(MAX_ZOOM, zoom));
+    if (maxIntensities[level] > 0) {
+      return maxIntensities[level];
+    }
+    double cellWorldSize = Math.max(1, radius) / (TILE_SIZE * Math.pow(2, level));
+    long cellsPerRow = (long) Math.ceil(1 / cellWorldSize) + 1;
+    Map<Long, Double> cells = new HashMap<>();
+    double max = 0;
+    for (int i = 0; i < points.weights.length; i++) {
+      long cell =
+          (long) (points.ys[i] / cellWorldSize) * cellsPerRow
+              + (long) (points.xs[i] / cellWorldSize);
+      Double sum = cells.get(cell);
+      double weight = (sum == null ? 0 : sum) + points.weights[i];
+      cells.put(cell, weight);
+      max = Math.max(max, weight);
+    }
+    maxIntensities[level] = max > 0 ? max : 1;
+    return maxIntensities[level];
+  }
+
+  /** Returns a Gaussian of {@code 2 * radius + 1} values, 1 in the middle. */
+  static double[] kernel(int radius) {
+    double[] kernel = new double[2 * radius + 1];
+    double sigma = Math.max(1, radius) / 3.0;
+    for (int i = -radius; i <= radius; i++) {
+      kernel[i + radius] = Math.exp(-i * i / (2 * sigma * sigma));
+    }
+    return kernel;
+  }
+
+  /**
+   * Returns {@code size} colors that go through {@code colors} at {@code startPoints}, fractions of
+   * the maximum intensity in ascending order.
+   *
+   * <p>Intensities below the first start point fade in from transparent, and every alpha is
+   * multiplied by {@code opacity}.
+   */
+  static int[] colorMap(int[] colors, float[] startPoints, int size, double opacity) {
+    int[] colorMap = new int[size];
+    for (int i = 0; i < size; i++) {
+      double fraction = size == 1 ? 1 : i / (double) (size - 1);
+      int color;
+      if (fraction <= startPoints[0]) {
+        double t = startPoints[0] == 0 ? 1 : fraction / startPoints[0];
+        color = interpolate(colors[0] & 0x00ffffff, colors[0], t);
+      } else {
+        int segment = 0;
+        while (segment < startPoints.length - 1 && fraction > startPoints[segment + 1]) {
+          segment++;
+        }
+        if (segment == startPoints.length - 1) {
+          color = colors[segment];
+        } else {
+          double t =
+              (fraction - startPoints[segment])
+                  / (startPoints[segment + 1] - startPoints[segment]);
+          color = interpolate(colors[segment], colors[segment + 1], t);
+        }
+      }
+      int alpha = (int) Math.round((color >>> 24) * opacity);
+      colorMap[i] = (alpha << 24) | (color & 0x00ffffff);
+    }
+    return colorMap;
+  }
+
+  private static int interpolate(int from, int to, double t) {
+    int color = 0;
+    for (int shift = 0; shift <= 24; shift += 8) {
+      int a = (from >>> shift) & 0xff;
+      int b = (to >>> shift) & 0xff;
+      color |= ((int) Math.round(a + (b - a) * t) & 0xff) << shift;
+    }
+    return color;
+  }
+}
@@ -0,0 +1,41 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.io.ByteArrayOutputStream;
+
+/** Draws the tiles of a heatmap with its current {@link HeatmapRenderer}. */
+class HeatmapTileSource implements CachingTileProvider.TileSource {
+  private volatile HeatmapRenderer renderer;
+
+  void setRenderer(HeatmapRenderer renderer) {
+    this.renderer = renderer;
+  }
+
+  @Override
+  public Tile load(int x, int y, int zoom) {
+    HeatmapRenderer renderer = this.renderer;
+    if (renderer == null) {
+      return null;
+    }
+    int[] pixels = renderer.render(x, y, zoom);
+    if (renderer != this.renderer) {
+      // The heatmap changed while the tile was drawn, the map asks for it again.
+      return null;
+    }
+    if (pixels == null) {
+      return TileProvider.NO_TILE;
+    }
+    int size = HeatmapRenderer.TILE_SIZE;
+    Bitmap bitmap = Bitmap.createBitmap(pixels, size, size, Bitmap.Config.ARGB_8888);
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
+    bitmap.recycle();
+    return new Tile(size, size, stream.toByteArray());
+  }
+}
@@ -0,0 +1,118 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.gms.maps.GoogleMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+class HeatmapsController {
+
+  private final Map<String, HeatmapController> heatmapIdToController;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private GoogleMap googleMap;
+  private ExecutorService executor;
+
+  HeatmapsController() {
+    this.heatmapIdToController = new HashMap<>();
+  }
+
+  void setGoogleMap(GoogleMap googleMap) {
+    this.googleMap = googleMap;
+  }
+
+  void addHeatmaps(List<Object> heatmapsToAdd) {
+    if (heatmapsToAdd != null) {
+      for (Object heatmapToAdd : heatmapsToAdd) {
+        addHeatmap(heatmapToAdd);
+      }
+    }
+  }
+
+  void changeHeatmaps(List<Object> heatmapsToChange) {
+    if (heatmapsToChange != null) {
+      for (Object heatmapToChange : heatmapsToChange) {
+        changeHeatmap(heatmapToChange);
+      }
+    }
+  }
+
+  void removeHeatmaps(List<Object> heatmapIdsToRemove) {
+    if (heatmapIdsToRemove == null) {
+      return;
+    }
+    for (Object rawHeatmapId : heatmapIdsToRemove) {
+      if (rawHeatmapId == null) {
+        continue;
+      }
+      String heatmapId = (String) rawHeatmapId;
+      final HeatmapController heatmapController = heatmapIdToController.remove(heatmapId);
+      if (heatmapController != null) {
+        heatmapController.remove();
+      }
+    }
+  }
+
+  void dispose() {
+    for (HeatmapController heatmapController : heatmapIdToController.values()) {
+      heatmapController.remove();
+    }
+    heatmapIdToController.clear();
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  private void addHeatmap(Object heatmap) {
+    if (heatmap == null) {
+      return;
+    }
+    HeatmapController controller = new HeatmapController(googleMap, getExecutor(), handler);
+    String heatmapId = Convert.interpretHeatmapOptions(heatmap, controller);
+    heatmapIdToController.put(heatmapId, controller);
+    controller.render();
+  }
+
+  private void changeHeatmap(Object heatmap) {
+    if (heatmap == null) {
+      return;
+    }
+    String heatmapId = getHeatmapId(heatmap);
+    HeatmapController heatmapController = heatmapIdToController.get(heatmapId);
+    if (heatmapController != null) {
+      Convert.interpretHeatmapOptions(heatmap, heatmapController);
+      heatmapController.render();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static String getHeatmapId(Object heatmap) {
+    Map<String, Object> heatmapMap = (Map<String, Object>) heatmap;
+    return (String) heatmapMap.get("heatmapId");
+  }
+
+  private ExecutorService getExecutor() {
+    if (executor == null) {
+      executor =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                  Thread thread = new Thread(runnable, "google_maps-heatmaps");
+                  thread.setPriority(Thread.NORM_PRIORITY - 1);
+                  return thread;
+                }
+              });
+    }
+    return executor;
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.Collection;
+
+/**
+ * A latitude/longitude rectangle that may cross the antimeridian, in which case {@link #west} is
+ * greater than {@link #east}.
+ *
+ * <p>Points are looked up in a {@link PointQuadTree} keyed by longitude (x) and latitude (y).
+ */
+final class LatLngRegion {
+  final double south;
+  final double west;
+  final double north;
+  final double east;
+
+  LatLngRegion(double south, double west, double north, double east) {
+    this.south = south;
+    this.west = west;
+    this.north = north;
+    this.east = east;
+  }
+
+  /**
+   * Returns {@code bounds} grown by {@code margin} times its height and width on every side.
+   *
+   * <p>The latitudes are clamped to the poles, and the region covers every longitude once it is
+   * wider than the whole world.
+   */
+  static LatLngRegion around(LatLngBounds bounds, double margin) {
+    double south = bounds.southwest.latitude;
+    double north = bounds.northeast.latitude;
+    double west = bounds.southwest.longitude;
+    double east = bounds.northeast.longitude;
+    double height = north - south;
+    double width = west <= east ? east - west : east - west + 360;
+
+    south = Math.max(-90, south - height * margin);
+    north = Math.min(90, north + height * margin);
+    double grownWidth = width * (1 + 2 * margin);
+    if (grownWidth >= 360) {
+      return new LatLngRegion(south, -180, north, 180);
+    }
+    return new LatLngRegion(
+        south, wrapLongitude(west - width * margin), north, wrapLongitude(east + width * margin));
+  }
+
+  boolean contains(LatLng position) {
+    if (position.latitude < south || position.latitude > north) {
+      return false;
+    }
+    if (west <= east) {
+      return position.longitude >= west && position.longitude <= east;
+    }
+    return position.longitude >= west || position.longitude <= east;
+  }
+
+  /** Adds the values of {@code tree} that lie inside this region to {@code out}. */
+  <T> void search(PointQuadTree<T> tree, Collection<? super T> out) {
+    if (west <= east) {
+      tree.search(west, east, south, north, out);
+    } else {
+      tree.search(west, 180, south, north, out);
+      tree.search(-180, east, south, north, out);
+    }
+  }
+
+  private static double wrapLongitude(double longitude) {
+    if (longitude < -180) {
+      return longitude + 360;
+    }
+    if (longitude > 180) {
+      return longitude - 360;
+    }
+    return longitude;
+  }
+}
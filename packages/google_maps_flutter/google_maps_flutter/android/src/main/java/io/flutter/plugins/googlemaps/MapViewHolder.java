@@ -0,0 +1,114 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.content.MutableContextWrapper;
+import android.os.Bundle;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.MapView;
+
+/**
+ * A {@link MapView} and the lifecycle state it has been driven to.
+ *
+ * <p>A map view can outlive the platform view it was created for when it is kept in a {@link
+ * MapViewPool}, so each lifecycle call is only forwarded when it changes that state.
+ */
+final class MapViewHolder {
+  final MapView mapView;
+  // The context the map view was created with, null if it can't be moved to another context.
+  @Nullable final MutableContextWrapper context;
+  // Set once the map is ready, it stays the same for the life of the map view.
+  GoogleMap googleMap;
+  private Lifecycle.State state = Lifecycle.State.INITIALIZED;
+
+  MapViewHolder(MapView mapView) {
+    this(mapView, null);
+  }
+
+  MapViewHolder(MapView mapView, @Nullable MutableContextWrapper context) {
+    this.mapView = mapView;
+    this.context = context;
+  }
+
+  Lifecycle.State getState() {
+    return state;
+  }
+
+  void create(Bundle savedInstanceState) {
+    if (state == Lifecycle.State.INITIALIZED) {
+      mapView.onCreate(savedInstanceState);
+      state = Lifecycle.State.CREATED;
+    }
+  }
+
+  void start() {
+    create(null);
+    if (state == Lifecycle.State.CREATED) {
+      mapView.onStart();
+      state = Lifecycle.State.STARTED;
+    }
+  }
+
+  void resume() {
+    start();
+    if (state == Lifecycle.State.STARTED) {
+      mapView.onResume();
+      state = Lifecycle.State.RESUMED;
+    }
+  }
+
+  void pause() {
+    if (state == Lifecycle.State.RESUMED) {
+      mapView.onPause();
+      state = Lifecycle.State.STARTED;
+    }
+  }
+
+  void stop() {
+    pause();
+    if (state == Lifecycle.State.STARTED) {
+      mapView.onStop();
+      state = Lifecycle.State.CREATED;
+    }
+  }
+
+  void destroy() {
+    stop();
+    if (state == Lifecycle.State.CREATED) {
+      mapView.onDestroy();
+    }
+    state = Lifecycle.State.DESTROYED;
+  }
+
+  void saveInstanceState(Bundle bundle) {
+    if (state.isAtLeast(Lifecycle.State.CREATED)) {
+      mapView.onSaveInstanceState(bundle);
+    }
+  }
+
+  /** Drives the map view to {@code target}, which is where its activity's lifecycle is. */
+  void moveTo(Lifecycle.State target) {
+    switch (target) {
+      case DESTROYED:
+        destroy();
+        break;
+      case INITIALIZED:
+        break;
+      case CREATED:
+        create(null);
+        stop();
+        break;
+      case STARTED:
+        start();
+        pause();
+        break;
+      case RESUMED:
+        resume();
+        break;
+    }
+  }
+}
@@ -0,0 +1,227 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import com.google.android.gms.maps.CameraUpdateFactory;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.GoogleMapOptions;
+import com.google.android.gms.maps.MapView;
+import com.google.android.gms.maps.OnMapReadyCallback;
+import com.google.android.gms.maps.UiSettings;
+import java.util.ArrayDeque;
+
+/**
+ * Keeps a few initialized map views alive between platform views, so that a map that is shown
+ * again doesn't have to create and load a new {@link MapView}.
+ *
+ * <p>The pool is opt-in: its size is read from the {@value #POOL_SIZE_KEY} meta-data of the
+ * application, and it is only used while the plugin is attached to an activity. Map views are kept
+ * with their activity's lifecycle, and are destroyed with it. Lite mode maps are never pooled.
+ *
+ * <p>Map views are created on a {@link MutableContextWrapper}, as each platform view may have its
+ * own context, for instance the presentation of a virtual display. A pooled map view is moved to
+ * the context of the platform view it is handed to, and back to the activity once it is released,
+ * so that the pool doesn't keep the contexts of platform views that are gone.
+ */
+final class MapViewPool implements DefaultLifecycleObserver {
+  static final String POOL_SIZE_KEY = "io.flutter.plugins.googlemaps.MapViewPoolSize";
+
+  private final int capacity;
+  private final ArrayDeque<MapViewHolder> idle = new ArrayDeque<>();
+  @Nullable private Context activity;
+  @Nullable private Lifecycle lifecycle;
+
+  MapViewPool(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /** Returns the pool size declared in the manifest of the application, 0 if there is none. */
+  static int readCapacity(Context context) {
+    try {
+      ApplicationInfo info =
+          context
+              .getPackageManager()
+              .getApplicationInfo(context.getPackageName(), PackageManager.GET_META_DATA);
+      Bundle metaData = info.metaData;
+      return metaData == null ? 0 : Math.max(0, metaData.getInt(POOL_SIZE_KEY, 0));
+    } catch (PackageManager.NameNotFoundException e) {
+      return 0;
+    }
+  }
+
+  /** Starts pooling the map views of an activity, and pre-warms one of them. */
+  void attach(Context activity, Lifecycle lifecycle) {
+    detach();
+    this.activity = activity;
+    this.lifecycle = lifecycle;
+    lifecycle.addObserver(this);
+    final MapViewHolder holder = create(activity, new GoogleMapOptions());
+    holder.moveTo(lifecycle.getCurrentState());
+    holder.mapView.getMapAsync(
+        new OnMapReadyCallback() {
+          @Override
+          public void onMapReady(GoogleMap googleMap) {
+            holder.googleMap = googleMap;
+          }
+        });
+    idle.add(holder);
+  }
+
+  /** Destroys the idle map views, the pool isn't used until it's attached again. */
+  void detach() {
+    if (lifecycle != null) {
+      lifecycle.removeObserver(this);
+      lifecycle = null;
+    }
+    activity = null;
+    destroyIdle();
+  }
+
+  /** Creates a map view on {@code context} that can later be released to the pool. */
+  static MapViewHolder create(Context context, GoogleMapOptions options) {
+    MutableContextWrapper wrapper = new MutableContextWrapper(context);
+    return new MapViewHolder(new MapView(wrapper, options), wrapper);
+  }
+
+  /**
+   * Returns an idle map view moved to {@code context}, or null if there is none or if the map has
+   * options that can't be changed once it is created.
+   */
+  @Nullable
+  MapViewHolder acquire(Context context, GoogleMapOptions options) {
+    if (lifecycle == null || Boolean.TRUE.equals(options.getLiteMode())) {
+      return null;
+    }
+    MapViewHolder holder = idle.poll();
+    if (holder != null) {
+      holder.context.setBaseContext(context);
+    }
+    return holder;
+  }
+
+  /**
+   * Resets the map of {@code holder} and keeps it for a later platform view.
+   *
+   * <p>Returns false if the map view can't be pooled, in which case the caller should destroy it.
+   * The overlays and the listeners of the map must not be used once this returns true.
+   */
+  boolean release(MapViewHolder holder, GoogleMapOptions options) {
+    if (lifecycle == null
+        || holder.googleMap == null
+        || holder.context == null
+        || idle.size() >= capacity
+        || Boolean.TRUE.equals(options.getLiteMode())) {
+      return false;
+    }
+    ViewParent parent = holder.mapView.getParent();
+    if (parent instanceof ViewGroup) {
+      ((ViewGroup) parent).removeView(holder.mapView);
+    }
+    GoogleMap googleMap = holder.googleMap;
+    googleMap.clear();
+    googleMap.setMapStyle(null);
+    googleMap.setPadding(0, 0, 0, 0);
+    googleMap.setTrafficEnabled(false);
+    googleMap.setIndoorEnabled(true);
+    googleMap.setBuildingsEnabled(true);
+    holder.context.setBaseContext(activity);
+    holder.moveTo(lifecycle.getCurrentState());
+    idle.add(holder);
+    return true;
+  }
+
+  /**
+   * Applies the options a map view is created with to a pooled map, using the defaults of the Maps
+   * SDK for the options that aren't set.
+   */
+  static void applyOptions(GoogleMap googleMap, GoogleMapOptions options) {
+    if (options.getCamera() != null) {
+      googleMap.moveCamera(CameraUpdateFactory.newCameraPosition(options.getCamera()));
+    }
+    googleMap.setMapType(
+        options.getMapType() != -1 ? options.getMapType() : GoogleMap.MAP_TYPE_NORMAL);
+    googleMap.setLatLngBoundsForCameraTarget(options.getLatLngBoundsForCameraTarget());
+    googleMap.resetMinMaxZoomPreference();
+    if (options.getMinZoomPreference() != null) {
+      googleMap.setMinZoomPreference(options.getMinZoomPreference());
+    }
+    if (options.getMaxZoomPreference() != null) {
+      googleMap.setMaxZoomPreference(options.getMaxZoomPreference());
+    }
+    UiSettings uiSettings = googleMap.getUiSettings();
+    uiSettings.setCompassEnabled(valueOrDefault(options.getCompassEnabled(), true));
+    uiSettings.setMapToolbarEnabled(valueOrDefault(options.getMapToolbarEnabled(), true));
+    uiSettings.setZoomControlsEnabled(valueOrDefault(options.getZoomControlsEnabled(), true));
+    uiSettings.setRotateGesturesEnabled(valueOrDefault(options.getRotateGesturesEnabled(), true));
+    uiSettings.setScrollGesturesEnabled(valueOrDefault(options.getScrollGesturesEnabled(), true));
+    uiSettings.setTiltGesturesEnabled(valueOrDefault(options.getTiltGesturesEnabled(), true));
+    uiSettings.setZoomGesturesEnabled(valueOrDefault(options.getZoomGesturesEnabled(), true));
+  }
+
+  private static boolean valueOrDefault(Boolean value, boolean defaultValue) {
+    return value != null ? value : defaultValue;
+  }
+
+  private void destroyIdle() {
+    for (MapViewHolder holder : idle) {
+      holder.destroy();
+    }
+    idle.clear();
+  }
+
+  // DefaultLifecycleObserver
+
+  @Override
+  public void onCreate(@NonNull LifecycleOwner owner) {
+    for (MapViewHolder holder : idle) {
+      holder.create(null);
+    }
+  }
+
+  @Override
+  public void onStart(@NonNull LifecycleOwner owner) {
+    for (MapViewHolder holder : idle) {
+      holder.start();
+    }
+  }
+
+  @Override
+  public void onResume(@NonNull LifecycleOwner owner) {
+    for (MapViewHolder holder : idle) {
+      holder.resume();
+    }
+  }
+
+  @Override
+  public void onPause(@NonNull LifecycleOwner owner) {
+    for (MapViewHolder holder : idle) {
+      holder.pause();
+    }
+  }
+
+  @Override
+  public void onStop(@NonNull LifecycleOwner owner) {
+    for (MapViewHolder holder : idle) {
+      holder.stop();
+    }
+  }
+
+  @Override
+  public void onDestroy(@NonNull LifecycleOwner owner) {
+    detach();
+  }
+}
@@ -0,0 +1,276 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Clusters the markers of a {@link MarkersController} and shows a marker with the member count for
+ * every cluster.
+ *
+ * <p>Clusters are computed by {@link MarkerClusterer} on a background thread when the integer zoom
+ * level changes or the markers are updated, and the result is applied on the platform thread. A
+ * result that is overtaken by a newer pass is dropped. Tapping a cluster sends {@code
+ * cluster#onTap} with the ids of its members.
+ *
+ * <p>Invisible markers are not clustered. When marker virtualization is enabled, only the clusters
+ * inside the materialized region of the {@link MarkersController} get a marker.
+ */
+class MarkerClusterManager {
+  private static final float DEFAULT_GRID_SIZE = 60;
+  private static final float ICON_SIZE = 40;
+  private static final float ICON_BORDER = 3;
+  private static final float ICON_TEXT_SIZE = 14;
+  private static final int ICON_COLOR = 0xFF1565C0;
+  private static final int[] ICON_BUCKETS = {10, 20, 50, 100, 200, 500, 1000};
+
+  private final MethodChannel methodChannel;
+  private final MarkersController markersController;
+  private final float density;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private ExecutorService executor;
+  private GoogleMap googleMap;
+  private boolean enabled;
+  private float gridSize = DEFAULT_GRID_SIZE;
+  // Bumped by every pass, so that results of overtaken passes are dropped.
+  private int generation;
+  // The zoom level of the last pass, or -1 when the next camera idle should recluster.
+  private int clusteredZoom = -1;
+  // The result of the last pass that was applied, or null.
+  private MarkerClusterer.Result shownResult;
+
+  private final List<Marker> clusterMarkers = new ArrayList<>();
+  private final Map<String, MarkerClusterer.Cluster> googleMapsMarkerIdToCluster = new HashMap<>();
+  private final Map<String, BitmapDescriptor> labelToIcon = new HashMap<>();
+
+  MarkerClusterManager(
+      MethodChannel methodChannel, MarkersController markersController, float density) {
+    this.methodChannel = methodChannel;
+    this.markersController = markersController;
+    this.density = density;
+  }
+
+  void setGoogleMap(GoogleMap googleMap) {
+    this.googleMap = googleMap;
+  }
+
+  void setEnabled(boolean enabled) {
+    if (this.enabled == enabled) {
+      return;
+    }
+    this.enabled = enabled;
+    markersController.setClusteringEnabled(enabled);
+    if (enabled) {
+      update();
+    } else {
+      generation++;
+      clusteredZoom = -1;
+      shownResult = null;
+      removeClusterMarkers(0);
+    }
+  }
+
+  void setGridSize(float gridSize) {
+    if (this.gridSize == gridSize) {
+      return;
+    }
+    this.gridSize = gridSize;
+    update();
+  }
+
+  void onCameraIdle() {
+    if (!enabled || googleMap == null) {
+      return;
+    }
+    if ((int) googleMap.getCameraPosition().zoom != clusteredZoom) {
+      update();
+    } else if (markersController.isVirtualizationEnabled()) {
+      // The materialized region has moved with the camera.
+      onMaterializedRegionChanged();
+    }
+  }
+
+  /** Shows the markers of the clusters inside the current materialized region of the markers. */
+  void onMaterializedRegionChanged() {
+    if (enabled && googleMap != null && shownResult != null) {
+      showClusterMarkers();
+    }
+  }
+
+  /** Starts a clustering pass over the current markers. */
+  void update() {
+    if (!enabled || googleMap == null) {
+      return;
+    }
+    final int passGeneration = ++generation;
+    final int zoom = (int) googleMap.getCameraPosition().zoom;
+    final float passGridSize = gridSize;
+    clusteredZoom = zoom;
+
+    Map<String, LatLng> positions = markersController.getMarkerPositions();
+    final List<String> markerIds = new ArrayList<>(positions.size());
+    final double[] latitudes = new double[positions.size()];
+    final double[] longitudes = new double[positions.size()];
+    for (Map.Entry<String, LatLng> entry : positions.entrySet()) {
+      latitudes[markerIds.size()] = entry.getValue().latitude;
+      longitudes[markerIds.size()] = entry.getValue().longitude;
+      markerIds.add(entry.getKey());
+    }
+
+    getExecutor()
+        .execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                final MarkerClusterer.Result result =
+                    MarkerClusterer.cluster(
+                        markerIds, latitudes, longitudes, zoom, passGridSize);
+                handler.post(
+                    new Runnable() {
+                      @Override
+                      public void run() {
+                        if (passGeneration == generation && enabled && googleMap != null) {
+                          showClusters(result);
+                        }
+                      }
+                    });
+              }
+            });
+  }
+
+  /** Returns whether {@code googleMarkerId} is a cluster, in which case the tap is consumed. */
+  boolean onMarkerTap(String googleMarkerId) {
+    MarkerClusterer.Cluster cluster = googleMapsMarkerIdToCluster.get(googleMarkerId);
+    if (cluster == null) {
+      return false;
+    }
+    final Map<String, Object> arguments = new HashMap<>(2);
+    arguments.put("markerIds", new ArrayList<>(cluster.markerIds));
+    arguments.put(
+        "position", Convert.latLngToJson(new LatLng(cluster.latitude, cluster.longitude)));
+    methodChannel.invokeMethod("cluster#onTap", arguments);
+    return true;
+  }
+
+  void dispose() {
+    generation++;
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  private void showClusters(MarkerClusterer.Result result) {
+    shownResult = result;
+    markersController.setUnclusteredMarkers(new HashSet<>(result.unclusteredMarkerIds));
+    showClusterMarkers();
+  }
+
+  // Shows a marker for every cluster of shownResult inside the materialized region.
+  private void showClusterMarkers() {
+    // Existing cluster markers are moved rather than replaced, which avoids a flash.
+    googleMapsMarkerIdToCluster.clear();
+    int shown = 0;
+    for (MarkerClusterer.Cluster cluster : shownResult.clusters) {
+      LatLng position = new LatLng(cluster.latitude, cluster.longitude);
+      if (!markersController.isInMaterializedRegion(position)) {
+        continue;
+      }
+      BitmapDescriptor icon = getIcon(cluster.markerIds.size());
+      Marker marker;
+      if (shown < clusterMarkers.size()) {
+        marker = clusterMarkers.get(shown);
+        marker.setPosition(position);
+        marker.setIcon(icon);
+      } else {
+        marker =
+            googleMap.addMarker(
+                new MarkerOptions().position(position).icon(icon).anchor(0.5f, 0.5f));
+        clusterMarkers.add(marker);
+      }
+      googleMapsMarkerIdToCluster.put(marker.getId(), cluster);
+      shown++;
+    }
+    removeClusterMarkers(shown);
+  }
+
+  private void removeClusterMarkers(int keep) {
+    while (clusterMarkers.size() > keep) {
+      Marker marker = clusterMarkers.remove(clusterMarkers.size() - 1);
+      googleMapsMarkerIdToCluster.remove(marker.getId());
+      marker.remove();
+    }
+  }
+
+  private BitmapDescriptor getIcon(int size) {
+    String label = Integer.toString(size);
+    for (int i = ICON_BUCKETS.length - 1; i >= 0; i--) {
+      if (size >= ICON_BUCKETS[i]) {
+        label = ICON_BUCKETS[i] + "+";
+        break;
+      }
+    }
+    BitmapDescriptor icon = labelToIcon.get(label);
+    if (icon == null) {
+      icon = BitmapDescriptorFactory.fromBitmap(drawIcon(label));
+      labelToIcon.put(label, icon);
+    }
+    return icon;
+  }
+
+  private Bitmap drawIcon(String label) {
+    int diameter = (int) (ICON_SIZE * density);
+    float radius = diameter / 2f;
+    Bitmap bitmap = Bitmap.createBitmap(diameter, diameter, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(bitmap);
+    Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    paint.setColor(Color.WHITE);
+    canvas.drawCircle(radius, radius, radius, paint);
+    paint.setColor(ICON_COLOR);
+    canvas.drawCircle(radius, radius, radius - ICON_BORDER * density, paint);
+    paint.setColor(Color.WHITE);
+    paint.setTextSize(ICON_TEXT_SIZE * density);
+    paint.setTextAlign(Paint.Align.CENTER);
+    paint.setFakeBoldText(true);
+    canvas.drawText(label, radius, radius - (paint.descent() + paint.ascent()) / 2, paint);
+    return bitmap;
+  }
+
+  private ExecutorService getExecutor() {
+    if (executor == null) {
+      executor =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                  Thread thread = new Thread(runnable, "google_maps-clustering");
+                  thread.setPriority(Thread.NORM_PRIORITY - 1);
+                  return thread;
+                }
+              });
+    }
+    return executor;
+  }
+}
@@ -0,0 +1,94 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups marker positions into clusters with a square grid laid over the Mercator projection of the
+ * world at a given zoom level.
+ *
+ * <p>Markers that fall into the same cell form a cluster at the average of their positions, and a
+ * cell with a single marker leaves that marker unclustered. This is linear in the number of
+ * markers, and the result only depends on the integer zoom level so it can be reused while the
+ * camera pans. It holds no state and can run on any thread.
+ */
+final class MarkerClusterer {
+  // Width of the world in density independent pixels at zoom level 0.
+  private static final double WORLD_SIZE = 256;
+  // The projection is undefined at the poles, this is the latitude the map stops at.
+  private static final double MAX_LATITUDE = 85.05112878;
+
+  /** Markers that share a grid cell. */
+  static final class Cluster {
+    final List<String> markerIds = new ArrayList<>();
+    double latitude;
+    double longitude;
+  }
+
+  /** The outcome of a clustering pass. */
+  static final class Result {
+    final List<Cluster> clusters = new ArrayList<>();
+    final List<String> unclusteredMarkerIds = new ArrayList<>();
+  }
+
+  private MarkerClusterer() {}
+
+  /**
+   * Clusters the markers at {@code latitudes[i], longitudes[i]} with cells that are {@code
+   * gridSize} density independent pixels wide at {@code zoom}.
+   */
+  static Result cluster(
+      List<String> markerIds,
+      double[] latitudes,
+      double[] longitudes,
+      int zoom,
+      double gridSize) {
+    double cellsPerWorld = Math.max(1, Math.floor(WORLD_SIZE * Math.pow(2, zoom) / gridSize));
+    Map<Long, Cluster> cells = new HashMap<>();
+    for (int i = 0; i < markerIds.size(); i++) {
+      long cellX = (long) Math.min(cellsPerWorld - 1, projectX(longitudes[i]) * cellsPerWorld);
+      long cellY = (long) Math.min(cellsPerWorld - 1, projectY(latitudes[i]) * cellsPerWorld);
+      Long cellKey = (cellX << 32) | cellY;
+      Cluster cluster = cells.get(cellKey);
+      if (cluster == null) {
+        cluster = new Cluster();
+        cells.put(cellKey, cluster);
+      }
+      cluster.markerIds.add(markerIds.get(i));
+      // Running sums, divided below.
+      cluster.latitude += latitudes[i];
+      cluster.longitude += longitudes[i];
+    }
+
+    Result result = new Result();
+    for (Cluster cluster : cells.values()) {
+      int size = cluster.markerIds.size();
+      if (size == 1) {
+        result.unclusteredMarkerIds.add(cluster.markerIds.get(0));
+      } else {
+        cluster.latitude /= size;
+        cluster.longitude /= size;
+        result.clusters.add(cluster);
+      }
+    }
+    return result;
+  }
+
+  /** Returns the x coordinate of {@code longitude} on a world that is 1 wide. */
+  static double projectX(double longitude) {
+    return Math.max(0, Math.min(1, (longitude + 180) / 360));
+  }
+
+  /** Returns the y coordinate of {@code latitude} on a world that is 1 high. */
+  static double projectY(double latitude) {
+    double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+    double sin = Math.sin(Math.toRadians(clamped));
+    return Math.max(0, Math.min(1, 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI)));
+  }
+}
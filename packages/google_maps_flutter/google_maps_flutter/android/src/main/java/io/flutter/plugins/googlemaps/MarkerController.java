@@ -8,16 +8,21 @@ import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
 
-/** Controller of a single Marker on the map. */
+/**
+ * Controller of a single Marker on the map.
+ *
+ * <p>Every change is also applied to the {@link MarkerBuilder} the marker was created from, so the
+ * marker can be removed from the map and added back later in the same state.
+ */
 class MarkerController implements MarkerOptionsSink {
 
   private final Marker marker;
+  private final MarkerBuilder builder;
   private final String googleMapsMarkerId;
-  private boolean consumeTapEvents;
 
-  MarkerController(Marker marker, boolean consumeTapEvents) {
+  MarkerController(Marker marker, MarkerBuilder builder) {
     this.marker = marker;
-    this.consumeTapEvents = consumeTapEvents;
+    this.builder = builder;
     this.googleMapsMarkerId = marker.getId();
   }
 
@@ -27,62 +32,77 @@ class MarkerController implements MarkerOptionsSink {
 
   @Override
   public void setAlpha(float alpha) {
+    builder.setAlpha(alpha);
     marker.setAlpha(alpha);
   }
 
   @Override
   public void setAnchor(float u, float v) {
+    builder.setAnchor(u, v);
     marker.setAnchor(u, v);
   }
 
   @Override
   public void setConsumeTapEvents(boolean consumeTapEvents) {
-    this.consumeTapEvents = consumeTapEvents;
+    builder.setConsumeTapEvents(consumeTapEvents);
   }
 
   @Override
   public void setDraggable(boolean draggable) {
+    builder.setDraggable(draggable);
     marker.setDraggable(draggable);
   }
 
   @Override
   public void setFlat(boolean flat) {
+    builder.setFlat(flat);
     marker.setFlat(flat);
   }
 
   @Override
   public void setIcon(BitmapDescriptor bitmapDescriptor) {
+    // Icons come from BitmapDescriptorCache, so an unchanged icon is the same instance.
+    if (bitmapDescriptor == builder.build().getIcon()) {
+      return;
+    }
+    builder.setIcon(bitmapDescriptor);
     marker.setIcon(bitmapDescriptor);
   }
 
   @Override
   public void setInfoWindowAnchor(float u, float v) {
+    builder.setInfoWindowAnchor(u, v);
     marker.setInfoWindowAnchor(u, v);
   }
 
   @Override
   public void setInfoWindowText(String title, String snippet) {
+    builder.setInfoWindowText(title, snippet);
     marker.setTitle(title);
     marker.setSnippet(snippet);
   }
 
   @Override
   public void setPosition(LatLng position) {
+    builder.setPosition(position);
     marker.setPosition(position);
   }
 
   @Override
   public void setRotation(float rotation) {
+    builder.setRotation(rotation);
     marker.setRotation(rotation);
   }
 
   @Override
   public void setVisible(boolean visible) {
+    builder.setVisible(visible);
     marker.setVisible(visible);
   }
 
   @Override
   public void setZIndex(float zIndex) {
+    builder.setZIndex(zIndex);
     marker.setZIndex(zIndex);
   }
 
@@ -91,7 +111,7 @@ class MarkerController implements MarkerOptionsSink {
   }
 
   boolean consumeTapEvents() {
-    return consumeTapEvents;
+    return builder.consumeTapEvents();
   }
 
   public void showInfoWindow() {
@@ -6,22 +6,51 @@ package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import io.flutter.plugin.common.MethodChannel;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Controller of the markers of a map.
+ *
+ * <p>When virtualization is enabled, markers are kept in a {@link PointQuadTree} and only those
+ * inside the visible region, grown by {@link #VIRTUALIZATION_MARGIN} on every side, are added to
+ * the map. The materialized set is updated when the camera becomes idle.
+ *
+ * <p>When clustering is enabled, only the markers that the last pass of the {@link
+ * MarkerClusterManager} left unclustered are added to the map.
+ */
 class MarkersController {
 
+  // Fraction of the visible region's height and width that is materialized beyond each edge.
+  private static final double VIRTUALIZATION_MARGIN = 0.5;
+
+  // Markers that are currently on the map.
   private final Map<String, MarkerController> markerIdToController;
+  // The options of every marker, whether it is on the map or not.
+  private final Map<String, MarkerBuilder> markerIdToBuilder;
   private final Map<String, String> googleMapsMarkerIdToDartMarkerId;
   private final MethodChannel methodChannel;
   private GoogleMap googleMap;
+  private boolean virtualizationEnabled;
+  // Only populated while virtualization is enabled.
+  private final PointQuadTree<String> markerIndex = new PointQuadTree<>(-180, 180, -90, 90);
+  // The region whose markers are on the map, null until the first camera idle.
+  private LatLngRegion materializedRegion;
+  // The markers that are not part of a cluster, or null when clustering is disabled.
+  private Set<String> unclusteredMarkerIds;
 
   MarkersController(MethodChannel methodChannel) {
     this.markerIdToController = new HashMap<>();
+    this.markerIdToBuilder = new HashMap<>();
     this.googleMapsMarkerIdToDartMarkerId = new HashMap<>();
     this.methodChannel = methodChannel;
   }
@@ -30,12 +59,111 @@ class MarkersController {
     this.googleMap = googleMap;
   }
 
-  void addMarkers(List<Object> markersToAdd) {
-    if (markersToAdd != null) {
-      for (Object markerToAdd : markersToAdd) {
-        addMarker(markerToAdd);
+  void setVirtualizationEnabled(boolean virtualizationEnabled) {
+    if (this.virtualizationEnabled == virtualizationEnabled) {
+      return;
+    }
+    this.virtualizationEnabled = virtualizationEnabled;
+    if (virtualizationEnabled) {
+      for (Map.Entry<String, MarkerBuilder> entry : markerIdToBuilder.entrySet()) {
+        indexMarker(entry.getKey(), entry.getValue().build().getPosition());
+      }
+      updateMaterializedMarkers();
+    } else {
+      markerIndex.clear();
+      materializedRegion = null;
+      updateMaterializedMarkers();
+    }
+  }
+
+  /**
+   * Enables or disables clustering. Markers added while clustering is enabled wait for the next
+   * {@link #setUnclusteredMarkers} call before they are shown.
+   */
+  void setClusteringEnabled(boolean clusteringEnabled) {
+    unclusteredMarkerIds = clusteringEnabled ? new HashSet<String>() : null;
+    updateMaterializedMarkers();
+  }
+
+  /** Shows the markers in {@code markerIds} and hides the other, clustered, markers. */
+  void setUnclusteredMarkers(Set<String> markerIds) {
+    if (unclusteredMarkerIds == null) {
+      return;
+    }
+    unclusteredMarkerIds = markerIds;
+    updateMaterializedMarkers();
+  }
+
+  /**
+   * Returns a copy of the positions of the visible markers, whether they are on the map or not.
+   * Invisible markers are left out so that they do not add to the count of a cluster.
+   */
+  Map<String, LatLng> getMarkerPositions() {
+    Map<String, LatLng> positions = new HashMap<>(markerIdToBuilder.size());
+    for (Map.Entry<String, MarkerBuilder> entry : markerIdToBuilder.entrySet()) {
+      MarkerOptions markerOptions = entry.getValue().build();
+      LatLng position = markerOptions.getPosition();
+      if (position != null && markerOptions.isVisible()) {
+        positions.put(entry.getKey(), position);
       }
     }
+    return positions;
+  }
+
+  boolean isVirtualizationEnabled() {
+    return virtualizationEnabled;
+  }
+
+  /**
+   * Returns whether {@code position} is inside the region whose markers are on the map, which is
+   * the whole world when virtualization is disabled.
+   */
+  boolean isInMaterializedRegion(LatLng position) {
+    return !virtualizationEnabled
+        || (materializedRegion != null && materializedRegion.contains(position));
+  }
+
+  void onCameraIdle() {
+    if (virtualizationEnabled) {
+      updateMaterializedMarkers();
+    }
+  }
+
+  /**
+   * Returns an update that adds {@code markersToAdd}, then changes and removes markers, and then
+   * runs {@code onApplied} and resolves {@code result}, which may both be null.
+   */
+  OverlayUpdateQueue.Update<MarkerBuilder> update(
+      List<Object> markersToAdd,
+      final List<Object> markersToChange,
+      final List<Object> markerIdsToRemove,
+      final Runnable onApplied,
+      MethodChannel.Result result) {
+    return new OverlayUpdateQueue.Update<MarkerBuilder>(markersToAdd, result) {
+      @Override
+      MarkerBuilder newBuilder() {
+        return new MarkerBuilder();
+      }
+
+      @Override
+      String interpret(Object marker, MarkerBuilder markerBuilder) {
+        return Convert.interpretMarkerOptions(marker, markerBuilder);
+      }
+
+      @Override
+      void add(String markerId, MarkerBuilder markerBuilder) {
+        addMarker(markerId, markerBuilder);
+      }
+
+      @Override
+      void finish() {
+        changeMarkers(markersToChange);
+        removeMarkers(markerIdsToRemove);
+        if (onApplied != null) {
+          onApplied.run();
+        }
+      }
+    };
   }
 
   void changeMarkers(List<Object> markersToChange) {
@@ -55,6 +183,10 @@ class MarkersController {
         continue;
       }
       String markerId = (String) rawMarkerId;
+      final MarkerBuilder markerBuilder = markerIdToBuilder.remove(markerId);
+      if (markerBuilder != null && virtualizationEnabled) {
+        unindexMarker(markerId, markerBuilder.build().getPosition());
+      }
       final MarkerController markerController = markerIdToController.remove(markerId);
       if (markerController != null) {
         markerController.remove();
@@ -65,6 +197,11 @@ class MarkersController {
 
   void showMarkerInfoWindow(String markerId, MethodChannel.Result result) {
     MarkerController markerController = markerIdToController.get(markerId);
+    MarkerBuilder markerBuilder = markerIdToBuilder.get(markerId);
+    if (markerController == null && markerBuilder != null) {
+      // The marker is virtualized away, it stays on the map while its info window is shown.
+      markerController = materializeMarker(markerId, markerBuilder);
+    }
     if (markerController != null) {
       markerController.showInfoWindow();
       result.success(null);
@@ -87,6 +224,8 @@ class MarkersController {
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
       result.success(markerController.isInfoWindowShown());
+    } else if (markerIdToBuilder.containsKey(markerId)) {
+      result.success(false);
     } else {
       result.error("Invalid markerId", "isInfoWindowShown called with invalid markerId", null);
     }
@@ -110,6 +249,10 @@ class MarkersController {
     if (markerId == null) {
       return;
     }
+    MarkerBuilder markerBuilder = markerIdToBuilder.get(markerId);
+    if (markerBuilder != null) {
+      moveMarker(markerId, markerBuilder, latLng);
+    }
     final Map<String, Object> data = new HashMap<>();
     data.put("markerId", markerId);
     data.put("position", Convert.latLngToJson(latLng));
@@ -124,21 +267,24 @@ class MarkersController {
     methodChannel.invokeMethod("infoWindow#onTap", Convert.markerIdToJson(markerId));
   }
 
-  private void addMarker(Object marker) {
-    if (marker == null) {
-      return;
+  private void addMarker(String markerId, MarkerBuilder markerBuilder) {
+    markerIdToBuilder.put(markerId, markerBuilder);
+    LatLng position = markerBuilder.build().getPosition();
+    if (virtualizationEnabled) {
+      indexMarker(markerId, position);
+    }
+    if (shouldMaterialize(markerId, position)) {
+      materializeMarker(markerId, markerBuilder);
     }
-    MarkerBuilder markerBuilder = new MarkerBuilder();
-    String markerId = Convert.interpretMarkerOptions(marker, markerBuilder);
-    MarkerOptions options = markerBuilder.build();
-    addMarker(markerId, options, markerBuilder.consumeTapEvents());
   }
 
-  private void addMarker(String markerId, MarkerOptions markerOptions, boolean consumeTapEvents) {
+  private MarkerController materializeMarker(String markerId, MarkerBuilder markerBuilder) {
+    MarkerOptions markerOptions = markerBuilder.build();
     final Marker marker = googleMap.addMarker(markerOptions);
-    MarkerController controller = new MarkerController(marker, consumeTapEvents);
+    MarkerController controller = new MarkerController(marker, markerBuilder);
     markerIdToController.put(markerId, controller);
     googleMapsMarkerIdToDartMarkerId.put(marker.getId(), markerId);
+    return controller;
   }
 
   private void changeMarker(Object marker) {
@@ -146,10 +292,104 @@ class MarkersController {
       return;
     }
     String markerId = getMarkerId(marker);
+    MarkerBuilder markerBuilder = markerIdToBuilder.get(markerId);
+    if (markerBuilder == null) {
+      return;
+    }
+    LatLng oldPosition = markerBuilder.build().getPosition();
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
       Convert.interpretMarkerOptions(marker, markerController);
+    } else {
+      Convert.interpretMarkerOptions(marker, markerBuilder);
+    }
+    LatLng newPosition = markerBuilder.build().getPosition();
+    if (virtualizationEnabled && !positionEquals(oldPosition, newPosition)) {
+      unindexMarker(markerId, oldPosition);
+      indexMarker(markerId, newPosition);
+      if (markerController == null && shouldMaterialize(markerId, newPosition)) {
+        materializeMarker(markerId, markerBuilder);
+      }
+    }
+  }
+
+  private void moveMarker(String markerId, MarkerBuilder markerBuilder, LatLng position) {
+    LatLng oldPosition = markerBuilder.build().getPosition();
+    markerBuilder.setPosition(position);
+    if (virtualizationEnabled) {
+      unindexMarker(markerId, oldPosition);
+      indexMarker(markerId, position);
+    }
+  }
+
+  /**
+   * Adds the unclustered markers inside the materialized region around the visible region to the
+   * map, and removes the others unless their info window is shown.
+   */
+  private void updateMaterializedMarkers() {
+    if (googleMap == null) {
+      return;
+    }
+    Collection<String> candidateMarkerIds;
+    if (virtualizationEnabled) {
+      LatLngBounds visibleBounds = googleMap.getProjection().getVisibleRegion().latLngBounds;
+      materializedRegion = LatLngRegion.around(visibleBounds, VIRTUALIZATION_MARGIN);
+      candidateMarkerIds = new HashSet<>();
+      materializedRegion.search(markerIndex, candidateMarkerIds);
+    } else {
+      candidateMarkerIds = markerIdToBuilder.keySet();
     }
+
+    Iterator<Map.Entry<String, MarkerController>> iterator =
+        markerIdToController.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, MarkerController> entry = iterator.next();
+      String markerId = entry.getKey();
+      MarkerController markerController = entry.getValue();
+      boolean shown = candidateMarkerIds.contains(markerId) && isUnclustered(markerId);
+      if (!shown && !markerController.isInfoWindowShown()) {
+        markerController.remove();
+        googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+        iterator.remove();
+      }
+    }
+    for (String markerId : candidateMarkerIds) {
+      if (!markerIdToController.containsKey(markerId) && isUnclustered(markerId)) {
+        materializeMarker(markerId, markerIdToBuilder.get(markerId));
+      }
+    }
+  }
+
+  private boolean shouldMaterialize(String markerId, LatLng position) {
+    if (!isUnclustered(markerId)) {
+      return false;
+    }
+    // Markers without a position are left to the map to reject.
+    return !virtualizationEnabled
+        || position == null
+        || (materializedRegion != null && materializedRegion.contains(position));
+  }
+
+  private boolean isUnclustered(String markerId) {
+    return unclusteredMarkerIds == null || unclusteredMarkerIds.contains(markerId);
+  }
+
+  private void indexMarker(String markerId, LatLng position) {
+    if (position != null) {
+      markerIndex.add(markerId, position.longitude, position.latitude);
+    }
+  }
+
+  private void unindexMarker(String markerId, LatLng position) {
+    if (position != null) {
+      markerIndex.remove(markerId, position.longitude, position.latitude);
+    }
+  }
+
+  private static boolean positionEquals(LatLng a, LatLng b) {
+    return a == null
+        ? b == null
+        : b != null && a.latitude == b.latitude && a.longitude == b.longitude;
   }
 
   @SuppressWarnings("unchecked")
@@ -0,0 +1,321 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Applies the overlay updates of a map in order, without blocking the platform thread for long.
+ *
+ * <p>Updates that add at least {@link #BACKGROUND_THRESHOLD} overlays are parsed on a background
+ * thread, and their overlays are then added to the map a few milliseconds per frame. Smaller
+ * updates are applied right away, unless they have to wait for a larger one. Calls that read the
+ * overlays are queued as a {@link Query}, so that they see the updates sent before them.
+ */
+class OverlayUpdateQueue {
+  static final int BACKGROUND_THRESHOLD = 100;
+  // Leaves most of a 60 Hz frame for rendering.
+  private static final long FRAME_BUDGET_MILLIS = 8;
+  private static final String DISPOSED_MESSAGE =
+      "The map was disposed before the update was applied.";
+
+  /**
+   * An update of a type of overlay, that adds the overlays it parses with {@link #interpret} and
+   * then runs {@link #finish}.
+   *
+   * @param <B> the type of the builders the overlays to add are parsed into.
+   */
+  abstract static class Update<B> {
+    private final List<Object> objectsToAdd;
+    private final MethodChannel.Result result;
+    private final List<String> ids = new ArrayList<>();
+    private final List<B> builders = new ArrayList<>();
+    private int added;
+    // Only accessed on the platform thread.
+    private boolean prepared;
+    private RuntimeException error;
+
+    /** {@code result}, which may be null, is resolved once the update is applied. */
+    Update(List<Object> objectsToAdd, MethodChannel.Result result) {
+      this.objectsToAdd = objectsToAdd;
+      this.result = result;
+    }
+
+    /** Returns a builder for an overlay to add, called on any thread. */
+    abstract B newBuilder();
+
+    /** Parses {@code object} into {@code builder} and returns its id, called on any thread. */
+    abstract String interpret(Object object, B builder);
+
+    /** Parses the rest of the update, called on the same thread as {@link #interpret}. */
+    void interpretChanges() {}
+
+    /** Adds the overlay built by {@code builder} to the map. */
+    abstract void add(String id, B builder);
+
+    /** Applies the rest of the update once every overlay has been added. */
+    abstract void finish();
+
+    /** Resolves {@code result} once the update is applied. */
+    void resolve(MethodChannel.Result result) {
+      result.success(null);
+    }
+
+    /** Returns the number of overlays to add, large updates are parsed in the background. */
+    int size() {
+      return objectsToAdd == null ? 0 : objectsToAdd.size();
+    }
+
+    private void prepare() {
+      if (objectsToAdd != null) {
+        for (Object object : objectsToAdd) {
+          if (object != null) {
+            B builder = newBuilder();
+            ids.add(interpret(object, builder));
+            builders.add(builder);
+          }
+        }
+      }
+      interpretChanges();
+    }
+
+    /** Adds overlays until {@code deadlineMillis}, returns whether the update is complete. */
+    private boolean apply(long deadlineMillis) {
+      // At least one overlay is added per call, so that an update always makes progress.
+      int start = added;
+      while (added < builders.size()) {
+        if (added > start && SystemClock.uptimeMillis() >= deadlineMillis) {
+          return false;
+        }
+        add(ids.get(added), builders.get(added));
+        added++;
+      }
+      finish();
+      if (result != null) {
+        resolve(result);
+      }
+      return true;
+    }
+
+    private void fail(String message) {
+      if (result != null) {
+        result.error("error", message, null);
+      }
+    }
+  }
+
+  /**
+   * A call that adds no overlays and is answered by {@link #resolve} once the updates queued before
+   * it have been applied.
+   */
+  abstract static class Query extends Update<Void> {
+    Query(MethodChannel.Result result) {
+      super(null, result);
+    }
+
+    @Override
+    Void newBuilder() {
+      return null;
+    }
+
+    @Override
+    String interpret(Object object, Void builder) {
+      return null;
+    }
+
+    @Override
+    void add(String id, Void builder) {}
+
+    @Override
+    void finish() {}
+
+    @Override
+    abstract void resolve(MethodChannel.Result result);
+  }
+
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final ArrayDeque<Update<?>> updates = new ArrayDeque<>();
+  private ExecutorService executor;
+  private boolean frameScheduled;
+  private boolean disposed;
+
+  private final Choreographer.FrameCallback frameCallback =
+      new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+          frameScheduled = false;
+          drain();
+        }
+      };
+
+  /**
+   * Returns a result that resolves {@code result} once it has been resolved {@code count} times,
+   * with the first error if there was one.
+   */
+  static MethodChannel.Result join(final MethodChannel.Result result, final int count) {
+    return new MethodChannel.Result() {
+      private int remaining = count;
+      private String errorCode;
+      private String errorMessage;
+      private Object errorDetails;
+
+      @Override
+      public void success(Object ignored) {
+        resolve();
+      }
+
+      @Override
+      public void error(String code, String message, Object details) {
+        if (errorCode == null) {
+          errorCode = code;
+          errorMessage = message;
+          errorDetails = details;
+        }
+        resolve();
+      }
+
+      @Override
+      public void notImplemented() {
+        error("error", "Overlay update not implemented.", null);
+      }
+
+      private void resolve() {
+        remaining--;
+        if (remaining != 0) {
+          return;
+        }
+        if (errorCode != null) {
+          result.error(errorCode, errorMessage, errorDetails);
+        } else {
+          result.success(null);
+        }
+      }
+    };
+  }
+
+  /** Applies {@code update} after the updates that are already queued. */
+  void enqueue(final Update<?> update) {
+    if (disposed) {
+      update.fail(DISPOSED_MESSAGE);
+      return;
+    }
+    boolean background = update.size() >= BACKGROUND_THRESHOLD;
+    if (!background && updates.isEmpty()) {
+      try {
+        update.prepare();
+        update.apply(Long.MAX_VALUE);
+      } catch (RuntimeException e) {
+        update.fail(e.getMessage());
+      }
+      return;
+    }
+    if (!background) {
+      try {
+        update.prepare();
+      } catch (RuntimeException e) {
+        update.error = e;
+      }
+      update.prepared = true;
+      updates.add(update);
+      return;
+    }
+    updates.add(update);
+    getExecutor()
+        .execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                RuntimeException error = null;
+                try {
+                  update.prepare();
+                } catch (RuntimeException e) {
+                  error = e;
+                }
+                final RuntimeException prepareError = error;
+                handler.post(
+                    new Runnable() {
+                      @Override
+                      public void run() {
+                        update.prepared = true;
+                        update.error = prepareError;
+                        drain();
+                      }
+                    });
+              }
+            });
+  }
+
+  /** Stops applying updates, and fails the updates that are still queued. */
+  void dispose() {
+    disposed = true;
+    for (Update<?> update : updates) {
+      update.fail(DISPOSED_MESSAGE);
+    }
+    updates.clear();
+    if (frameScheduled) {
+      Choreographer.getInstance().removeFrameCallback(frameCallback);
+      frameScheduled = false;
+    }
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  private void drain() {
+    if (disposed || frameScheduled) {
+      return;
+    }
+    long deadlineMillis = SystemClock.uptimeMillis() + FRAME_BUDGET_MILLIS;
+    while (!updates.isEmpty() && updates.peek().prepared) {
+      Update<?> update = updates.peek();
+      if (update.error != null) {
+        updates.poll();
+        update.fail(update.error.getMessage());
+        continue;
+      }
+      boolean complete;
+      try {
+        complete = update.apply(deadlineMillis);
+      } catch (RuntimeException e) {
+        updates.poll();
+        update.fail(e.getMessage());
+        continue;
+      }
+      if (!complete) {
+        frameScheduled = true;
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+        return;
+      }
+      updates.poll();
+    }
+  }
+
+  private ExecutorService getExecutor() {
+    if (executor == null) {
+      executor =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                  Thread thread = new Thread(runnable, "google_maps-overlays");
+                  thread.setPriority(Thread.NORM_PRIORITY - 1);
+                  return thread;
+                }
+              });
+    }
+    return executor;
+  }
+}
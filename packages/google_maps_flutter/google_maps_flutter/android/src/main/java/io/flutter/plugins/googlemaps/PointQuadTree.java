@@ -0,0 +1,153 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A region quadtree of points, used to find the values that lie inside a rectangle without walking
+ * all of them.
+ *
+ * <p>Leaves hold up to {@link #MAX_ELEMENTS} points before they are split in four, so a query only
+ * visits the leaves that intersect the rectangle. Values are compared with {@link
+ * Object#equals(Object)} on removal.
+ */
+class PointQuadTree<T> {
+  private static final int MAX_ELEMENTS = 50;
+  private static final int MAX_DEPTH = 40;
+
+  private final Node<T> root;
+  private int size;
+
+  PointQuadTree(double minX, double maxX, double minY, double maxY) {
+    root = new Node<>(minX, maxX, minY, maxY, 0);
+  }
+
+  int size() {
+    return size;
+  }
+
+  void add(T value, double x, double y) {
+    root.add(new Item<>(value, x, y));
+    size++;
+  }
+
+  /** Removes {@code value} from the point it was added at, returns whether it was found. */
+  boolean remove(T value, double x, double y) {
+    if (root.remove(value, x, y)) {
+      size--;
+      return true;
+    }
+    return false;
+  }
+
+  void clear() {
+    root.children = null;
+    root.items = new ArrayList<>();
+    size = 0;
+  }
+
+  /** Adds every value whose point lies inside the rectangle, edges included, to {@code out}. */
+  void search(double minX, double maxX, double minY, double maxY, Collection<? super T> out) {
+    root.search(minX, maxX, minY, maxY, out);
+  }
+
+  private static final class Item<T> {
+    final T value;
+    final double x;
+    final double y;
+
+    Item(T value, double x, double y) {
+      this.value = value;
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+  private static final class Node<T> {
+    private final double minX;
+    private final double maxX;
+    private final double minY;
+    private final double maxY;
+    private final int depth;
+    // Exactly one of items and children is non-null.
+    private List<Item<T>> items = new ArrayList<>();
+    private Node<T>[] children;
+
+    Node(double minX, double maxX, double minY, double maxY, int depth) {
+      this.minX = minX;
+      this.maxX = maxX;
+      this.minY = minY;
+      this.maxY = maxY;
+      this.depth = depth;
+    }
+
+    void add(Item<T> item) {
+      if (children != null) {
+        childFor(item.x, item.y).add(item);
+        return;
+      }
+      items.add(item);
+      if (items.size() > MAX_ELEMENTS && depth < MAX_DEPTH) {
+        split();
+      }
+    }
+
+    boolean remove(T value, double x, double y) {
+      if (children != null) {
+        return childFor(x, y).remove(value, x, y);
+      }
+      for (int i = 0; i < items.size(); i++) {
+        Item<T> item = items.get(i);
+        if (item.x == x && item.y == y && item.value.equals(value)) {
+          items.remove(i);
+          return true;
+        }
+      }
+      return false;
+    }
+
+    void search(double minX, double maxX, double minY, double maxY, Collection<? super T> out) {
+      if (minX > this.maxX || maxX < this.minX || minY > this.maxY || maxY < this.minY) {
+        return;
+      }
+      if (children != null) {
+        for (Node<T> child : children) {
+          child.search(minX, maxX, minY, maxY, out);
+        }
+        return;
+      }
+      for (Item<T> item : items) {
+        if (item.x >= minX && item.x <= maxX && item.y >= minY && item.y <= maxY) {
+          out.add(item.value);
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void split() {
+      double midX = (minX + maxX) / 2;
+      double midY = (minY + maxY) / 2;
+      children = (Node<T>[]) new Node<?>[4];
+      children[0] = new Node<>(minX, midX, minY, midY, depth + 1);
+      children[1] = new Node<>(midX, maxX, minY, midY, depth + 1);
+      children[2] = new Node<>(minX, midX, midY, maxY, depth + 1);
+      children[3] = new Node<>(midX, maxX, midY, maxY, depth + 1);
+      List<Item<T>> oldItems = items;
+      items = null;
+      for (Item<T> item : oldItems) {
+        childFor(item.x, item.y).add(item);
+      }
+    }
+
+    private Node<T> childFor(double x, double y) {
+      double midX = (minX + maxX) / 2;
+      double midY = (minY + maxY) / 2;
+      return children[(y < midY ? 0 : 2) + (x < midX ? 0 : 1)];
+    }
+  }
+}
@@ -31,12 +31,37 @@ class PolygonsController {
     this.googleMap = googleMap;
   }
 
-  void addPolygons(List<Object> polygonsToAdd) {
-    if (polygonsToAdd != null) {
-      for (Object polygonToAdd : polygonsToAdd) {
-        addPolygon(polygonToAdd);
+  /**
+   * Returns an update that adds {@code polygonsToAdd}, then changes and removes polygons, and then
+   * resolves {@code result}, which may be null.
+   */
+  OverlayUpdateQueue.Update<PolygonBuilder> update(
+      List<Object> polygonsToAdd,
+      final List<Object> polygonsToChange,
+      final List<Object> polygonIdsToRemove,
+      MethodChannel.Result result) {
+    return new OverlayUpdateQueue.Update<PolygonBuilder>(polygonsToAdd, result) {
+      @Override
+      PolygonBuilder newBuilder() {
+        return new PolygonBuilder(density);
       }
-    }
+
+      @Override
+      String interpret(Object polygon, PolygonBuilder polygonBuilder) {
+        return Convert.interpretPolygonOptions(polygon, polygonBuilder);
+      }
+
+      @Override
+      void add(String polygonId, PolygonBuilder polygonBuilder) {
+        addPolygon(polygonId, polygonBuilder);
+      }
+
+      @Override
+      void finish() {
+        changePolygons(polygonsToChange);
+        removePolygons(polygonIdsToRemove);
+      }
+    };
   }
 
   void changePolygons(List<Object> polygonsToChange) {
@@ -77,12 +102,7 @@ class PolygonsController {
     return false;
   }
 
-  private void addPolygon(Object polygon) {
-    if (polygon == null) {
-      return;
-    }
-    PolygonBuilder polygonBuilder = new PolygonBuilder(density);
-    String polygonId = Convert.interpretPolygonOptions(polygon, polygonBuilder);
+  private void addPolygon(String polygonId, PolygonBuilder polygonBuilder) {
     PolygonOptions options = polygonBuilder.build();
     addPolygon(polygonId, options, polygonBuilder.consumeTapEvents());
   }
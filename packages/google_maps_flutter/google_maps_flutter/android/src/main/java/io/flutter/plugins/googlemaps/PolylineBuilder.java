@@ -13,6 +13,9 @@ import java.util.List;
 class PolylineBuilder implements PolylineOptionsSink {
   private final PolylineOptions polylineOptions;
   private boolean consumeTapEvents;
+  private boolean simplify;
+  private List<LatLng> points;
+  private PolylineSimplifier simplifier;
   private final float density;
 
   PolylineBuilder(float density) {
@@ -21,6 +24,10 @@ class PolylineBuilder implements PolylineOptionsSink {
   }
 
   PolylineOptions build() {
+    // A simplified polyline is added without points, its controller sets the simplified ones.
+    if (points != null && !simplify) {
+      polylineOptions.addAll(points);
+    }
     return polylineOptions;
   }
 
@@ -28,6 +35,15 @@ class PolylineBuilder implements PolylineOptionsSink {
     return consumeTapEvents;
   }
 
+  boolean simplify() {
+    return simplify;
+  }
+
+  /** Returns the simplifier of the points of a simplified polyline, null if there is none. */
+  PolylineSimplifier getSimplifier() {
+    return simplifier;
+  }
+
   @Override
   public void setColor(int color) {
     polylineOptions.color(color);
@@ -50,7 +66,14 @@ class PolylineBuilder implements PolylineOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
-    polylineOptions.addAll(points);
+    this.points = points;
+    // Built here, on the thread that interprets the update, as it takes a pass over the points.
+    simplifier = simplify ? new PolylineSimplifier(points) : null;
+  }
+
+  @Override
+  public void setSimplify(boolean simplify) {
+    this.simplify = simplify;
   }
 
   @Override
@@ -8,6 +8,8 @@ import com.google.android.gms.maps.model.Cap;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.PatternItem;
 import com.google.android.gms.maps.model.Polyline;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /** Controller of a single Polyline on the map. */
@@ -16,6 +18,10 @@ class PolylineController implements PolylineOptionsSink {
   private final String googleMapsPolylineId;
   private boolean consumeTapEvents;
   private final float density;
+  // Holds the full geometry while the polyline is simplified.
+  private PolylineSimplifier simplifier;
+  // The indices of the points on the map, null when they have to be recomputed.
+  private int[] shownIndices;
 
   PolylineController(Polyline polyline, boolean consumeTapEvents, float density) {
     this.polyline = polyline;
@@ -61,7 +67,46 @@ class PolylineController implements PolylineOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
-    polyline.setPoints(points);
+    if (simplifier == null) {
+      polyline.setPoints(points);
+      return;
+    }
+    setSimplifier(new PolylineSimplifier(points));
+  }
+
+  /** Sets the points of a simplified polyline from a simplifier that was built off this thread. */
+  void setSimplifier(PolylineSimplifier simplifier) {
+    this.simplifier = simplifier;
+    shownIndices = null;
+  }
+
+  @Override
+  public void setSimplify(boolean simplify) {
+    if (simplify == (simplifier != null)) {
+      return;
+    }
+    if (simplify) {
+      // The points follow the simplify option, see Convert.interpretPolylineOptions.
+      simplifier = new PolylineSimplifier(Collections.<LatLng>emptyList());
+    } else {
+      polyline.setPoints(simplifier.getPoints());
+      simplifier = null;
+    }
+    shownIndices = null;
+  }
+
+  boolean simplifies() {
+    return simplifier != null;
+  }
+
+  /** Shows the points that are needed at {@code zoom}, with full detail inside {@code region}. */
+  void simplify(float zoom, LatLngRegion region) {
+    int[] indices = simplifier.select(PolylineSimplifier.toleranceAt(zoom), region);
+    if (Arrays.equals(indices, shownIndices)) {
+      return;
+    }
+    shownIndices = indices;
+    polyline.setPoints(simplifier.getPoints(indices));
   }
 
   @Override
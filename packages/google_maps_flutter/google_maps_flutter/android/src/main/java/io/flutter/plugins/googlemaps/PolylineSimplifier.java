@@ -0,0 +1,137 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simplifies a polyline with the Douglas-Peucker algorithm at any tolerance, after a single pass
+ * over its points.
+ *
+ * <p>The pass records for every point the largest tolerance at which Douglas-Peucker keeps it, so
+ * the simplification at a given tolerance is the points whose significance is above it. Distances
+ * are measured on the Mercator projection of a world that is 1 wide.
+ */
+final class PolylineSimplifier {
+  // Width of the world in density independent pixels at zoom level 0.
+  private static final double WORLD_SIZE = 256;
+  // Points closer than this many density independent pixels to the simplified line are dropped.
+  private static final double TOLERANCE_PIXELS = 1;
+  // How much coarser the polyline is outside of the detailed region, 16 is 4 zoom levels.
+  private static final double OUTSIDE_TOLERANCE_FACTOR = 16;
+
+  private final List<LatLng> points;
+  private final double[] significance;
+
+  PolylineSimplifier(List<LatLng> points) {
+    this.points = points;
+    this.significance = computeSignificance(points);
+  }
+
+  /** Returns the tolerance at which a simplified line is within a pixel of the full one. */
+  static double toleranceAt(float zoom) {
+    return TOLERANCE_PIXELS / (WORLD_SIZE * Math.pow(2, Math.floor(zoom)));
+  }
+
+  /**
+   * Returns the indices of the points to keep at {@code tolerance}, or at a coarser tolerance for
+   * the points outside of {@code region}.
+   */
+  int[] select(double tolerance, LatLngRegion region) {
+    double outsideTolerance = tolerance * OUTSIDE_TOLERANCE_FACTOR;
+    int count = 0;
+    boolean[] keep = new boolean[points.size()];
+    for (int i = 0; i < keep.length; i++) {
+      double pointTolerance = region.contains(points.get(i)) ? tolerance : outsideTolerance;
+      if (significance[i] > pointTolerance) {
+        keep[i] = true;
+        count++;
+      }
+    }
+    int[] indices = new int[count];
+    count = 0;
+    for (int i = 0; i < keep.length; i++) {
+      if (keep[i]) {
+        indices[count++] = i;
+      }
+    }
+    return indices;
+  }
+
+  /** Returns all the points of the polyline. */
+  List<LatLng> getPoints() {
+    return points;
+  }
+
+  List<LatLng> getPoints(int[] indices) {
+    List<LatLng> result = new ArrayList<>(indices.length);
+    for (int index : indices) {
+      result.add(points.get(index));
+    }
+    return result;
+  }
+
+  private static double[] computeSignificance(List<LatLng> points) {
+    int size = points.size();
+    double[] significance = new double[size];
+    if (size == 0) {
+      return significance;
+    }
+    double[] x = new double[size];
+    double[] y = new double[size];
+    for (int i = 0; i < size; i++) {
+      x[i] = MarkerClusterer.projectX(points.get(i).longitude);
+      y[i] = MarkerClusterer.projectY(points.get(i).latitude);
+    }
+    significance[0] = Double.POSITIVE_INFINITY;
+    significance[size - 1] = Double.POSITIVE_INFINITY;
+
+    // Segments to split as pairs of indices, iterative so that long lines can't overflow the stack.
+    int[] stack = new int[Math.max(2, size * 2)];
+    int stackSize = 0;
+    stack[stackSize++] = 0;
+    stack[stackSize++] = size - 1;
+    while (stackSize > 0) {
+      int last = stack[--stackSize];
+      int first = stack[--stackSize];
+      int farthest = -1;
+      double maxDistance = -1;
+      for (int i = first + 1; i < last; i++) {
+        double distance = segmentDistance(x[i], y[i], x[first], y[first], x[last], y[last]);
+        if (distance > maxDistance) {
+          maxDistance = distance;
+          farthest = i;
+        }
+      }
+      if (farthest < 0) {
+        continue;
+      }
+      // A point is never more significant than the point that split its segment, so the points
+      // above a tolerance are exactly the ones Douglas-Peucker keeps at that tolerance.
+      significance[farthest] =
+          Math.min(maxDistance, Math.min(significance[first], significance[last]));
+      stack[stackSize++] = first;
+      stack[stackSize++] = farthest;
+      stack[stackSize++] = farthest;
+      stack[stackSize++] = last;
+    }
+    return significance;
+  }
+
+  /** Returns the distance from {@code (px, py)} to the segment from {@code a} to {@code b}. */
+  private static double segmentDistance(
+      double px, double py, double ax, double ay, double bx, double by) {
+    double dx = bx - ax;
+    double dy = by - ay;
+    double lengthSquared = dx * dx + dy * dy;
+    double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+    t = Math.max(0, Math.min(1, t));
+    double ex = px - (ax + t * dx);
+    double ey = py - (ay + t * dy);
+    return Math.sqrt(ex * ex + ey * ey);
+  }
+}
@@ -13,6 +13,9 @@ import java.util.List;
 import java.util.Map;
 
 class PolylinesController {
+  // How far past the visible region simplified polylines keep full detail, as a fraction of the
+  // region's size, so that a short pan doesn't show the coarser shape.
+  private static final double SIMPLIFICATION_MARGIN = 0.5;
 
   private final Map<String, PolylineController> polylineIdToController;
   private final Map<String, String> googleMapsPolylineIdToDartPolylineId;
@@ -31,18 +34,74 @@ class PolylinesController {
     this.googleMap = googleMap;
   }
 
-  void addPolylines(List<Object> polylinesToAdd) {
-    if (polylinesToAdd != null) {
-      for (Object polylineToAdd : polylinesToAdd) {
-        addPolyline(polylineToAdd);
+  /**
+   * Returns an update that adds {@code polylinesToAdd}, then changes and removes polylines, and
+   * then resolves {@code result}, which may be null.
+   */
+  OverlayUpdateQueue.Update<PolylineBuilder> update(
+      final List<Object> polylinesToAdd,
+      final List<Object> polylinesToChange,
+      final List<Object> polylineIdsToRemove,
+      MethodChannel.Result result) {
+    return new OverlayUpdateQueue.Update<PolylineBuilder>(polylinesToAdd, result) {
+      // The simplifiers of the changed polylines that are simplified, by polyline id.
+      private final Map<String, PolylineSimplifier> simplifiers = new HashMap<>();
+
+      @Override
+      int size() {
+        // Simplifiers take a pass over the points, so they are always built in the background.
+        if (hasSimplifiedPoints(polylinesToAdd) || hasSimplifiedPoints(polylinesToChange)) {
+          return Math.max(super.size(), OverlayUpdateQueue.BACKGROUND_THRESHOLD);
+        }
+        return super.size();
       }
-    }
+
+      @Override
+      PolylineBuilder newBuilder() {
+        return new PolylineBuilder(density);
+      }
+
+      @Override
+      String interpret(Object polyline, PolylineBuilder polylineBuilder) {
+        return Convert.interpretPolylineOptions(polyline, polylineBuilder);
+      }
+
+      @Override
+      void interpretChanges() {
+        if (polylinesToChange == null) {
+          return;
+        }
+        for (Object polylineToChange : polylinesToChange) {
+          if (hasSimplifiedPoints(polylineToChange)) {
+            PolylineBuilder polylineBuilder = newBuilder();
+            String polylineId = Convert.interpretPolylineOptions(polylineToChange, polylineBuilder);
+            simplifiers.put(polylineId, polylineBuilder.getSimplifier());
+          }
+        }
+      }
+
+      @Override
+      void add(String polylineId, PolylineBuilder polylineBuilder) {
+        addPolyline(polylineId, polylineBuilder);
+      }
+
+      @Override
+      void finish() {
+        changePolylines(polylinesToChange, simplifiers);
+        removePolylines(polylineIdsToRemove);
+      }
+    };
   }
 
-  void changePolylines(List<Object> polylinesToChange) {
+  /**
+   * Changes {@code polylinesToChange}, giving the ones that are simplified the simplifier of their
+   * new points from {@code simplifiers}.
+   */
+  void changePolylines(
+      List<Object> polylinesToChange, Map<String, PolylineSimplifier> simplifiers) {
     if (polylinesToChange != null) {
       for (Object polylineToChange : polylinesToChange) {
-        changePolyline(polylineToChange);
+        changePolyline(polylineToChange, simplifiers);
       }
     }
   }
@@ -64,6 +123,25 @@ class PolylinesController {
     }
   }
 
+  /** Simplifies the polylines that have the simplify option for the camera's new position. */
+  void onCameraIdle() {
+    if (googleMap == null) {
+      return;
+    }
+    float zoom = 0;
+    LatLngRegion region = null;
+    for (PolylineController controller : polylineIdToController.values()) {
+      if (!controller.simplifies()) {
+        continue;
+      }
+      if (region == null) {
+        zoom = googleMap.getCameraPosition().zoom;
+        region = visibleRegion();
+      }
+      controller.simplify(zoom, region);
+    }
+  }
+
   boolean onPolylineTap(String googlePolylineId) {
     String polylineId = googleMapsPolylineIdToDartPolylineId.get(googlePolylineId);
     if (polylineId == null) {
@@ -77,38 +155,85 @@ class PolylinesController {
     return false;
   }
 
-  private void addPolyline(Object polyline) {
-    if (polyline == null) {
-      return;
-    }
-    PolylineBuilder polylineBuilder = new PolylineBuilder(density);
-    String polylineId = Convert.interpretPolylineOptions(polyline, polylineBuilder);
+  private void addPolyline(String polylineId, PolylineBuilder polylineBuilder) {
     PolylineOptions options = polylineBuilder.build();
-    addPolyline(polylineId, options, polylineBuilder.consumeTapEvents());
+    PolylineController controller =
+        addPolyline(polylineId, options, polylineBuilder.consumeTapEvents());
+    if (polylineBuilder.simplify()) {
+      controller.setSimplify(true);
+      if (polylineBuilder.getSimplifier() != null) {
+        controller.setSimplifier(polylineBuilder.getSimplifier());
+      }
+      simplify(controller);
+    }
   }
 
-  private void addPolyline(
+  private PolylineController addPolyline(
       String polylineId, PolylineOptions polylineOptions, boolean consumeTapEvents) {
     final Polyline polyline = googleMap.addPolyline(polylineOptions);
     PolylineController controller = new PolylineController(polyline, consumeTapEvents, density);
     polylineIdToController.put(polylineId, controller);
     googleMapsPolylineIdToDartPolylineId.put(polyline.getId(), polylineId);
+    return controller;
   }
 
-  private void changePolyline(Object polyline) {
+  private void changePolyline(Object polyline, Map<String, PolylineSimplifier> simplifiers) {
     if (polyline == null) {
       return;
     }
     String polylineId = getPolylineId(polyline);
     PolylineController polylineController = polylineIdToController.get(polylineId);
     if (polylineController != null) {
-      Convert.interpretPolylineOptions(polyline, polylineController);
+      PolylineSimplifier simplifier = simplifiers.get(polylineId);
+      if (simplifier != null) {
+        // The points were already interpreted into the simplifier.
+        Map<String, Object> options = new HashMap<>(toMap(polyline));
+        options.remove("points");
+        Convert.interpretPolylineOptions(options, polylineController);
+        polylineController.setSimplifier(simplifier);
+      } else {
+        Convert.interpretPolylineOptions(polyline, polylineController);
+      }
+      if (polylineController.simplifies()) {
+        simplify(polylineController);
+      }
     }
   }
 
-  @SuppressWarnings("unchecked")
+  private void simplify(PolylineController controller) {
+    controller.simplify(googleMap.getCameraPosition().zoom, visibleRegion());
+  }
+
+  private LatLngRegion visibleRegion() {
+    return LatLngRegion.around(
+        googleMap.getProjection().getVisibleRegion().latLngBounds, SIMPLIFICATION_MARGIN);
+  }
+
+  private static boolean hasSimplifiedPoints(List<Object> polylines) {
+    if (polylines != null) {
+      for (Object polyline : polylines) {
+        if (hasSimplifiedPoints(polyline)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasSimplifiedPoints(Object polyline) {
+    if (polyline == null) {
+      return false;
+    }
+    Map<String, Object> polylineMap = toMap(polyline);
+    return Boolean.TRUE.equals(polylineMap.get("simplify")) && polylineMap.get("points") != null;
+  }
+
   private static String getPolylineId(Object polyline) {
-    Map<String, Object> polylineMap = (Map<String, Object>) polyline;
-    return (String) polylineMap.get("polylineId");
+    return (String) toMap(polyline).get("polylineId");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> toMap(Object polyline) {
+    return (Map<String, Object>) polyline;
   }
 }
@@ -0,0 +1,193 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Crops, scales and encodes map snapshots on a background thread, and replies with the encoded
+ * bytes or with the path of the file they were written to.
+ */
+class SnapshotEncoder {
+
+  /** How a snapshot is encoded. */
+  static final class Options {
+    Bitmap.CompressFormat format = Bitmap.CompressFormat.PNG;
+    // Ignored by PNG.
+    int quality = 100;
+    float scale = 1;
+    // The left, top, width and height in pixels of the part of the map to keep, null for all of it.
+    int[] region;
+    // The file to write the snapshot to, null to reply with its bytes.
+    String path;
+  }
+
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private ExecutorService executor;
+  private boolean disposed;
+
+  /**
+   * Encodes {@code snapshot}, which is recycled, and resolves {@code result} on the main thread.
+   *
+   * <p>{@code snapshot} may be null when the map could not take it, which is reported as an error.
+   */
+  void encode(final Bitmap snapshot, final Options options, final MethodChannel.Result result) {
+    if (snapshot == null) {
+      result.error("Snapshot failed", "The map could not take a snapshot.", null);
+      return;
+    }
+    if (disposed) {
+      snapshot.recycle();
+      result.error(
+          "Snapshot failed", "The map was disposed before the snapshot was encoded.", null);
+      return;
+    }
+    getExecutor()
+        .execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                Object reply = null;
+                String errorCode = null;
+                String errorMessage = null;
+                try {
+                  reply = encode(snapshot, options);
+                } catch (IllegalArgumentException e) {
+                  errorCode = "Invalid snapshot options";
+                  errorMessage = e.getMessage();
+                } catch (IOException e) {
+                  errorCode = "IOError";
+                  errorMessage = e.getMessage();
+                } catch (RuntimeException e) {
+                  errorCode = "Snapshot failed";
+                  errorMessage = e.getMessage();
+                } finally {
+                  snapshot.recycle();
+                }
+                final Object encoded = reply;
+                final String code = errorCode;
+                final String message = errorMessage;
+                handler.post(
+                    new Runnable() {
+                      @Override
+                      public void run() {
+                        if (code != null) {
+                          result.error(code, message, null);
+                        } else {
+                          result.success(encoded);
+                        }
+                      }
+                    });
+              }
+            });
+  }
+
+  /**
+   * Lets the snapshots that are being encoded finish, and stops the background thread. Later
+   * snapshots are answered with an error.
+   */
+  void dispose() {
+    disposed = true;
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+  }
+
+  private static Object encode(Bitmap snapshot, Options options) throws IOException {
+    if (options.scale <= 0) {
+      throw new IllegalArgumentException("The snapshot scale must be positive.");
+    }
+    int[] region = clip(options.region, snapshot.getWidth(), snapshot.getHeight());
+    if (region == null) {
+      throw new IllegalArgumentException("The snapshot region is outside of the map.");
+    }
+    Bitmap bitmap = snapshot;
+    if (region[0] != 0
+        || region[1] != 0
+        || region[2] != snapshot.getWidth()
+        || region[3] != snapshot.getHeight()) {
+      bitmap = Bitmap.createBitmap(snapshot, region[0], region[1], region[2], region[3]);
+    }
+    if (options.scale != 1) {
+      Bitmap scaled =
+          Bitmap.createScaledBitmap(
+              bitmap, scale(region[2], options.scale), scale(region[3], options.scale), true);
+      if (bitmap != snapshot && scaled != bitmap) {
+        bitmap.recycle();
+      }
+      bitmap = scaled;
+    }
+    try {
+      if (options.path != null) {
+        OutputStream stream = new FileOutputStream(options.path);
+        try {
+          if (!bitmap.compress(options.format, options.quality, stream)) {
+            throw new IOException("Could not encode the snapshot.");
+          }
+        } finally {
+          stream.close();
+        }
+        return options.path;
+      }
+      ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      bitmap.compress(options.format, options.quality, stream);
+      return stream.toByteArray();
+    } finally {
+      if (bitmap != snapshot) {
+        bitmap.recycle();
+      }
+    }
+  }
+
+  /**
+   * Returns {@code region} clipped to a snapshot of {@code width} by {@code height} pixels, all of
+   * the snapshot if {@code region} is null, or null if nothing of the snapshot is left.
+   */
+  static int[] clip(int[] region, int width, int height) {
+    if (region == null) {
+      return new int[] {0, 0, width, height};
+    }
+    int left = Math.max(0, region[0]);
+    int top = Math.max(0, region[1]);
+    int right = Math.min(width, region[0] + region[2]);
+    int bottom = Math.min(height, region[1] + region[3]);
+    if (right <= left || bottom <= top) {
+      return null;
+    }
+    return new int[] {left, top, right - left, bottom - top};
+  }
+
+  /** Returns {@code size} multiplied by {@code scale}, at least 1 pixel. */
+  static int scale(int size, float scale) {
+    return Math.max(1, Math.round(size * scale));
+  }
+
+  private ExecutorService getExecutor() {
+    if (executor == null) {
+      executor =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                  Thread thread = new Thread(runnable, "google_maps-snapshots");
+                  thread.setPriority(Thread.NORM_PRIORITY - 1);
+                  return thread;
+                }
+              });
+    }
+    return executor;
+  }
+}
@@ -0,0 +1,341 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A directory of files that is trimmed to a maximum size, least recently used files first.
+ *
+ * <p>The files are listed once, into an in-memory index in least recently used order, so that
+ * reads and writes do not scan the directory. When the cache grows over its maximum size it is
+ * trimmed to {@link #TRIM_FRACTION} of it, which leaves room for a number of writes before the
+ * next trim.
+ *
+ * <p>Use {@link #forDirectory}, so that every map that caches into a directory shares the same
+ * instance and index. Reads and writes block, they are only done on the threads the map requests
+ * tiles on. Only the index is updated under the lock of the instance, the files are read and
+ * written outside of it so that the maps sharing the cache don't wait on each other's IO.
+ */
+class TileDiskCache {
+  private static final double TRIM_FRACTION = 0.9;
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final String DETACHED_INFIX = ".deleted.";
+
+  // The live instance of each directory.
+  private static final Map<String, WeakReference<TileDiskCache>> instances = new HashMap<>();
+
+  /**
+   * Returns the cache of {@code directory}, which is shared with the other users of the directory.
+   * The maximum size is updated to {@code maxBytes} for all of them.
+   */
+  static TileDiskCache forDirectory(File directory, long maxBytes) {
+    synchronized (instances) {
+      Iterator<WeakReference<TileDiskCache>> iterator = instances.values().iterator();
+      while (iterator.hasNext()) {
+        if (iterator.next().get() == null) {
+          iterator.remove();
+        }
+      }
+      WeakReference<TileDiskCache> reference = instances.get(directory.getPath());
+      TileDiskCache cache = reference != null ? reference.get() : null;
+      if (cache == null) {
+        cache = new TileDiskCache(directory, maxBytes);
+        instances.put(directory.getPath(), new WeakReference<>(cache));
+      } else {
+        cache.setMaxBytes(maxBytes);
+      }
+      return cache;
+    }
+  }
+
+  private final File directory;
+  private long maxBytes;
+  // The length of every file by name, least recently used first. Null until the directory has
+  // been listed.
+  private LinkedHashMap<String, Long> index;
+  private long sizeBytes;
+  // Incremented whenever the cache is emptied, so that writes started before are not indexed.
+  private int generation;
+
+  TileDiskCache(File directory, long maxBytes) {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+  }
+
+  void setMaxBytes(long maxBytes) {
+    List<File> evicted;
+    synchronized (this) {
+      this.maxBytes = maxBytes;
+      evicted = index != null && sizeBytes > maxBytes ? trim() : null;
+    }
+    deleteFiles(evicted);
+  }
+
+  /** Returns the contents of the file stored under {@code key}, or null if there is none. */
+  byte[] get(String key) {
+    File file;
+    synchronized (this) {
+      if (maxBytes <= 0) {
+        return null;
+      }
+      loadIndex();
+      // Looking the key up in the access ordered index marks it as recently used.
+      if (index.get(key) == null) {
+        return null;
+      }
+      file = new File(directory, key);
+    }
+    try {
+      byte[] data = readFully(file);
+      // Keeps the order for the next time the directory is listed.
+      file.setLastModified(System.currentTimeMillis());
+      return data;
+    } catch (IOException e) {
+      // The file was trimmed or deleted since it was looked up.
+      synchronized (this) {
+        Long length = index.remove(key);
+        if (length != null) {
+          sizeBytes -= length;
+        }
+      }
+      return null;
+    }
+  }
+
+  /** Returns the generation to pass to {@link #put} for data loaded from now on. */
+  synchronized int getGeneration() {
+    return generation;
+  }
+
+  /** Stores {@code data} under {@code key}, and removes older files that no longer fit. */
+  void put(String key, byte[] data) {
+    put(key, data, getGeneration());
+  }
+
+  /**
+   * Same as {@link #put(String, byte[])}, but drops {@code data} if the cache was emptied since
+   * {@code generation} was returned by {@link #getGeneration}.
+   */
+  void put(String key, byte[] data, int generation) {
+    synchronized (this) {
+      if (maxBytes <= 0 || data.length > maxBytes || generation != this.generation) {
+        return;
+      }
+      loadIndex();
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      return;
+    }
+    File file = new File(directory, key);
+    File temp = null;
+    try {
+      // A unique name, as the same tile can be written by several maps at once.
+      temp = File.createTempFile(key + ".", TEMP_SUFFIX, directory);
+      FileOutputStream out = new FileOutputStream(temp);
+      try {
+        out.write(data);
+      } finally {
+        out.close();
+      }
+      // Readers never see a partially written file.
+      if (!temp.renameTo(file)) {
+        temp.delete();
+        return;
+      }
+    } catch (IOException e) {
+      if (temp != null) {
+        temp.delete();
+      }
+      return;
+    }
+    List<File> evicted;
+    synchronized (this) {
+      if (generation != this.generation) {
+        // Emptied while the file was written, which would otherwise outlive the data it was
+        // loaded from.
+        file.delete();
+        return;
+      }
+      Long previousLength = index.remove(key);
+      if (previousLength != null) {
+        sizeBytes -= previousLength;
+      }
+      index.put(key, (long) data.length);
+      sizeBytes += data.length;
+      evicted = sizeBytes > maxBytes ? trim() : null;
+    }
+    deleteFiles(evicted);
+  }
+
+  /** Deletes every file of the cache. */
+  void clear() {
+    synchronized (this) {
+      resetIndex();
+    }
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+  }
+
+  /**
+   * Empties the cache by renaming its directory, and returns the renamed directory so that its
+   * files can be deleted off the platform thread, or null if there was nothing to delete.
+   */
+  synchronized File detach() {
+    if (!directory.exists()) {
+      resetIndex();
+      return null;
+    }
+    File detached =
+        new File(
+            directory.getParentFile(), directory.getName() + DETACHED_INFIX + System.nanoTime());
+    if (!directory.renameTo(detached)) {
+      clear();
+      return null;
+    }
+    resetIndex();
+    return detached;
+  }
+
+  /**
+   * Deletes the directories in {@code parent} that were detached but not deleted, because the app
+   * was killed first.
+   */
+  static void deleteDetached(File parent) {
+    File[] files = parent.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      if (file.isDirectory() && file.getName().contains(DETACHED_INFIX)) {
+        delete(file);
+      }
+    }
+  }
+
+  /** Deletes a directory returned by {@link #detach}. */
+  static void delete(File detached) {
+    File[] files = detached.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    detached.delete();
+  }
+
+  synchronized long size() {
+    loadIndex();
+    return sizeBytes;
+  }
+
+  // Lists the directory into the index, oldest files first, and drops partially written files.
+  // This is only done once, under the lock, so that the index doesn't miss a concurrent write.
+  private void loadIndex() {
+    if (index != null) {
+      return;
+    }
+    index = new LinkedHashMap<>(16, 0.75f, true);
+    sizeBytes = 0;
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    final long[] lastModified = new long[files.length];
+    Integer[] order = new Integer[files.length];
+    for (int i = 0; i < files.length; i++) {
+      lastModified[i] = files[i].lastModified();
+      order[i] = i;
+    }
+    Arrays.sort(
+        order,
+        new Comparator<Integer>() {
+          @Override
+          public int compare(Integer a, Integer b) {
+            long difference = lastModified[a] - lastModified[b];
+            return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+          }
+        });
+    for (Integer i : order) {
+      File file = files[i];
+      if (file.getName().endsWith(TEMP_SUFFIX)) {
+        file.delete();
+      } else if (file.isFile()) {
+        long length = file.length();
+        index.put(file.getName(), length);
+        sizeBytes += length;
+      }
+    }
+    if (sizeBytes > maxBytes) {
+      deleteFiles(trim());
+    }
+  }
+
+  private void resetIndex() {
+    index = new LinkedHashMap<>(16, 0.75f, true);
+    sizeBytes = 0;
+    generation++;
+  }
+
+  // Removes the least recently used files from the index until the cache is down to
+  // TRIM_FRACTION of its size, and returns them for the caller to delete outside of the lock.
+  private List<File> trim() {
+    List<File> evicted = new ArrayList<>();
+    long targetBytes = (long) (maxBytes * TRIM_FRACTION);
+    Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+    while (sizeBytes > targetBytes && iterator.hasNext()) {
+      Map.Entry<String, Long> entry = iterator.next();
+      evicted.add(new File(directory, entry.getKey()));
+      sizeBytes -= entry.getValue();
+      iterator.remove();
+    }
+    return evicted;
+  }
+
+  private static void deleteFiles(List<File> files) {
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+  }
+
+  private static byte[] readFully(File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      return readFully(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,70 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.TileOverlayOptions;
+
+class TileOverlayBuilder implements TileOverlayOptionsSink {
+  private final TileOverlayOptions tileOverlayOptions;
+  private String urlTemplate;
+  private int tileSize = 256;
+  private long diskCacheSize;
+
+  TileOverlayBuilder() {
+    this.tileOverlayOptions = new TileOverlayOptions();
+  }
+
+  TileOverlayOptions build() {
+    return tileOverlayOptions;
+  }
+
+  /** Returns the URL template of the tiles, or null if they are provided by Dart. */
+  String getUrlTemplate() {
+    return urlTemplate;
+  }
+
+  int getTileSize() {
+    return tileSize;
+  }
+
+  long getDiskCacheSize() {
+    return diskCacheSize;
+  }
+
+  @Override
+  public void setFadeIn(boolean fadeIn) {
+    tileOverlayOptions.fadeIn(fadeIn);
+  }
+
+  @Override
+  public void setTransparency(float transparency) {
+    tileOverlayOptions.transparency(transparency);
+  }
+
+  @Override
+  public void setZIndex(float zIndex) {
+    tileOverlayOptions.zIndex(zIndex);
+  }
+
+  @Override
+  public void setVisible(boolean visible) {
+    tileOverlayOptions.visible(visible);
+  }
+
+  @Override
+  public void setUrlTemplate(String urlTemplate) {
+    this.urlTemplate = urlTemplate;
+  }
+
+  @Override
+  public void setTileSize(int tileSize) {
+    this.tileSize = tileSize;
+  }
+
+  @Override
+  public void setDiskCacheSize(long diskCacheSize) {
+    this.diskCacheSize = diskCacheSize;
+  }
+}
@@ -0,0 +1,80 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.TileOverlay;
+import java.io.File;
+
+/** Controller of a single TileOverlay on the map. */
+class TileOverlayController implements TileOverlayOptionsSink {
+  private final TileOverlay tileOverlay;
+  private final CachingTileProvider tileProvider;
+  private final String urlTemplate;
+  private final int tileSize;
+
+  TileOverlayController(
+      TileOverlay tileOverlay, CachingTileProvider tileProvider, String urlTemplate, int tileSize) {
+    this.tileOverlay = tileOverlay;
+    this.tileProvider = tileProvider;
+    this.urlTemplate = urlTemplate;
+    this.tileSize = tileSize;
+  }
+
+  /** Removes the overlay from the map, and returns the detached disk cache to delete if any. */
+  File remove(boolean deleteDiskCache) {
+    tileOverlay.remove();
+    return tileProvider.release(deleteDiskCache);
+  }
+
+  /** Clears the cached tiles, and returns the detached disk cache to delete if any. */
+  File clearTileCache() {
+    File detached = tileProvider.clear();
+    tileOverlay.clearTileCache();
+    return detached;
+  }
+
+  String getUrlTemplate() {
+    return urlTemplate;
+  }
+
+  int getTileSize() {
+    return tileSize;
+  }
+
+  @Override
+  public void setFadeIn(boolean fadeIn) {
+    tileOverlay.setFadeIn(fadeIn);
+  }
+
+  @Override
+  public void setTransparency(float transparency) {
+    tileOverlay.setTransparency(transparency);
+  }
+
+  @Override
+  public void setZIndex(float zIndex) {
+    tileOverlay.setZIndex(zIndex);
+  }
+
+  @Override
+  public void setVisible(boolean visible) {
+    tileOverlay.setVisible(visible);
+  }
+
+  @Override
+  public void setUrlTemplate(String urlTemplate) {
+    // The overlay is replaced when its URL template changes, see TileOverlaysController.
+  }
+
+  @Override
+  public void setTileSize(int tileSize) {
+    // The overlay is replaced when its tile size changes, see TileOverlaysController.
+  }
+
+  @Override
+  public void setDiskCacheSize(long diskCacheSize) {
+    tileProvider.setDiskCacheSize(diskCacheSize);
+  }
+}
@@ -0,0 +1,214 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileOverlay;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+class TileOverlaysController {
+  static final String CACHE_DIRECTORY_NAME = "google_maps_tiles";
+
+  private final Map<String, TileOverlayController> tileOverlayIdToController;
+  private final DartTileFetcher dartTileFetcher;
+  private final File cacheDirectory;
+  private final int mapId;
+  private GoogleMap googleMap;
+  private ExecutorService executor;
+
+  TileOverlaysController(MethodChannel methodChannel, File cacheDirectory, int mapId) {
+    this.tileOverlayIdToController = new HashMap<>();
+    this.dartTileFetcher = new DartTileFetcher(methodChannel);
+    this.cacheDirectory = new File(cacheDirectory, CACHE_DIRECTORY_NAME);
+    this.mapId = mapId;
+    // Deletes the caches that were cleared but not deleted yet when the app was last killed.
+    getExecutor()
+        .execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                TileDiskCache.deleteDetached(TileOverlaysController.this.cacheDirectory);
+              }
+            });
+  }
+
+  void setGoogleMap(GoogleMap googleMap) {
+    this.googleMap = googleMap;
+  }
+
+  void addTileOverlays(List<Object> tileOverlaysToAdd) {
+    if (tileOverlaysToAdd != null) {
+      for (Object tileOverlayToAdd : tileOverlaysToAdd) {
+        addTileOverlay(tileOverlayToAdd);
+      }
+    }
+  }
+
+  void changeTileOverlays(List<Object> tileOverlaysToChange) {
+    if (tileOverlaysToChange != null) {
+      for (Object tileOverlayToChange : tileOverlaysToChange) {
+        changeTileOverlay(tileOverlayToChange);
+      }
+    }
+  }
+
+  void removeTileOverlays(List<Object> tileOverlayIdsToRemove) {
+    if (tileOverlayIdsToRemove == null) {
+      return;
+    }
+    for (Object rawTileOverlayId : tileOverlayIdsToRemove) {
+      if (rawTileOverlayId == null) {
+        continue;
+      }
+      removeTileOverlay((String) rawTileOverlayId);
+    }
+  }
+
+  void clearTileCache(String tileOverlayId) {
+    TileOverlayController tileOverlayController = tileOverlayIdToController.get(tileOverlayId);
+    if (tileOverlayController != null) {
+      deleteInBackground(tileOverlayController.clearTileCache());
+    }
+  }
+
+  void dispose() {
+    dartTileFetcher.dispose();
+    for (TileOverlayController tileOverlayController : tileOverlayIdToController.values()) {
+      deleteInBackground(
+          tileOverlayController.remove(tileOverlayController.getUrlTemplate() == null));
+    }
+    tileOverlayIdToController.clear();
+    if (executor != null) {
+      // Lets the pending deletions finish.
+      executor.shutdown();
+      executor = null;
+    }
+  }
+
+  private void addTileOverlay(Object tileOverlay) {
+    if (tileOverlay == null) {
+      return;
+    }
+    TileOverlayBuilder tileOverlayBuilder = new TileOverlayBuilder();
+    String tileOverlayId = Convert.interpretTileOverlayOptions(tileOverlay, tileOverlayBuilder);
+    addTileOverlay(tileOverlayId, tileOverlayBuilder);
+  }
+
+  private void addTileOverlay(final String tileOverlayId, TileOverlayBuilder tileOverlayBuilder) {
+    String urlTemplate = tileOverlayBuilder.getUrlTemplate();
+    int tileSize = tileOverlayBuilder.getTileSize();
+    CachingTileProvider.TileSource source;
+    TileDiskCache diskCache;
+    if (urlTemplate != null) {
+      source = new UrlTileSource(urlTemplate, tileSize);
+      // Downloaded tiles are kept across launches, and shared by the maps that show them.
+      diskCache =
+          TileDiskCache.forDirectory(
+              new File(
+                  cacheDirectory,
+                  "url_" + Integer.toHexString(urlTemplate.hashCode()) + "_" + tileSize),
+              tileOverlayBuilder.getDiskCacheSize());
+    } else {
+      source =
+          new CachingTileProvider.TileSource() {
+            @Override
+            public Tile load(int x, int y, int zoom) {
+              return dartTileFetcher.fetch(tileOverlayId, x, y, zoom);
+            }
+          };
+      // The tiles of a Dart provider may differ from one launch to the next, an earlier overlay
+      // with the same id leaves nothing behind.
+      diskCache =
+          TileDiskCache.forDirectory(
+              new File(
+                  cacheDirectory,
+                  "dart_" + mapId + "_" + Integer.toHexString(tileOverlayId.hashCode())),
+              tileOverlayBuilder.getDiskCacheSize());
+      deleteInBackground(diskCache.detach());
+    }
+    CachingTileProvider tileProvider = new CachingTileProvider(source, diskCache);
+    TileOverlay tileOverlay =
+        googleMap.addTileOverlay(tileOverlayBuilder.build().tileProvider(tileProvider));
+    tileOverlayIdToController.put(
+        tileOverlayId, new TileOverlayController(tileOverlay, tileProvider, urlTemplate, tileSize));
+  }
+
+  private void changeTileOverlay(Object tileOverlay) {
+    if (tileOverlay == null) {
+      return;
+    }
+    String tileOverlayId = getTileOverlayId(tileOverlay);
+    TileOverlayController tileOverlayController = tileOverlayIdToController.get(tileOverlayId);
+    if (tileOverlayController == null) {
+      return;
+    }
+    TileOverlayBuilder tileOverlayBuilder = new TileOverlayBuilder();
+    Convert.interpretTileOverlayOptions(tileOverlay, tileOverlayBuilder);
+    String urlTemplate = tileOverlayBuilder.getUrlTemplate();
+    boolean sameSource =
+        urlTemplate == null
+            ? tileOverlayController.getUrlTemplate() == null
+            : urlTemplate.equals(tileOverlayController.getUrlTemplate());
+    if (sameSource && tileOverlayBuilder.getTileSize() == tileOverlayController.getTileSize()) {
+      Convert.interpretTileOverlayOptions(tileOverlay, tileOverlayController);
+      return;
+    }
+    // A GoogleMap tile overlay can't change its tile provider.
+    removeTileOverlay(tileOverlayId);
+    addTileOverlay(tileOverlayId, tileOverlayBuilder);
+  }
+
+  private void removeTileOverlay(String tileOverlayId) {
+    TileOverlayController tileOverlayController = tileOverlayIdToController.remove(tileOverlayId);
+    if (tileOverlayController != null) {
+      deleteInBackground(
+          tileOverlayController.remove(tileOverlayController.getUrlTemplate() == null));
+    }
+  }
+
+  private void deleteInBackground(final File detached) {
+    if (detached == null) {
+      return;
+    }
+    getExecutor()
+        .execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                TileDiskCache.delete(detached);
+              }
+            });
+  }
+
+  @SuppressWarnings("unchecked")
+  private static String getTileOverlayId(Object tileOverlay) {
+    Map<String, Object> tileOverlayMap = (Map<String, Object>) tileOverlay;
+    return (String) tileOverlayMap.get("tileOverlayId");
+  }
+
+  private ExecutorService getExecutor() {
+    if (executor == null) {
+      executor =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                  Thread thread = new Thread(runnable, "google_maps-tiles");
+                  thread.setPriority(Thread.NORM_PRIORITY - 1);
+                  return thread;
+                }
+              });
+    }
+    return executor;
+  }
+}
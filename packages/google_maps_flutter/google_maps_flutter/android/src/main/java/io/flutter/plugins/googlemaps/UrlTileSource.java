@@ -0,0 +1,64 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/** Downloads tiles from a URL template with {x}, {y} and {z} placeholders. */
+class UrlTileSource implements CachingTileProvider.TileSource {
+  private static final int TIMEOUT_MILLIS = 15000;
+
+  private final String urlTemplate;
+  private final int tileSize;
+
+  UrlTileSource(String urlTemplate, int tileSize) {
+    this.urlTemplate = urlTemplate;
+    this.tileSize = tileSize;
+  }
+
+  static String formatUrl(String urlTemplate, int x, int y, int zoom) {
+    return urlTemplate
+        .replace("{x}", Integer.toString(x))
+        .replace("{y}", Integer.toString(y))
+        .replace("{z}", Integer.toString(zoom));
+  }
+
+  @Override
+  public Tile load(int x, int y, int zoom) {
+    HttpURLConnection connection = null;
+    try {
+      URL url = new URL(formatUrl(urlTemplate, x, y, zoom));
+      connection = (HttpURLConnection) url.openConnection();
+      connection.setConnectTimeout(TIMEOUT_MILLIS);
+      connection.setReadTimeout(TIMEOUT_MILLIS);
+      int responseCode = connection.getResponseCode();
+      if (responseCode == HttpURLConnection.HTTP_NOT_FOUND
+          || responseCode == HttpURLConnection.HTTP_NO_CONTENT) {
+        return TileProvider.NO_TILE;
+      }
+      if (responseCode != HttpURLConnection.HTTP_OK) {
+        return null;
+      }
+      InputStream in = connection.getInputStream();
+      try {
+        return new Tile(tileSize, tileSize, TileDiskCache.readFully(in));
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      // The map asks for the tile again later.
+      return null;
+    } finally {
+      if (connection != null) {
+        connection.disconnect();
+      }
+    }
+  }
+}
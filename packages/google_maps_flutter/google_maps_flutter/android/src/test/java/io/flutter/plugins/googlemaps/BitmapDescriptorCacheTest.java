@@ -0,0 +1,32 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class BitmapDescriptorCacheTest {
+
+  @Test
+  public void keyFor_ComparesBytesByContent() {
+    final Object key = BitmapDescriptorCache.keyFor(Arrays.asList("fromBytes", new byte[] {1, 2}));
+
+    assertEquals(
+        key, BitmapDescriptorCache.keyFor(Arrays.asList("fromBytes", new byte[] {1, 2})));
+    assertEquals(
+        key.hashCode(),
+        BitmapDescriptorCache.keyFor(Arrays.asList("fromBytes", new byte[] {1, 2})).hashCode());
+    assertFalse(
+        key.equals(BitmapDescriptorCache.keyFor(Arrays.asList("fromBytes", new byte[] {1, 3}))));
+  }
+
+  @Test
+  public void keyFor_ComparesAssetsByName() {
+    final Object key = BitmapDescriptorCache.keyFor(Arrays.asList("fromAsset", "a.png"));
+
+    assertEquals(key, BitmapDescriptorCache.keyFor(Arrays.asList("fromAsset", "a.png")));
+    assertFalse(key.equals(BitmapDescriptorCache.keyFor(Arrays.asList("fromAsset", "b.png"))));
+    assertFalse(key.equals(BitmapDescriptorCache.keyFor(Arrays.asList("fromAssetImage", "a.png"))));
+  }
+}
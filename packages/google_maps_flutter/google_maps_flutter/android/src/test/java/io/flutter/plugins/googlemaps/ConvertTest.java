@@ -0,0 +1,79 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class ConvertTest {
+
+  @Test
+  public void toPoints_DecodesPairsWithDoublePrecision() {
+    final List<LatLng> points =
+        Convert.toPoints(
+            Arrays.asList(
+                Arrays.asList(52.123456789, 4.987654321), Arrays.asList(-33.5, 151.25)));
+
+    assertEquals(2, points.size());
+    assertEquals(52.123456789, points.get(0).latitude, 0);
+    assertEquals(4.987654321, points.get(0).longitude, 0);
+    assertEquals(-33.5, points.get(1).latitude, 0);
+    assertEquals(151.25, points.get(1).longitude, 0);
+  }
+
+  @Test
+  public void toPoints_DecodesPackedDoubles() {
+    final List<LatLng> points =
+        Convert.toPoints(new double[] {52.123456789, 4.987654321, -33.5, 151.25});
+
+    assertEquals(2, points.size());
+    assertEquals(52.123456789, points.get(0).latitude, 0);
+    assertEquals(4.987654321, points.get(0).longitude, 0);
+    assertEquals(-33.5, points.get(1).latitude, 0);
+    assertEquals(151.25, points.get(1).longitude, 0);
+  }
+
+  @Test
+  public void interpretHeatmapOptions_ResetsAMaxIntensityThatIsLeftOut() {
+    final double[] maxIntensity = {-1};
+    final HeatmapOptionsSink sink =
+        new HeatmapOptionsSink() {
+          @Override
+          public void setWeightedPoints(double[] weightedPoints) {}
+
+          @Override
+          public void setRadius(int radius) {}
+
+          @Override
+          public void setGradient(int[] colors, float[] startPoints, int colorMapSize) {}
+
+          @Override
+          public void setOpacity(double opacity) {}
+
+          @Override
+          public void setMaxIntensity(double value) {
+            maxIntensity[0] = value;
+          }
+
+          @Override
+          public void setVisible(boolean visible) {}
+
+          @Override
+          public void setZIndex(float zIndex) {}
+        };
+    final Map<String, Object> heatmap = new HashMap<>();
+    heatmap.put("heatmapId", "h");
+    heatmap.put("maxIntensity", 5.0);
+
+    Convert.interpretHeatmapOptions(heatmap, sink);
+    assertEquals(5.0, maxIntensity[0], 0);
+
+    heatmap.remove("maxIntensity");
+    Convert.interpretHeatmapOptions(heatmap, sink);
+    assertEquals(0, maxIntensity[0], 0);
+  }
+}
@@ -0,0 +1,196 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class GeoJsonParserTest {
+
+  @Test
+  public void parse_ReadsEachFeatureOfACollection() throws IOException {
+    List<GeoJsonParser.Feature> features =
+        parse(
+            "{\"type\": \"FeatureCollection\", \"features\": ["
+                + "{\"type\": \"Feature\", \"id\": \"a\", \"properties\": {\"name\": \"A\"},"
+                + " \"geometry\": {\"type\": \"Point\", \"coordinates\": [1.5, 2.5]}},"
+                + "null,"
+                + "{\"type\": \"Feature\", \"id\": \"b\", \"properties\": null,"
+                + " \"geometry\": {\"type\": \"LineString\","
+                + " \"coordinates\": [[1, 2], [3, 4, 100]]}}"
+                + "]}",
+            true);
+
+    assertEquals(2, features.size());
+    assertEquals("a", features.get(0).id);
+    assertEquals("A", features.get(0).properties.get("name"));
+    assertEquals(Arrays.asList(new LatLng(2.5, 1.5)), features.get(0).points);
+    assertEquals("b", features.get(1).id);
+    assertNull(features.get(1).properties);
+    assertEquals(
+        Arrays.asList(Arrays.asList(new LatLng(2, 1), new LatLng(4, 3))),
+        features.get(1).lineStrings);
+  }
+
+  @Test
+  public void parse_SkipsThePropertiesUnlessTheyAreRead() throws IOException {
+    List<GeoJsonParser.Feature> features =
+        parse(
+            "{\"type\": \"Feature\", \"properties\": {\"name\": \"A\"},"
+                + " \"geometry\": {\"type\": \"Point\", \"coordinates\": [1, 2]}}",
+            false);
+
+    assertEquals(1, features.size());
+    assertNull(features.get(0).properties);
+    assertEquals(Arrays.asList(new LatLng(2, 1)), features.get(0).points);
+  }
+
+  @Test
+  public void parse_ReadsABareGeometry() throws IOException {
+    List<GeoJsonParser.Feature> features =
+        parse(
+            "{\"type\": \"Polygon\", \"coordinates\": ["
+                + "[[0, 0], [10, 0], [10, 10], [0, 0]],"
+                + "[[1, 1], [2, 1], [2, 2], [1, 1]]"
+                + "]}",
+            true);
+
+    assertEquals(1, features.size());
+    List<List<LatLng>> rings = features.get(0).polygons.get(0);
+    assertEquals(2, rings.size());
+    assertEquals(new LatLng(10, 10), rings.get(0).get(2));
+    assertEquals(new LatLng(2, 2), rings.get(1).get(2));
+  }
+
+  @Test
+  public void parse_ReadsMembersInAnyOrder() throws IOException {
+    List<GeoJsonParser.Feature> features =
+        parse(
+            "{\"geometry\": {\"coordinates\": [[1, 2], [3, 4]], \"type\": \"MultiPoint\"},"
+                + " \"id\": \"a\", \"type\": \"Feature\"}",
+            true);
+    List<GeoJsonParser.Feature> geometries =
+        parse("{\"coordinates\": [1, 2], \"type\": \"Point\"}", true);
+    List<GeoJsonParser.Feature> collections =
+        parse(
+            "{\"features\": [{\"geometry\": {\"type\": \"Point\", \"coordinates\": [1, 2]}}],"
+                + " \"type\": \"FeatureCollection\"}",
+            true);
+
+    assertEquals(1, features.size());
+    assertEquals("a", features.get(0).id);
+    assertEquals(Arrays.asList(new LatLng(2, 1), new LatLng(4, 3)), features.get(0).points);
+    assertEquals(1, geometries.size());
+    assertEquals(Arrays.asList(new LatLng(2, 1)), geometries.get(0).points);
+    assertEquals(1, collections.size());
+    assertEquals(Arrays.asList(new LatLng(2, 1)), collections.get(0).points);
+  }
+
+  @Test
+  public void parse_SplitsMultiGeometries() throws IOException {
+    List<GeoJsonParser.Feature> features =
+        parse(
+            "{\"type\": \"Feature\", \"geometry\": {\"type\": \"GeometryCollection\","
+                + " \"geometries\": ["
+                + "{\"type\": \"MultiPoint\", \"coordinates\": [[1, 2], [3, 4]]},"
+                + "{\"type\": \"MultiLineString\","
+                + " \"coordinates\": [[[1, 2], [3, 4]], [[5, 6], [7, 8]]]},"
+                + "{\"type\": \"MultiPolygon\", \"coordinates\": ["
+                + "[[[0, 0], [1, 0], [1, 1], [0, 0]]],"
+                + "[[[5, 5], [6, 5], [6, 6], [5, 5]]]"
+                + "]}"
+                + "]}}",
+            true);
+
+    assertEquals(1, features.size());
+    GeoJsonParser.Feature feature = features.get(0);
+    assertEquals(2, feature.points.size());
+    assertEquals(2, feature.lineStrings.size());
+    assertEquals(new LatLng(8, 7), feature.lineStrings.get(1).get(1));
+    assertEquals(2, feature.polygons.size());
+    assertEquals(new LatLng(6, 6), feature.polygons.get(1).get(0).get(2));
+  }
+
+  @Test
+  public void parse_FailsOnAnUnsupportedGeometry() {
+    try {
+      parse("{\"type\": \"Circle\", \"coordinates\": [1, 2]}", true);
+      fail();
+    } catch (IOException e) {
+      assertTrue(e.getMessage().contains("Circle"));
+    }
+  }
+
+  @Test
+  public void parse_StopsAndClosesTheReaderWhenTheListenerCancels() throws IOException {
+    final List<GeoJsonParser.Feature> features = new ArrayList<>();
+    ClosingReader in =
+        new ClosingReader(
+            "{\"type\": \"FeatureCollection\", \"features\": ["
+                + "{\"type\": \"Feature\", \"id\": \"a\"},"
+                + "{\"type\": \"Feature\", \"id\": \"b\"}"
+                + "]}");
+
+    try {
+      GeoJsonParser.parse(
+          in,
+          true,
+          new GeoJsonParser.Listener() {
+            @Override
+            public void onFeature(GeoJsonParser.Feature feature) {
+              features.add(feature);
+              throw new CancellationException();
+            }
+          });
+      fail();
+    } catch (CancellationException e) {
+      // Expected.
+    }
+
+    assertEquals(1, features.size());
+    assertTrue(in.closed);
+  }
+
+  private static List<GeoJsonParser.Feature> parse(String json, boolean readProperties)
+      throws IOException {
+    final List<GeoJsonParser.Feature> features = new ArrayList<>();
+    ClosingReader in = new ClosingReader(json);
+    GeoJsonParser.parse(
+        in,
+        readProperties,
+        new GeoJsonParser.Listener() {
+          @Override
+          public void onFeature(GeoJsonParser.Feature feature) {
+            features.add(feature);
+          }
+        });
+    assertTrue(in.closed);
+    return features;
+  }
+
+  private static class ClosingReader extends StringReader {
+    boolean closed;
+
+    ClosingReader(String s) {
+      super(s);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      super.close();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HeatmapRendererTest {
+  private static final int[] COLOR_MAP = {0x00000000, 0x80ff0000, 0xffff0000};
+
+  @Test
+  public void render_ColorsThePixelsAroundAPoint() {
+    // Latitude 0, longitude 0 is the top left corner of tile (1, 1) at zoom 1.
+    final HeatmapRenderer renderer =
+        new HeatmapRenderer(new HeatmapRenderer.Points(new double[] {0, 0, 1}), 10, COLOR_MAP, 0);
+
+    final int[] pixels = renderer.render(1, 1, 1);
+
+    assertNotNull(pixels);
+    assertEquals(0xffff0000, pixels[0]);
+    assertEquals(0x80ff0000, pixels[3]);
+    assertEquals(0x80ff0000, pixels[3 * 256]);
+    assertEquals(0, pixels[5]);
+    assertEquals(0, pixels[128 * 256 + 128]);
+  }
+
+  @Test
+  public void render_ReturnsNullForTilesAwayFromThePoints() {
+    final HeatmapRenderer renderer =
+        new HeatmapRenderer(new HeatmapRenderer.Points(new double[] {0, 0, 1}), 10, COLOR_MAP, 0);
+
+    assertNull(renderer.render(3, 3, 2));
+  }
+
+  @Test
+  public void render_BlursPointsAcrossTheAntimeridian() {
+    // A point 2 pixels east of the antimeridian at zoom 2.
+    final HeatmapRenderer renderer =
+        new HeatmapRenderer(
+            new HeatmapRenderer.Points(new double[] {0, -180 + 360.0 / 1024 * 2, 1}),
+            10,
+            COLOR_MAP,
+            0);
+
+    final int[] pixels = renderer.render(3, 1, 2);
+
+    assertNotNull(pixels);
+    assertTrue(pixels[255 * 256 + 255] != 0);
+  }
+
+  @Test
+  public void maxIntensity_SumsTheWeightsOfTheDensestCell() {
+    final HeatmapRenderer renderer =
+        new HeatmapRenderer(
+            new HeatmapRenderer.Points(new double[] {10, 10, 1, 10, 10, 2, -10, -10, 1}),
+            10,
+            COLOR_MAP,
+            0);
+
+    assertEquals(3, renderer.maxIntensity(5), 1e-9);
+    assertEquals(4, new HeatmapRenderer(null, 10, COLOR_MAP, 4).maxIntensity(5), 1e-9);
+  }
+
+  @Test
+  public void colorMap_FadesInAndInterpolates() {
+    final int[] colorMap =
+        HeatmapRenderer.colorMap(
+            new int[] {0xff00ff00, 0xffff0000}, new float[] {0.5f, 1f}, 5, 1.0);
+
+    assertEquals(0x0000ff00, colorMap[0]);
+    assertEquals(0x8000ff00, colorMap[1]);
+    assertEquals(0xff00ff00, colorMap[2]);
+    assertEquals(0xff808000, colorMap[3]);
+    assertEquals(0xffff0000, colorMap[4]);
+  }
+
+  @Test
+  public void colorMap_AppliesTheOpacity() {
+    final int[] colorMap =
+        HeatmapRenderer.colorMap(new int[] {0xffff0000}, new float[] {0f}, 2, 0.5);
+
+    assertEquals(0x80ff0000, colorMap[0]);
+    assertEquals(0x80ff0000, colorMap[1]);
+  }
+}
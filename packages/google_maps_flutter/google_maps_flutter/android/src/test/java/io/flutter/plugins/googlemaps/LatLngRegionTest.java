@@ -0,0 +1,55 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class LatLngRegionTest {
+
+  @Test
+  public void around_GrowsBoundsByMargin() {
+    final LatLngBounds bounds = new LatLngBounds(new LatLng(10, 20), new LatLng(20, 40));
+
+    final LatLngRegion region = LatLngRegion.around(bounds, 0.5);
+
+    assertEquals(5, region.south, 0);
+    assertEquals(10, region.west, 0);
+    assertEquals(25, region.north, 0);
+    assertEquals(50, region.east, 0);
+  }
+
+  @Test
+  public void around_WrapsAcrossTheAntimeridian() {
+    final LatLngBounds bounds = new LatLngBounds(new LatLng(-10, 170), new LatLng(10, 178));
+
+    final LatLngRegion region = LatLngRegion.around(bounds, 0.5);
+
+    assertEquals(166, region.west, 0);
+    assertEquals(-178, region.east, 0);
+    assertTrue(region.contains(new LatLng(0, 179)));
+    assertTrue(region.contains(new LatLng(0, -179)));
+    assertFalse(region.contains(new LatLng(0, 0)));
+  }
+
+  @Test
+  public void search_FindsPointsOnBothSidesOfTheAntimeridian() {
+    final PointQuadTree<String> tree = new PointQuadTree<>(-180, 180, -90, 90);
+    tree.add("east", 179, 0);
+    tree.add("west", -179, 0);
+    tree.add("far", 0, 0);
+    final LatLngRegion region = new LatLngRegion(-10, 170, 10, -170);
+
+    final Set<String> found = new HashSet<>();
+    region.search(tree, found);
+
+    assertEquals(2, found.size());
+    assertTrue(found.contains("east"));
+    assertTrue(found.contains("west"));
+  }
+}
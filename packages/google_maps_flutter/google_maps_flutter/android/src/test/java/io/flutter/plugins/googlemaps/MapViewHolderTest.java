@@ -0,0 +1,87 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import androidx.lifecycle.Lifecycle;
+import com.google.android.gms.maps.MapView;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class MapViewHolderTest {
+
+  @Test
+  public void resume_CreatesAndStartsFirst() {
+    final MapView mapView = mock(MapView.class);
+    final MapViewHolder holder = new MapViewHolder(mapView);
+
+    holder.resume();
+
+    InOrder order = inOrder(mapView);
+    order.verify(mapView).onCreate(null);
+    order.verify(mapView).onStart();
+    order.verify(mapView).onResume();
+    assertEquals(Lifecycle.State.RESUMED, holder.getState());
+  }
+
+  @Test
+  public void repeatedEvents_AreForwardedOnce() {
+    final MapView mapView = mock(MapView.class);
+    final MapViewHolder holder = new MapViewHolder(mapView);
+
+    holder.resume();
+    holder.create(null);
+    holder.start();
+    holder.resume();
+
+    verify(mapView, times(1)).onCreate(null);
+    verify(mapView, times(1)).onStart();
+    verify(mapView, times(1)).onResume();
+  }
+
+  @Test
+  public void pause_PausesTheMapView() {
+    final MapView mapView = mock(MapView.class);
+    final MapViewHolder holder = new MapViewHolder(mapView);
+
+    holder.resume();
+    holder.pause();
+
+    verify(mapView).onPause();
+    verify(mapView, times(1)).onResume();
+    assertEquals(Lifecycle.State.STARTED, holder.getState());
+  }
+
+  @Test
+  public void moveTo_CreatedStopsAResumedMapView() {
+    final MapView mapView = mock(MapView.class);
+    final MapViewHolder holder = new MapViewHolder(mapView);
+
+    holder.resume();
+    holder.moveTo(Lifecycle.State.CREATED);
+
+    InOrder order = inOrder(mapView);
+    order.verify(mapView).onPause();
+    order.verify(mapView).onStop();
+    assertEquals(Lifecycle.State.CREATED, holder.getState());
+  }
+
+  @Test
+  public void destroy_StopsBeforeDestroying() {
+    final MapView mapView = mock(MapView.class);
+    final MapViewHolder holder = new MapViewHolder(mapView);
+
+    holder.start();
+    holder.destroy();
+    holder.destroy();
+
+    InOrder order = inOrder(mapView);
+    order.verify(mapView).onStop();
+    order.verify(mapView).onDestroy();
+    verify(mapView, times(1)).onDestroy();
+    assertEquals(Lifecycle.State.DESTROYED, holder.getState());
+  }
+}
@@ -0,0 +1,81 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.GoogleMapOptions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class MapViewPoolTest {
+  private Context activity;
+  private MapViewPool pool;
+
+  @Before
+  public void setUp() {
+    activity = RuntimeEnvironment.application;
+    pool = new MapViewPool(1);
+    // The lifecycle stays initialized, so that the map views are never created.
+    pool.attach(activity, new LifecycleRegistry(mock(LifecycleOwner.class)));
+  }
+
+  @Test
+  public void acquire_HandsOutAReleasedMapViewToAnotherContext() {
+    final Context presentation = new ContextWrapper(activity);
+    final MapViewHolder holder = pool.acquire(presentation, new GoogleMapOptions());
+    assertNotNull(holder);
+    assertSame(presentation, holder.context.getBaseContext());
+    holder.googleMap = mock(GoogleMap.class);
+
+    assertTrue(pool.release(holder, new GoogleMapOptions()));
+
+    // The context of the platform view that is gone isn't kept.
+    assertSame(activity, holder.context.getBaseContext());
+    final Context nextPresentation = new ContextWrapper(activity);
+    assertSame(holder, pool.acquire(nextPresentation, new GoogleMapOptions()));
+    assertSame(nextPresentation, holder.context.getBaseContext());
+    assertSame(holder.context, holder.mapView.getContext());
+  }
+
+  @Test
+  public void acquire_ReturnsNullForLiteModeOrAnEmptyPool() {
+    assertNull(pool.acquire(activity, new GoogleMapOptions().liteMode(true)));
+    assertNotNull(pool.acquire(activity, new GoogleMapOptions()));
+    assertNull(pool.acquire(activity, new GoogleMapOptions()));
+  }
+
+  @Test
+  public void release_KeepsNoMoreThanTheCapacity() {
+    final MapViewHolder pooled = pool.acquire(activity, new GoogleMapOptions());
+    pooled.googleMap = mock(GoogleMap.class);
+    final MapViewHolder created = MapViewPool.create(activity, new GoogleMapOptions());
+    created.googleMap = mock(GoogleMap.class);
+
+    assertTrue(pool.release(pooled, new GoogleMapOptions()));
+    assertFalse(pool.release(created, new GoogleMapOptions()));
+  }
+
+  @Test
+  public void detach_StopsPooling() {
+    final MapViewHolder holder = pool.acquire(activity, new GoogleMapOptions());
+    holder.googleMap = mock(GoogleMap.class);
+
+    pool.detach();
+
+    assertFalse(pool.release(holder, new GoogleMapOptions()));
+    assertNull(pool.acquire(activity, new GoogleMapOptions()));
+  }
+}
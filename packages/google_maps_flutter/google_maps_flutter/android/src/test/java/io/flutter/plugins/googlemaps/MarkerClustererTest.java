@@ -0,0 +1,38 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class MarkerClustererTest {
+
+  private static final List<String> MARKER_IDS = Arrays.asList("a", "b", "c");
+  private static final double[] LATITUDES = {48.8584, 48.8606, 51.5007};
+  private static final double[] LONGITUDES = {2.2945, 2.3376, -0.1246};
+
+  @Test
+  public void cluster_GroupsNearbyMarkers() {
+    final MarkerClusterer.Result result =
+        MarkerClusterer.cluster(MARKER_IDS, LATITUDES, LONGITUDES, 5, 60);
+
+    assertEquals(1, result.clusters.size());
+    final MarkerClusterer.Cluster cluster = result.clusters.get(0);
+    assertEquals(2, cluster.markerIds.size());
+    assertTrue(cluster.markerIds.containsAll(Arrays.asList("a", "b")));
+    assertEquals(48.8595, cluster.latitude, 1e-9);
+    assertEquals(2.31605, cluster.longitude, 1e-9);
+    assertEquals(Arrays.asList("c"), result.unclusteredMarkerIds);
+  }
+
+  @Test
+  public void cluster_SplitsClustersWhenZoomedIn() {
+    final MarkerClusterer.Result result =
+        MarkerClusterer.cluster(MARKER_IDS, LATITUDES, LONGITUDES, 15, 60);
+
+    assertEquals(0, result.clusters.size());
+    assertEquals(3, result.unclusteredMarkerIds.size());
+  }
+}
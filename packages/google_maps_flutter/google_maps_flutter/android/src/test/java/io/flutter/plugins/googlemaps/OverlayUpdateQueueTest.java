@@ -0,0 +1,209 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+public class OverlayUpdateQueueTest {
+  private final OverlayUpdateQueue queue = new OverlayUpdateQueue();
+  // What the updates did, in order.
+  private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+  @After
+  public void tearDown() {
+    queue.dispose();
+  }
+
+  @Test
+  public void join_ResolvesOnceEveryUpdateIsApplied() {
+    MethodChannel.Result result = mock(MethodChannel.Result.class);
+    MethodChannel.Result joined = OverlayUpdateQueue.join(result, 3);
+
+    joined.success(null);
+    joined.success(null);
+    verify(result, never()).success(any());
+
+    joined.success(null);
+    verify(result).success(null);
+    verify(result, never()).error(anyString(), anyString(), any());
+  }
+
+  @Test
+  public void join_ReportsTheFirstError() {
+    MethodChannel.Result result = mock(MethodChannel.Result.class);
+    MethodChannel.Result joined = OverlayUpdateQueue.join(result, 3);
+
+    joined.error("first", "First error", null);
+    joined.success(null);
+    joined.error("second", "Second error", null);
+
+    verify(result).error("first", "First error", null);
+    verify(result, never()).success(any());
+  }
+
+  @Test
+  public void enqueue_AppliesASmallUpdateRightAway() {
+    MethodChannel.Result result = mock(MethodChannel.Result.class);
+
+    queue.enqueue(new RecordingUpdate("small", 2, result));
+
+    assertEquals(list("small:add", "small:add", "small:finish"), log);
+    verify(result).success(null);
+  }
+
+  @Test
+  public void enqueue_AppliesUpdatesInOrder() {
+    MethodChannel.Result largeResult = mock(MethodChannel.Result.class);
+    MethodChannel.Result smallResult = mock(MethodChannel.Result.class);
+
+    queue.enqueue(
+        new RecordingUpdate("large", OverlayUpdateQueue.BACKGROUND_THRESHOLD, largeResult));
+    queue.enqueue(new RecordingUpdate("small", 1, smallResult));
+
+    // The small update waits for the large one, which is prepared in the background.
+    assertFalse(log.contains("small:finish"));
+    verify(smallResult, never()).success(any());
+
+    awaitLog("small:finish");
+    assertEquals(log.indexOf("large:finish") + 2, log.indexOf("small:finish"));
+    verify(largeResult).success(null);
+    verify(smallResult).success(null);
+  }
+
+  @Test
+  public void enqueue_AnswersAQueryAfterTheUpdatesBeforeIt() {
+    MethodChannel.Result queryResult = mock(MethodChannel.Result.class);
+
+    queue.enqueue(new RecordingUpdate("large", OverlayUpdateQueue.BACKGROUND_THRESHOLD, null));
+    queue.enqueue(
+        new OverlayUpdateQueue.Query(queryResult) {
+          @Override
+          void resolve(MethodChannel.Result result) {
+            log.add("query");
+            result.success(log.contains("large:finish"));
+          }
+        });
+    verify(queryResult, never()).success(any());
+
+    awaitLog("query");
+    verify(queryResult).success(true);
+  }
+
+  @Test
+  public void enqueue_ReportsAnErrorAndAppliesTheNextUpdate() {
+    MethodChannel.Result failingResult = mock(MethodChannel.Result.class);
+    MethodChannel.Result nextResult = mock(MethodChannel.Result.class);
+
+    RecordingUpdate failing =
+        new RecordingUpdate("failing", OverlayUpdateQueue.BACKGROUND_THRESHOLD, failingResult);
+    failing.failInterpret = true;
+    queue.enqueue(failing);
+    queue.enqueue(new RecordingUpdate("next", 1, nextResult));
+
+    awaitLog("next:finish");
+    verify(failingResult).error("error", "Could not parse", null);
+    verify(failingResult, never()).success(any());
+    verify(nextResult).success(null);
+  }
+
+  @Test
+  public void enqueue_ReportsAnErrorOfASmallUpdate() {
+    MethodChannel.Result result = mock(MethodChannel.Result.class);
+
+    RecordingUpdate failing = new RecordingUpdate("failing", 1, result);
+    failing.failInterpret = true;
+    queue.enqueue(failing);
+
+    verify(result).error("error", "Could not parse", null);
+  }
+
+  @Test
+  public void dispose_FailsTheQueuedUpdates() {
+    MethodChannel.Result largeResult = mock(MethodChannel.Result.class);
+    MethodChannel.Result smallResult = mock(MethodChannel.Result.class);
+    MethodChannel.Result lateResult = mock(MethodChannel.Result.class);
+
+    queue.enqueue(
+        new RecordingUpdate("large", OverlayUpdateQueue.BACKGROUND_THRESHOLD, largeResult));
+    queue.enqueue(new RecordingUpdate("small", 1, smallResult));
+    queue.dispose();
+    queue.enqueue(new RecordingUpdate("late", 1, lateResult));
+    ShadowLooper.idleMainLooper();
+
+    verify(largeResult).error(eq("error"), anyString(), any());
+    verify(smallResult).error(eq("error"), anyString(), any());
+    verify(lateResult).error(eq("error"), anyString(), any());
+    assertFalse(log.contains("small:finish"));
+  }
+
+  // Runs the main looper, where background updates are applied, until the log has an entry.
+  private void awaitLog(String entry) {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!log.contains(entry) && System.currentTimeMillis() < deadline) {
+      ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        throw new AssertionError(e);
+      }
+    }
+    assertTrue("Missing " + entry + " in " + log, log.contains(entry));
+  }
+
+  private static List<String> list(String... entries) {
+    List<String> list = new ArrayList<>();
+    Collections.addAll(list, entries);
+    return list;
+  }
+
+  private class RecordingUpdate extends OverlayUpdateQueue.Update<StringBuilder> {
+    private final String name;
+    boolean failInterpret;
+
+    RecordingUpdate(String name, int count, MethodChannel.Result result) {
+      super(Collections.<Object>nCopies(count, name), result);
+      this.name = name;
+    }
+
+    @Override
+    StringBuilder newBuilder() {
+      return new StringBuilder();
+    }
+
+    @Override
+    String interpret(Object object, StringBuilder builder) {
+      if (failInterpret) {
+        throw new IllegalArgumentException("Could not parse");
+      }
+      builder.append(object);
+      return name;
+    }
+
+    @Override
+    void add(String id, StringBuilder builder) {
+      log.add(name + ":add");
+    }
+
+    @Override
+    void finish() {
+      log.add(name + ":finish");
+    }
+  }
+}
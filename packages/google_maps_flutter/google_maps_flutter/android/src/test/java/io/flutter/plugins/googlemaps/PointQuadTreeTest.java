@@ -0,0 +1,46 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class PointQuadTreeTest {
+
+  @Test
+  public void search_ReturnsOnlyPointsInsideTheRectangle() {
+    final PointQuadTree<String> tree = new PointQuadTree<>(-180, 180, -90, 90);
+    for (int i = 0; i < 1000; i++) {
+      tree.add("point" + i, -180 + i * 0.36, 0);
+    }
+
+    final Set<String> found = new HashSet<>();
+    tree.search(0, 3.6, -1, 1, found);
+
+    assertEquals(11, found.size());
+    assertTrue(found.contains("point500"));
+    assertTrue(found.contains("point510"));
+    assertFalse(found.contains("point511"));
+  }
+
+  @Test
+  public void remove_RemovesOnlyTheGivenValue() {
+    final PointQuadTree<String> tree = new PointQuadTree<>(-180, 180, -90, 90);
+    for (int i = 0; i < 200; i++) {
+      tree.add("point" + i, 10, 10);
+    }
+
+    assertTrue(tree.remove("point42", 10, 10));
+    assertFalse(tree.remove("point42", 10, 10));
+    assertFalse(tree.remove("point43", 20, 20));
+
+    final Set<String> found = new HashSet<>();
+    tree.search(-180, 180, -90, 90, found);
+    assertEquals(199, tree.size());
+    assertEquals(199, found.size());
+    assertFalse(found.contains("point42"));
+  }
+}
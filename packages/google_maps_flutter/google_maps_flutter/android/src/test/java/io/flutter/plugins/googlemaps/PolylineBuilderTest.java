@@ -1,8 +1,13 @@
 package io.flutter.plugins.googlemaps;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
 
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.PolylineOptions;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Test;
 
 public class PolylineBuilderTest {
@@ -20,4 +25,27 @@ public class PolylineBuilderTest {
 
     assertEquals(density * strokeWidth, width);
   }
+
+  @Test
+  public void simplify_BuildsTheSimplifierInsteadOfAddingThePoints() {
+    final List<LatLng> points = Arrays.asList(new LatLng(0, 0), new LatLng(1, 1));
+
+    final PolylineBuilder builder = new PolylineBuilder(1);
+    builder.setSimplify(true);
+    builder.setPoints(points);
+
+    assertEquals(points, builder.getSimplifier().getPoints());
+    assertTrue(builder.build().getPoints().isEmpty());
+  }
+
+  @Test
+  public void points_AreAddedWhenNotSimplified() {
+    final List<LatLng> points = Arrays.asList(new LatLng(0, 0), new LatLng(1, 1));
+
+    final PolylineBuilder builder = new PolylineBuilder(1);
+    builder.setPoints(points);
+
+    assertNull(builder.getSimplifier());
+    assertEquals(points, builder.build().getPoints());
+  }
 }
@@ -0,0 +1,50 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class PolylineSimplifierTest {
+  private static final LatLngRegion WORLD = new LatLngRegion(-90, -180, 90, 180);
+
+  @Test
+  public void select_DropsPointsCloserThanTheTolerance() {
+    final PolylineSimplifier simplifier =
+        new PolylineSimplifier(
+            Arrays.asList(
+                new LatLng(0, 0),
+                new LatLng(0.0001, 1),
+                new LatLng(0, 2),
+                new LatLng(5, 3),
+                new LatLng(0, 4)));
+
+    assertArrayEquals(
+        new int[] {0, 1, 2, 3, 4},
+        simplifier.select(PolylineSimplifier.toleranceAt(21), WORLD));
+    assertArrayEquals(
+        new int[] {0, 2, 3, 4}, simplifier.select(PolylineSimplifier.toleranceAt(5), WORLD));
+    assertArrayEquals(new int[] {0, 4}, simplifier.select(0.1, WORLD));
+  }
+
+  @Test
+  public void select_KeepsLessDetailOutsideOfTheRegion() {
+    // A zigzag that is a fraction of a pixel wide at zoom level 21, and a few pixels at 17.
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = 0; i <= 100; i++) {
+      points.add(new LatLng(i % 2 == 0 ? 0 : 0.00005, i * 0.01));
+    }
+    final PolylineSimplifier simplifier = new PolylineSimplifier(points);
+    final double tolerance = PolylineSimplifier.toleranceAt(17);
+
+    assertEquals(101, simplifier.select(tolerance, WORLD).length);
+    final int[] indices = simplifier.select(tolerance, new LatLngRegion(-1, 0, 1, 0.5));
+    assertEquals(52, indices.length);
+    assertEquals(50, indices[50]);
+    assertEquals(100, indices[51]);
+  }
+}
@@ -0,0 +1,74 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import android.graphics.Bitmap;
+import io.flutter.plugin.common.MethodChannel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class SnapshotEncoderTest {
+
+  @Test
+  public void clip_NullRegionKeepsTheWholeSnapshot() {
+    assertArrayEquals(new int[] {0, 0, 640, 480}, SnapshotEncoder.clip(null, 640, 480));
+  }
+
+  @Test
+  public void clip_KeepsARegionInsideTheSnapshot() {
+    int[] region = {10, 20, 100, 50};
+    assertArrayEquals(region, SnapshotEncoder.clip(region, 640, 480));
+  }
+
+  @Test
+  public void clip_ClipsARegionToTheSnapshot() {
+    assertArrayEquals(
+        new int[] {0, 400, 100, 80}, SnapshotEncoder.clip(new int[] {-20, 400, 120, 200}, 640, 480));
+  }
+
+  @Test
+  public void clip_ReturnsNullForARegionOutsideOfTheSnapshot() {
+    assertNull(SnapshotEncoder.clip(new int[] {640, 0, 100, 100}, 640, 480));
+    assertNull(SnapshotEncoder.clip(new int[] {0, 0, 0, 100}, 640, 480));
+  }
+
+  @Test
+  public void scale_RoundsToAtLeastOnePixel() {
+    assertEquals(320, SnapshotEncoder.scale(640, 0.5f));
+    assertEquals(167, SnapshotEncoder.scale(333, 0.5f));
+    assertEquals(1, SnapshotEncoder.scale(10, 0.01f));
+  }
+
+  @Test
+  public void encode_ReportsAMissingSnapshot() {
+    final SnapshotEncoder encoder = new SnapshotEncoder();
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+
+    encoder.encode(null, new SnapshotEncoder.Options(), result);
+
+    verify(result).error(eq("Snapshot failed"), anyString(), isNull());
+  }
+
+  @Test
+  public void encode_ReportsASnapshotTakenAfterDispose() {
+    final SnapshotEncoder encoder = new SnapshotEncoder();
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+    final Bitmap snapshot = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+
+    encoder.dispose();
+    encoder.encode(snapshot, new SnapshotEncoder.Options(), result);
+
+    verify(result).error(eq("Snapshot failed"), anyString(), isNull());
+    assertTrue(snapshot.isRecycled());
+  }
+}
@@ -0,0 +1,164 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.Test;
+
+public class TileDiskCacheTest {
+
+  @Test
+  public void get_ReturnsWhatWasPut() throws IOException {
+    final TileDiskCache cache = new TileDiskCache(newDirectory(), 100);
+
+    cache.put("1_2_3", new byte[] {1, 2, 3});
+
+    assertArrayEquals(new byte[] {1, 2, 3}, cache.get("1_2_3"));
+    assertNull(cache.get("1_2_4"));
+    assertEquals(3, cache.size());
+  }
+
+  @Test
+  public void put_RemovesLeastRecentlyUsedFilesOverTheLimit() throws IOException {
+    final File directory = newDirectory();
+    final TileDiskCache cache = new TileDiskCache(directory, 10);
+    cache.put("old", new byte[4]);
+    cache.put("recent", new byte[4]);
+    new File(directory, "old").setLastModified(System.currentTimeMillis() - 60000);
+
+    cache.put("new", new byte[4]);
+
+    assertNull(cache.get("old"));
+    assertArrayEquals(new byte[4], cache.get("recent"));
+    assertArrayEquals(new byte[4], cache.get("new"));
+    assertEquals(8, cache.size());
+  }
+
+  @Test
+  public void put_TrimsToBelowTheLimit() throws IOException {
+    final TileDiskCache cache = new TileDiskCache(newDirectory(), 100);
+    for (int i = 0; i < 10; i++) {
+      cache.put("tile" + i, new byte[10]);
+    }
+    assertEquals(100, cache.size());
+
+    cache.put("tile10", new byte[10]);
+
+    // Trimmed to 90% of the limit, so that the next writes fit without a trim.
+    assertEquals(90, cache.size());
+    assertNull(cache.get("tile0"));
+    assertNull(cache.get("tile1"));
+    assertArrayEquals(new byte[10], cache.get("tile2"));
+  }
+
+  @Test
+  public void get_MarksTheFileAsRecentlyUsed() throws IOException {
+    final TileDiskCache cache = new TileDiskCache(newDirectory(), 10);
+    cache.put("old", new byte[4]);
+    cache.put("recent", new byte[4]);
+
+    cache.get("old");
+    cache.put("new", new byte[4]);
+
+    assertArrayEquals(new byte[4], cache.get("old"));
+    assertNull(cache.get("recent"));
+  }
+
+  @Test
+  public void size_ListsTheFilesOfAnEarlierLaunch() throws IOException {
+    final File directory = newDirectory();
+    final TileDiskCache previous = new TileDiskCache(directory, 100);
+    previous.put("old", new byte[4]);
+    previous.put("recent", new byte[4]);
+    new File(directory, "old").setLastModified(System.currentTimeMillis() - 60000);
+    new File(directory, "partial.tmp").createNewFile();
+
+    final TileDiskCache cache = new TileDiskCache(directory, 10);
+    assertEquals(8, cache.size());
+    assertFalse(new File(directory, "partial.tmp").exists());
+
+    cache.put("new", new byte[4]);
+
+    assertNull(cache.get("old"));
+    assertArrayEquals(new byte[4], cache.get("recent"));
+  }
+
+  @Test
+  public void forDirectory_SharesOneCachePerDirectory() throws IOException {
+    final File directory = newDirectory();
+    final TileDiskCache cache = TileDiskCache.forDirectory(directory, 100);
+
+    assertSame(cache, TileDiskCache.forDirectory(new File(directory.getPath()), 100));
+    assertNotSame(cache, TileDiskCache.forDirectory(newDirectory(), 100));
+  }
+
+  @Test
+  public void put_DoesNothingWithoutASize() throws IOException {
+    final File directory = newDirectory();
+    final TileDiskCache cache = new TileDiskCache(directory, 0);
+
+    cache.put("1_2_3", new byte[] {1});
+
+    assertNull(cache.get("1_2_3"));
+    assertFalse(new File(directory, "1_2_3").exists());
+  }
+
+  @Test
+  public void detach_EmptiesTheCache() throws IOException {
+    final File directory = newDirectory();
+    final TileDiskCache cache = new TileDiskCache(directory, 100);
+    cache.put("1_2_3", new byte[] {1});
+
+    final File detached = cache.detach();
+
+    assertNull(cache.get("1_2_3"));
+    assertEquals(0, cache.size());
+    assertTrue(new File(detached, "1_2_3").exists());
+    TileDiskCache.delete(detached);
+    assertFalse(detached.exists());
+  }
+
+  @Test
+  public void put_DropsDataLoadedBeforeTheCacheWasEmptied() throws IOException {
+    final File directory = newDirectory();
+    final TileDiskCache cache = new TileDiskCache(directory, 100);
+    final int generation = cache.getGeneration();
+
+    TileDiskCache.delete(cache.detach());
+    cache.put("1_2_3", new byte[] {1}, generation);
+
+    assertNull(cache.get("1_2_3"));
+    assertFalse(new File(directory, "1_2_3").exists());
+    cache.put("1_2_3", new byte[] {2}, cache.getGeneration());
+    assertArrayEquals(new byte[] {2}, cache.get("1_2_3"));
+  }
+
+  @Test
+  public void deleteDetached_DeletesWhatWasLeftBehind() throws IOException {
+    final File parent = newDirectory();
+    final TileDiskCache cache = new TileDiskCache(new File(parent, "url_1"), 100);
+    cache.put("1_2_3", new byte[] {1});
+    final File detached = cache.detach();
+    cache.put("1_2_3", new byte[] {2});
+
+    TileDiskCache.deleteDetached(parent);
+
+    assertFalse(detached.exists());
+    assertArrayEquals(new byte[] {2}, cache.get("1_2_3"));
+  }
+
+  private static File newDirectory() throws IOException {
+    final File directory = File.createTempFile("tiles", "");
+    directory.delete();
+    directory.mkdirs();
+    directory.deleteOnExit();
+    return directory;
+  }
+}
@@ -29,6 +29,12 @@ export 'package:google_maps_flutter_platform_interface/google_maps_flutter_platf
         Cap,
         Circle,
         CircleId,
+        GeoJsonFeature,
+        GeoJsonLayer,
+        GeoJsonLayerId,
+        Heatmap,
+        HeatmapGradient,
+        HeatmapId,
         InfoWindow,
         JointType,
         LatLng,
@@ -43,7 +49,13 @@ export 'package:google_maps_flutter_platform_interface/google_maps_flutter_platf
         PolygonId,
         Polyline,
         PolylineId,
-        ScreenCoordinate;
+        ScreenCoordinate,
+        SnapshotFormat,
+        SnapshotOptions,
+        Tile,
+        TileOverlayId,
+        TileOverlay,
+        TileProvider;
 
 part 'src/controller.dart';
 part 'src/google_map.dart';
@@ -59,9 +59,11 @@ class GoogleMapController {
           .onCameraMoveStarted(mapId: mapId)
           .listen((_) => _googleMapState.widget.onCameraMoveStarted());
     }
-    if (_googleMapState.widget.onCameraMove != null) {
-      _googleMapsFlutterPlatform.onCameraMove(mapId: mapId).listen(
-          (CameraMoveEvent e) => _googleMapState.widget.onCameraMove(e.value));
+    if (_googleMapState.widget.onCameraMove != null ||
+        _googleMapState.widget.onVisibleRegionChanged != null) {
+      _googleMapsFlutterPlatform
+          .onCameraMove(mapId: mapId)
+          .listen((CameraMoveEvent e) => _googleMapState.onCameraMove(e));
     }
     if (_googleMapState.widget.onCameraIdle != null) {
       _googleMapsFlutterPlatform
@@ -74,6 +76,16 @@ class GoogleMapController {
     _googleMapsFlutterPlatform.onMarkerDragEnd(mapId: mapId).listen(
         (MarkerDragEndEvent e) =>
             _googleMapState.onMarkerDragEnd(e.value, e.position));
+    if (_googleMapState.widget.onClusterTap != null) {
+      _googleMapsFlutterPlatform.onClusterTap(mapId: mapId).listen(
+          (ClusterTapEvent e) =>
+              _googleMapState.onClusterTap(e.value, e.position));
+    }
+    if (_googleMapState.widget.onGeoJsonFeatureTap != null) {
+      _googleMapsFlutterPlatform.onGeoJsonFeatureTap(mapId: mapId).listen(
+          (GeoJsonFeatureTapEvent e) =>
+              _googleMapState.onGeoJsonFeatureTap(e.value));
+    }
     _googleMapsFlutterPlatform.onInfoWindowTap(mapId: mapId).listen(
         (InfoWindowTapEvent e) => _googleMapState.onInfoWindowTap(e.value));
     _googleMapsFlutterPlatform
@@ -104,51 +116,90 @@ class GoogleMapController {
         mapId: mapId);
   }
 
-  /// Updates marker configuration.
+  /// Updates marker, polygon, polyline and circle configuration.
   ///
-  /// Change listeners are notified once the update has been made on the
+  /// Change listeners are notified once the updates have been made on the
   /// platform side.
   ///
   /// The returned [Future] completes after listeners have been notified.
-  Future<void> _updateMarkers(MarkerUpdates markerUpdates) {
-    assert(markerUpdates != null);
-    return _googleMapsFlutterPlatform.updateMarkers(markerUpdates,
-        mapId: mapId);
+  Future<void> _updateOverlays({
+    @required MarkerUpdates markerUpdates,
+    @required PolygonUpdates polygonUpdates,
+    @required PolylineUpdates polylineUpdates,
+    @required CircleUpdates circleUpdates,
+  }) {
+    return _googleMapsFlutterPlatform.updateOverlays(
+      markerUpdates: markerUpdates,
+      polygonUpdates: polygonUpdates,
+      polylineUpdates: polylineUpdates,
+      circleUpdates: circleUpdates,
+      mapId: mapId,
+    );
   }
 
-  /// Updates polygon configuration.
+  /// Updates heatmap configuration.
   ///
   /// Change listeners are notified once the update has been made on the
   /// platform side.
   ///
   /// The returned [Future] completes after listeners have been notified.
-  Future<void> _updatePolygons(PolygonUpdates polygonUpdates) {
-    assert(polygonUpdates != null);
-    return _googleMapsFlutterPlatform.updatePolygons(polygonUpdates,
+  Future<void> _updateHeatmaps(HeatmapUpdates heatmapUpdates) {
+    assert(heatmapUpdates != null);
+    return _googleMapsFlutterPlatform.updateHeatmaps(heatmapUpdates,
         mapId: mapId);
   }
 
-  /// Updates polyline configuration.
+  /// Updates tile overlay configuration.
   ///
   /// Change listeners are notified once the update has been made on the
   /// platform side.
   ///
   /// The returned [Future] completes after listeners have been notified.
-  Future<void> _updatePolylines(PolylineUpdates polylineUpdates) {
-    assert(polylineUpdates != null);
-    return _googleMapsFlutterPlatform.updatePolylines(polylineUpdates,
+  Future<void> _updateTileOverlays(TileOverlayUpdates tileOverlayUpdates) {
+    assert(tileOverlayUpdates != null);
+    return _googleMapsFlutterPlatform.updateTileOverlays(tileOverlayUpdates,
         mapId: mapId);
   }
 
-  /// Updates circle configuration.
+  /// Clears the cached tiles of a [TileOverlay], so that they are requested
+  /// again from its [TileProvider] or downloaded again from its URL template.
   ///
-  /// Change listeners are notified once the update has been made on the
+  /// Call this when the tiles of a tile overlay change while its
+  /// [TileOverlayId] stays the same.
+  ///
+  /// The returned [Future] completes once the tiles have been cleared on the
   /// platform side.
+  Future<void> clearTileCache(TileOverlayId tileOverlayId) {
+    assert(tileOverlayId != null);
+    return _googleMapsFlutterPlatform.clearTileCache(tileOverlayId,
+        mapId: mapId);
+  }
+
+  /// Adds a GeoJSON layer to the map, replacing any layer with the same id.
   ///
-  /// The returned [Future] completes after listeners have been notified.
-  Future<void> _updateCircles(CircleUpdates circleUpdates) {
-    assert(circleUpdates != null);
-    return _googleMapsFlutterPlatform.updateCircles(circleUpdates,
+  /// The document is parsed natively, and its features are added to the map
+  /// in batches without going through [Polygon]s, [Polyline]s and [Marker]s.
+  /// The returned [Future] completes with the number of features of the layer
+  /// once all of them have been added. If the document can't be read it
+  /// completes with an error, and the features read before the error stay on
+  /// the map until the layer is removed.
+  ///
+  /// Taps on the features of a layer that consumes tap events are passed to
+  /// [GoogleMap.onGeoJsonFeatureTap].
+  ///
+  /// Only supported on Android.
+  Future<int> addGeoJsonLayer(GeoJsonLayer layer) {
+    assert(layer != null);
+    return _googleMapsFlutterPlatform.addGeoJsonLayer(layer, mapId: mapId);
+  }
+
+  /// Removes a GeoJSON layer from the map.
+  ///
+  /// A layer that is still being added stops being added, and the [Future]
+  /// returned by [addGeoJsonLayer] completes with an error.
+  Future<void> removeGeoJsonLayer(GeoJsonLayerId layerId) {
+    assert(layerId != null);
+    return _googleMapsFlutterPlatform.removeGeoJsonLayer(layerId,
         mapId: mapId);
   }
 
@@ -255,10 +306,29 @@ class GoogleMapController {
   }
 
   /// Returns the image bytes of the map
-  Future<Uint8List> takeSnapshot() {
+  ///
+  /// The snapshot is a full size PNG unless [options] are given, on Android
+  /// it is cropped, scaled and encoded as they describe.
+  Future<Uint8List> takeSnapshot({SnapshotOptions options}) {
+    if (options != null) {
+      return _googleMapsFlutterPlatform.takeSnapshotWithOptions(options,
+          mapId: mapId);
+    }
     return _googleMapsFlutterPlatform.takeSnapshot(mapId: mapId);
   }
 
+  /// Writes a snapshot of the map to the file at [path] and returns that path.
+  ///
+  /// Only the path is sent back from the platform side, which makes this
+  /// cheaper than [takeSnapshot] for snapshots that are saved or shared.
+  ///
+  /// Only supported on Android.
+  Future<String> takeSnapshotToFile(String path,
+      {SnapshotOptions options = const SnapshotOptions()}) {
+    return _googleMapsFlutterPlatform.takeSnapshotToFile(path,
+        options: options, mapId: mapId);
+  }
+
   /// Disposes of the platform resources
   void dispose() {
     _googleMapsFlutterPlatform.dispose(mapId: mapId);
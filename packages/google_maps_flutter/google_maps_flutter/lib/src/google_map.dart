@@ -10,6 +10,15 @@ part of google_maps_flutter;
 /// map is created.
 typedef void MapCreatedCallback(GoogleMapController controller);
 
+/// Callback method for when a cluster of markers is tapped.
+///
+/// [markerIds] are the ids of the clustered markers and [position] is the
+/// center of the cluster.
+typedef void ClusterTapCallback(List<MarkerId> markerIds, LatLng position);
+
+/// Callback that receives the tapped feature of a [GeoJsonLayer].
+typedef void GeoJsonFeatureTapCallback(GeoJsonFeature feature);
+
 // This counter is used to provide a stable "constant" initialization id
 // to the buildView function, so the web implementation can use it as a
 // cache key. This needs to be provided from the outside, because web
@@ -45,15 +54,24 @@ class GoogleMap extends StatefulWidget {
     this.indoorViewEnabled = false,
     this.trafficEnabled = false,
     this.buildingsEnabled = true,
+    this.markerVirtualizationEnabled = false,
+    this.markerClusteringEnabled = false,
+    this.markerClusterGridSize = 60.0,
     this.markers,
     this.polygons,
     this.polylines,
     this.circles,
+    this.tileOverlays,
+    this.heatmaps,
     this.onCameraMoveStarted,
     this.onCameraMove,
+    this.onVisibleRegionChanged,
+    this.cameraMoveThrottle = Duration.zero,
     this.onCameraIdle,
     this.onTap,
     this.onLongPress,
+    this.onClusterTap,
+    this.onGeoJsonFeatureTap,
   })  : assert(initialCameraPosition != null),
         super(key: key);
 
@@ -120,6 +138,12 @@ class GoogleMap extends StatefulWidget {
   /// Circles to be placed on the map.
   final Set<Circle> circles;
 
+  /// Tile overlays to be placed on the map. Android only.
+  final Set<TileOverlay> tileOverlays;
+
+  /// Heatmaps to be placed on the map. Android only.
+  final Set<Heatmap> heatmaps;
+
   /// Called when the camera starts moving.
   ///
   /// This can be initiated by the following:
@@ -137,6 +161,22 @@ class GoogleMap extends StatefulWidget {
   /// not perform expensive operations.
   final CameraPositionCallback onCameraMove;
 
+  /// Called with the visible region of the map whenever [onCameraMove] would
+  /// be called, without a follow-up [GoogleMapController.getVisibleRegion].
+  ///
+  /// Supported on Android only.
+  final ArgumentCallback<LatLngBounds> onVisibleRegionChanged;
+
+  /// The minimum time between two calls of [onCameraMove] and
+  /// [onVisibleRegionChanged]. Android only.
+  ///
+  /// Camera moves within the interval are coalesced into a single call at its
+  /// end with the latest position, and the final position is always reported
+  /// before [onCameraIdle]. The default reports every frame.
+  ///
+  /// This field is silently ignored on iOS.
+  final Duration cameraMoveThrottle;
+
   /// Called when camera movement has ended, there are no pending
   /// animations and the user has stopped interacting with the map.
   final VoidCallback onCameraIdle;
@@ -147,6 +187,19 @@ class GoogleMap extends StatefulWidget {
   /// Called every time a [GoogleMap] is long pressed.
   final ArgumentCallback<LatLng> onLongPress;
 
+  /// Called every time a cluster of markers is tapped.
+  ///
+  /// See also:
+  ///   * [markerClusteringEnabled] parameter.
+  final ClusterTapCallback onClusterTap;
+
+  /// Called every time a feature of a [GeoJsonLayer] that consumes tap events
+  /// is tapped.
+  ///
+  /// See also:
+  ///   * [GoogleMapController.addGeoJsonLayer] to add a layer.
+  final GeoJsonFeatureTapCallback onGeoJsonFeatureTap;
+
   /// True if a "My Location" layer should be shown on the map.
   ///
   /// This layer includes a location indicator at the current device location,
@@ -194,6 +247,33 @@ class GoogleMap extends StatefulWidget {
   /// Enables or disables showing 3D buildings where available
   final bool buildingsEnabled;
 
+  /// True if only the markers near the visible region should be added to the
+  /// native map. Android only.
+  ///
+  /// When enabled, every marker is kept in a native spatial index and only
+  /// those inside the visible region, plus a margin, are shown. The shown
+  /// markers are updated when the camera becomes idle. Use this for large
+  /// marker sets, of which only a small part is visible at a time.
+  ///
+  /// This field is silently ignored on iOS.
+  final bool markerVirtualizationEnabled;
+
+  /// True if markers that are close to each other should be shown as a single
+  /// cluster marker with their count. Android only.
+  ///
+  /// Clusters are computed natively when the zoom level changes and when the
+  /// markers are updated. Tapping a cluster calls [onClusterTap] instead of
+  /// the [Marker.onTap] of its members.
+  ///
+  /// This field is silently ignored on iOS.
+  final bool markerClusteringEnabled;
+
+  /// The size, in logical pixels, of the square cells that markers are
+  /// clustered by. Android only.
+  ///
+  /// Only used when [markerClusteringEnabled] is true.
+  final double markerClusterGridSize;
+
   /// Which gestures should be consumed by the map.
   ///
   /// It is possible for other gesture recognizers to be competing with the map on pointer
@@ -220,6 +300,11 @@ class _GoogleMapState extends State<GoogleMap> {
   Map<PolygonId, Polygon> _polygons = <PolygonId, Polygon>{};
   Map<PolylineId, Polyline> _polylines = <PolylineId, Polyline>{};
   Map<CircleId, Circle> _circles = <CircleId, Circle>{};
+  Map<HeatmapId, Heatmap> _heatmaps = <HeatmapId, Heatmap>{};
+  // Tile overlays aren't creation params, their tile providers are registered
+  // on the platform side by the first update once the map is created.
+  Map<TileOverlayId, TileOverlay> _tileOverlays =
+      <TileOverlayId, TileOverlay>{};
   _GoogleMapOptions _googleMapOptions;
 
   @override
@@ -231,6 +316,7 @@ class _GoogleMapState extends State<GoogleMap> {
       'polygonsToAdd': serializePolygonSet(widget.polygons),
       'polylinesToAdd': serializePolylineSet(widget.polylines),
       'circlesToAdd': serializeCircleSet(widget.circles),
+      'heatmapsToAdd': serializeHeatmapSet(widget.heatmaps),
       '_webOnlyMapCreationId': _webOnlyMapCreationId,
     };
 
@@ -249,6 +335,7 @@ class _GoogleMapState extends State<GoogleMap> {
     _polygons = keyByPolygonId(widget.polygons);
     _polylines = keyByPolylineId(widget.polylines);
     _circles = keyByCircleId(widget.circles);
+    _heatmaps = keyByHeatmapId(widget.heatmaps);
   }
 
   @override
@@ -262,10 +349,9 @@ class _GoogleMapState extends State<GoogleMap> {
   void didUpdateWidget(GoogleMap oldWidget) {
     super.didUpdateWidget(oldWidget);
     _updateOptions();
-    _updateMarkers();
-    _updatePolygons();
-    _updatePolylines();
-    _updateCircles();
+    _updateOverlays();
+    _updateHeatmaps();
+    _updateTileOverlays();
   }
 
   void _updateOptions() async {
@@ -281,36 +367,51 @@ class _GoogleMapState extends State<GoogleMap> {
     _googleMapOptions = newOptions;
   }
 
-  void _updateMarkers() async {
+  void _updateOverlays() async {
     final GoogleMapController controller = await _controller.future;
     // ignore: unawaited_futures
-    controller._updateMarkers(
-        MarkerUpdates.from(_markers.values.toSet(), widget.markers));
+    controller._updateOverlays(
+      markerUpdates:
+          MarkerUpdates.from(_markers.values.toSet(), widget.markers),
+      polygonUpdates:
+          PolygonUpdates.from(_polygons.values.toSet(), widget.polygons),
+      polylineUpdates:
+          PolylineUpdates.from(_polylines.values.toSet(), widget.polylines),
+      circleUpdates:
+          CircleUpdates.from(_circles.values.toSet(), widget.circles),
+    );
     _markers = keyByMarkerId(widget.markers);
-  }
-
-  void _updatePolygons() async {
-    final GoogleMapController controller = await _controller.future;
-    // ignore: unawaited_futures
-    controller._updatePolygons(
-        PolygonUpdates.from(_polygons.values.toSet(), widget.polygons));
     _polygons = keyByPolygonId(widget.polygons);
+    _polylines = keyByPolylineId(widget.polylines);
+    _circles = keyByCircleId(widget.circles);
   }
 
-  void _updatePolylines() async {
+  void _updateHeatmaps() async {
     final GoogleMapController controller = await _controller.future;
+    final HeatmapUpdates updates =
+        HeatmapUpdates.from(_heatmaps.values.toSet(), widget.heatmaps);
+    _heatmaps = keyByHeatmapId(widget.heatmaps);
+    if (updates.heatmapsToAdd.isEmpty &&
+        updates.heatmapsToChange.isEmpty &&
+        updates.heatmapIdsToRemove.isEmpty) {
+      return;
+    }
     // ignore: unawaited_futures
-    controller._updatePolylines(
-        PolylineUpdates.from(_polylines.values.toSet(), widget.polylines));
-    _polylines = keyByPolylineId(widget.polylines);
+    controller._updateHeatmaps(updates);
   }
 
-  void _updateCircles() async {
+  void _updateTileOverlays() async {
     final GoogleMapController controller = await _controller.future;
+    final TileOverlayUpdates updates = TileOverlayUpdates.from(
+        _tileOverlays.values.toSet(), widget.tileOverlays);
+    _tileOverlays = keyByTileOverlayId(widget.tileOverlays);
+    if (updates.tileOverlaysToAdd.isEmpty &&
+        updates.tileOverlaysToChange.isEmpty &&
+        updates.tileOverlayIdsToRemove.isEmpty) {
+      return;
+    }
     // ignore: unawaited_futures
-    controller._updateCircles(
-        CircleUpdates.from(_circles.values.toSet(), widget.circles));
-    _circles = keyByCircleId(widget.circles);
+    controller._updateTileOverlays(updates);
   }
 
   Future<void> onPlatformViewCreated(int id) async {
@@ -320,6 +421,7 @@ class _GoogleMapState extends State<GoogleMap> {
       this,
     );
     _controller.complete(controller);
+    _updateTileOverlays();
     if (widget.onMapCreated != null) {
       widget.onMapCreated(controller);
     }
@@ -376,6 +478,29 @@ class _GoogleMapState extends State<GoogleMap> {
       widget.onLongPress(position);
     }
   }
+
+  void onCameraMove(CameraMoveEvent event) {
+    if (widget.onCameraMove != null) {
+      widget.onCameraMove(event.value);
+    }
+    if (widget.onVisibleRegionChanged != null && event.visibleRegion != null) {
+      widget.onVisibleRegionChanged(event.visibleRegion);
+    }
+  }
+
+  void onClusterTap(List<MarkerId> markerIds, LatLng position) {
+    assert(markerIds != null);
+    if (widget.onClusterTap != null) {
+      widget.onClusterTap(markerIds, position);
+    }
+  }
+
+  void onGeoJsonFeatureTap(GeoJsonFeature feature) {
+    assert(feature != null);
+    if (widget.onGeoJsonFeatureTap != null) {
+      widget.onGeoJsonFeatureTap(feature);
+    }
+  }
 }
 
 /// Configuration options for the GoogleMaps user interface.
@@ -393,6 +518,8 @@ class _GoogleMapOptions {
     this.scrollGesturesEnabled,
     this.tiltGesturesEnabled,
     this.trackCameraPosition,
+    this.trackVisibleRegion,
+    this.cameraMoveThrottleMillis,
     this.zoomControlsEnabled,
     this.zoomGesturesEnabled,
     this.liteModeEnabled,
@@ -402,6 +529,9 @@ class _GoogleMapOptions {
     this.indoorViewEnabled,
     this.trafficEnabled,
     this.buildingsEnabled,
+    this.markerVirtualizationEnabled,
+    this.markerClusteringEnabled,
+    this.markerClusterGridSize,
   }) {
     assert(liteModeEnabled == null ||
         !liteModeEnabled ||
@@ -418,7 +548,10 @@ class _GoogleMapOptions {
       rotateGesturesEnabled: map.rotateGesturesEnabled,
       scrollGesturesEnabled: map.scrollGesturesEnabled,
       tiltGesturesEnabled: map.tiltGesturesEnabled,
-      trackCameraPosition: map.onCameraMove != null,
+      trackCameraPosition:
+          map.onCameraMove != null || map.onVisibleRegionChanged != null,
+      trackVisibleRegion: map.onVisibleRegionChanged != null,
+      cameraMoveThrottleMillis: map.cameraMoveThrottle?.inMilliseconds,
       zoomControlsEnabled: map.zoomControlsEnabled,
       zoomGesturesEnabled: map.zoomGesturesEnabled,
       liteModeEnabled: map.liteModeEnabled,
@@ -428,6 +561,9 @@ class _GoogleMapOptions {
       indoorViewEnabled: map.indoorViewEnabled,
       trafficEnabled: map.trafficEnabled,
       buildingsEnabled: map.buildingsEnabled,
+      markerVirtualizationEnabled: map.markerVirtualizationEnabled,
+      markerClusteringEnabled: map.markerClusteringEnabled,
+      markerClusterGridSize: map.markerClusterGridSize,
     );
   }
 
@@ -449,6 +585,10 @@ class _GoogleMapOptions {
 
   final bool trackCameraPosition;
 
+  final bool trackVisibleRegion;
+
+  final int cameraMoveThrottleMillis;
+
   final bool zoomControlsEnabled;
 
   final bool zoomGesturesEnabled;
@@ -467,6 +607,12 @@ class _GoogleMapOptions {
 
   final bool buildingsEnabled;
 
+  final bool markerVirtualizationEnabled;
+
+  final bool markerClusteringEnabled;
+
+  final double markerClusterGridSize;
+
   Map<String, dynamic> toMap() {
     final Map<String, dynamic> optionsMap = <String, dynamic>{};
 
@@ -488,6 +634,8 @@ class _GoogleMapOptions {
     addIfNonNull('zoomGesturesEnabled', zoomGesturesEnabled);
     addIfNonNull('liteModeEnabled', liteModeEnabled);
     addIfNonNull('trackCameraPosition', trackCameraPosition);
+    addIfNonNull('trackVisibleRegion', trackVisibleRegion);
+    addIfNonNull('cameraMoveThrottleMillis', cameraMoveThrottleMillis);
     addIfNonNull('myLocationEnabled', myLocationEnabled);
     addIfNonNull('myLocationButtonEnabled', myLocationButtonEnabled);
     addIfNonNull('padding', <double>[
@@ -499,6 +647,9 @@ class _GoogleMapOptions {
     addIfNonNull('indoorEnabled', indoorViewEnabled);
     addIfNonNull('trafficEnabled', trafficEnabled);
     addIfNonNull('buildingsEnabled', buildingsEnabled);
+    addIfNonNull('markerVirtualizationEnabled', markerVirtualizationEnabled);
+    addIfNonNull('markerClusteringEnabled', markerClusteringEnabled);
+    addIfNonNull('markerClusterGridSize', markerClusterGridSize);
     return optionsMap;
   }
 
@@ -19,6 +19,7 @@ class FakePlatformGoogleMap {
     updatePolygons(params);
     updatePolylines(params);
     updateCircles(params);
+    updateHeatmaps(params);
   }
 
   MethodChannel channel;
@@ -49,12 +50,22 @@ class FakePlatformGoogleMap {
 
   bool trackCameraPosition;
 
+  bool trackVisibleRegion;
+
+  int cameraMoveThrottleMillis;
+
   bool myLocationEnabled;
 
   bool trafficEnabled;
 
   bool buildingsEnabled;
 
+  bool markerVirtualizationEnabled;
+
+  bool markerClusteringEnabled;
+
+  double markerClusterGridSize;
+
   bool myLocationButtonEnabled;
 
   List<dynamic> padding;
@@ -83,6 +94,18 @@ class FakePlatformGoogleMap {
 
   Set<Circle> circlesToChange;
 
+  Set<HeatmapId> heatmapIdsToRemove;
+
+  Set<Heatmap> heatmapsToAdd;
+
+  Set<Heatmap> heatmapsToChange;
+
+  Set<TileOverlayId> tileOverlayIdsToRemove;
+
+  Set<TileOverlay> tileOverlaysToAdd;
+
+  Set<TileOverlay> tileOverlaysToChange;
+
   Future<dynamic> onMethodCall(MethodCall call) {
     switch (call.method) {
       case 'map#update':
@@ -100,6 +123,17 @@ class FakePlatformGoogleMap {
       case 'circles#update':
         updateCircles(call.arguments);
         return Future<void>.sync(() {});
+      case 'heatmaps#update':
+        updateHeatmaps(call.arguments);
+        return Future<void>.sync(() {});
+      case 'tileOverlays#update':
+        updateTileOverlays(call.arguments);
+        return Future<void>.sync(() {});
+      case 'map#waitForMap':
+        return Future<dynamic>.sync(() => <String, dynamic>{
+              'tileOverlays': true,
+              'heatmaps': true,
+            });
       default:
         return Future<void>.sync(() {});
     }
@@ -259,12 +293,14 @@ class FakePlatformGoogleMap {
       final String polylineId = polylineData['polylineId'];
       final bool visible = polylineData['visible'];
       final bool geodesic = polylineData['geodesic'];
+      final bool simplify = polylineData['simplify'];
       final List<LatLng> points = _deserializePoints(polylineData['points']);
 
       result.add(Polyline(
         polylineId: PolylineId(polylineId),
         visible: visible,
         geodesic: geodesic,
+        simplify: simplify,
         points: points,
       ));
     }
@@ -319,6 +355,86 @@ class FakePlatformGoogleMap {
     return result;
   }
 
+  void updateHeatmaps(Map<dynamic, dynamic> heatmapUpdates) {
+    if (heatmapUpdates == null) {
+      return;
+    }
+    heatmapsToAdd = _deserializeHeatmaps(heatmapUpdates['heatmapsToAdd']);
+    heatmapIdsToRemove =
+        _deserializeHeatmapIds(heatmapUpdates['heatmapIdsToRemove']);
+    heatmapsToChange = _deserializeHeatmaps(heatmapUpdates['heatmapsToChange']);
+  }
+
+  Set<HeatmapId> _deserializeHeatmapIds(List<dynamic> heatmapIds) {
+    if (heatmapIds == null) {
+      return <HeatmapId>{};
+    }
+    return heatmapIds.map((dynamic heatmapId) => HeatmapId(heatmapId)).toSet();
+  }
+
+  Set<Heatmap> _deserializeHeatmaps(dynamic heatmaps) {
+    if (heatmaps == null) {
+      return <Heatmap>{};
+    }
+    final List<dynamic> heatmapsData = heatmaps;
+    final Set<Heatmap> result = <Heatmap>{};
+    for (Map<dynamic, dynamic> heatmapData in heatmapsData) {
+      result.add(Heatmap(
+        heatmapId: HeatmapId(heatmapData['heatmapId']),
+        weightedPoints: heatmapData['weightedPoints'],
+        radius: heatmapData['radius'],
+        opacity: heatmapData['opacity'],
+        visible: heatmapData['visible'],
+        zIndex: heatmapData['zIndex'],
+      ));
+    }
+
+    return result;
+  }
+
+  void updateTileOverlays(Map<dynamic, dynamic> tileOverlayUpdates) {
+    if (tileOverlayUpdates == null) {
+      return;
+    }
+    tileOverlaysToAdd =
+        _deserializeTileOverlays(tileOverlayUpdates['tileOverlaysToAdd']);
+    tileOverlayIdsToRemove = _deserializeTileOverlayIds(
+        tileOverlayUpdates['tileOverlayIdsToRemove']);
+    tileOverlaysToChange =
+        _deserializeTileOverlays(tileOverlayUpdates['tileOverlaysToChange']);
+  }
+
+  Set<TileOverlayId> _deserializeTileOverlayIds(List<dynamic> tileOverlayIds) {
+    if (tileOverlayIds == null) {
+      return <TileOverlayId>{};
+    }
+    return tileOverlayIds
+        .map((dynamic tileOverlayId) => TileOverlayId(tileOverlayId))
+        .toSet();
+  }
+
+  // Only overlays with a URL template can be deserialized, tile providers stay
+  // in Dart.
+  Set<TileOverlay> _deserializeTileOverlays(dynamic tileOverlays) {
+    if (tileOverlays == null) {
+      return <TileOverlay>{};
+    }
+    final List<dynamic> tileOverlaysData = tileOverlays;
+    final Set<TileOverlay> result = <TileOverlay>{};
+    for (Map<dynamic, dynamic> tileOverlayData in tileOverlaysData) {
+      result.add(TileOverlay(
+        tileOverlayId: TileOverlayId(tileOverlayData['tileOverlayId']),
+        urlTemplate: tileOverlayData['urlTemplate'],
+        transparency: tileOverlayData['transparency'],
+        visible: tileOverlayData['visible'],
+        zIndex: tileOverlayData['zIndex'],
+        diskCacheSize: tileOverlayData['diskCacheSize'],
+      ));
+    }
+
+    return result;
+  }
+
   void updateOptions(Map<dynamic, dynamic> options) {
     if (options.containsKey('compassEnabled')) {
       compassEnabled = options['compassEnabled'];
@@ -352,6 +468,12 @@ class FakePlatformGoogleMap {
     if (options.containsKey('trackCameraPosition')) {
       trackCameraPosition = options['trackCameraPosition'];
     }
+    if (options.containsKey('trackVisibleRegion')) {
+      trackVisibleRegion = options['trackVisibleRegion'];
+    }
+    if (options.containsKey('cameraMoveThrottleMillis')) {
+      cameraMoveThrottleMillis = options['cameraMoveThrottleMillis'];
+    }
     if (options.containsKey('zoomGesturesEnabled')) {
       zoomGesturesEnabled = options['zoomGesturesEnabled'];
     }
@@ -373,6 +495,15 @@ class FakePlatformGoogleMap {
     if (options.containsKey('buildingsEnabled')) {
       buildingsEnabled = options['buildingsEnabled'];
     }
+    if (options.containsKey('markerVirtualizationEnabled')) {
+      markerVirtualizationEnabled = options['markerVirtualizationEnabled'];
+    }
+    if (options.containsKey('markerClusteringEnabled')) {
+      markerClusteringEnabled = options['markerClusteringEnabled'];
+    }
+    if (options.containsKey('markerClusterGridSize')) {
+      markerClusterGridSize = options['markerClusterGridSize'];
+    }
     if (options.containsKey('padding')) {
       padding = options['padding'];
     }
@@ -357,6 +357,66 @@ void main() {
     expect(platformGoogleMap.trackCameraPosition, true);
   });
 
+  testWidgets('Can update visible region tracking',
+      (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+        ),
+      ),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(platformGoogleMap.trackCameraPosition, false);
+    expect(platformGoogleMap.trackVisibleRegion, false);
+
+    await tester.pumpWidget(
+      Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition:
+              const CameraPosition(target: LatLng(10.0, 15.0)),
+          onVisibleRegionChanged: (LatLngBounds _) {},
+        ),
+      ),
+    );
+
+    expect(platformGoogleMap.trackCameraPosition, true);
+    expect(platformGoogleMap.trackVisibleRegion, true);
+  });
+
+  testWidgets('Can update cameraMoveThrottle', (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+        ),
+      ),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(platformGoogleMap.cameraMoveThrottleMillis, 0);
+
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+          cameraMoveThrottle: Duration(milliseconds: 100),
+        ),
+      ),
+    );
+
+    expect(platformGoogleMap.cameraMoveThrottleMillis, 100);
+  });
+
   testWidgets('Can update zoomGesturesEnabled', (WidgetTester tester) async {
     await tester.pumpWidget(
       const Directionality(
@@ -587,4 +647,63 @@ void main() {
 
     expect(platformGoogleMap.buildingsEnabled, true);
   });
+
+  testWidgets('Can update marker virtualization', (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+        ),
+      ),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(platformGoogleMap.markerVirtualizationEnabled, false);
+
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+          markerVirtualizationEnabled: true,
+        ),
+      ),
+    );
+
+    expect(platformGoogleMap.markerVirtualizationEnabled, true);
+  });
+
+  testWidgets('Can update marker clustering', (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+        ),
+      ),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(platformGoogleMap.markerClusteringEnabled, false);
+    expect(platformGoogleMap.markerClusterGridSize, 60.0);
+
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+          markerClusteringEnabled: true,
+          markerClusterGridSize: 80.0,
+        ),
+      ),
+    );
+
+    expect(platformGoogleMap.markerClusteringEnabled, true);
+    expect(platformGoogleMap.markerClusterGridSize, 80.0);
+  });
 }
@@ -0,0 +1,103 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+import 'package:flutter/services.dart';
+import 'package:flutter/widgets.dart';
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter/google_maps_flutter.dart';
+
+import 'fake_maps_controllers.dart';
+
+Heatmap _heatmap(String id, List<double> weightedPoints, {int radius = 20}) {
+  return Heatmap(
+    heatmapId: HeatmapId(id),
+    weightedPoints: Float64List.fromList(weightedPoints),
+    radius: radius,
+  );
+}
+
+Widget _mapWithHeatmaps(Set<Heatmap> heatmaps) {
+  return Directionality(
+    textDirection: TextDirection.ltr,
+    child: GoogleMap(
+      initialCameraPosition: const CameraPosition(target: LatLng(10.0, 15.0)),
+      heatmaps: heatmaps,
+    ),
+  );
+}
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  final FakePlatformViewsController fakePlatformViewsController =
+      FakePlatformViewsController();
+
+  setUpAll(() {
+    SystemChannels.platform_views.setMockMethodCallHandler(
+        fakePlatformViewsController.fakePlatformViewsMethodHandler);
+  });
+
+  setUp(() {
+    fakePlatformViewsController.reset();
+  });
+
+  testWidgets('Initializing a heatmap', (WidgetTester tester) async {
+    final Heatmap h1 = _heatmap('heatmap_1', <double>[1.0, 2.0, 1.0]);
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{h1}));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.heatmapsToAdd, <Heatmap>{h1});
+    expect(platformGoogleMap.heatmapIdsToRemove.isEmpty, true);
+    expect(platformGoogleMap.heatmapsToChange.isEmpty, true);
+  });
+
+  testWidgets('Updating the points of a heatmap', (WidgetTester tester) async {
+    final Heatmap h1 = _heatmap('heatmap_1', <double>[1.0, 2.0, 1.0]);
+    final Heatmap h2 = _heatmap('heatmap_1', <double>[1.0, 2.0, 3.0]);
+
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{h1}));
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{h2}));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.heatmapsToChange, <Heatmap>{h2});
+    expect(platformGoogleMap.heatmapsToChange.first.weightedPoints,
+        <double>[1.0, 2.0, 3.0]);
+    expect(platformGoogleMap.heatmapIdsToRemove.isEmpty, true);
+    expect(platformGoogleMap.heatmapsToAdd.isEmpty, true);
+  });
+
+  testWidgets('Equal points are not sent again', (WidgetTester tester) async {
+    final Heatmap h1 = _heatmap('heatmap_1', <double>[1.0, 2.0, 1.0]);
+    final Heatmap h2 = _heatmap('heatmap_1', <double>[1.0, 2.0, 1.0]);
+
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{h1}));
+    await tester.pump();
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    platformGoogleMap.heatmapsToChange = null;
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{h2}));
+    await tester.pump();
+
+    // Nothing changed, so no update is sent at all.
+    expect(platformGoogleMap.heatmapsToChange, isNull);
+  });
+
+  testWidgets('Removing a heatmap', (WidgetTester tester) async {
+    final Heatmap h1 = _heatmap('heatmap_1', <double>[1.0, 2.0, 1.0]);
+
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{h1}));
+    await tester.pumpWidget(_mapWithHeatmaps(null));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.heatmapIdsToRemove, <HeatmapId>{h1.heatmapId});
+    expect(platformGoogleMap.heatmapsToChange.isEmpty, true);
+    expect(platformGoogleMap.heatmapsToAdd.isEmpty, true);
+  });
+}
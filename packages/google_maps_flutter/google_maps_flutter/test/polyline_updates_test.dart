@@ -96,6 +96,24 @@ void main() {
     expect(platformGoogleMap.polylinesToAdd.isEmpty, true);
   });
 
+  testWidgets("Updating a polyline's simplification",
+      (WidgetTester tester) async {
+    final Polyline p1 = Polyline(polylineId: PolylineId("polyline_1"));
+    final Polyline p2 =
+        Polyline(polylineId: PolylineId("polyline_1"), simplify: true);
+
+    await tester.pumpWidget(_mapWithPolylines(_toSet(p1: p1)));
+    await tester.pumpWidget(_mapWithPolylines(_toSet(p1: p2)));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.polylinesToChange.length, 1);
+
+    final Polyline update = platformGoogleMap.polylinesToChange.first;
+    expect(update, equals(p2));
+    expect(update.simplify, true);
+  });
+
   testWidgets("Updating a polyline", (WidgetTester tester) async {
     final Polyline p1 = Polyline(polylineId: PolylineId("polyline_1"));
     final Polyline p2 =
@@ -0,0 +1,116 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:flutter/services.dart';
+import 'package:flutter/widgets.dart';
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter/google_maps_flutter.dart';
+
+import 'fake_maps_controllers.dart';
+
+TileOverlay _tileOverlay(String id, {double transparency = 0.0}) {
+  return TileOverlay(
+    tileOverlayId: TileOverlayId(id),
+    urlTemplate: 'https://tiles.example.com/$id/{z}/{x}/{y}.png',
+    transparency: transparency,
+  );
+}
+
+Widget _mapWithTileOverlays(Set<TileOverlay> tileOverlays) {
+  return Directionality(
+    textDirection: TextDirection.ltr,
+    child: GoogleMap(
+      initialCameraPosition: const CameraPosition(target: LatLng(10.0, 15.0)),
+      tileOverlays: tileOverlays,
+    ),
+  );
+}
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  final FakePlatformViewsController fakePlatformViewsController =
+      FakePlatformViewsController();
+
+  setUpAll(() {
+    SystemChannels.platform_views.setMockMethodCallHandler(
+        fakePlatformViewsController.fakePlatformViewsMethodHandler);
+  });
+
+  setUp(() {
+    fakePlatformViewsController.reset();
+  });
+
+  testWidgets('Initializing a tile overlay', (WidgetTester tester) async {
+    final TileOverlay t1 = _tileOverlay('tile_overlay_1');
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1}));
+    await tester.pump();
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.tileOverlaysToAdd, <TileOverlay>{t1});
+    expect(platformGoogleMap.tileOverlayIdsToRemove.isEmpty, true);
+    expect(platformGoogleMap.tileOverlaysToChange.isEmpty, true);
+  });
+
+  testWidgets('Adding a tile overlay', (WidgetTester tester) async {
+    final TileOverlay t1 = _tileOverlay('tile_overlay_1');
+    final TileOverlay t2 = _tileOverlay('tile_overlay_2');
+
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1}));
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1, t2}));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.tileOverlaysToAdd, <TileOverlay>{t2});
+    expect(platformGoogleMap.tileOverlayIdsToRemove.isEmpty, true);
+    expect(platformGoogleMap.tileOverlaysToChange.isEmpty, true);
+  });
+
+  testWidgets('Removing a tile overlay', (WidgetTester tester) async {
+    final TileOverlay t1 = _tileOverlay('tile_overlay_1');
+
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1}));
+    await tester.pumpWidget(_mapWithTileOverlays(null));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.tileOverlayIdsToRemove,
+        <TileOverlayId>{t1.tileOverlayId});
+    expect(platformGoogleMap.tileOverlaysToChange.isEmpty, true);
+    expect(platformGoogleMap.tileOverlaysToAdd.isEmpty, true);
+  });
+
+  testWidgets('Updating a tile overlay', (WidgetTester tester) async {
+    final TileOverlay t1 = _tileOverlay('tile_overlay_1');
+    final TileOverlay t2 = _tileOverlay('tile_overlay_1', transparency: 0.5);
+
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1}));
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t2}));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.tileOverlaysToChange, <TileOverlay>{t2});
+    expect(platformGoogleMap.tileOverlaysToChange.first.transparency, 0.5);
+    expect(platformGoogleMap.tileOverlayIdsToRemove.isEmpty, true);
+    expect(platformGoogleMap.tileOverlaysToAdd.isEmpty, true);
+  });
+
+  testWidgets('Rebuilding without changes sends no update',
+      (WidgetTester tester) async {
+    final TileOverlay t1 = _tileOverlay('tile_overlay_1');
+
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1}));
+    await tester.pump();
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    platformGoogleMap.tileOverlaysToAdd = null;
+    await tester.pumpWidget(
+        _mapWithTileOverlays(<TileOverlay>{_tileOverlay('tile_overlay_1')}));
+    await tester.pump();
+
+    expect(platformGoogleMap.tileOverlaysToAdd, isNull);
+  });
+}
@@ -77,7 +77,11 @@ class CameraMoveEvent extends MapEvent<CameraPosition> {
   /// Build a CameraMove Event triggered from the map represented by `mapId`.
   ///
   /// The `value` of this event is a [CameraPosition] object with the current position of the Camera.
-  CameraMoveEvent(int mapId, CameraPosition position) : super(mapId, position);
+  CameraMoveEvent(int mapId, CameraPosition position, {this.visibleRegion})
+      : super(mapId, position);
+
+  /// The visible region of the map, if the platform was asked to track it.
+  final LatLngBounds visibleRegion;
 }
 
 /// An event fired when the Camera of a [mapId] becomes idle.
@@ -94,6 +98,25 @@ class MarkerTapEvent extends MapEvent<MarkerId> {
   MarkerTapEvent(int mapId, MarkerId markerId) : super(mapId, markerId);
 }
 
+/// An event fired when a cluster of [Marker]s is tapped.
+class ClusterTapEvent extends _PositionedMapEvent<List<MarkerId>> {
+  /// Build a ClusterTap Event triggered from the map represented by `mapId`.
+  ///
+  /// The `position` of this event is the center of the cluster.
+  /// The `value` of this event is the list of [MarkerId]s of the clustered Markers.
+  ClusterTapEvent(int mapId, LatLng position, List<MarkerId> markerIds)
+      : super(mapId, position, markerIds);
+}
+
+/// An event fired when a feature of a [GeoJsonLayer] is tapped.
+class GeoJsonFeatureTapEvent extends MapEvent<GeoJsonFeature> {
+  /// Build a GeoJsonFeatureTap Event triggered from the map represented by `mapId`.
+  ///
+  /// The `value` of this event is the [GeoJsonFeature] that was tapped.
+  GeoJsonFeatureTapEvent(int mapId, GeoJsonFeature feature)
+      : super(mapId, feature);
+}
+
 /// An event fired when an [InfoWindow] is tapped.
 class InfoWindowTapEvent extends MapEvent<MarkerId> {
   /// Build an InfoWindowTap Event triggered from the map represented by `mapId`.
@@ -28,6 +28,27 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
   // Every method call passes the int mapId
   final Map<int, MethodChannel> _channels = {};
 
+  // Ids of the maps whose native side accepts packed polyline and polygon
+  // points, see [Polyline.toJson]. A packed list is encoded and decoded in one
+  // pass, instead of as a list of two boxed doubles per point.
+  final Set<int> _packedPointsMapIds = <int>{};
+
+  // Ids of the maps whose native side applies the updates of all overlays in
+  // a single call, see [updateOverlays].
+  final Set<int> _overlaysUpdateMapIds = <int>{};
+
+  // Ids of the maps whose native side draws tile overlays, see
+  // [updateTileOverlays].
+  final Set<int> _tileOverlaysMapIds = <int>{};
+
+  // Ids of the maps whose native side draws heatmaps, see [updateHeatmaps].
+  final Set<int> _heatmapsMapIds = <int>{};
+
+  // The tile overlays of each map, whose tile providers are asked for the
+  // tiles the native side requests.
+  final Map<int, Map<TileOverlayId, TileOverlay>> _tileOverlays =
+      <int, Map<TileOverlayId, TileOverlay>>{};
+
   /// Accesses the MethodChannel associated to the passed mapId.
   MethodChannel channel(int mapId) {
     return _channels[mapId];
@@ -45,13 +66,32 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
           (MethodCall call) => _handleMethodCall(call, mapId));
       _channels[mapId] = channel;
     }
-    return channel.invokeMethod<void>('map#waitForMap');
+    return channel
+        .invokeMethod<dynamic>('map#waitForMap')
+        .then((dynamic capabilities) {
+      // Older native implementations reply with null.
+      if (capabilities is! Map) {
+        return;
+      }
+      if (capabilities['packedPoints'] == true) {
+        _packedPointsMapIds.add(mapId);
+      }
+      if (capabilities['overlaysUpdate'] == true) {
+        _overlaysUpdateMapIds.add(mapId);
+      }
+      if (capabilities['tileOverlays'] == true) {
+        _tileOverlaysMapIds.add(mapId);
+      }
+      if (capabilities['heatmaps'] == true) {
+        _heatmapsMapIds.add(mapId);
+      }
+    });
   }
 
   /// Dispose of the native resources.
   @override
   void dispose({int mapId}) {
-    // Noop!
+    _tileOverlays.remove(mapId);
   }
 
   // The controller we need to broadcast the different events coming
@@ -86,6 +126,16 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     return _events(mapId).whereType<MarkerTapEvent>();
   }
 
+  @override
+  Stream<ClusterTapEvent> onClusterTap({@required int mapId}) {
+    return _events(mapId).whereType<ClusterTapEvent>();
+  }
+
+  @override
+  Stream<GeoJsonFeatureTapEvent> onGeoJsonFeatureTap({@required int mapId}) {
+    return _events(mapId).whereType<GeoJsonFeatureTapEvent>();
+  }
+
   @override
   Stream<InfoWindowTapEvent> onInfoWindowTap({@required int mapId}) {
     return _events(mapId).whereType<InfoWindowTapEvent>();
@@ -127,9 +177,16 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
         _mapEventStreamController.add(CameraMoveStartedEvent(mapId));
         break;
       case 'camera#onMove':
+        final dynamic visibleRegion = call.arguments['visibleRegion'];
         _mapEventStreamController.add(CameraMoveEvent(
           mapId,
           CameraPosition.fromMap(call.arguments['position']),
+          visibleRegion: visibleRegion == null
+              ? null
+              : LatLngBounds(
+                  southwest: LatLng.fromJson(visibleRegion['southwest']),
+                  northeast: LatLng.fromJson(visibleRegion['northeast']),
+                ),
         ));
         break;
       case 'camera#onIdle':
@@ -148,6 +205,29 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
           MarkerId(call.arguments['markerId']),
         ));
         break;
+      case 'cluster#onTap':
+        _mapEventStreamController.add(ClusterTapEvent(
+          mapId,
+          LatLng.fromJson(call.arguments['position']),
+          (call.arguments['markerIds'] as List<dynamic>)
+              .map((dynamic markerId) => MarkerId(markerId))
+              .toList(),
+        ));
+        break;
+      case 'geoJsonFeature#onTap':
+        final dynamic properties = call.arguments['properties'];
+        _mapEventStreamController.add(GeoJsonFeatureTapEvent(
+          mapId,
+          GeoJsonFeature(
+            layerId: GeoJsonLayerId(call.arguments['layerId']),
+            index: call.arguments['featureIndex'],
+            id: call.arguments['featureId'],
+            properties: properties == null
+                ? null
+                : Map<String, dynamic>.from(properties),
+          ),
+        ));
+        break;
       case 'infoWindow#onTap':
         _mapEventStreamController.add(InfoWindowTapEvent(
           mapId,
@@ -184,6 +264,8 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
           LatLng.fromJson(call.arguments['position']),
         ));
         break;
+      case 'tileOverlay#getTiles':
+        return _getTiles(mapId, call.arguments);
       default:
         throw MissingPluginException();
     }
@@ -241,7 +323,7 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     assert(polygonUpdates != null);
     return channel(mapId).invokeMethod<void>(
       'polygons#update',
-      polygonUpdates.toJson(),
+      polygonUpdates.toJson(packPoints: _packedPointsMapIds.contains(mapId)),
     );
   }
 
@@ -259,7 +341,7 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     assert(polylineUpdates != null);
     return channel(mapId).invokeMethod<void>(
       'polylines#update',
-      polylineUpdates.toJson(),
+      polylineUpdates.toJson(packPoints: _packedPointsMapIds.contains(mapId)),
     );
   }
 
@@ -281,6 +363,171 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     );
   }
 
+  /// Updates the marker, polygon, polyline and circle configuration at once.
+  ///
+  /// The updates are sent in a single `overlays#update` call to native sides
+  /// that announced support for it when the map was ready, and kinds of
+  /// overlays without any change are left out of it. Other native sides get
+  /// one call per kind of overlay.
+  ///
+  /// The returned [Future] completes once all the updates have been made on
+  /// the platform side.
+  @override
+  Future<void> updateOverlays({
+    MarkerUpdates markerUpdates,
+    PolygonUpdates polygonUpdates,
+    PolylineUpdates polylineUpdates,
+    CircleUpdates circleUpdates,
+    @required int mapId,
+  }) {
+    if (!_overlaysUpdateMapIds.contains(mapId)) {
+      return super.updateOverlays(
+        markerUpdates: markerUpdates,
+        polygonUpdates: polygonUpdates,
+        polylineUpdates: polylineUpdates,
+        circleUpdates: circleUpdates,
+        mapId: mapId,
+      );
+    }
+    final bool packPoints = _packedPointsMapIds.contains(mapId);
+    final Map<String, dynamic> updates = <String, dynamic>{};
+    void addIfChanged(Map<String, dynamic> json) {
+      if (json.values.any((dynamic value) => value.isNotEmpty)) {
+        updates.addAll(json);
+      }
+    }
+
+    if (markerUpdates != null) {
+      addIfChanged(markerUpdates.toJson());
+    }
+    if (polygonUpdates != null) {
+      addIfChanged(polygonUpdates.toJson(packPoints: packPoints));
+    }
+    if (polylineUpdates != null) {
+      addIfChanged(polylineUpdates.toJson(packPoints: packPoints));
+    }
+    if (circleUpdates != null) {
+      addIfChanged(circleUpdates.toJson());
+    }
+    if (updates.isEmpty) {
+      return Future<void>.value();
+    }
+    return channel(mapId).invokeMethod<void>('overlays#update', updates);
+  }
+
+  /// Updates heatmap configuration.
+  ///
+  /// Change listeners are notified once the update has been made on the
+  /// platform side. The updates are ignored on native sides that didn't
+  /// announce heatmaps when the map was ready.
+  ///
+  /// The returned [Future] completes after listeners have been notified.
+  @override
+  Future<void> updateHeatmaps(
+    HeatmapUpdates heatmapUpdates, {
+    @required int mapId,
+  }) {
+    assert(heatmapUpdates != null);
+    if (!_heatmapsMapIds.contains(mapId)) {
+      return Future<void>.value();
+    }
+    return channel(mapId).invokeMethod<void>(
+      'heatmaps#update',
+      heatmapUpdates.toJson(),
+    );
+  }
+
+  /// Updates tile overlay configuration.
+  ///
+  /// Change listeners are notified once the update has been made on the
+  /// platform side. The updates are ignored on native sides that didn't
+  /// announce tile overlays when the map was ready.
+  ///
+  /// The returned [Future] completes after listeners have been notified.
+  @override
+  Future<void> updateTileOverlays(
+    TileOverlayUpdates tileOverlayUpdates, {
+    @required int mapId,
+  }) {
+    assert(tileOverlayUpdates != null);
+    if (!_tileOverlaysMapIds.contains(mapId)) {
+      return Future<void>.value();
+    }
+    final Map<TileOverlayId, TileOverlay> tileOverlays =
+        _tileOverlays.putIfAbsent(mapId, () => <TileOverlayId, TileOverlay>{});
+    tileOverlayUpdates.tileOverlayIdsToRemove.forEach(tileOverlays.remove);
+    tileOverlays
+      ..addAll(keyByTileOverlayId(tileOverlayUpdates.tileOverlaysToAdd))
+      ..addAll(keyByTileOverlayId(tileOverlayUpdates.tileOverlaysToChange));
+    return channel(mapId).invokeMethod<void>(
+      'tileOverlays#update',
+      tileOverlayUpdates.toJson(),
+    );
+  }
+
+  /// Clears the tiles of a tile overlay from the memory and the disk cache,
+  /// so that they are requested again.
+  @override
+  Future<void> clearTileCache(
+    TileOverlayId tileOverlayId, {
+    @required int mapId,
+  }) {
+    assert(tileOverlayId != null);
+    return channel(mapId).invokeMethod<void>('tileOverlays#clearTileCache',
+        <String, String>{'tileOverlayId': tileOverlayId.value});
+  }
+
+  /// Adds a GeoJSON layer to the map, replacing any layer with the same id.
+  ///
+  /// The document is parsed on a background thread of the platform, and its
+  /// features are added to the map in batches. The returned [Future]
+  /// completes with the number of features once all of them have been added.
+  @override
+  Future<int> addGeoJsonLayer(
+    GeoJsonLayer layer, {
+    @required int mapId,
+  }) {
+    assert(layer != null);
+    return channel(mapId)
+        .invokeMethod<int>('geoJsonLayers#add', layer.toJson());
+  }
+
+  /// Removes a GeoJSON layer from the map.
+  @override
+  Future<void> removeGeoJsonLayer(
+    GeoJsonLayerId layerId, {
+    @required int mapId,
+  }) {
+    assert(layerId != null);
+    return channel(mapId).invokeMethod<void>(
+        'geoJsonLayers#remove', <String, String>{'layerId': layerId.value});
+  }
+
+  /// Returns the tiles of a batch of `tileOverlay#getTiles` coordinates.
+  ///
+  /// The native side coalesces the tiles it needs at once into a single call,
+  /// with their coordinates flattened into `x, y, zoom` triples. A tile that
+  /// couldn't be fetched is null, so that the map asks for it again later.
+  Future<List<dynamic>> _getTiles(int mapId, dynamic arguments) {
+    final Map<TileOverlayId, TileOverlay> tileOverlays = _tileOverlays[mapId];
+    final TileOverlay tileOverlay = tileOverlays == null
+        ? null
+        : tileOverlays[TileOverlayId(arguments['tileOverlayId'])];
+    final List<dynamic> coordinates = arguments['coordinates'];
+    final List<Future<dynamic>> tiles = <Future<dynamic>>[];
+    for (int i = 0; i + 2 < coordinates.length; i += 3) {
+      if (tileOverlay?.tileProvider == null) {
+        tiles.add(Future<dynamic>.value(TileProvider.noTile.toJson()));
+        continue;
+      }
+      tiles.add(tileOverlay.tileProvider
+          .getTile(coordinates[i], coordinates[i + 1], coordinates[i + 2])
+          .then<dynamic>((Tile tile) => tile?.toJson())
+          .catchError((Object error) => null));
+    }
+    return Future.wait<dynamic>(tiles);
+  }
+
   /// Starts an animated change of the map camera position.
   ///
   /// The returned [Future] completes after the change has been started on the
@@ -451,6 +698,37 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     return channel(mapId).invokeMethod<Uint8List>('map#takeSnapshot');
   }
 
+  /// Returns the image bytes of the map, cropped, scaled and encoded as
+  /// [options] describe.
+  ///
+  /// The snapshot is encoded on a background thread of the platform.
+  @override
+  Future<Uint8List> takeSnapshotWithOptions(
+    SnapshotOptions options, {
+    @required int mapId,
+  }) {
+    assert(options != null);
+    return channel(mapId)
+        .invokeMethod<Uint8List>('map#takeSnapshot', options.toJson());
+  }
+
+  /// Writes a snapshot of the map encoded as [options] describe to the file
+  /// at [path], and returns that path.
+  ///
+  /// The snapshot bytes are not sent over the channel.
+  @override
+  Future<String> takeSnapshotToFile(
+    String path, {
+    SnapshotOptions options = const SnapshotOptions(),
+    @required int mapId,
+  }) {
+    assert(path != null);
+    assert(options != null);
+    final Map<String, dynamic> arguments = options.toJson();
+    arguments['path'] = path;
+    return channel(mapId).invokeMethod<String>('map#takeSnapshot', arguments);
+  }
+
   /// This method builds the appropriate platform view where the map
   /// can be rendered.
   /// The `mapId` is passed as a parameter from the framework on the
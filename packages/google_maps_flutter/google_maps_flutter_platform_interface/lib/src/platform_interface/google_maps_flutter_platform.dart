@@ -115,6 +115,91 @@ abstract class GoogleMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('updateCircles() has not been implemented.');
   }
 
+  /// Updates the marker, polygon, polyline and circle configuration at once.
+  ///
+  /// Null updates are skipped. Platforms that can apply all the updates in a
+  /// single pass override this, the default implementation makes one call
+  /// per kind of overlay.
+  ///
+  /// The returned [Future] completes once all the updates have been made on
+  /// the platform side.
+  Future<void> updateOverlays({
+    MarkerUpdates markerUpdates,
+    PolygonUpdates polygonUpdates,
+    PolylineUpdates polylineUpdates,
+    CircleUpdates circleUpdates,
+    @required int mapId,
+  }) {
+    return Future.wait(<Future<void>>[
+      if (markerUpdates != null) updateMarkers(markerUpdates, mapId: mapId),
+      if (polygonUpdates != null) updatePolygons(polygonUpdates, mapId: mapId),
+      if (polylineUpdates != null)
+        updatePolylines(polylineUpdates, mapId: mapId),
+      if (circleUpdates != null) updateCircles(circleUpdates, mapId: mapId),
+    ]);
+  }
+
+  /// Updates heatmap configuration.
+  ///
+  /// Change listeners are notified once the update has been made on the
+  /// platform side.
+  ///
+  /// The returned [Future] completes after listeners have been notified.
+  /// Platforms without heatmaps ignore the updates, which is what the default
+  /// implementation does.
+  Future<void> updateHeatmaps(
+    HeatmapUpdates heatmapUpdates, {
+    @required int mapId,
+  }) {
+    return Future<void>.value();
+  }
+
+  /// Updates tile overlay configuration.
+  ///
+  /// Change listeners are notified once the update has been made on the
+  /// platform side.
+  ///
+  /// The returned [Future] completes after listeners have been notified.
+  /// Platforms without tile overlays ignore the updates, which is what the
+  /// default implementation does.
+  Future<void> updateTileOverlays(
+    TileOverlayUpdates tileOverlayUpdates, {
+    @required int mapId,
+  }) {
+    return Future<void>.value();
+  }
+
+  /// Clears the tiles of a tile overlay from the memory and the disk cache,
+  /// so that they are requested again.
+  ///
+  /// The returned [Future] completes once the tiles have been cleared on the
+  /// platform side.
+  Future<void> clearTileCache(
+    TileOverlayId tileOverlayId, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError('clearTileCache() has not been implemented.');
+  }
+
+  /// Adds a GeoJSON layer to the map, replacing any layer with the same id.
+  ///
+  /// The returned [Future] completes with the number of features of the
+  /// layer once all of them have been added to the map.
+  Future<int> addGeoJsonLayer(
+    GeoJsonLayer layer, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError('addGeoJsonLayer() has not been implemented.');
+  }
+
+  /// Removes a GeoJSON layer from the map.
+  Future<void> removeGeoJsonLayer(
+    GeoJsonLayerId layerId, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError('removeGeoJsonLayer() has not been implemented.');
+  }
+
   /// Starts an animated change of the map camera position.
   ///
   /// The returned [Future] completes after the change has been started on the
@@ -246,7 +331,27 @@ abstract class GoogleMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('takeSnapshot() has not been implemented.');
   }
 
-  // The following are the 11 possible streams of data from the native side
+  /// Returns the image bytes of the map, cropped, scaled and encoded as
+  /// [options] describe.
+  Future<Uint8List> takeSnapshotWithOptions(
+    SnapshotOptions options, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError(
+        'takeSnapshotWithOptions() has not been implemented.');
+  }
+
+  /// Writes a snapshot of the map encoded as [options] describe to the file
+  /// at [path], and returns that path.
+  Future<String> takeSnapshotToFile(
+    String path, {
+    SnapshotOptions options = const SnapshotOptions(),
+    @required int mapId,
+  }) {
+    throw UnimplementedError('takeSnapshotToFile() has not been implemented.');
+  }
+
+  // The following are the 12 possible streams of data from the native side
   // into the plugin
 
   /// The Camera started moving.
@@ -269,6 +374,17 @@ abstract class GoogleMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('onMarkerTap() has not been implemented.');
   }
 
+  /// A cluster of [Marker]s has been tapped.
+  Stream<ClusterTapEvent> onClusterTap({@required int mapId}) {
+    throw UnimplementedError('onClusterTap() has not been implemented.');
+  }
+
+  /// A feature of a [GeoJsonLayer] has been tapped.
+  Stream<GeoJsonFeatureTapEvent> onGeoJsonFeatureTap({@required int mapId}) {
+    throw UnimplementedError(
+        'onGeoJsonFeatureTap() has not been implemented.');
+  }
+
   /// An [InfoWindow] has been tapped.
   Stream<InfoWindowTapEvent> onInfoWindowTap({@required int mapId}) {
     throw UnimplementedError('onInfoWindowTap() has not been implemented.');
@@ -0,0 +1,138 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data' show Uint8List;
+
+import 'package:flutter/material.dart' show Color;
+import 'package:meta/meta.dart' show immutable, required;
+
+/// Uniquely identifies a [GeoJsonLayer] among the layers of a map.
+@immutable
+class GeoJsonLayerId {
+  /// Creates an immutable identifier for a [GeoJsonLayer].
+  GeoJsonLayerId(this.value) : assert(value != null);
+
+  /// value of the [GeoJsonLayerId].
+  final String value;
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final GeoJsonLayerId typedOther = other;
+    return value == typedOther.value;
+  }
+
+  @override
+  int get hashCode => value.hashCode;
+
+  @override
+  String toString() {
+    return 'GeoJsonLayerId{value: $value}';
+  }
+}
+
+/// A GeoJSON document whose features are parsed and drawn by the platform.
+///
+/// Polygons are drawn with [fillColor], [strokeColor] and [strokeWidth],
+/// line strings with [strokeColor] and [strokeWidth], and points as default
+/// markers. The document is read from the file at [path] or from [data],
+/// exactly one of which must be given.
+@immutable
+class GeoJsonLayer {
+  /// Creates an immutable representation of a GeoJSON layer.
+  const GeoJsonLayer({
+    @required this.layerId,
+    this.path,
+    this.data,
+    this.fillColor = const Color(0x400000FF),
+    this.strokeColor = const Color(0xFF000000),
+    this.strokeWidth = 2,
+    this.zIndex = 0,
+    this.visible = true,
+    this.consumeTapEvents = false,
+  })  : assert(layerId != null),
+        assert((path == null) != (data == null));
+
+  /// Uniquely identifies the layer.
+  final GeoJsonLayerId layerId;
+
+  /// The path of a GeoJSON file on the device.
+  final String path;
+
+  /// The UTF-8 encoded GeoJSON document.
+  final Uint8List data;
+
+  /// Fill color of the polygons of the layer.
+  final Color fillColor;
+
+  /// Color of the outlines of the polygons and of the line strings.
+  final Color strokeColor;
+
+  /// Width of the outlines and line strings, in logical pixels.
+  final int strokeWidth;
+
+  /// The z-index of the shapes of the layer.
+  final double zIndex;
+
+  /// True if the layer is visible.
+  final bool visible;
+
+  /// True if the features of the layer receive tap events.
+  ///
+  /// The properties of the features are only read when this is true.
+  final bool consumeTapEvents;
+
+  /// Converts this object to something serializable in JSON.
+  dynamic toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('layerId', layerId.value);
+    addIfPresent('path', path);
+    addIfPresent('data', data);
+    addIfPresent('fillColor', fillColor.value);
+    addIfPresent('strokeColor', strokeColor.value);
+    addIfPresent('strokeWidth', strokeWidth);
+    addIfPresent('zIndex', zIndex);
+    addIfPresent('visible', visible);
+    addIfPresent('consumeTapEvents', consumeTapEvents);
+    return json;
+  }
+}
+
+/// A feature of a [GeoJsonLayer] that was tapped.
+@immutable
+class GeoJsonFeature {
+  /// Creates an immutable representation of a tapped GeoJSON feature.
+  const GeoJsonFeature({
+    @required this.layerId,
+    @required this.index,
+    this.id,
+    this.properties,
+  });
+
+  /// The layer of the feature.
+  final GeoJsonLayerId layerId;
+
+  /// The index of the feature among the features of its layer.
+  final int index;
+
+  /// The `id` member of the feature, or null if it has none.
+  final String id;
+
+  /// The `properties` member of the feature, or null if it has none.
+  final Map<String, dynamic> properties;
+
+  @override
+  String toString() {
+    return 'GeoJsonFeature{layerId: $layerId, index: $index, id: $id, '
+        'properties: $properties}';
+  }
+}
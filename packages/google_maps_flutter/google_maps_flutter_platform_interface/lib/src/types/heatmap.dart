@@ -0,0 +1,219 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data' show Float64List;
+import 'dart:ui' show hashValues;
+
+import 'package:flutter/foundation.dart' show listEquals;
+import 'package:flutter/material.dart' show Color;
+import 'package:meta/meta.dart' show immutable, required;
+
+/// Uniquely identifies a [Heatmap] among [GoogleMap] heatmaps.
+///
+/// This does not have to be globally unique, only unique among the list.
+@immutable
+class HeatmapId {
+  /// Creates an immutable identifier for a [Heatmap].
+  HeatmapId(this.value) : assert(value != null);
+
+  /// value of the [HeatmapId].
+  final String value;
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final HeatmapId typedOther = other;
+    return value == typedOther.value;
+  }
+
+  @override
+  int get hashCode => value.hashCode;
+
+  @override
+  String toString() {
+    return 'HeatmapId{value: $value}';
+  }
+}
+
+/// The colors of a [Heatmap], from its sparsest to its densest areas.
+@immutable
+class HeatmapGradient {
+  /// Creates a gradient that goes through [colors] at [startPoints].
+  ///
+  /// Both lists must have the same, non-zero length. [startPoints] are
+  /// fractions of the maximum intensity, in ascending order. Areas below the
+  /// first start point fade in from transparent.
+  const HeatmapGradient(
+    this.colors,
+    this.startPoints, {
+    this.colorMapSize = 256,
+  })  : assert(colors != null),
+        assert(startPoints != null);
+
+  /// The colors of the gradient.
+  final List<Color> colors;
+
+  /// The fractions of the maximum intensity at which each of [colors] is
+  /// reached.
+  final List<double> startPoints;
+
+  /// The number of colors the gradient is sampled into.
+  final int colorMapSize;
+
+  /// Converts this object to something serializable in JSON.
+  dynamic toJson() {
+    return <String, dynamic>{
+      'colors': colors.map<int>((Color color) => color.value).toList(),
+      'startPoints': startPoints,
+      'colorMapSize': colorMapSize,
+    };
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final HeatmapGradient typedOther = other;
+    return listEquals(colors, typedOther.colors) &&
+        listEquals(startPoints, typedOther.startPoints) &&
+        colorMapSize == typedOther.colorMapSize;
+  }
+
+  @override
+  int get hashCode =>
+      hashValues(colors.length, startPoints.length, colorMapSize);
+}
+
+/// A heatmap of weighted points, drawn natively as a tile overlay.
+///
+/// Hundreds of thousands of points can be shown this way, where as many
+/// [Circle]s would not be usable. The points are indexed and the tiles are
+/// drawn on background threads.
+///
+/// Supported on Android only.
+@immutable
+class Heatmap {
+  /// Creates an immutable representation of a [Heatmap] to draw on
+  /// [GoogleMap].
+  const Heatmap({
+    @required this.heatmapId,
+    @required this.weightedPoints,
+    this.radius = 20,
+    this.gradient = defaultGradient,
+    this.opacity = 0.7,
+    this.maxIntensity,
+    this.visible = true,
+    this.zIndex = 0,
+  })  : assert(weightedPoints != null),
+        assert(radius > 0),
+        assert(opacity >= 0.0 && opacity <= 1.0);
+
+  /// The gradient used when none is given, from green to red.
+  static const HeatmapGradient defaultGradient = HeatmapGradient(
+    <Color>[Color(0xff66e100), Color(0xffff0000)],
+    <double>[0.2, 1.0],
+  );
+
+  /// Uniquely identifies a [Heatmap].
+  final HeatmapId heatmapId;
+
+  /// The points of the heatmap, as consecutive latitude, longitude and weight
+  /// triples.
+  ///
+  /// The list is sent to the platform as is, in a single buffer. Create a new
+  /// list to change the points, rather than modifying this one.
+  final Float64List weightedPoints;
+
+  /// The radius of the blur around each point, in pixels of the 256 pixels
+  /// wide map tiles. The default is 20.
+  final int radius;
+
+  /// The colors of the heatmap.
+  final HeatmapGradient gradient;
+
+  /// The opacity of the heatmap, from 0.0 (invisible) to 1.0 (opaque). The
+  /// default is 0.7.
+  final double opacity;
+
+  /// The intensity that is drawn with the last color of the [gradient].
+  ///
+  /// If null, it is the intensity of the densest area at each zoom level, so
+  /// the heatmap keeps its contrast as the map is zoomed.
+  final double maxIntensity;
+
+  /// True if the heatmap is visible.
+  final bool visible;
+
+  /// The z-index of the heatmap, used to determine relative drawing order of
+  /// map overlays.
+  final int zIndex;
+
+  /// Creates a new [Heatmap] object whose values are the same as this
+  /// instance, unless overwritten by the specified parameters.
+  Heatmap copyWith({
+    Float64List weightedPointsParam,
+    int radiusParam,
+    HeatmapGradient gradientParam,
+    double opacityParam,
+    double maxIntensityParam,
+    bool visibleParam,
+    int zIndexParam,
+  }) {
+    return Heatmap(
+      heatmapId: heatmapId,
+      weightedPoints: weightedPointsParam ?? weightedPoints,
+      radius: radiusParam ?? radius,
+      gradient: gradientParam ?? gradient,
+      opacity: opacityParam ?? opacity,
+      maxIntensity: maxIntensityParam ?? maxIntensity,
+      visible: visibleParam ?? visible,
+      zIndex: zIndexParam ?? zIndex,
+    );
+  }
+
+  /// Creates a new [Heatmap] object whose values are the same as this
+  /// instance.
+  Heatmap clone() => copyWith();
+
+  /// Converts this object to something serializable in JSON.
+  dynamic toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('heatmapId', heatmapId.value);
+    addIfPresent('weightedPoints', weightedPoints);
+    addIfPresent('radius', radius);
+    addIfPresent('gradient', gradient?.toJson());
+    addIfPresent('opacity', opacity);
+    addIfPresent('maxIntensity', maxIntensity);
+    addIfPresent('visible', visible);
+    addIfPresent('zIndex', zIndex);
+
+    return json;
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final Heatmap typedOther = other;
+    return heatmapId == typedOther.heatmapId &&
+        listEquals(weightedPoints, typedOther.weightedPoints) &&
+        radius == typedOther.radius &&
+        gradient == typedOther.gradient &&
+        opacity == typedOther.opacity &&
+        maxIntensity == typedOther.maxIntensity &&
+        visible == typedOther.visible &&
+        zIndex == typedOther.zIndex;
+  }
+
+  @override
+  int get hashCode => heatmapId.hashCode;
+}
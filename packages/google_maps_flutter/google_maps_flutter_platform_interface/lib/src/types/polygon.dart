@@ -2,6 +2,8 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:typed_data' show Float64List;
+
 import 'package:flutter/foundation.dart' show listEquals, VoidCallback;
 import 'package:flutter/material.dart' show Color, Colors;
 import 'package:meta/meta.dart' show immutable, required;
@@ -132,7 +134,10 @@ class Polygon {
   }
 
   /// Converts this object to something serializable in JSON.
-  dynamic toJson() {
+  ///
+  /// If [packPoints] is true, [points] are serialized as a [Float64List] of
+  /// alternating latitudes and longitudes instead of a list of pairs.
+  dynamic toJson({bool packPoints = false}) {
     final Map<String, dynamic> json = <String, dynamic>{};
 
     void addIfPresent(String fieldName, dynamic value) {
@@ -151,7 +156,7 @@ class Polygon {
     addIfPresent('zIndex', zIndex);
 
     if (points != null) {
-      json['points'] = _pointsToJson();
+      json['points'] = packPoints ? _pointsToPackedJson() : _pointsToJson();
     }
 
     return json;
@@ -183,4 +188,13 @@ class Polygon {
     }
     return result;
   }
+
+  Float64List _pointsToPackedJson() {
+    final Float64List result = Float64List(points.length * 2);
+    for (int i = 0; i < points.length; i++) {
+      result[i * 2] = points[i].latitude;
+      result[i * 2 + 1] = points[i].longitude;
+    }
+    return result;
+  }
 }
@@ -70,7 +70,9 @@ class PolygonUpdates {
   Set<Polygon> polygonsToChange;
 
   /// Converts this object to something serializable in JSON.
-  Map<String, dynamic> toJson() {
+  ///
+  /// See [Polygon.toJson] for [packPoints].
+  Map<String, dynamic> toJson({bool packPoints = false}) {
     final Map<String, dynamic> updateMap = <String, dynamic>{};
 
     void addIfNonNull(String fieldName, dynamic value) {
@@ -79,8 +81,10 @@ class PolygonUpdates {
       }
     }
 
-    addIfNonNull('polygonsToAdd', serializePolygonSet(polygonsToAdd));
-    addIfNonNull('polygonsToChange', serializePolygonSet(polygonsToChange));
+    addIfNonNull('polygonsToAdd',
+        serializePolygonSet(polygonsToAdd, packPoints: packPoints));
+    addIfNonNull('polygonsToChange',
+        serializePolygonSet(polygonsToChange, packPoints: packPoints));
     addIfNonNull('polygonIdsToRemove',
         polygonIdsToRemove.map<dynamic>((PolygonId m) => m.value).toList());
 
@@ -2,6 +2,8 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:typed_data' show Float64List;
+
 import 'package:flutter/foundation.dart' show listEquals, VoidCallback;
 import 'package:flutter/material.dart' show Color, Colors;
 import 'package:meta/meta.dart' show immutable, required;
@@ -51,6 +53,7 @@ class Polyline {
     this.jointType = JointType.mitered,
     this.points = const <LatLng>[],
     this.patterns = const <PatternItem>[],
+    this.simplify = false,
     this.startCap = Cap.buttCap,
     this.visible = true,
     this.width = 10,
@@ -98,6 +101,17 @@ class Polyline {
   /// default; to form a closed polyline, the start and end points must be the same.
   final List<LatLng> points;
 
+  /// True if the polyline should only be drawn with as many [points] as the
+  /// current zoom level needs.
+  ///
+  /// The full geometry is kept natively and simplified with the
+  /// Douglas-Peucker algorithm whenever the camera stops moving, with less
+  /// detail outside of the visible region. This is meant for long recorded
+  /// routes, which are expensive to render at low zoom levels.
+  ///
+  /// Supported on Android only.
+  final bool simplify;
+
   /// The cap at the start vertex of the polyline.
   ///
   /// The default start cap is ButtCap.
@@ -141,6 +155,7 @@ class Polyline {
     JointType jointTypeParam,
     List<PatternItem> patternsParam,
     List<LatLng> pointsParam,
+    bool simplifyParam,
     Cap startCapParam,
     bool visibleParam,
     int widthParam,
@@ -156,6 +171,7 @@ class Polyline {
       jointType: jointTypeParam ?? jointType,
       patterns: patternsParam ?? patterns,
       points: pointsParam ?? points,
+      simplify: simplifyParam ?? simplify,
       startCap: startCapParam ?? startCap,
       visible: visibleParam ?? visible,
       width: widthParam ?? width,
@@ -174,7 +190,10 @@ class Polyline {
   }
 
   /// Converts this object to something serializable in JSON.
-  dynamic toJson() {
+  ///
+  /// If [packPoints] is true, [points] are serialized as a [Float64List] of
+  /// alternating latitudes and longitudes instead of a list of pairs.
+  dynamic toJson({bool packPoints = false}) {
     final Map<String, dynamic> json = <String, dynamic>{};
 
     void addIfPresent(String fieldName, dynamic value) {
@@ -189,13 +208,14 @@ class Polyline {
     addIfPresent('endCap', endCap?.toJson());
     addIfPresent('geodesic', geodesic);
     addIfPresent('jointType', jointType?.value);
+    addIfPresent('simplify', simplify);
     addIfPresent('startCap', startCap?.toJson());
     addIfPresent('visible', visible);
     addIfPresent('width', width);
     addIfPresent('zIndex', zIndex);
 
     if (points != null) {
-      json['points'] = _pointsToJson();
+      json['points'] = packPoints ? _pointsToPackedJson() : _pointsToJson();
     }
 
     if (patterns != null) {
@@ -217,6 +237,7 @@ class Polyline {
         jointType == typedOther.jointType &&
         listEquals(patterns, typedOther.patterns) &&
         listEquals(points, typedOther.points) &&
+        simplify == typedOther.simplify &&
         startCap == typedOther.startCap &&
         endCap == typedOther.endCap &&
         visible == typedOther.visible &&
@@ -235,6 +256,15 @@ class Polyline {
     return result;
   }
 
+  Float64List _pointsToPackedJson() {
+    final Float64List result = Float64List(points.length * 2);
+    for (int i = 0; i < points.length; i++) {
+      result[i * 2] = points[i].latitude;
+      result[i * 2 + 1] = points[i].longitude;
+    }
+    return result;
+  }
+
   dynamic _patternToJson() {
     final List<dynamic> result = <dynamic>[];
     for (final PatternItem patternItem in patterns) {
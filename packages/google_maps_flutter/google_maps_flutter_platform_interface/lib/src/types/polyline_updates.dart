@@ -71,7 +71,9 @@ class PolylineUpdates {
   Set<Polyline> polylinesToChange;
 
   /// Converts this object to something serializable in JSON.
-  Map<String, dynamic> toJson() {
+  ///
+  /// See [Polyline.toJson] for [packPoints].
+  Map<String, dynamic> toJson({bool packPoints = false}) {
     final Map<String, dynamic> updateMap = <String, dynamic>{};
 
     void addIfNonNull(String fieldName, dynamic value) {
@@ -80,8 +82,10 @@ class PolylineUpdates {
       }
     }
 
-    addIfNonNull('polylinesToAdd', serializePolylineSet(polylinesToAdd));
-    addIfNonNull('polylinesToChange', serializePolylineSet(polylinesToChange));
+    addIfNonNull('polylinesToAdd',
+        serializePolylineSet(polylinesToAdd, packPoints: packPoints));
+    addIfNonNull('polylinesToChange',
+        serializePolylineSet(polylinesToChange, packPoints: packPoints));
     addIfNonNull('polylineIdsToRemove',
         polylineIdsToRemove.map<dynamic>((PolylineId m) => m.value).toList());
 
@@ -0,0 +1,87 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:ui' show hashValues, Rect;
+
+import 'package:meta/meta.dart' show immutable;
+
+/// Image format of a map snapshot.
+enum SnapshotFormat {
+  /// Lossless PNG, the quality is ignored.
+  png,
+
+  /// Lossy JPEG.
+  jpeg,
+
+  /// WebP, lossy below a quality of 100.
+  webp,
+}
+
+/// How a map snapshot is cropped, scaled and encoded.
+@immutable
+class SnapshotOptions {
+  /// Creates options for a snapshot of the map.
+  ///
+  /// The [quality] is between 0 and 100, and the [scale] is greater than 0.
+  const SnapshotOptions({
+    this.format = SnapshotFormat.png,
+    this.quality = 100,
+    this.scale = 1.0,
+    this.region,
+  })  : assert(format != null),
+        assert(quality != null && quality >= 0 && quality <= 100),
+        assert(scale != null && scale > 0);
+
+  /// The image format the snapshot is encoded to.
+  final SnapshotFormat format;
+
+  /// The compression quality, from 0 to 100, of lossy formats.
+  final int quality;
+
+  /// The factor the size of the snapshot is multiplied by, after it has been
+  /// cropped to the [region].
+  final double scale;
+
+  /// The part of the map to keep, in logical pixels from the top left corner
+  /// of the map, or null to keep all of it.
+  final Rect region;
+
+  /// Converts this object to something serializable in JSON.
+  dynamic toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{
+      'format': format.index,
+      'quality': quality,
+      'scale': scale,
+    };
+    if (region != null) {
+      json['region'] = <double>[
+        region.left,
+        region.top,
+        region.width,
+        region.height,
+      ];
+    }
+    return json;
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final SnapshotOptions typedOther = other;
+    return format == typedOther.format &&
+        quality == typedOther.quality &&
+        scale == typedOther.scale &&
+        region == typedOther.region;
+  }
+
+  @override
+  int get hashCode => hashValues(format, quality, scale, region);
+
+  @override
+  String toString() {
+    return 'SnapshotOptions(format: $format, quality: $quality, '
+        'scale: $scale, region: $region)';
+  }
+}
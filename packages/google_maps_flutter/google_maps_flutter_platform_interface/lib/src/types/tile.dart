@@ -0,0 +1,43 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data' show Uint8List;
+
+import 'package:meta/meta.dart' show immutable;
+
+/// Contains information about a Tile that is returned by a [TileProvider].
+@immutable
+class Tile {
+  /// Creates an immutable representation of a [Tile] to draw by [TileProvider].
+  const Tile(this.width, this.height, this.data);
+
+  /// The width of the image encoded by [data] in pixels.
+  final int width;
+
+  /// The height of the image encoded by [data] in pixels.
+  final int height;
+
+  /// A byte array containing the image data, in a format that
+  /// `android.graphics.BitmapFactory` can decode, such as PNG or JPEG.
+  ///
+  /// Null for [TileProvider.noTile].
+  final Uint8List data;
+
+  /// Converts this object to something serializable in JSON.
+  dynamic toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('width', width);
+    addIfPresent('height', height);
+    addIfPresent('data', data);
+
+    return json;
+  }
+}
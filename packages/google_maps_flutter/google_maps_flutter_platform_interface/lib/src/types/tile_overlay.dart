@@ -0,0 +1,171 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:meta/meta.dart' show immutable, required;
+
+import 'types.dart';
+
+/// Uniquely identifies a [TileOverlay] among [GoogleMap] tile overlays.
+///
+/// This does not have to be globally unique, only unique among the list.
+@immutable
+class TileOverlayId {
+  /// Creates an immutable identifier for a [TileOverlay].
+  TileOverlayId(this.value) : assert(value != null);
+
+  /// value of the [TileOverlayId].
+  final String value;
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final TileOverlayId typedOther = other;
+    return value == typedOther.value;
+  }
+
+  @override
+  int get hashCode => value.hashCode;
+
+  @override
+  String toString() {
+    return 'TileOverlayId{value: $value}';
+  }
+}
+
+/// A set of images which are displayed on top of the base map tiles.
+///
+/// The images come either from a [tileProvider] in Dart, or are downloaded
+/// natively from a [urlTemplate]. Tiles are cached in memory and on disk, so
+/// that panning back to an area doesn't fetch its tiles again. Call
+/// [GoogleMapController.clearTileCache] when the tiles of an overlay change.
+///
+/// Supported on Android only.
+@immutable
+class TileOverlay {
+  /// Creates an immutable representation of a [TileOverlay] to draw on
+  /// [GoogleMap].
+  const TileOverlay({
+    @required this.tileOverlayId,
+    this.fadeIn = true,
+    this.tileProvider,
+    this.urlTemplate,
+    this.transparency = 0.0,
+    this.zIndex = 0,
+    this.visible = true,
+    this.tileSize = 256,
+    this.diskCacheSize = 32 * 1024 * 1024,
+  })  : assert((tileProvider == null) != (urlTemplate == null)),
+        assert(transparency >= 0.0 && transparency <= 1.0);
+
+  /// Uniquely identifies a [TileOverlay].
+  final TileOverlayId tileOverlayId;
+
+  /// Whether the tiles should fade in. The default is true.
+  final bool fadeIn;
+
+  /// The tile provider to use for this tile overlay.
+  ///
+  /// Exactly one of [tileProvider] and [urlTemplate] must be set.
+  final TileProvider tileProvider;
+
+  /// The URL the tiles are downloaded from, where `{x}`, `{y}` and `{z}` are
+  /// replaced with the coordinates and the zoom level of the tile.
+  ///
+  /// Exactly one of [tileProvider] and [urlTemplate] must be set.
+  final String urlTemplate;
+
+  /// The transparency of the tile overlay, from 0.0 (opaque) to 1.0
+  /// (invisible). The default is 0.0.
+  final double transparency;
+
+  /// The tile overlay's zIndex, i.e., the order in which it will be drawn where
+  /// overlays with larger values are drawn above those with lower values.
+  final int zIndex;
+
+  /// The visibility for the tile overlay. The default visibility is true.
+  final bool visible;
+
+  /// The width and height of the tiles downloaded from [urlTemplate], in
+  /// pixels. The default is 256.
+  final int tileSize;
+
+  /// The maximum size in bytes of the tiles that are kept on disk.
+  ///
+  /// Tiles from a [urlTemplate] are kept across app launches, tiles from a
+  /// [tileProvider] only while the overlay is on the map. Set to 0 to only
+  /// cache tiles in memory. The default is 32 MiB.
+  final int diskCacheSize;
+
+  /// Creates a new [TileOverlay] object whose values are the same as this
+  /// instance, unless overwritten by the specified parameters.
+  TileOverlay copyWith({
+    bool fadeInParam,
+    double transparencyParam,
+    int zIndexParam,
+    bool visibleParam,
+    int tileSizeParam,
+    int diskCacheSizeParam,
+  }) {
+    return TileOverlay(
+      tileOverlayId: tileOverlayId,
+      fadeIn: fadeInParam ?? fadeIn,
+      tileProvider: tileProvider,
+      urlTemplate: urlTemplate,
+      transparency: transparencyParam ?? transparency,
+      zIndex: zIndexParam ?? zIndex,
+      visible: visibleParam ?? visible,
+      tileSize: tileSizeParam ?? tileSize,
+      diskCacheSize: diskCacheSizeParam ?? diskCacheSize,
+    );
+  }
+
+  /// Creates a new [TileOverlay] object whose values are the same as this
+  /// instance.
+  TileOverlay clone() => copyWith();
+
+  /// Converts this object to something serializable in JSON.
+  ///
+  /// The [tileProvider] stays in Dart, the platform requests its tiles with
+  /// the [tileOverlayId].
+  dynamic toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('tileOverlayId', tileOverlayId.value);
+    addIfPresent('fadeIn', fadeIn);
+    addIfPresent('urlTemplate', urlTemplate);
+    addIfPresent('transparency', transparency);
+    addIfPresent('zIndex', zIndex);
+    addIfPresent('visible', visible);
+    addIfPresent('tileSize', tileSize);
+    addIfPresent('diskCacheSize', diskCacheSize);
+
+    return json;
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final TileOverlay typedOther = other;
+    return tileOverlayId == typedOther.tileOverlayId &&
+        fadeIn == typedOther.fadeIn &&
+        tileProvider == typedOther.tileProvider &&
+        urlTemplate == typedOther.urlTemplate &&
+        transparency == typedOther.transparency &&
+        zIndex == typedOther.zIndex &&
+        visible == typedOther.visible &&
+        tileSize == typedOther.tileSize &&
+        diskCacheSize == typedOther.diskCacheSize;
+  }
+
+  @override
+  int get hashCode => tileOverlayId.hashCode;
+}
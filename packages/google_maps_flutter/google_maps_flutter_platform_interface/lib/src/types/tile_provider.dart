@@ -0,0 +1,19 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'types.dart';
+
+/// An interface for a class that provides the tile images for a [TileOverlay].
+abstract class TileProvider {
+  /// Stub tile that is used to indicate that no tile exists for a specific
+  /// tile coordinate.
+  static const Tile noTile = Tile(-1, -1, null);
+
+  /// Returns the tile to be used for this tile coordinate.
+  ///
+  /// Tiles are numbered like in the Google Maps Android SDK, see
+  /// https://developers.google.com/maps/documentation/android-sdk/tileoverlay.
+  /// Return [noTile] if there is no tile for this coordinate.
+  Future<Tile> getTile(int x, int y, int zoom);
+}
@@ -9,6 +9,9 @@ export 'camera.dart';
 export 'cap.dart';
 export 'circle_updates.dart';
 export 'circle.dart';
+export 'geo_json_layer.dart';
+export 'heatmap_updates.dart';
+export 'heatmap.dart';
 export 'joint_type.dart';
 export 'location.dart';
 export 'marker_updates.dart';
@@ -19,10 +22,17 @@ export 'polygon.dart';
 export 'polyline_updates.dart';
 export 'polyline.dart';
 export 'screen_coordinate.dart';
+export 'snapshot.dart';
+export 'tile.dart';
+export 'tile_overlay_updates.dart';
+export 'tile_overlay.dart';
+export 'tile_provider.dart';
 export 'ui.dart';
 
 // Export the utils, they're used by the Widget
 export 'utils/circle.dart';
+export 'utils/heatmap.dart';
 export 'utils/marker.dart';
 export 'utils/polygon.dart';
 export 'utils/polyline.dart';
+export 'utils/tile_overlay.dart';
@@ -14,9 +14,15 @@ Map<PolygonId, Polygon> keyByPolygonId(Iterable<Polygon> polygons) {
 }
 
 /// Converts a Set of Polygons into something serializable in JSON.
-List<Map<String, dynamic>> serializePolygonSet(Set<Polygon> polygons) {
+///
+/// See [Polygon.toJson] for [packPoints].
+List<Map<String, dynamic>> serializePolygonSet(Set<Polygon> polygons,
+    {bool packPoints = false}) {
   if (polygons == null) {
     return null;
   }
-  return polygons.map<Map<String, dynamic>>((Polygon p) => p.toJson()).toList();
+  return polygons
+      .map<Map<String, dynamic>>(
+          (Polygon p) => p.toJson(packPoints: packPoints))
+      .toList();
 }
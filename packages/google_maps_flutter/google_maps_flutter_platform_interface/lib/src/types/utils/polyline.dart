@@ -15,11 +15,15 @@ Map<PolylineId, Polyline> keyByPolylineId(Iterable<Polyline> polylines) {
 }
 
 /// Converts a Set of Polylines into something serializable in JSON.
-List<Map<String, dynamic>> serializePolylineSet(Set<Polyline> polylines) {
+///
+/// See [Polyline.toJson] for [packPoints].
+List<Map<String, dynamic>> serializePolylineSet(Set<Polyline> polylines,
+    {bool packPoints = false}) {
   if (polylines == null) {
     return null;
   }
   return polylines
-      .map<Map<String, dynamic>>((Polyline p) => p.toJson())
+      .map<Map<String, dynamic>>(
+          (Polyline p) => p.toJson(packPoints: packPoints))
       .toList();
 }
@@ -0,0 +1,28 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import '../types.dart';
+
+/// Converts an [Iterable] of TileOverlays in a Map of
+/// TileOverlayId -> TileOverlay.
+Map<TileOverlayId, TileOverlay> keyByTileOverlayId(
+    Iterable<TileOverlay> tileOverlays) {
+  if (tileOverlays == null) {
+    return <TileOverlayId, TileOverlay>{};
+  }
+  return Map<TileOverlayId, TileOverlay>.fromEntries(tileOverlays.map(
+      (TileOverlay tileOverlay) => MapEntry<TileOverlayId, TileOverlay>(
+          tileOverlay.tileOverlayId, tileOverlay.clone())));
+}
+
+/// Converts a Set of TileOverlays into something serializable in JSON.
+List<Map<String, dynamic>> serializeTileOverlaySet(
+    Set<TileOverlay> tileOverlays) {
+  if (tileOverlays == null) {
+    return null;
+  }
+  return tileOverlays
+      .map<Map<String, dynamic>>((TileOverlay p) => p.toJson())
+      .toList();
+}
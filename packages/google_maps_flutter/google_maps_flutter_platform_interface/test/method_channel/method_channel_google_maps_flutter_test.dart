@@ -0,0 +1,353 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+import 'dart:ui' show Rect;
+
+import 'package:flutter/services.dart';
+import 'package:flutter_test/flutter_test.dart';
+
+import 'package:google_maps_flutter_platform_interface/src/method_channel/method_channel_google_maps_flutter.dart';
+import 'package:google_maps_flutter_platform_interface/google_maps_flutter_platform_interface.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  group('$MethodChannelGoogleMapsFlutter', () {
+    const int mapId = 1;
+    const MethodChannel channel =
+        MethodChannel('plugins.flutter.io/google_maps_$mapId');
+    final List<MethodCall> log = <MethodCall>[];
+    MethodChannelGoogleMapsFlutter maps;
+    dynamic capabilities;
+
+    setUp(() async {
+      capabilities = null;
+      channel.setMockMethodCallHandler((MethodCall methodCall) async {
+        log.add(methodCall);
+        return methodCall.method == 'map#waitForMap' ? capabilities : null;
+      });
+      maps = MethodChannelGoogleMapsFlutter();
+      await maps.init(mapId);
+      log.clear();
+    });
+
+    tearDown(() {
+      channel.setMockMethodCallHandler(null);
+    });
+
+    Future<dynamic> sendPlatformCall(String method, dynamic arguments) async {
+      dynamic reply;
+      await ServicesBinding.instance.defaultBinaryMessenger
+          .handlePlatformMessage(
+        channel.name,
+        const StandardMethodCodec()
+            .encodeMethodCall(MethodCall(method, arguments)),
+        (ByteData data) {
+          reply = const StandardMethodCodec().decodeEnvelope(data);
+        },
+      );
+      return reply;
+    }
+
+    test('onClusterTap decodes cluster#onTap', () async {
+      final Future<ClusterTapEvent> event =
+          maps.onClusterTap(mapId: mapId).first;
+
+      await sendPlatformCall('cluster#onTap', <String, dynamic>{
+        'markerIds': <String>['a', 'b'],
+        'position': <double>[10.0, 20.0],
+      });
+
+      final ClusterTapEvent tap = await event;
+      expect(tap.mapId, mapId);
+      expect(tap.position, const LatLng(10.0, 20.0));
+      expect(tap.value, <MarkerId>[MarkerId('a'), MarkerId('b')]);
+    });
+
+    test('onGeoJsonFeatureTap decodes geoJsonFeature#onTap', () async {
+      final Future<GeoJsonFeatureTapEvent> event =
+          maps.onGeoJsonFeatureTap(mapId: mapId).first;
+
+      await sendPlatformCall('geoJsonFeature#onTap', <String, dynamic>{
+        'layerId': 'boundaries',
+        'featureId': 'FR',
+        'featureIndex': 3,
+        'properties': <String, dynamic>{'name': 'France'},
+      });
+
+      final GeoJsonFeature feature = (await event).value;
+      expect(feature.layerId, GeoJsonLayerId('boundaries'));
+      expect(feature.id, 'FR');
+      expect(feature.index, 3);
+      expect(feature.properties, <String, dynamic>{'name': 'France'});
+    });
+
+    test('updatePolylines sends points as pairs by default', () async {
+      await maps.updatePolylines(
+        PolylineUpdates.from(<Polyline>{}, <Polyline>{
+          Polyline(
+            polylineId: PolylineId('p'),
+            points: <LatLng>[LatLng(1.5, 2.5), LatLng(3.5, 4.5)],
+          ),
+        }),
+        mapId: mapId,
+      );
+
+      final Map<dynamic, dynamic> polyline =
+          log.single.arguments['polylinesToAdd'].single;
+      expect(polyline['points'], <dynamic>[
+        <double>[1.5, 2.5],
+        <double>[3.5, 4.5],
+      ]);
+    });
+
+    test('updatePolylines packs points when supported', () async {
+      capabilities = <String, dynamic>{'packedPoints': true};
+      maps = MethodChannelGoogleMapsFlutter();
+      await maps.init(mapId);
+      log.clear();
+
+      await maps.updatePolylines(
+        PolylineUpdates.from(<Polyline>{}, <Polyline>{
+          Polyline(
+            polylineId: PolylineId('p'),
+            points: <LatLng>[LatLng(1.5, 2.5), LatLng(3.5, 4.5)],
+          ),
+        }),
+        mapId: mapId,
+      );
+
+      final Map<dynamic, dynamic> polyline =
+          log.single.arguments['polylinesToAdd'].single;
+      expect(polyline['points'], isA<Float64List>());
+      expect(polyline['points'], <double>[1.5, 2.5, 3.5, 4.5]);
+    });
+
+    test('updatePolygons packs points when supported', () async {
+      capabilities = <String, dynamic>{'packedPoints': true};
+      maps = MethodChannelGoogleMapsFlutter();
+      await maps.init(mapId);
+      log.clear();
+
+      await maps.updatePolygons(
+        PolygonUpdates.from(<Polygon>{}, <Polygon>{
+          Polygon(
+            polygonId: PolygonId('p'),
+            points: <LatLng>[LatLng(1.5, 2.5), LatLng(3.5, 4.5)],
+          ),
+        }),
+        mapId: mapId,
+      );
+
+      final Map<dynamic, dynamic> polygon =
+          log.single.arguments['polygonsToAdd'].single;
+      expect(polygon['points'], isA<Float64List>());
+      expect(polygon['points'], <double>[1.5, 2.5, 3.5, 4.5]);
+    });
+
+    test('updateOverlays makes one call per kind by default', () async {
+      await maps.updateOverlays(
+        markerUpdates: MarkerUpdates.from(<Marker>{}, <Marker>{
+          Marker(markerId: MarkerId('m')),
+        }),
+        circleUpdates: CircleUpdates.from(<Circle>{}, <Circle>{
+          Circle(circleId: CircleId('c')),
+        }),
+        mapId: mapId,
+      );
+
+      expect(log.map((MethodCall call) => call.method),
+          <String>['markers#update', 'circles#update']);
+    });
+
+    test('updateOverlays sends the changed kinds in one call', () async {
+      capabilities = <String, dynamic>{'overlaysUpdate': true};
+      maps = MethodChannelGoogleMapsFlutter();
+      await maps.init(mapId);
+      log.clear();
+
+      final Polygon polygon = Polygon(polygonId: PolygonId('p'));
+      await maps.updateOverlays(
+        markerUpdates: MarkerUpdates.from(<Marker>{}, <Marker>{
+          Marker(markerId: MarkerId('m')),
+        }),
+        polygonUpdates: PolygonUpdates.from(
+          <Polygon>{polygon},
+          <Polygon>{polygon},
+        ),
+        circleUpdates: CircleUpdates.from(<Circle>{
+          Circle(circleId: CircleId('c')),
+        }, <Circle>{}),
+        mapId: mapId,
+      );
+
+      final MethodCall call = log.single;
+      expect(call.method, 'overlays#update');
+      expect(call.arguments['markersToAdd'].single['markerId'], 'm');
+      expect(call.arguments['circleIdsToRemove'], <String>['c']);
+      expect(call.arguments.containsKey('polygonsToChange'), isFalse);
+    });
+
+    test('updateOverlays skips the call without changes', () async {
+      capabilities = <String, dynamic>{'overlaysUpdate': true};
+      maps = MethodChannelGoogleMapsFlutter();
+      await maps.init(mapId);
+      log.clear();
+
+      await maps.updateOverlays(
+        markerUpdates: MarkerUpdates.from(<Marker>{}, <Marker>{}),
+        mapId: mapId,
+      );
+
+      expect(log, isEmpty);
+    });
+
+    test('onCameraMove decodes the visible region', () async {
+      final Future<CameraMoveEvent> event =
+          maps.onCameraMove(mapId: mapId).first;
+
+      await sendPlatformCall('camera#onMove', <String, dynamic>{
+        'position': <String, dynamic>{
+          'bearing': 0.0,
+          'target': <double>[10.0, 20.0],
+          'tilt': 0.0,
+          'zoom': 5.0,
+        },
+        'visibleRegion': <String, dynamic>{
+          'southwest': <double>[9.0, 19.0],
+          'northeast': <double>[11.0, 21.0],
+        },
+      });
+
+      final CameraMoveEvent move = await event;
+      expect(move.value.target, const LatLng(10.0, 20.0));
+      expect(
+          move.visibleRegion,
+          LatLngBounds(
+            southwest: const LatLng(9.0, 19.0),
+            northeast: const LatLng(11.0, 21.0),
+          ));
+    });
+
+    test('updateHeatmaps is skipped without native support', () async {
+      await maps.updateHeatmaps(
+        HeatmapUpdates.from(<Heatmap>{}, <Heatmap>{
+          Heatmap(
+            heatmapId: HeatmapId('h'),
+            weightedPoints: Float64List.fromList(<double>[1.5, 2.5, 1.0]),
+          ),
+        }),
+        mapId: mapId,
+      );
+
+      expect(log, isEmpty);
+    });
+
+    test('updateHeatmaps sends the weighted points in one buffer', () async {
+      capabilities = <String, dynamic>{'heatmaps': true};
+      maps = MethodChannelGoogleMapsFlutter();
+      await maps.init(mapId);
+      log.clear();
+
+      final Float64List weightedPoints =
+          Float64List.fromList(<double>[1.5, 2.5, 1.0, 3.5, 4.5, 2.0]);
+      await maps.updateHeatmaps(
+        HeatmapUpdates.from(<Heatmap>{}, <Heatmap>{
+          Heatmap(
+            heatmapId: HeatmapId('h'),
+            weightedPoints: weightedPoints,
+          ),
+        }),
+        mapId: mapId,
+      );
+
+      expect(log.single.method, 'heatmaps#update');
+      final Map<dynamic, dynamic> heatmap =
+          log.single.arguments['heatmapsToAdd'].single;
+      expect(heatmap['weightedPoints'], isA<Float64List>());
+      expect(heatmap['weightedPoints'], weightedPoints);
+      expect(heatmap['gradient']['colors'], <int>[0xff66e100, 0xffff0000]);
+    });
+
+    test('takeSnapshotToFile sends the options and the path', () async {
+      await maps.takeSnapshotToFile(
+        '/tmp/map.jpg',
+        options: SnapshotOptions(
+          format: SnapshotFormat.jpeg,
+          quality: 80,
+          scale: 0.5,
+          region: Rect.fromLTWH(10, 20, 100, 50),
+        ),
+        mapId: mapId,
+      );
+
+      expect(log.single.method, 'map#takeSnapshot');
+      expect(log.single.arguments, <String, dynamic>{
+        'format': 1,
+        'quality': 80,
+        'scale': 0.5,
+        'region': <double>[10, 20, 100, 50],
+        'path': '/tmp/map.jpg',
+      });
+    });
+
+    test('updateTileOverlays is skipped without native support', () async {
+      await maps.updateTileOverlays(
+        TileOverlayUpdates.from(<TileOverlay>{}, <TileOverlay>{
+          TileOverlay(
+            tileOverlayId: TileOverlayId('t'),
+            tileProvider: _FakeTileProvider(),
+          ),
+        }),
+        mapId: mapId,
+      );
+
+      expect(log, isEmpty);
+    });
+
+    test('tileOverlay#getTiles returns the tiles of the provider', () async {
+      capabilities = <String, dynamic>{'tileOverlays': true};
+      maps = MethodChannelGoogleMapsFlutter();
+      await maps.init(mapId);
+      log.clear();
+
+      await maps.updateTileOverlays(
+        TileOverlayUpdates.from(<TileOverlay>{}, <TileOverlay>{
+          TileOverlay(
+            tileOverlayId: TileOverlayId('t'),
+            tileProvider: _FakeTileProvider(),
+          ),
+        }),
+        mapId: mapId,
+      );
+
+      final Map<dynamic, dynamic> tileOverlay =
+          log.single.arguments['tileOverlaysToAdd'].single;
+      expect(tileOverlay['tileOverlayId'], 't');
+      expect(tileOverlay.containsKey('tileProvider'), isFalse);
+
+      final List<dynamic> tiles =
+          await sendPlatformCall('tileOverlay#getTiles', <String, dynamic>{
+        'tileOverlayId': 't',
+        'coordinates': <int>[1, 2, 3, 0, 0, 0],
+      });
+
+      expect(tiles, hasLength(2));
+      expect(tiles[0]['width'], 256);
+      expect(tiles[0]['data'], <int>[1, 2, 3]);
+      expect(tiles[1], TileProvider.noTile.toJson());
+    });
+  });
+}
+
+class _FakeTileProvider implements TileProvider {
+  @override
+  Future<Tile> getTile(int x, int y, int zoom) async {
+    if (zoom == 0) {
+      return TileProvider.noTile;
+    }
+    return Tile(256, 256, Uint8List.fromList(<int>[x, y, zoom]));
+  }
+}
@@ -24,31 +24,136 @@
 package io.flutter.plugins.imagepicker;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 class FileUtils {
+  // Matches DocumentsContract.Document.COLUMN_LAST_MODIFIED, which is only available on API 19+.
+  private static final String COLUMN_LAST_MODIFIED = "last_modified";
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+  private static final long TRANSFER_CHUNK_SIZE = 8L * 1024 * 1024;
 
+  private PickedFileCache cache;
+
+  /**
+   * Copies the content behind {@code uri} into the app's cache directory and returns the path of
+   * the copy.
+   *
+   * <p>When the provider reports a size and a last-modified time for the URI, the content is also
+   * kept in a {@link PickedFileCache}, and later picks of the same, unchanged content are copied
+   * from there instead of from the provider.
+   *
+   * <p>Every call returns a new file that belongs to the caller: it is never evicted from the cache
+   * nor returned by another pick, and lives until the app deletes it or the system clears the app's
+   * cache directory.
+   */
   String getPathFromUri(final Context context, final Uri uri) {
+    String extension = getImageExtension(uri);
+    File pickFile = createPickFile(context, extension);
+    if (pickFile == null) {
+      return null;
+    }
+    ContentMetadata metadata = queryMetadata(context, uri);
+    PickedFileCache fileCache = null;
+    if (metadata != null) {
+      fileCache = getCache(context);
+      if (fileCache.get(
+          uri.toString(), metadata.size, metadata.lastModified, extension, pickFile)) {
+        return pickFile.getPath();
+      }
+    }
+
     File file = null;
+    boolean success = false;
+    try {
+      file = fileCache != null ? fileCache.createTempFile(extension) : pickFile;
+      success = copyFromUri(context, uri, file);
+    } catch (IOException ignored) {
+    }
+    if (success && fileCache != null) {
+      if (file.length() == metadata.size) {
+        success =
+            fileCache.put(
+                file, uri.toString(), metadata.size, metadata.lastModified, extension, pickFile);
+      } else {
+        // The provider misreported the size, so the copy is returned without being cached.
+        success = file.renameTo(pickFile);
+      }
+    }
+    if (!success) {
+      if (file != null) {
+        file.delete();
+      }
+      pickFile.delete();
+      return null;
+    }
+    return pickFile.getPath();
+  }
+
+  private static File createPickFile(Context context, String extension) {
+    try {
+      File file = File.createTempFile("image_picker", extension, context.getCacheDir());
+      file.deleteOnExit();
+      return file;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private synchronized PickedFileCache getCache(Context context) {
+    if (cache == null) {
+      cache = new PickedFileCache(context.getCacheDir());
+    }
+    return cache;
+  }
+
+  /**
+   * Copies the content into {@code file}, preferring a channel transfer from the URI's file
+   * descriptor and falling back to a buffered stream copy for providers that cannot open one, that
+   * open a pipe or a socket, or whose descriptor fails to transfer.
+   */
+  private static boolean copyFromUri(Context context, Uri uri, File file) throws IOException {
+    ParcelFileDescriptor descriptor = null;
+    try {
+      descriptor = context.getContentResolver().openFileDescriptor(uri, "r");
+    } catch (FileNotFoundException | RuntimeException e) {
+      descriptor = null;
+    }
+    if (descriptor != null) {
+      try {
+        // Only regular files report their size, channel transfers from pipes and sockets fail.
+        long size = descriptor.getStatSize();
+        if (size >= 0) {
+          transferFromDescriptor(descriptor, file, size);
+          return true;
+        }
+      } catch (IOException ignored) {
+      } finally {
+        descriptor.close();
+      }
+    }
+
     InputStream inputStream = null;
     OutputStream outputStream = null;
     boolean success = false;
     try {
-      String extension = getImageExtension(uri);
       inputStream = context.getContentResolver().openInputStream(uri);
-      file = File.createTempFile("image_picker", extension, context.getCacheDir());
-      file.deleteOnExit();
       outputStream = new FileOutputStream(file);
       if (inputStream != null) {
         copy(inputStream, outputStream);
         success = true;
       }
-    } catch (IOException ignored) {
     } finally {
       try {
         if (inputStream != null) inputStream.close();
@@ -63,7 +168,86 @@ class FileUtils {
         success = false;
       }
     }
-    return success ? file.getPath() : null;
+    return success;
+  }
+
+  private static void transferFromDescriptor(ParcelFileDescriptor descriptor, File file, long size)
+      throws IOException {
+    FileInputStream inputStream = new FileInputStream(descriptor.getFileDescriptor());
+    FileOutputStream outputStream = null;
+    try {
+      outputStream = new FileOutputStream(file);
+      transfer(inputStream.getChannel(), outputStream.getChannel(), size);
+    } finally {
+      try {
+        inputStream.close();
+      } catch (IOException ignored) {
+      }
+      if (outputStream != null) {
+        // If closing the output stream fails, we cannot be sure that the
+        // target file was written in full, so the exception is propagated.
+        outputStream.close();
+      }
+    }
+  }
+
+  /** Transfers exactly {@code size} bytes, in chunks, and throws if the source ends early. */
+  static void transfer(FileChannel in, FileChannel out, long size) throws IOException {
+    long position = 0;
+    while (position < size) {
+      long transferred =
+          out.transferFrom(in, position, Math.min(TRANSFER_CHUNK_SIZE, size - position));
+      if (transferred <= 0) {
+        throw new IOException("Transferred " + position + " of " + size + " bytes");
+      }
+      position += transferred;
+    }
+  }
+
+  /** Returns the size and last-modified time reported by the provider, or null if unknown. */
+  private static ContentMetadata queryMetadata(Context context, Uri uri) {
+    if (!"content".equals(uri.getScheme())) {
+      return null;
+    }
+    Cursor cursor = null;
+    try {
+      cursor = context.getContentResolver().query(uri, null, null, null, null);
+      if (cursor == null || !cursor.moveToFirst()) {
+        return null;
+      }
+      int sizeIndex = cursor.getColumnIndex(OpenableColumns.SIZE);
+      if (sizeIndex == -1 || cursor.isNull(sizeIndex)) {
+        return null;
+      }
+      long lastModified;
+      int lastModifiedIndex = cursor.getColumnIndex(COLUMN_LAST_MODIFIED);
+      int dateModifiedIndex = cursor.getColumnIndex(MediaStore.MediaColumns.DATE_MODIFIED);
+      if (lastModifiedIndex != -1 && !cursor.isNull(lastModifiedIndex)) {
+        lastModified = cursor.getLong(lastModifiedIndex);
+      } else if (dateModifiedIndex != -1 && !cursor.isNull(dateModifiedIndex)) {
+        lastModified = cursor.getLong(dateModifiedIndex);
+      } else {
+        return null;
+      }
+      return new ContentMetadata(cursor.getLong(sizeIndex), lastModified);
+    } catch (RuntimeException e) {
+      // Some providers throw for unknown projections; treat the content as uncacheable.
+      return null;
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+  }
+
+  private static class ContentMetadata {
+    final long size;
+    final long lastModified;
+
+    ContentMetadata(long size, long lastModified) {
+      this.size = size;
+      this.lastModified = lastModified;
+    }
   }
 
   /** @return extension of image with dot, or default .jpg if it none. */
@@ -88,7 +272,7 @@ class FileUtils {
   }
 
   private static void copy(InputStream in, OutputStream out) throws IOException {
-    final byte[] buffer = new byte[4 * 1024];
+    final byte[] buffer = new byte[COPY_BUFFER_SIZE];
     int bytesRead;
     while ((bytesRead = in.read(buffer)) != -1) {
       out.write(buffer, 0, bytesRead);
@@ -7,159 +7,355 @@ package io.flutter.plugins.imagepicker;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import androidx.core.util.AtomicFile;
 import io.flutter.plugin.common.MethodCall;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Persists the state of a pending pick so that it can be returned by {@code retrieve} if the
+ * activity is destroyed before the result arrives.
+ *
+ * <p>The whole state is kept as a single record in memory and written to one small file with
+ * {@link AtomicFile}, so every save is one write and a rename, and a retrieve is one read. The
+ * state saved by earlier versions in SharedPreferences is moved into the file on first use.
+ */
 class ImagePickerCache {
 
   static final String MAP_KEY_PATH = "path";
+  static final String MAP_KEY_PATH_LIST = "pathList";
   static final String MAP_KEY_MAX_WIDTH = "maxWidth";
   static final String MAP_KEY_MAX_HEIGHT = "maxHeight";
   static final String MAP_KEY_IMAGE_QUALITY = "imageQuality";
+  static final String MAP_KEY_OUTPUT_FORMAT = "outputFormat";
   private static final String MAP_KEY_TYPE = "type";
   private static final String MAP_KEY_ERROR_CODE = "errorCode";
   private static final String MAP_KEY_ERROR_MESSAGE = "errorMessage";
 
-  private static final String FLUTTER_IMAGE_PICKER_IMAGE_PATH_KEY =
-      "flutter_image_picker_image_path";
-  private static final String SHARED_PREFERENCE_ERROR_CODE_KEY = "flutter_image_picker_error_code";
-  private static final String SHARED_PREFERENCE_ERROR_MESSAGE_KEY =
-      "flutter_image_picker_error_message";
+  @VisibleForTesting static final String CACHE_FILE_NAME = "flutter_image_picker_pending_state";
 
-  private static final String SHARED_PREFERENCE_MAX_WIDTH_KEY = "flutter_image_picker_max_width";
-
-  private static final String SHARED_PREFERENCE_MAX_HEIGHT_KEY = "flutter_image_picker_max_height";
-
-  private static final String SHARED_PREFERENCE_IMAGE_QUALITY_KEY =
-      "flutter_image_picker_image_quality";
+  @VisibleForTesting
+  static final String LEGACY_SHARED_PREFERENCES_NAME = "flutter_image_picker_shared_preference";
 
-  private static final String SHARED_PREFERENCE_TYPE_KEY = "flutter_image_picker_type";
-  private static final String SHARED_PREFERENCE_PENDING_IMAGE_URI_PATH_KEY =
+  private static final String LEGACY_IMAGE_PATH_KEY = "flutter_image_picker_image_path";
+  private static final String LEGACY_ERROR_CODE_KEY = "flutter_image_picker_error_code";
+  private static final String LEGACY_ERROR_MESSAGE_KEY = "flutter_image_picker_error_message";
+  private static final String LEGACY_MAX_WIDTH_KEY = "flutter_image_picker_max_width";
+  private static final String LEGACY_MAX_HEIGHT_KEY = "flutter_image_picker_max_height";
+  private static final String LEGACY_IMAGE_QUALITY_KEY = "flutter_image_picker_image_quality";
+  private static final String LEGACY_OUTPUT_FORMAT_KEY = "flutter_image_picker_output_format";
+  private static final String LEGACY_TYPE_KEY = "flutter_image_picker_type";
+  private static final String LEGACY_PENDING_IMAGE_URI_PATH_KEY =
       "flutter_image_picker_pending_image_uri";
 
-  @VisibleForTesting
-  static final String SHARED_PREFERENCES_NAME = "flutter_image_picker_shared_preference";
+  // Version 2 added the multiImage flag.
+  private static final int RECORD_VERSION = 2;
 
-  private SharedPreferences prefs;
+  private final AtomicFile file;
+  // Set until the legacy SharedPreferences state has been migrated.
+  @Nullable private Context legacyContext;
+  // Loaded lazily from the file, then kept in sync with it on every save.
+  private Record record;
 
   ImagePickerCache(Context context) {
-    prefs = context.getSharedPreferences(SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE);
+    this(new File(context.getFilesDir(), CACHE_FILE_NAME));
+    this.legacyContext = context;
   }
 
-  void saveTypeWithMethodCallName(String methodCallName) {
-    if (methodCallName.equals(ImagePickerPlugin.METHOD_CALL_IMAGE)) {
-      setType("image");
-    } else if (methodCallName.equals(ImagePickerPlugin.METHOD_CALL_VIDEO)) {
-      setType("video");
-    }
-  }
-
-  private void setType(String type) {
-
-    prefs.edit().putString(SHARED_PREFERENCE_TYPE_KEY, type).apply();
+  @VisibleForTesting
+  ImagePickerCache(File file) {
+    this.file = new AtomicFile(file);
   }
 
-  void saveDimensionWithMethodCall(MethodCall methodCall) {
-    Double maxWidth = methodCall.argument(MAP_KEY_MAX_WIDTH);
-    Double maxHeight = methodCall.argument(MAP_KEY_MAX_HEIGHT);
-    int imageQuality =
-        methodCall.argument(MAP_KEY_IMAGE_QUALITY) == null
-            ? 100
-            : (int) methodCall.argument(MAP_KEY_IMAGE_QUALITY);
+  /** Saves the arguments of the pending call and the camera output URI in a single write. */
+  synchronized void saveStateBeforeResult(
+      MethodCall methodCall, @Nullable Uri pendingCameraMediaUri) {
+    Record record = getRecord();
+    if (methodCall.method.equals(ImagePickerPlugin.METHOD_CALL_IMAGE)
+        || methodCall.method.equals(ImagePickerPlugin.METHOD_CALL_MULTI_IMAGE)) {
+      record.type = "image";
+    } else if (methodCall.method.equals(ImagePickerPlugin.METHOD_CALL_VIDEO)) {
+      record.type = "video";
+    }
 
-    setMaxDimension(maxWidth, maxHeight, imageQuality);
-  }
+    record.maxWidth = methodCall.argument(MAP_KEY_MAX_WIDTH);
+    record.maxHeight = methodCall.argument(MAP_KEY_MAX_HEIGHT);
+    Integer imageQuality = methodCall.argument(MAP_KEY_IMAGE_QUALITY);
+    record.imageQuality =
+        imageQuality != null && imageQuality > -1 && imageQuality < 101 ? imageQuality : 100;
+    record.outputFormat = methodCall.argument(MAP_KEY_OUTPUT_FORMAT);
 
-  private void setMaxDimension(Double maxWidth, Double maxHeight, int imageQuality) {
-    SharedPreferences.Editor editor = prefs.edit();
-    if (maxWidth != null) {
-      editor.putLong(SHARED_PREFERENCE_MAX_WIDTH_KEY, Double.doubleToRawLongBits(maxWidth));
-    }
-    if (maxHeight != null) {
-      editor.putLong(SHARED_PREFERENCE_MAX_HEIGHT_KEY, Double.doubleToRawLongBits(maxHeight));
+    if (pendingCameraMediaUri != null) {
+      record.pendingCameraMediaUriPath = pendingCameraMediaUri.getPath();
     }
-    if (imageQuality > -1 && imageQuality < 101) {
-      editor.putInt(SHARED_PREFERENCE_IMAGE_QUALITY_KEY, imageQuality);
-    } else {
-      editor.putInt(SHARED_PREFERENCE_IMAGE_QUALITY_KEY, 100);
-    }
-    editor.apply();
+    write();
   }
 
-  void savePendingCameraMediaUriPath(Uri uri) {
-    prefs.edit().putString(SHARED_PREFERENCE_PENDING_IMAGE_URI_PATH_KEY, uri.getPath()).apply();
+  synchronized String retrievePendingCameraMediaUriPath() {
+    String path = getRecord().pendingCameraMediaUriPath;
+    return path != null ? path : "";
   }
 
-  String retrievePendingCameraMediaUriPath() {
-
-    return prefs.getString(SHARED_PREFERENCE_PENDING_IMAGE_URI_PATH_KEY, "");
+  void saveResult(
+      @Nullable String path, @Nullable String errorCode, @Nullable String errorMessage) {
+    List<String> paths = new ArrayList<>();
+    if (path != null) {
+      paths.add(path);
+    }
+    saveResult(paths, false, errorCode, errorMessage);
   }
 
+  /** Saves the result of a multi-image pick, whose images have already been resized. */
   void saveResult(
-      @Nullable String path, @Nullable String errorCode, @Nullable String errorMessage) {
+      List<String> paths, @Nullable String errorCode, @Nullable String errorMessage) {
+    saveResult(paths, true, errorCode, errorMessage);
+  }
 
-    SharedPreferences.Editor editor = prefs.edit();
-    if (path != null) {
-      editor.putString(FLUTTER_IMAGE_PICKER_IMAGE_PATH_KEY, path);
+  private synchronized void saveResult(
+      List<String> paths,
+      boolean multiImage,
+      @Nullable String errorCode,
+      @Nullable String errorMessage) {
+    Record record = getRecord();
+    if (!paths.isEmpty()) {
+      record.paths = new ArrayList<>(paths);
     }
+    record.multiImage = multiImage;
     if (errorCode != null) {
-      editor.putString(SHARED_PREFERENCE_ERROR_CODE_KEY, errorCode);
+      record.errorCode = errorCode;
     }
     if (errorMessage != null) {
-      editor.putString(SHARED_PREFERENCE_ERROR_MESSAGE_KEY, errorMessage);
+      record.errorMessage = errorMessage;
     }
-    editor.apply();
+    write();
   }
 
-  void clear() {
-    prefs.edit().clear().apply();
+  synchronized void clear() {
+    // Also deletes the legacy SharedPreferences state if it hasn't been migrated yet.
+    getRecord();
+    record = new Record();
+    file.delete();
   }
 
-  Map<String, Object> getCacheMap() {
-
+  synchronized Map<String, Object> getCacheMap() {
+    Record record = getRecord();
     Map<String, Object> resultMap = new HashMap<>();
     boolean hasData = false;
 
-    if (prefs.contains(FLUTTER_IMAGE_PICKER_IMAGE_PATH_KEY)) {
-      final String imagePathValue = prefs.getString(FLUTTER_IMAGE_PICKER_IMAGE_PATH_KEY, "");
-      resultMap.put(MAP_KEY_PATH, imagePathValue);
+    if (!record.paths.isEmpty()) {
+      resultMap.put(MAP_KEY_PATH, record.paths.get(0));
+      // Always present for multi-image picks, even of one image, as their images are not resized
+      // again on retrieval.
+      if (record.multiImage) {
+        resultMap.put(MAP_KEY_PATH_LIST, new ArrayList<>(record.paths));
+      }
       hasData = true;
     }
 
-    if (prefs.contains(SHARED_PREFERENCE_ERROR_CODE_KEY)) {
-      final String errorCodeValue = prefs.getString(SHARED_PREFERENCE_ERROR_CODE_KEY, "");
-      resultMap.put(MAP_KEY_ERROR_CODE, errorCodeValue);
+    if (record.errorCode != null) {
+      resultMap.put(MAP_KEY_ERROR_CODE, record.errorCode);
       hasData = true;
-      if (prefs.contains(SHARED_PREFERENCE_ERROR_MESSAGE_KEY)) {
-        final String errorMessageValue = prefs.getString(SHARED_PREFERENCE_ERROR_MESSAGE_KEY, "");
-        resultMap.put(MAP_KEY_ERROR_MESSAGE, errorMessageValue);
+      if (record.errorMessage != null) {
+        resultMap.put(MAP_KEY_ERROR_MESSAGE, record.errorMessage);
       }
     }
 
     if (hasData) {
-      if (prefs.contains(SHARED_PREFERENCE_TYPE_KEY)) {
-        final String typeValue = prefs.getString(SHARED_PREFERENCE_TYPE_KEY, "");
-        resultMap.put(MAP_KEY_TYPE, typeValue);
+      if (record.type != null) {
+        resultMap.put(MAP_KEY_TYPE, record.type);
       }
-      if (prefs.contains(SHARED_PREFERENCE_MAX_WIDTH_KEY)) {
-        final long maxWidthValue = prefs.getLong(SHARED_PREFERENCE_MAX_WIDTH_KEY, 0);
-        resultMap.put(MAP_KEY_MAX_WIDTH, Double.longBitsToDouble(maxWidthValue));
+      if (record.maxWidth != null) {
+        resultMap.put(MAP_KEY_MAX_WIDTH, record.maxWidth);
       }
-      if (prefs.contains(SHARED_PREFERENCE_MAX_HEIGHT_KEY)) {
-        final long maxHeightValue = prefs.getLong(SHARED_PREFERENCE_MAX_HEIGHT_KEY, 0);
-        resultMap.put(MAP_KEY_MAX_HEIGHT, Double.longBitsToDouble(maxHeightValue));
+      if (record.maxHeight != null) {
+        resultMap.put(MAP_KEY_MAX_HEIGHT, record.maxHeight);
       }
-      if (prefs.contains(SHARED_PREFERENCE_IMAGE_QUALITY_KEY)) {
-        final int imageQuality = prefs.getInt(SHARED_PREFERENCE_IMAGE_QUALITY_KEY, 100);
-        resultMap.put(MAP_KEY_IMAGE_QUALITY, imageQuality);
-      } else {
-        resultMap.put(MAP_KEY_IMAGE_QUALITY, 100);
+      if (record.outputFormat != null) {
+        resultMap.put(MAP_KEY_OUTPUT_FORMAT, record.outputFormat);
       }
+      resultMap.put(MAP_KEY_IMAGE_QUALITY, record.imageQuality);
     }
 
     return resultMap;
   }
+
+  private Record getRecord() {
+    if (record == null) {
+      record = read();
+      if (legacyContext != null) {
+        migrateLegacyPreferences(legacyContext);
+        legacyContext = null;
+      }
+    }
+    return record;
+  }
+
+  /**
+   * Moves the state saved in SharedPreferences by earlier versions of the plugin into the record,
+   * unless a record has already been saved, and deletes the SharedPreferences file.
+   */
+  private void migrateLegacyPreferences(Context context) {
+    File legacyFile =
+        new File(
+            new File(context.getApplicationInfo().dataDir, "shared_prefs"),
+            LEGACY_SHARED_PREFERENCES_NAME + ".xml");
+    if (!legacyFile.exists()) {
+      return;
+    }
+    SharedPreferences prefs =
+        context.getSharedPreferences(LEGACY_SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE);
+    if (!file.getBaseFile().exists()) {
+      record.type = prefs.getString(LEGACY_TYPE_KEY, null);
+      if (prefs.contains(LEGACY_MAX_WIDTH_KEY)) {
+        record.maxWidth = Double.longBitsToDouble(prefs.getLong(LEGACY_MAX_WIDTH_KEY, 0));
+      }
+      if (prefs.contains(LEGACY_MAX_HEIGHT_KEY)) {
+        record.maxHeight = Double.longBitsToDouble(prefs.getLong(LEGACY_MAX_HEIGHT_KEY, 0));
+      }
+      record.imageQuality = prefs.getInt(LEGACY_IMAGE_QUALITY_KEY, 100);
+      record.outputFormat = prefs.getString(LEGACY_OUTPUT_FORMAT_KEY, null);
+      record.pendingCameraMediaUriPath = prefs.getString(LEGACY_PENDING_IMAGE_URI_PATH_KEY, null);
+      String path = prefs.getString(LEGACY_IMAGE_PATH_KEY, null);
+      if (path != null) {
+        record.paths.add(path);
+      }
+      record.errorCode = prefs.getString(LEGACY_ERROR_CODE_KEY, null);
+      record.errorMessage = prefs.getString(LEGACY_ERROR_MESSAGE_KEY, null);
+      write();
+    }
+    prefs.edit().clear().commit();
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+      context.deleteSharedPreferences(LEGACY_SHARED_PREFERENCES_NAME);
+    } else {
+      legacyFile.delete();
+    }
+  }
+
+  private Record read() {
+    byte[] bytes;
+    try {
+      bytes = file.readFully();
+    } catch (FileNotFoundException e) {
+      return new Record();
+    } catch (IOException e) {
+      Log.e("ImagePickerCache", "image_picker: failed to read the pending pick state", e);
+      return new Record();
+    }
+    try {
+      return Record.decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+    } catch (IOException e) {
+      // A record from an unknown version or a truncated file is dropped rather than guessed at.
+      return new Record();
+    }
+  }
+
+  private void write() {
+    FileOutputStream outputStream = null;
+    try {
+      outputStream = file.startWrite();
+      DataOutputStream dataOutput = new DataOutputStream(outputStream);
+      record.encode(dataOutput);
+      dataOutput.flush();
+      file.finishWrite(outputStream);
+    } catch (IOException e) {
+      Log.e("ImagePickerCache", "image_picker: failed to save the pending pick state", e);
+      if (outputStream != null) {
+        file.failWrite(outputStream);
+      }
+    }
+  }
+
+  /** The pending pick. Fields are written in a fixed order behind a version number. */
+  private static class Record {
+    @Nullable String type;
+    @Nullable Double maxWidth;
+    @Nullable Double maxHeight;
+    int imageQuality = 100;
+    @Nullable String outputFormat;
+    @Nullable String pendingCameraMediaUriPath;
+    List<String> paths = new ArrayList<>();
+    // Whether the paths are the result of a multi-image pick.
+    boolean multiImage;
+    @Nullable String errorCode;
+    @Nullable String errorMessage;
+
+    void encode(DataOutputStream output) throws IOException {
+      output.writeInt(RECORD_VERSION);
+      writeNullableString(output, type);
+      writeNullableDouble(output, maxWidth);
+      writeNullableDouble(output, maxHeight);
+      output.writeInt(imageQuality);
+      writeNullableString(output, outputFormat);
+      writeNullableString(output, pendingCameraMediaUriPath);
+      output.writeInt(paths.size());
+      for (String path : paths) {
+        output.writeUTF(path);
+      }
+      writeNullableString(output, errorCode);
+      writeNullableString(output, errorMessage);
+      output.writeBoolean(multiImage);
+    }
+
+    static Record decode(DataInputStream input) throws IOException {
+      int version = input.readInt();
+      if (version != 1 && version != RECORD_VERSION) {
+        throw new IOException("Unsupported pending state version");
+      }
+      Record record = new Record();
+      record.type = readNullableString(input);
+      record.maxWidth = readNullableDouble(input);
+      record.maxHeight = readNullableDouble(input);
+      record.imageQuality = input.readInt();
+      record.outputFormat = readNullableString(input);
+      record.pendingCameraMediaUriPath = readNullableString(input);
+      int pathCount = input.readInt();
+      for (int i = 0; i < pathCount; i++) {
+        record.paths.add(input.readUTF());
+      }
+      record.errorCode = readNullableString(input);
+      record.errorMessage = readNullableString(input);
+      // Version 1 only stored multi-image results of more than one image as lists.
+      record.multiImage = version == 1 ? record.paths.size() > 1 : input.readBoolean();
+      return record;
+    }
+
+    private static void writeNullableString(DataOutputStream output, @Nullable String value)
+        throws IOException {
+      output.writeBoolean(value != null);
+      if (value != null) {
+        output.writeUTF(value);
+      }
+    }
+
+    @Nullable
+    private static String readNullableString(DataInputStream input) throws IOException {
+      return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeNullableDouble(DataOutputStream output, @Nullable Double value)
+        throws IOException {
+      output.writeBoolean(value != null);
+      if (value != null) {
+        output.writeDouble(value);
+      }
+    }
+
+    @Nullable
+    private static Double readNullableDouble(DataInputStream input) throws IOException {
+      return input.readBoolean() ? input.readDouble() : null;
+    }
+  }
 }
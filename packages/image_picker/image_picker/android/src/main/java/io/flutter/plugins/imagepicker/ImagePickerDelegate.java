@@ -6,6 +6,7 @@ package io.flutter.plugins.imagepicker;
 
 import android.Manifest;
 import android.app.Activity;
+import android.content.ClipData;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
@@ -22,9 +23,15 @@ import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 enum CameraDevice {
   REAR,
@@ -70,6 +77,11 @@ enum CameraDevice {
  * Finish with full path for the scaled image as the result.
  *
  * <p>C) User cancels picking an image. Finish with null result.
+ *
+ * <p>{@link #chooseMultiImageFromGallery} follows the same steps, but the picked images are copied,
+ * decoded and resized concurrently on a thread pool bounded by the number of available cores. Each
+ * image is reported through the {@link MultiImageListener} as soon as it is ready, and the call
+ * finishes with the list of paths once the last image has been processed.
  */
 public class ImagePickerDelegate
     implements PluginRegistry.ActivityResultListener,
@@ -78,6 +90,8 @@ public class ImagePickerDelegate
   @VisibleForTesting static final int REQUEST_CODE_TAKE_IMAGE_WITH_CAMERA = 2343;
   @VisibleForTesting static final int REQUEST_EXTERNAL_IMAGE_STORAGE_PERMISSION = 2344;
   @VisibleForTesting static final int REQUEST_CAMERA_IMAGE_PERMISSION = 2345;
+  @VisibleForTesting static final int REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY = 2346;
+  @VisibleForTesting static final int REQUEST_EXTERNAL_MULTI_IMAGE_STORAGE_PERMISSION = 2347;
   @VisibleForTesting static final int REQUEST_CODE_CHOOSE_VIDEO_FROM_GALLERY = 2352;
   @VisibleForTesting static final int REQUEST_CODE_TAKE_VIDEO_WITH_CAMERA = 2353;
   @VisibleForTesting static final int REQUEST_EXTERNAL_VIDEO_STORAGE_PERMISSION = 2354;
@@ -85,15 +99,23 @@ public class ImagePickerDelegate
 
   @VisibleForTesting final String fileProviderName;
 
+  // Two images are resized at once, so that a multi-pick of camera photos fits in the heap of
+  // low-memory devices with many cores.
+  private static final int MAX_BACKGROUND_THREADS = 2;
+
   private final Activity activity;
   private final File externalFilesDirectory;
   private final ImageResizer imageResizer;
+  private final VideoTranscoder videoTranscoder;
   private final ImagePickerCache cache;
   private final PermissionManager permissionManager;
   private final IntentResolver intentResolver;
   private final FileUriResolver fileUriResolver;
   private final FileUtils fileUtils;
+  private final Executor backgroundExecutor;
   private CameraDevice cameraDevice;
+  private MultiImageListener multiImageListener;
+  private VideoTranscoder.ProgressListener videoProgressListener;
 
   interface PermissionManager {
     boolean isPermissionGranted(String permissionName);
@@ -117,6 +139,11 @@ public class ImagePickerDelegate
     void onPathReady(String path);
   }
 
+  /** Receives each image of a multi-image pick as soon as it has been copied and resized. */
+  interface MultiImageListener {
+    void onImageReady(int index, int count, String path);
+  }
+
   private Uri pendingCameraMediaUri;
   private MethodChannel.Result pendingResult;
   private MethodCall methodCall;
@@ -130,6 +157,7 @@ public class ImagePickerDelegate
         activity,
         externalFilesDirectory,
         imageResizer,
+        new VideoTranscoder(externalFilesDirectory),
         null,
         null,
         cache,
@@ -176,7 +204,8 @@ public class ImagePickerDelegate
                 });
           }
         },
-        new FileUtils());
+        new FileUtils(),
+        createBackgroundExecutor());
   }
 
   /**
@@ -188,16 +217,19 @@ public class ImagePickerDelegate
       final Activity activity,
       final File externalFilesDirectory,
       final ImageResizer imageResizer,
+      final VideoTranscoder videoTranscoder,
       final MethodChannel.Result result,
       final MethodCall methodCall,
       final ImagePickerCache cache,
       final PermissionManager permissionManager,
       final IntentResolver intentResolver,
       final FileUriResolver fileUriResolver,
-      final FileUtils fileUtils) {
+      final FileUtils fileUtils,
+      final Executor backgroundExecutor) {
     this.activity = activity;
     this.externalFilesDirectory = externalFilesDirectory;
     this.imageResizer = imageResizer;
+    this.videoTranscoder = videoTranscoder;
     this.fileProviderName = activity.getPackageName() + ".flutter.image_provider";
     this.pendingResult = result;
     this.methodCall = methodCall;
@@ -205,9 +237,34 @@ public class ImagePickerDelegate
     this.intentResolver = intentResolver;
     this.fileUriResolver = fileUriResolver;
     this.fileUtils = fileUtils;
+    this.backgroundExecutor = backgroundExecutor;
     this.cache = cache;
   }
 
+  /**
+   * Creates the pool used to process multi-image picks and video transcodes. Each image being
+   * resized holds a full-size bitmap, so the pool runs at most {@link #MAX_BACKGROUND_THREADS} of
+   * them at once whatever the number of cores, and its threads time out when idle so that it costs
+   * nothing between picks.
+   */
+  private static Executor createBackgroundExecutor() {
+    int threads =
+        Math.max(1, Math.min(MAX_BACKGROUND_THREADS, Runtime.getRuntime().availableProcessors()));
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  void setMultiImageListener(MultiImageListener listener) {
+    multiImageListener = listener;
+  }
+
+  void setVideoProgressListener(VideoTranscoder.ProgressListener listener) {
+    videoProgressListener = listener;
+  }
+
   void setCameraDevice(CameraDevice device) {
     cameraDevice = device;
   }
@@ -222,25 +279,24 @@ public class ImagePickerDelegate
       return;
     }
 
-    cache.saveTypeWithMethodCallName(methodCall.method);
-    cache.saveDimensionWithMethodCall(methodCall);
-    if (pendingCameraMediaUri != null) {
-      cache.savePendingCameraMediaUriPath(pendingCameraMediaUri);
-    }
+    cache.saveStateBeforeResult(methodCall, pendingCameraMediaUri);
   }
 
   void retrieveLostImage(MethodChannel.Result result) {
     Map<String, Object> resultMap = cache.getCacheMap();
     String path = (String) resultMap.get(cache.MAP_KEY_PATH);
-    if (path != null) {
+    // Multi-image results are resized before they are cached, so only single results need it.
+    if (path != null && !resultMap.containsKey(cache.MAP_KEY_PATH_LIST)) {
       Double maxWidth = (Double) resultMap.get(cache.MAP_KEY_MAX_WIDTH);
       Double maxHeight = (Double) resultMap.get(cache.MAP_KEY_MAX_HEIGHT);
       int imageQuality =
           resultMap.get(cache.MAP_KEY_IMAGE_QUALITY) == null
               ? 100
               : (int) resultMap.get(cache.MAP_KEY_IMAGE_QUALITY);
+      String outputFormat = (String) resultMap.get(cache.MAP_KEY_OUTPUT_FORMAT);
 
-      String newPath = imageResizer.resizeImageIfNeeded(path, maxWidth, maxHeight, imageQuality);
+      String newPath =
+          imageResizer.resizeImageIfNeeded(path, maxWidth, maxHeight, imageQuality, outputFormat);
       resultMap.put(cache.MAP_KEY_PATH, newPath);
     }
     if (resultMap.isEmpty()) {
@@ -338,6 +394,32 @@ public class ImagePickerDelegate
     activity.startActivityForResult(pickImageIntent, REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY);
   }
 
+  public void chooseMultiImageFromGallery(MethodCall methodCall, MethodChannel.Result result) {
+    if (!setPendingMethodCallAndResult(methodCall, result)) {
+      finishWithAlreadyActiveError(result);
+      return;
+    }
+
+    if (!permissionManager.isPermissionGranted(Manifest.permission.READ_EXTERNAL_STORAGE)) {
+      permissionManager.askForPermission(
+          Manifest.permission.READ_EXTERNAL_STORAGE,
+          REQUEST_EXTERNAL_MULTI_IMAGE_STORAGE_PERMISSION);
+      return;
+    }
+
+    launchMultiPickImageFromGalleryIntent();
+  }
+
+  private void launchMultiPickImageFromGalleryIntent() {
+    Intent pickImageIntent = new Intent(Intent.ACTION_GET_CONTENT);
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+      pickImageIntent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
+    }
+    pickImageIntent.setType("image/*");
+
+    activity.startActivityForResult(pickImageIntent, REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY);
+  }
+
   public void takeImageWithCamera(MethodCall methodCall, MethodChannel.Result result) {
     if (!setPendingMethodCallAndResult(methodCall, result)) {
       finishWithAlreadyActiveError(result);
@@ -429,6 +511,11 @@ public class ImagePickerDelegate
           launchPickImageFromGalleryIntent();
         }
         break;
+      case REQUEST_EXTERNAL_MULTI_IMAGE_STORAGE_PERMISSION:
+        if (permissionGranted) {
+          launchMultiPickImageFromGalleryIntent();
+        }
+        break;
       case REQUEST_EXTERNAL_VIDEO_STORAGE_PERMISSION:
         if (permissionGranted) {
           launchPickVideoFromGalleryIntent();
@@ -451,6 +538,7 @@ public class ImagePickerDelegate
     if (!permissionGranted) {
       switch (requestCode) {
         case REQUEST_EXTERNAL_IMAGE_STORAGE_PERMISSION:
+        case REQUEST_EXTERNAL_MULTI_IMAGE_STORAGE_PERMISSION:
         case REQUEST_EXTERNAL_VIDEO_STORAGE_PERMISSION:
           finishWithError("photo_access_denied", "The user did not allow photo access.");
           break;
@@ -470,6 +558,9 @@ public class ImagePickerDelegate
       case REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY:
         handleChooseImageResult(resultCode, data);
         break;
+      case REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY:
+        handleChooseMultiImageResult(resultCode, data);
+        break;
       case REQUEST_CODE_TAKE_IMAGE_WITH_CAMERA:
         handleCaptureImageResult(resultCode);
         break;
@@ -497,10 +588,32 @@ public class ImagePickerDelegate
     finishWithSuccess(null);
   }
 
+  private void handleChooseMultiImageResult(int resultCode, Intent data) {
+    if (resultCode == Activity.RESULT_OK && data != null) {
+      List<Uri> uris = new ArrayList<>();
+      ClipData clipData = data.getClipData();
+      if (clipData != null) {
+        for (int i = 0; i < clipData.getItemCount(); i++) {
+          uris.add(clipData.getItemAt(i).getUri());
+        }
+      } else if (data.getData() != null) {
+        // Pickers that ignore EXTRA_ALLOW_MULTIPLE return a single image.
+        uris.add(data.getData());
+      }
+      if (!uris.isEmpty()) {
+        handleMultiImageResult(uris);
+        return;
+      }
+    }
+
+    // User cancelled choosing pictures.
+    finishWithSuccess(null);
+  }
+
   private void handleChooseVideoResult(int resultCode, Intent data) {
     if (resultCode == Activity.RESULT_OK && data != null) {
       String path = fileUtils.getPathFromUri(activity, data.getData());
-      handleVideoResult(path);
+      handleVideoResult(path, false);
       return;
     }
 
@@ -536,7 +649,7 @@ public class ImagePickerDelegate
           new OnPathReadyListener() {
             @Override
             public void onPathReady(String path) {
-              handleVideoResult(path);
+              handleVideoResult(path, true);
             }
           });
       return;
@@ -551,9 +664,10 @@ public class ImagePickerDelegate
       Double maxWidth = methodCall.argument("maxWidth");
       Double maxHeight = methodCall.argument("maxHeight");
       Integer imageQuality = methodCall.argument("imageQuality");
+      String outputFormat = methodCall.argument("outputFormat");
 
       String finalImagePath =
-          imageResizer.resizeImageIfNeeded(path, maxWidth, maxHeight, imageQuality);
+          imageResizer.resizeImageIfNeeded(path, maxWidth, maxHeight, imageQuality, outputFormat);
 
       finishWithSuccess(finalImagePath);
 
@@ -566,8 +680,81 @@ public class ImagePickerDelegate
     }
   }
 
-  private void handleVideoResult(String path) {
-    finishWithSuccess(path);
+  private void handleMultiImageResult(final List<Uri> uris) {
+    final MethodCall call = methodCall;
+    final Double maxWidth = call != null ? call.<Double>argument("maxWidth") : null;
+    final Double maxHeight = call != null ? call.<Double>argument("maxHeight") : null;
+    final Integer imageQuality = call != null ? call.<Integer>argument("imageQuality") : null;
+    final String outputFormat = call != null ? call.<String>argument("outputFormat") : null;
+
+    final int count = uris.size();
+    final String[] paths = new String[count];
+    final AtomicInteger remaining = new AtomicInteger(count);
+    for (int i = 0; i < count; i++) {
+      final int index = i;
+      final Uri uri = uris.get(i);
+      backgroundExecutor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              String path = null;
+              try {
+                String originalPath = fileUtils.getPathFromUri(activity, uri);
+                if (originalPath != null) {
+                  path =
+                      imageResizer.resizeImageIfNeeded(
+                          originalPath, maxWidth, maxHeight, imageQuality, outputFormat);
+                }
+              } catch (RuntimeException e) {
+                // A single broken image must not fail the whole pick; it is reported as null.
+              }
+              paths[index] = path;
+              if (multiImageListener != null) {
+                multiImageListener.onImageReady(index, count, path);
+              }
+              if (remaining.decrementAndGet() == 0) {
+                finishWithMultiImageSuccess(paths);
+              }
+            }
+          });
+    }
+  }
+
+  private void handleVideoResult(
+      final String path, final boolean shouldDeleteOriginalIfTranscoded) {
+    final MethodCall call = methodCall;
+    final Double maxWidth = call != null ? call.<Double>argument("maxWidth") : null;
+    final Double maxHeight = call != null ? call.<Double>argument("maxHeight") : null;
+    // Dart sends integers of 2^31 and above as longs. Encoders take int bitrates, so those are
+    // capped at Integer.MAX_VALUE.
+    final Number maxBitrateArgument = call != null ? call.<Number>argument("maxBitrate") : null;
+    final Integer maxBitrate =
+        maxBitrateArgument != null
+            ? (int) Math.min(Integer.MAX_VALUE, maxBitrateArgument.longValue())
+            : null;
+    if (path == null || (maxWidth == null && maxHeight == null && maxBitrate == null)) {
+      finishWithSuccess(path);
+      return;
+    }
+
+    // Transcoding takes seconds to minutes, so it must stay off the platform thread.
+    backgroundExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            String finalVideoPath =
+                videoTranscoder.transcodeVideoIfNeeded(
+                    path, maxWidth, maxHeight, maxBitrate, videoProgressListener);
+
+            finishWithSuccess(finalVideoPath);
+
+            if (finalVideoPath != null
+                && !finalVideoPath.equals(path)
+                && shouldDeleteOriginalIfTranscoded) {
+              new File(path).delete();
+            }
+          }
+        });
   }
 
   private boolean setPendingMethodCallAndResult(
@@ -594,6 +781,21 @@ public class ImagePickerDelegate
     clearMethodCallAndResult();
   }
 
+  private synchronized void finishWithMultiImageSuccess(String[] imagePaths) {
+    ArrayList<String> paths = new ArrayList<>();
+    for (String path : imagePaths) {
+      if (path != null) {
+        paths.add(path);
+      }
+    }
+    if (pendingResult == null) {
+      cache.saveResult(paths, null, null);
+      return;
+    }
+    pendingResult.success(paths);
+    clearMethodCallAndResult();
+  }
+
   private void finishWithAlreadyActiveError(MethodChannel.Result result) {
     result.error("already_active", "Image picker is already active", null);
   }
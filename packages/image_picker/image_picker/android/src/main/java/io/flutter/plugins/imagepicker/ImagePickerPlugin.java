@@ -24,6 +24,8 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry;
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 
 @SuppressWarnings("deprecation")
 public class ImagePickerPlugin
@@ -92,7 +94,10 @@ public class ImagePickerPlugin
   }
 
   static final String METHOD_CALL_IMAGE = "pickImage";
+  static final String METHOD_CALL_MULTI_IMAGE = "pickMultiImage";
   static final String METHOD_CALL_VIDEO = "pickVideo";
+  private static final String METHOD_CALL_MULTI_IMAGE_READY = "pickMultiImage#onImage";
+  private static final String METHOD_CALL_VIDEO_PROGRESS = "pickVideo#onProgress";
   private static final String METHOD_CALL_RETRIEVE = "retrieve";
   private static final int CAMERA_DEVICE_FRONT = 1;
   private static final int CAMERA_DEVICE_REAR = 0;
@@ -188,6 +193,9 @@ public class ImagePickerPlugin
     this.delegate = constructDelegate(activity);
     channel = new MethodChannel(messenger, CHANNEL);
     channel.setMethodCallHandler(this);
+    PickerEventStreamer streamer = new PickerEventStreamer(channel);
+    delegate.setMultiImageListener(streamer);
+    delegate.setVideoProgressListener(streamer);
     observer = new LifeCycleObserver(activity);
     if (registrar != null) {
       // V1 embedding setup for activity listeners.
@@ -226,6 +234,44 @@ public class ImagePickerPlugin
     return new ImagePickerDelegate(setupActivity, externalFilesDirectory, imageResizer, cache);
   }
 
+  // Streams multi-image results and video transcode progress back to Dart on the platform thread.
+  private static class PickerEventStreamer
+      implements ImagePickerDelegate.MultiImageListener, VideoTranscoder.ProgressListener {
+    private final MethodChannel channel;
+    private final Handler handler;
+
+    PickerEventStreamer(MethodChannel channel) {
+      this.channel = channel;
+      handler = new Handler(Looper.getMainLooper());
+    }
+
+    @Override
+    public void onImageReady(int index, int count, String path) {
+      final Map<String, Object> arguments = new HashMap<>();
+      arguments.put("index", index);
+      arguments.put("count", count);
+      arguments.put("path", path);
+      invokeOnPlatformThread(METHOD_CALL_MULTI_IMAGE_READY, arguments);
+    }
+
+    @Override
+    public void onProgress(double progress) {
+      final Map<String, Object> arguments = new HashMap<>();
+      arguments.put("progress", progress);
+      invokeOnPlatformThread(METHOD_CALL_VIDEO_PROGRESS, arguments);
+    }
+
+    private void invokeOnPlatformThread(final String method, final Object arguments) {
+      handler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              channel.invokeMethod(method, arguments);
+            }
+          });
+    }
+  }
+
   // MethodChannel.Result wrapper that responds on the platform thread.
   private static class MethodResultWrapper implements MethodChannel.Result {
     private MethodChannel.Result methodResult;
@@ -303,6 +349,9 @@ public class ImagePickerPlugin
             throw new IllegalArgumentException("Invalid image source: " + imageSource);
         }
         break;
+      case METHOD_CALL_MULTI_IMAGE:
+        delegate.chooseMultiImageFromGallery(call, result);
+        break;
       case METHOD_CALL_VIDEO:
         imageSource = call.argument("source");
         switch (imageSource) {
@@ -6,14 +6,24 @@ package io.flutter.plugins.imagepicker;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.os.Build;
 import android.util.Log;
 import androidx.annotation.Nullable;
-import java.io.ByteArrayOutputStream;
+import androidx.heifwriter.HeifWriter;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 class ImageResizer {
+  static final String OUTPUT_FORMAT_JPEG = "jpeg";
+  static final String OUTPUT_FORMAT_PNG = "png";
+  static final String OUTPUT_FORMAT_WEBP = "webp";
+  static final String OUTPUT_FORMAT_HEIF = "heif";
+
+  private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
   private final File externalFilesDirectory;
   private final ExifDataCopier exifDataCopier;
 
@@ -33,28 +43,62 @@ class ImageResizer {
       @Nullable Double maxWidth,
       @Nullable Double maxHeight,
       @Nullable Integer imageQuality) {
+    return resizeImageIfNeeded(imagePath, maxWidth, maxHeight, imageQuality, null);
+  }
+
+  /**
+   * Same as {@link #resizeImageIfNeeded(String, Double, Double, Integer)}, but re-encodes the image
+   * in {@code outputFormat} (one of {@code jpeg}, {@code png}, {@code webp} or {@code heif}) when
+   * it is set.
+   *
+   * <p>When no output format is requested, images with alpha are saved as PNG and everything else
+   * as JPEG, as before.
+   */
+  String resizeImageIfNeeded(
+      String imagePath,
+      @Nullable Double maxWidth,
+      @Nullable Double maxHeight,
+      @Nullable Integer imageQuality,
+      @Nullable String outputFormat) {
     Bitmap bmp = decodeFile(imagePath);
     if (bmp == null) {
       return null;
     }
-    boolean shouldScale =
-        maxWidth != null || maxHeight != null || isImageQualityValid(imageQuality);
-    if (!shouldScale) {
-      return imagePath;
-    }
+    // Several images can be resized at once, so their bitmaps are freed as soon as possible.
     try {
+      if (!isOutputFormatValid(outputFormat)) {
+        outputFormat = null;
+      }
+      boolean shouldScale =
+          maxWidth != null
+              || maxHeight != null
+              || isImageQualityValid(imageQuality)
+              || outputFormat != null;
+      if (!shouldScale) {
+        return imagePath;
+      }
       String[] pathParts = imagePath.split("/");
       String imageName = pathParts[pathParts.length - 1];
-      File file = resizedImage(bmp, maxWidth, maxHeight, imageQuality, imageName);
+      if (outputFormat != null) {
+        imageName = replaceExtension(imageName, outputFormat);
+      }
+      File file = resizedImage(bmp, maxWidth, maxHeight, imageQuality, outputFormat, imageName);
       copyExif(imagePath, file.getPath());
       return file.getPath();
     } catch (IOException e) {
       throw new RuntimeException(e);
+    } finally {
+      bmp.recycle();
     }
   }
 
   private File resizedImage(
-      Bitmap bmp, Double maxWidth, Double maxHeight, Integer imageQuality, String outputImageName)
+      Bitmap bmp,
+      Double maxWidth,
+      Double maxHeight,
+      Integer imageQuality,
+      String outputFormat,
+      String outputImageName)
       throws IOException {
     double originalWidth = bmp.getWidth() * 1.0;
     double originalHeight = bmp.getHeight() * 1.0;
@@ -99,9 +143,15 @@ class ImageResizer {
     }
 
     Bitmap scaledBmp = createScaledBitmap(bmp, width.intValue(), height.intValue(), false);
-    File file =
-        createImageOnExternalDirectory("/scaled_" + outputImageName, scaledBmp, imageQuality);
-    return file;
+    try {
+      return createImageOnExternalDirectory(
+          "/scaled_" + outputImageName, scaledBmp, imageQuality, outputFormat);
+    } finally {
+      // Scaling to the original size returns the source bitmap, which the caller recycles.
+      if (scaledBmp != bmp) {
+        scaledBmp.recycle();
+      }
+    }
   }
 
   private File createFile(File externalFilesDirectory, String child) {
@@ -112,8 +162,15 @@ class ImageResizer {
     return image;
   }
 
-  private FileOutputStream createOutputStream(File imageFile) throws IOException {
-    return new FileOutputStream(imageFile);
+  private OutputStream createOutputStream(File imageFile) throws IOException {
+    return new BufferedOutputStream(new FileOutputStream(imageFile), OUTPUT_BUFFER_SIZE);
+  }
+
+  private static String replaceExtension(String imageName, String outputFormat) {
+    String extension = OUTPUT_FORMAT_JPEG.equals(outputFormat) ? "jpg" : outputFormat;
+    int dot = imageName.lastIndexOf('.');
+    String baseName = dot == -1 ? imageName : imageName.substring(0, dot);
+    return baseName + "." + extension;
   }
 
   private void copyExif(String filePathOri, String filePathDest) {
@@ -132,23 +189,89 @@ class ImageResizer {
     return imageQuality != null && imageQuality > 0 && imageQuality < 100;
   }
 
-  private File createImageOnExternalDirectory(String name, Bitmap bitmap, int imageQuality)
+  private boolean isOutputFormatValid(@Nullable String outputFormat) {
+    return OUTPUT_FORMAT_JPEG.equals(outputFormat)
+        || OUTPUT_FORMAT_PNG.equals(outputFormat)
+        || OUTPUT_FORMAT_WEBP.equals(outputFormat)
+        || OUTPUT_FORMAT_HEIF.equals(outputFormat);
+  }
+
+  private File createImageOnExternalDirectory(
+      String name, Bitmap bitmap, int imageQuality, @Nullable String outputFormat)
       throws IOException {
-    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-    boolean saveAsPNG = bitmap.hasAlpha();
-    if (saveAsPNG) {
+    File imageFile = createFile(externalFilesDirectory, name);
+    if (OUTPUT_FORMAT_HEIF.equals(outputFormat)) {
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+          && writeHeif(imageFile, bitmap, imageQuality)) {
+        return imageFile;
+      }
+      Log.d(
+          "ImageResizer",
+          "image_picker: HEIF output requires Android 9 or later and a HEVC encoder. Saving the image as JPEG instead");
+      imageFile = createFile(externalFilesDirectory, replaceExtension(name, OUTPUT_FORMAT_JPEG));
+      outputFormat = OUTPUT_FORMAT_JPEG;
+    }
+
+    Bitmap.CompressFormat compressFormat = compressFormatFor(bitmap, outputFormat);
+    if (compressFormat == Bitmap.CompressFormat.PNG) {
       Log.d(
           "ImageResizer",
           "image_picker: compressing is not supported for type PNG. Returning the image with original quality");
     }
-    bitmap.compress(
-        saveAsPNG ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG,
-        imageQuality,
-        outputStream);
-    File imageFile = createFile(externalFilesDirectory, name);
-    FileOutputStream fileOutput = createOutputStream(imageFile);
-    fileOutput.write(outputStream.toByteArray());
-    fileOutput.close();
+    // Encode straight into the file so the compressed image is never held in memory as a whole.
+    OutputStream fileOutput = createOutputStream(imageFile);
+    try {
+      bitmap.compress(compressFormat, imageQuality, fileOutput);
+    } finally {
+      fileOutput.close();
+    }
     return imageFile;
   }
+
+  private Bitmap.CompressFormat compressFormatFor(Bitmap bitmap, @Nullable String outputFormat) {
+    if (OUTPUT_FORMAT_WEBP.equals(outputFormat)) {
+      return Bitmap.CompressFormat.WEBP;
+    }
+    if (OUTPUT_FORMAT_PNG.equals(outputFormat)) {
+      return Bitmap.CompressFormat.PNG;
+    }
+    if (OUTPUT_FORMAT_JPEG.equals(outputFormat)) {
+      return Bitmap.CompressFormat.JPEG;
+    }
+    return bitmap.hasAlpha() ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG;
+  }
+
+  /**
+   * Returns false, leaving no file behind, if the device can't encode the image as HEIF, in which
+   * case the caller saves it in another format.
+   */
+  private boolean writeHeif(File imageFile, Bitmap bitmap, int imageQuality) {
+    HeifWriter writer = null;
+    boolean written = false;
+    try {
+      writer =
+          new HeifWriter.Builder(
+                  imageFile.getPath(),
+                  bitmap.getWidth(),
+                  bitmap.getHeight(),
+                  HeifWriter.INPUT_MODE_BITMAP)
+              .setQuality(imageQuality)
+              .build();
+      writer.start();
+      writer.addBitmap(bitmap);
+      writer.stop(0);
+      written = true;
+    } catch (Exception e) {
+      // The encoder can be missing, fail to start, reject the bitmap or time out while muxing.
+      Log.d("ImageResizer", "image_picker: Could not encode the image as HEIF", e);
+    } finally {
+      if (writer != null) {
+        writer.close();
+      }
+      if (!written) {
+        imageFile.delete();
+      }
+    }
+    return written;
+  }
 }
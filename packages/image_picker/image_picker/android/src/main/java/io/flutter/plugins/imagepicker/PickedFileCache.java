@@ -0,0 +1,185 @@
+// Copyright 2019 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import androidx.annotation.VisibleForTesting;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A size-capped, least-recently-used cache of files copied from content URIs.
+ *
+ * <p>Entries are keyed by the content URI together with the size and last-modified time reported
+ * by its provider, so that re-picking an unchanged gallery image copies the earlier copy instead
+ * of reading it from its provider again. The file modification time doubles as the LRU timestamp,
+ * which keeps the cache consistent across process restarts without a separate index.
+ *
+ * <p>Entries are never handed out themselves. Every pick gets its own copy of the entry, so that
+ * evicting an entry, or picking the same content again, never touches a file the app still uses.
+ */
+class PickedFileCache {
+  private static final String CACHE_DIRECTORY_NAME = "image_picker_files";
+  @VisibleForTesting static final long DEFAULT_MAX_SIZE_BYTES = 100L * 1024 * 1024;
+
+  private final File directory;
+  private final long maxSizeBytes;
+
+  PickedFileCache(File cacheDir) {
+    this(new File(cacheDir, CACHE_DIRECTORY_NAME), DEFAULT_MAX_SIZE_BYTES);
+  }
+
+  @VisibleForTesting
+  PickedFileCache(File directory, long maxSizeBytes) {
+    this.directory = directory;
+    this.maxSizeBytes = maxSizeBytes;
+  }
+
+  /**
+   * Copies the cached entry for the given key into {@code destination}.
+   *
+   * @return false if there is no such entry or it could not be copied.
+   */
+  synchronized boolean get(
+      String uri, long size, long lastModified, String extension, File destination) {
+    File file = fileFor(uri, size, lastModified, extension);
+    if (!file.isFile() || file.length() != size) {
+      return false;
+    }
+    if (!copy(file, destination)) {
+      return false;
+    }
+    file.setLastModified(System.currentTimeMillis());
+    return true;
+  }
+
+  /** Returns a temporary file in the cache directory to copy a new entry into. */
+  File createTempFile(String extension) throws IOException {
+    if (!directory.exists()) {
+      directory.mkdirs();
+    }
+    return File.createTempFile("image_picker", extension + ".tmp", directory);
+  }
+
+  /**
+   * Moves a fully written temporary file into the cache under the given key, copies it into
+   * {@code destination}, and evicts the least recently used entries until the cache fits its size
+   * limit again.
+   *
+   * @return false if the entry could not be stored or copied, or its length isn't {@code size}.
+   */
+  synchronized boolean put(
+      File tempFile,
+      String uri,
+      long size,
+      long lastModified,
+      String extension,
+      File destination) {
+    if (tempFile.length() != size) {
+      tempFile.delete();
+      return false;
+    }
+    File file = fileFor(uri, size, lastModified, extension);
+    if (file.exists()) {
+      file.delete();
+    }
+    if (!tempFile.renameTo(file)) {
+      tempFile.delete();
+      return false;
+    }
+    boolean copied = copy(file, destination);
+    trimToSize();
+    return copied;
+  }
+
+  private void trimToSize() {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    long total = 0;
+    for (File file : files) {
+      total += file.length();
+    }
+    if (total <= maxSizeBytes) {
+      return;
+    }
+    Arrays.sort(
+        files,
+        new Comparator<File>() {
+          @Override
+          public int compare(File a, File b) {
+            long diff = a.lastModified() - b.lastModified();
+            return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+          }
+        });
+    for (File file : files) {
+      if (total <= maxSizeBytes) {
+        break;
+      }
+      // Temporary files are still being written by other picks.
+      if (file.getName().endsWith(".tmp")) {
+        continue;
+      }
+      long length = file.length();
+      if (file.delete()) {
+        total -= length;
+      }
+    }
+  }
+
+  private static boolean copy(File source, File destination) {
+    FileInputStream inputStream = null;
+    FileOutputStream outputStream = null;
+    boolean success = false;
+    try {
+      inputStream = new FileInputStream(source);
+      outputStream = new FileOutputStream(destination);
+      FileUtils.transfer(inputStream.getChannel(), outputStream.getChannel(), source.length());
+      success = true;
+    } catch (IOException ignored) {
+    } finally {
+      try {
+        if (inputStream != null) inputStream.close();
+      } catch (IOException ignored) {
+      }
+      try {
+        if (outputStream != null) outputStream.close();
+      } catch (IOException ignored) {
+        success = false;
+      }
+    }
+    if (!success) {
+      destination.delete();
+    }
+    return success;
+  }
+
+  @VisibleForTesting
+  File fileFor(String uri, long size, long lastModified, String extension) {
+    return new File(directory, hash(uri + '|' + size + '|' + lastModified) + extension);
+  }
+
+  private static String hash(String key) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      byte[] bytes = digest.digest(key.getBytes("UTF-8"));
+      StringBuilder builder = new StringBuilder(bytes.length * 2);
+      for (byte b : bytes) {
+        builder.append(String.format("%02x", b));
+      }
+      return builder.toString();
+    } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+      // Both SHA-1 and UTF-8 are guaranteed to be available on Android.
+      throw new RuntimeException(e);
+    }
+  }
+}
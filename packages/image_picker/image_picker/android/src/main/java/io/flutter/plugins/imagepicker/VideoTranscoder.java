@@ -0,0 +1,662 @@
+// Copyright 2019 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import android.annotation.TargetApi;
+import android.graphics.SurfaceTexture;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.opengl.EGL14;
+import android.opengl.EGLConfig;
+import android.opengl.EGLContext;
+import android.opengl.EGLDisplay;
+import android.opengl.EGLExt;
+import android.opengl.EGLSurface;
+import android.opengl.GLES11Ext;
+import android.opengl.GLES20;
+import android.os.Build;
+import android.util.Log;
+import android.view.Surface;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.UUID;
+
+/**
+ * Downscales and re-encodes videos to H.264 so they fit a maximum size and bitrate.
+ *
+ * <p>Frames go from a {@link MediaExtractor} through a decoding {@link MediaCodec}, are drawn with
+ * OpenGL onto the input surface of an encoding {@link MediaCodec} at the target size, and are
+ * written by a {@link MediaMuxer}. The audio track, if any, is copied without re-encoding.
+ *
+ * <p>Transcoding needs Android 4.3 (API 18). On older versions the original video is returned.
+ */
+class VideoTranscoder {
+  private static final String TAG = "VideoTranscoder";
+  private static final String OUTPUT_MIME_TYPE = "video/avc";
+  private static final String KEY_ROTATION = "rotation-degrees";
+  private static final int DEFAULT_FRAME_RATE = 30;
+  private static final int I_FRAME_INTERVAL_SECONDS = 1;
+  private static final long TIMEOUT_US = 10000;
+
+  interface ProgressListener {
+    /** Called with a value between 0 and 1 as the transcode progresses. */
+    void onProgress(double progress);
+  }
+
+  private final File outputDirectory;
+
+  VideoTranscoder(File outputDirectory) {
+    this.outputDirectory = outputDirectory;
+  }
+
+  /**
+   * If necessary, transcodes the video located in videoPath and returns the path of the new video.
+   *
+   * <p>If the video already fits {@code maxWidth}, {@code maxHeight} and {@code maxBitrate}, or
+   * cannot be transcoded on this device, returns the path of the original video.
+   */
+  String transcodeVideoIfNeeded(
+      String videoPath,
+      @Nullable Double maxWidth,
+      @Nullable Double maxHeight,
+      @Nullable Integer maxBitrate,
+      @Nullable ProgressListener listener) {
+    if (maxWidth == null && maxHeight == null && maxBitrate == null) {
+      return videoPath;
+    }
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+      Log.d(TAG, "image_picker: video compression requires Android 4.3 or later.");
+      return videoPath;
+    }
+    File outputFile = new File(outputDirectory, "transcoded_" + UUID.randomUUID() + ".mp4");
+    try {
+      boolean transcoded =
+          new Transcode(videoPath, outputFile, listener).run(maxWidth, maxHeight, maxBitrate);
+      return transcoded ? outputFile.getPath() : videoPath;
+    } catch (IOException | RuntimeException e) {
+      Log.e(TAG, "image_picker: failed to compress video, returning the original.", e);
+      outputFile.delete();
+      return videoPath;
+    }
+  }
+
+  /** A single transcode run. Every codec and surface it creates is released before it returns. */
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+  private static class Transcode {
+    private final String inputPath;
+    private final File outputFile;
+    @Nullable private final ProgressListener listener;
+
+    private MediaExtractor videoExtractor;
+    private MediaExtractor audioExtractor;
+    private MediaCodec decoder;
+    private MediaCodec encoder;
+    private EncoderInputSurface inputSurface;
+    private DecoderOutputSurface outputSurface;
+    private MediaMuxer muxer;
+    private boolean muxerStarted;
+    private long durationUs;
+    private int lastReportedPercent = -1;
+
+    Transcode(String inputPath, File outputFile, @Nullable ProgressListener listener) {
+      this.inputPath = inputPath;
+      this.outputFile = outputFile;
+      this.listener = listener;
+    }
+
+    boolean run(@Nullable Double maxWidth, @Nullable Double maxHeight, @Nullable Integer maxBitrate)
+        throws IOException {
+      try {
+        videoExtractor = new MediaExtractor();
+        videoExtractor.setDataSource(inputPath);
+        int videoTrack = findTrack(videoExtractor, "video/");
+        if (videoTrack < 0) {
+          return false;
+        }
+        MediaFormat inputFormat = videoExtractor.getTrackFormat(videoTrack);
+        int width = inputFormat.getInteger(MediaFormat.KEY_WIDTH);
+        int height = inputFormat.getInteger(MediaFormat.KEY_HEIGHT);
+        int rotation =
+            inputFormat.containsKey(KEY_ROTATION) ? inputFormat.getInteger(KEY_ROTATION) : 0;
+        durationUs =
+            inputFormat.containsKey(MediaFormat.KEY_DURATION)
+                ? inputFormat.getLong(MediaFormat.KEY_DURATION)
+                : 0;
+        int bitrate = estimateBitrate(inputFormat);
+
+        // maxWidth and maxHeight apply to the video as it is displayed.
+        boolean rotated = rotation == 90 || rotation == 270;
+        double displayWidth = rotated ? height : width;
+        double displayHeight = rotated ? width : height;
+        double scale = 1.0;
+        if (maxWidth != null && maxWidth < displayWidth) {
+          scale = Math.min(scale, maxWidth / displayWidth);
+        }
+        if (maxHeight != null && maxHeight < displayHeight) {
+          scale = Math.min(scale, maxHeight / displayHeight);
+        }
+        boolean exceedsBitrate = maxBitrate != null && bitrate > maxBitrate;
+        if (scale >= 1.0 && !exceedsBitrate) {
+          return false;
+        }
+
+        // Most encoders reject odd dimensions.
+        int targetWidth = Math.max(2, ((int) (width * scale)) & ~1);
+        int targetHeight = Math.max(2, ((int) (height * scale)) & ~1);
+        int targetBitrate = (int) (bitrate * scale * scale);
+        if (maxBitrate != null) {
+          targetBitrate = Math.min(targetBitrate, maxBitrate);
+        }
+        int frameRate = readFrameRate(inputFormat);
+
+        MediaFormat outputFormat =
+            MediaFormat.createVideoFormat(OUTPUT_MIME_TYPE, targetWidth, targetHeight);
+        outputFormat.setInteger(
+            MediaFormat.KEY_COLOR_FORMAT,
+            MediaCodecInfo.CodecCapabilities.COLOR_FormatSurface);
+        outputFormat.setInteger(MediaFormat.KEY_BIT_RATE, targetBitrate);
+        outputFormat.setInteger(MediaFormat.KEY_FRAME_RATE, frameRate);
+        outputFormat.setInteger(MediaFormat.KEY_I_FRAME_INTERVAL, I_FRAME_INTERVAL_SECONDS);
+
+        encoder = MediaCodec.createEncoderByType(OUTPUT_MIME_TYPE);
+        encoder.configure(outputFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+        inputSurface = new EncoderInputSurface(encoder.createInputSurface());
+        inputSurface.makeCurrent();
+        encoder.start();
+
+        outputSurface = new DecoderOutputSurface();
+        decoder = MediaCodec.createDecoderByType(inputFormat.getString(MediaFormat.KEY_MIME));
+        // From API 23 the decoder rotates its output by this key. The frames are encoded at the
+        // unrotated size, and the muxer's orientation hint rotates them once on playback.
+        if (inputFormat.containsKey(KEY_ROTATION)) {
+          inputFormat.setInteger(KEY_ROTATION, 0);
+        }
+        decoder.configure(inputFormat, outputSurface.getSurface(), null, 0);
+        decoder.start();
+
+        muxer = new MediaMuxer(outputFile.getPath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+        muxer.setOrientationHint(rotation);
+
+        // All tracks must be added before the muxer starts, which happens once the encoder
+        // reports its output format.
+        int muxerAudioTrack = -1;
+        audioExtractor = new MediaExtractor();
+        audioExtractor.setDataSource(inputPath);
+        int audioTrack = findTrack(audioExtractor, "audio/");
+        if (audioTrack >= 0) {
+          audioExtractor.selectTrack(audioTrack);
+          muxerAudioTrack = muxer.addTrack(audioExtractor.getTrackFormat(audioTrack));
+        }
+
+        videoExtractor.selectTrack(videoTrack);
+        transcodeVideo();
+        if (muxerAudioTrack >= 0) {
+          copyAudio(muxerAudioTrack);
+        }
+        muxer.stop();
+        muxerStarted = false;
+        reportProgress(1.0);
+        return true;
+      } finally {
+        release();
+      }
+    }
+
+    private void transcodeVideo() {
+      ByteBuffer[] decoderInputBuffers = decoder.getInputBuffers();
+      ByteBuffer[] encoderOutputBuffers = encoder.getOutputBuffers();
+      MediaCodec.BufferInfo decoderInfo = new MediaCodec.BufferInfo();
+      MediaCodec.BufferInfo encoderInfo = new MediaCodec.BufferInfo();
+      int muxerVideoTrack = -1;
+      boolean extractorDone = false;
+      boolean decoderDone = false;
+      boolean encoderDone = false;
+
+      while (!encoderDone) {
+        if (!extractorDone) {
+          int inputIndex = decoder.dequeueInputBuffer(TIMEOUT_US);
+          if (inputIndex >= 0) {
+            int size = videoExtractor.readSampleData(decoderInputBuffers[inputIndex], 0);
+            if (size < 0) {
+              decoder.queueInputBuffer(
+                  inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+              extractorDone = true;
+            } else {
+              decoder.queueInputBuffer(
+                  inputIndex,
+                  0,
+                  size,
+                  videoExtractor.getSampleTime(),
+                  videoExtractor.getSampleFlags());
+              videoExtractor.advance();
+            }
+          }
+        }
+
+        boolean encoderOutputAvailable = true;
+        boolean decoderOutputAvailable = !decoderDone;
+        while (encoderOutputAvailable || decoderOutputAvailable) {
+          int encoderIndex = encoder.dequeueOutputBuffer(encoderInfo, TIMEOUT_US);
+          if (encoderIndex == MediaCodec.INFO_TRY_AGAIN_LATER) {
+            encoderOutputAvailable = false;
+          } else if (encoderIndex == MediaCodec.INFO_OUTPUT_BUFFERS_CHANGED) {
+            encoderOutputBuffers = encoder.getOutputBuffers();
+            continue;
+          } else if (encoderIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+            muxerVideoTrack = muxer.addTrack(encoder.getOutputFormat());
+            muxer.start();
+            muxerStarted = true;
+            continue;
+          } else if (encoderIndex >= 0) {
+            ByteBuffer data = encoderOutputBuffers[encoderIndex];
+            if ((encoderInfo.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0) {
+              // The codec config is already part of the output format given to the muxer.
+              encoderInfo.size = 0;
+            }
+            if (encoderInfo.size != 0 && muxerStarted) {
+              data.position(encoderInfo.offset);
+              data.limit(encoderInfo.offset + encoderInfo.size);
+              muxer.writeSampleData(muxerVideoTrack, data, encoderInfo);
+              reportProgress(encoderInfo.presentationTimeUs);
+            }
+            encoder.releaseOutputBuffer(encoderIndex, false);
+            if ((encoderInfo.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+              encoderDone = true;
+              break;
+            }
+            continue;
+          }
+
+          if (!decoderDone) {
+            int decoderIndex = decoder.dequeueOutputBuffer(decoderInfo, TIMEOUT_US);
+            if (decoderIndex == MediaCodec.INFO_TRY_AGAIN_LATER) {
+              decoderOutputAvailable = false;
+            } else if (decoderIndex >= 0) {
+              boolean render = decoderInfo.size != 0;
+              decoder.releaseOutputBuffer(decoderIndex, render);
+              if (render) {
+                outputSurface.awaitNewImage();
+                outputSurface.drawImage();
+                inputSurface.setPresentationTime(decoderInfo.presentationTimeUs * 1000);
+                inputSurface.swapBuffers();
+              }
+              if ((decoderInfo.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                encoder.signalEndOfInputStream();
+                decoderDone = true;
+                decoderOutputAvailable = false;
+              }
+            }
+          } else {
+            decoderOutputAvailable = false;
+          }
+        }
+      }
+    }
+
+    @SuppressWarnings("deprecation")
+    private void copyAudio(int muxerAudioTrack) {
+      ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+      MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+      while (true) {
+        int size = audioExtractor.readSampleData(buffer, 0);
+        if (size < 0) {
+          break;
+        }
+        int flags =
+            (audioExtractor.getSampleFlags() & MediaExtractor.SAMPLE_FLAG_SYNC) != 0
+                ? MediaCodec.BUFFER_FLAG_SYNC_FRAME
+                : 0;
+        info.set(0, size, audioExtractor.getSampleTime(), flags);
+        muxer.writeSampleData(muxerAudioTrack, buffer, info);
+        audioExtractor.advance();
+      }
+    }
+
+    private void reportProgress(long presentationTimeUs) {
+      if (durationUs > 0) {
+        reportProgress(Math.min(1.0, (double) presentationTimeUs / durationUs));
+      }
+    }
+
+    private void reportProgress(double progress) {
+      int percent = (int) (progress * 100);
+      if (listener == null || percent == lastReportedPercent) {
+        return;
+      }
+      lastReportedPercent = percent;
+      listener.onProgress(progress);
+    }
+
+    // Containers store the frame rate as an integer or a float.
+    private static int readFrameRate(MediaFormat format) {
+      if (!format.containsKey(MediaFormat.KEY_FRAME_RATE)) {
+        return DEFAULT_FRAME_RATE;
+      }
+      int frameRate;
+      try {
+        frameRate = format.getInteger(MediaFormat.KEY_FRAME_RATE);
+      } catch (ClassCastException e) {
+        try {
+          frameRate = Math.round(format.getFloat(MediaFormat.KEY_FRAME_RATE));
+        } catch (ClassCastException ignored) {
+          return DEFAULT_FRAME_RATE;
+        }
+      }
+      return frameRate > 0 ? frameRate : DEFAULT_FRAME_RATE;
+    }
+
+    private int estimateBitrate(MediaFormat format) {
+      if (format.containsKey(MediaFormat.KEY_BIT_RATE)) {
+        return format.getInteger(MediaFormat.KEY_BIT_RATE);
+      }
+      if (durationUs > 0) {
+        return (int) (new File(inputPath).length() * 8 * 1000000L / durationUs);
+      }
+      return Integer.MAX_VALUE;
+    }
+
+    private void release() {
+      if (videoExtractor != null) {
+        videoExtractor.release();
+      }
+      if (audioExtractor != null) {
+        audioExtractor.release();
+      }
+      if (decoder != null) {
+        try {
+          decoder.stop();
+        } catch (IllegalStateException ignored) {
+        }
+        decoder.release();
+      }
+      if (outputSurface != null) {
+        outputSurface.release();
+      }
+      if (encoder != null) {
+        try {
+          encoder.stop();
+        } catch (IllegalStateException ignored) {
+        }
+        encoder.release();
+      }
+      if (inputSurface != null) {
+        inputSurface.release();
+      }
+      if (muxer != null) {
+        if (muxerStarted) {
+          try {
+            muxer.stop();
+          } catch (IllegalStateException ignored) {
+          }
+        }
+        muxer.release();
+      }
+    }
+
+    private static int findTrack(MediaExtractor extractor, String mimePrefix) {
+      for (int i = 0; i < extractor.getTrackCount(); i++) {
+        String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+        if (mime != null && mime.startsWith(mimePrefix)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  /** Wraps the encoder's input {@link Surface} in an EGL window surface that can be drawn to. */
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+  private static class EncoderInputSurface {
+    private static final int EGL_RECORDABLE_ANDROID = 0x3142;
+
+    private final Surface surface;
+    private EGLDisplay eglDisplay;
+    private EGLContext eglContext;
+    private EGLSurface eglSurface;
+
+    EncoderInputSurface(Surface surface) {
+      this.surface = surface;
+      eglDisplay = EGL14.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+      int[] version = new int[2];
+      if (!EGL14.eglInitialize(eglDisplay, version, 0, version, 1)) {
+        throw new RuntimeException("Unable to initialize EGL14");
+      }
+      int[] configAttributes = {
+        EGL14.EGL_RED_SIZE, 8,
+        EGL14.EGL_GREEN_SIZE, 8,
+        EGL14.EGL_BLUE_SIZE, 8,
+        EGL14.EGL_RENDERABLE_TYPE, EGL14.EGL_OPENGL_ES2_BIT,
+        EGL_RECORDABLE_ANDROID, 1,
+        EGL14.EGL_NONE
+      };
+      EGLConfig[] configs = new EGLConfig[1];
+      int[] configCount = new int[1];
+      if (!EGL14.eglChooseConfig(
+              eglDisplay, configAttributes, 0, configs, 0, configs.length, configCount, 0)
+          || configCount[0] == 0) {
+        throw new RuntimeException("Unable to find a recordable EGL config");
+      }
+      int[] contextAttributes = {EGL14.EGL_CONTEXT_CLIENT_VERSION, 2, EGL14.EGL_NONE};
+      eglContext =
+          EGL14.eglCreateContext(
+              eglDisplay, configs[0], EGL14.EGL_NO_CONTEXT, contextAttributes, 0);
+      eglSurface =
+          EGL14.eglCreateWindowSurface(
+              eglDisplay, configs[0], surface, new int[] {EGL14.EGL_NONE}, 0);
+      if (eglContext == null || eglSurface == null) {
+        throw new RuntimeException("Unable to create the EGL surface for the encoder");
+      }
+    }
+
+    void makeCurrent() {
+      if (!EGL14.eglMakeCurrent(eglDisplay, eglSurface, eglSurface, eglContext)) {
+        throw new RuntimeException("eglMakeCurrent failed");
+      }
+    }
+
+    void setPresentationTime(long nanoseconds) {
+      EGLExt.eglPresentationTimeANDROID(eglDisplay, eglSurface, nanoseconds);
+    }
+
+    void swapBuffers() {
+      EGL14.eglSwapBuffers(eglDisplay, eglSurface);
+    }
+
+    void release() {
+      if (eglDisplay != EGL14.EGL_NO_DISPLAY) {
+        EGL14.eglMakeCurrent(
+            eglDisplay, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_CONTEXT);
+        EGL14.eglDestroySurface(eglDisplay, eglSurface);
+        EGL14.eglDestroyContext(eglDisplay, eglContext);
+        EGL14.eglReleaseThread();
+        EGL14.eglTerminate(eglDisplay);
+      }
+      surface.release();
+      eglDisplay = EGL14.EGL_NO_DISPLAY;
+      eglContext = EGL14.EGL_NO_CONTEXT;
+      eglSurface = EGL14.EGL_NO_SURFACE;
+    }
+  }
+
+  /**
+   * Receives decoded frames in a {@link SurfaceTexture} and draws them into the current EGL
+   * surface, scaling them to its size.
+   */
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+  private static class DecoderOutputSurface implements SurfaceTexture.OnFrameAvailableListener {
+    private static final long FRAME_TIMEOUT_MS = 2500;
+
+    private static final String VERTEX_SHADER =
+        "uniform mat4 uSTMatrix;\n"
+            + "attribute vec4 aPosition;\n"
+            + "attribute vec4 aTextureCoord;\n"
+            + "varying vec2 vTextureCoord;\n"
+            + "void main() {\n"
+            + "  gl_Position = aPosition;\n"
+            + "  vTextureCoord = (uSTMatrix * aTextureCoord).xy;\n"
+            + "}\n";
+
+    private static final String FRAGMENT_SHADER =
+        "#extension GL_OES_EGL_image_external : require\n"
+            + "precision mediump float;\n"
+            + "varying vec2 vTextureCoord;\n"
+            + "uniform samplerExternalOES sTexture;\n"
+            + "void main() {\n"
+            + "  gl_FragColor = texture2D(sTexture, vTextureCoord);\n"
+            + "}\n";
+
+    // A full-screen quad as a triangle strip of (x, y, u, v) vertices.
+    private static final float[] QUAD = {
+      -1f, -1f, 0f, 0f,
+      1f, -1f, 1f, 0f,
+      -1f, 1f, 0f, 1f,
+      1f, 1f, 1f, 1f,
+    };
+    private static final int FLOAT_SIZE_BYTES = 4;
+    private static final int VERTEX_STRIDE_BYTES = 4 * FLOAT_SIZE_BYTES;
+
+    private final Object frameLock = new Object();
+    private final float[] textureMatrix = new float[16];
+    private final FloatBuffer quad;
+    private final int program;
+    private final int textureId;
+    private final int positionHandle;
+    private final int textureCoordHandle;
+    private final int textureMatrixHandle;
+    private final SurfaceTexture surfaceTexture;
+    private final Surface surface;
+    private boolean frameAvailable;
+
+    DecoderOutputSurface() {
+      quad =
+          ByteBuffer.allocateDirect(QUAD.length * FLOAT_SIZE_BYTES)
+              .order(ByteOrder.nativeOrder())
+              .asFloatBuffer();
+      quad.put(QUAD).position(0);
+
+      program = createProgram();
+      positionHandle = GLES20.glGetAttribLocation(program, "aPosition");
+      textureCoordHandle = GLES20.glGetAttribLocation(program, "aTextureCoord");
+      textureMatrixHandle = GLES20.glGetUniformLocation(program, "uSTMatrix");
+
+      int[] textures = new int[1];
+      GLES20.glGenTextures(1, textures, 0);
+      textureId = textures[0];
+      GLES20.glBindTexture(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, textureId);
+      GLES20.glTexParameteri(
+          GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+      GLES20.glTexParameteri(
+          GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+      GLES20.glTexParameteri(
+          GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+      GLES20.glTexParameteri(
+          GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+
+      // The transcode thread has no Looper, so frame callbacks arrive on the main thread.
+      surfaceTexture = new SurfaceTexture(textureId);
+      surfaceTexture.setOnFrameAvailableListener(this);
+      surface = new Surface(surfaceTexture);
+    }
+
+    Surface getSurface() {
+      return surface;
+    }
+
+    @Override
+    public void onFrameAvailable(SurfaceTexture st) {
+      synchronized (frameLock) {
+        frameAvailable = true;
+        frameLock.notifyAll();
+      }
+    }
+
+    void awaitNewImage() {
+      synchronized (frameLock) {
+        long deadline = System.currentTimeMillis() + FRAME_TIMEOUT_MS;
+        while (!frameAvailable) {
+          long remaining = deadline - System.currentTimeMillis();
+          if (remaining <= 0) {
+            throw new RuntimeException("Timed out waiting for a decoded frame");
+          }
+          try {
+            frameLock.wait(remaining);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+          }
+        }
+        frameAvailable = false;
+      }
+      surfaceTexture.updateTexImage();
+    }
+
+    void drawImage() {
+      surfaceTexture.getTransformMatrix(textureMatrix);
+      GLES20.glUseProgram(program);
+      GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+      GLES20.glBindTexture(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, textureId);
+
+      quad.position(0);
+      GLES20.glVertexAttribPointer(
+          positionHandle, 2, GLES20.GL_FLOAT, false, VERTEX_STRIDE_BYTES, quad);
+      GLES20.glEnableVertexAttribArray(positionHandle);
+      quad.position(2);
+      GLES20.glVertexAttribPointer(
+          textureCoordHandle, 2, GLES20.GL_FLOAT, false, VERTEX_STRIDE_BYTES, quad);
+      GLES20.glEnableVertexAttribArray(textureCoordHandle);
+
+      GLES20.glUniformMatrix4fv(textureMatrixHandle, 1, false, textureMatrix, 0);
+      GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, 4);
+      GLES20.glFinish();
+    }
+
+    void release() {
+      surface.release();
+      surfaceTexture.release();
+      GLES20.glDeleteProgram(program);
+      GLES20.glDeleteTextures(1, new int[] {textureId}, 0);
+    }
+
+    private static int createProgram() {
+      int vertexShader = loadShader(GLES20.GL_VERTEX_SHADER, VERTEX_SHADER);
+      int fragmentShader = loadShader(GLES20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+      int program = GLES20.glCreateProgram();
+      GLES20.glAttachShader(program, vertexShader);
+      GLES20.glAttachShader(program, fragmentShader);
+      GLES20.glLinkProgram(program);
+      int[] linkStatus = new int[1];
+      GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, linkStatus, 0);
+      GLES20.glDeleteShader(vertexShader);
+      GLES20.glDeleteShader(fragmentShader);
+      if (linkStatus[0] != GLES20.GL_TRUE) {
+        String log = GLES20.glGetProgramInfoLog(program);
+        GLES20.glDeleteProgram(program);
+        throw new RuntimeException("Could not link program: " + log);
+      }
+      return program;
+    }
+
+    private static int loadShader(int type, String source) {
+      int shader = GLES20.glCreateShader(type);
+      GLES20.glShaderSource(shader, source);
+      GLES20.glCompileShader(shader);
+      int[] compiled = new int[1];
+      GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compiled, 0);
+      if (compiled[0] == 0) {
+        String log = GLES20.glGetShaderInfoLog(shader);
+        GLES20.glDeleteShader(shader);
+        throw new RuntimeException("Could not compile shader " + type + ": " + log);
+      }
+      return shader;
+    }
+  }
+}
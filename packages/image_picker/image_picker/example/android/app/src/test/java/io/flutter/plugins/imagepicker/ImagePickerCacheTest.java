@@ -5,111 +5,140 @@
 package io.flutter.plugins.imagepicker;
 
 import static io.flutter.plugins.imagepicker.ImagePickerCache.MAP_KEY_IMAGE_QUALITY;
-import static io.flutter.plugins.imagepicker.ImagePickerCache.SHARED_PREFERENCES_NAME;
+import static io.flutter.plugins.imagepicker.ImagePickerCache.MAP_KEY_MAX_WIDTH;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.junit.Assert.assertTrue;
 
-import android.app.Activity;
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.content.pm.PackageManager;
+import androidx.test.core.app.ApplicationProvider;
 import io.flutter.plugin.common.MethodCall;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
 
+@RunWith(RobolectricTestRunner.class)
 public class ImagePickerCacheTest {
   private static final int IMAGE_QUALITY = 90;
 
-  @Mock Activity mockActivity;
-  @Mock SharedPreferences mockPreference;
-  @Mock SharedPreferences.Editor mockEditor;
-  @Mock MethodCall mockMethodCall;
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
-  static Map<String, Object> preferenceStorage;
+  File cacheFile;
 
   @Before
-  public void setUp() {
-    MockitoAnnotations.initMocks(this);
-
-    preferenceStorage = new HashMap();
-    when(mockActivity.getPackageName()).thenReturn("com.example.test");
-    when(mockActivity.getPackageManager()).thenReturn(mock(PackageManager.class));
-    when(mockActivity.getSharedPreferences(SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE))
-        .thenReturn(mockPreference);
-    when(mockPreference.edit()).thenReturn(mockEditor);
-    when(mockEditor.putInt(any(String.class), any(int.class)))
-        .then(
-            i -> {
-              preferenceStorage.put(i.getArgument(0), i.getArgument(1));
-              return mockEditor;
-            });
-    when(mockEditor.putLong(any(String.class), any(long.class)))
-        .then(
-            i -> {
-              preferenceStorage.put(i.getArgument(0), i.getArgument(1));
-              return mockEditor;
-            });
-    when(mockEditor.putString(any(String.class), any(String.class)))
-        .then(
-            i -> {
-              preferenceStorage.put(i.getArgument(0), i.getArgument(1));
-              return mockEditor;
-            });
-
-    when(mockPreference.getInt(any(String.class), any(int.class)))
-        .then(
-            i -> {
-              int result =
-                  (int)
-                      ((preferenceStorage.get(i.getArgument(0)) != null)
-                          ? preferenceStorage.get(i.getArgument(0))
-                          : i.getArgument(1));
-              return result;
-            });
-    when(mockPreference.getLong(any(String.class), any(long.class)))
-        .then(
-            i -> {
-              long result =
-                  (long)
-                      ((preferenceStorage.get(i.getArgument(0)) != null)
-                          ? preferenceStorage.get(i.getArgument(0))
-                          : i.getArgument(1));
-              return result;
-            });
-    when(mockPreference.getString(any(String.class), any(String.class)))
-        .then(
-            i -> {
-              String result =
-                  (String)
-                      ((preferenceStorage.get(i.getArgument(0)) != null)
-                          ? preferenceStorage.get(i.getArgument(0))
-                          : i.getArgument(1));
-              return result;
-            });
-
-    when(mockPreference.contains(any(String.class))).thenReturn(true);
+  public void setUp() throws IOException {
+    cacheFile = new File(temporaryFolder.newFolder(), ImagePickerCache.CACHE_FILE_NAME);
   }
 
   @Test
   public void ImageCache_ShouldBeAbleToSetAndGetQuality() {
-    when(mockMethodCall.argument(MAP_KEY_IMAGE_QUALITY)).thenReturn(IMAGE_QUALITY);
-    ImagePickerCache cache = new ImagePickerCache(mockActivity);
-    cache.saveDimensionWithMethodCall(mockMethodCall);
+    ImagePickerCache cache = new ImagePickerCache(cacheFile);
+    cache.saveStateBeforeResult(pickImageCall(MAP_KEY_IMAGE_QUALITY, IMAGE_QUALITY), null);
+    cache.saveResult("path", null, null);
     Map<String, Object> resultMap = cache.getCacheMap();
     int imageQuality = (int) resultMap.get(cache.MAP_KEY_IMAGE_QUALITY);
     assertThat(imageQuality, equalTo(IMAGE_QUALITY));
 
-    when(mockMethodCall.argument(MAP_KEY_IMAGE_QUALITY)).thenReturn(null);
-    cache.saveDimensionWithMethodCall(mockMethodCall);
+    cache.saveStateBeforeResult(pickImageCall(MAP_KEY_IMAGE_QUALITY, null), null);
     Map<String, Object> resultMapWithDefaultQuality = cache.getCacheMap();
     int defaultImageQuality = (int) resultMapWithDefaultQuality.get(cache.MAP_KEY_IMAGE_QUALITY);
     assertThat(defaultImageQuality, equalTo(100));
   }
+
+  @Test
+  public void ImageCache_ShouldRestoreStateFromFile() {
+    ImagePickerCache cache = new ImagePickerCache(cacheFile);
+    cache.saveStateBeforeResult(pickImageCall(MAP_KEY_MAX_WIDTH, 10.0), null);
+    cache.saveResult("path", null, null);
+
+    Map<String, Object> resultMap = new ImagePickerCache(cacheFile).getCacheMap();
+
+    assertThat(resultMap.get(ImagePickerCache.MAP_KEY_PATH), equalTo("path"));
+    assertThat(resultMap.get(MAP_KEY_MAX_WIDTH), equalTo(10.0));
+    assertThat(resultMap.get("type"), equalTo("image"));
+  }
+
+  @Test
+  public void ImageCache_ShouldReturnAllPathsOfMultiImageResult() {
+    List<String> paths = Arrays.asList("path1", "path2");
+    ImagePickerCache cache = new ImagePickerCache(cacheFile);
+    cache.saveResult(paths, null, null);
+
+    Map<String, Object> resultMap = new ImagePickerCache(cacheFile).getCacheMap();
+
+    assertThat(resultMap.get(ImagePickerCache.MAP_KEY_PATH), equalTo("path1"));
+    assertThat(resultMap.get(ImagePickerCache.MAP_KEY_PATH_LIST), equalTo(paths));
+  }
+
+  @Test
+  public void ImageCache_ShouldReturnPathListOfSingleImageMultiImageResult() {
+    List<String> paths = Arrays.asList("path1");
+    ImagePickerCache cache = new ImagePickerCache(cacheFile);
+    cache.saveResult(paths, null, null);
+
+    Map<String, Object> resultMap = new ImagePickerCache(cacheFile).getCacheMap();
+
+    assertThat(resultMap.get(ImagePickerCache.MAP_KEY_PATH_LIST), equalTo(paths));
+  }
+
+  @Test
+  public void ImageCache_ShouldNotReturnPathListOfSingleImageResult() {
+    ImagePickerCache cache = new ImagePickerCache(cacheFile);
+    cache.saveResult("path", null, null);
+
+    Map<String, Object> resultMap = new ImagePickerCache(cacheFile).getCacheMap();
+
+    assertFalse(resultMap.containsKey(ImagePickerCache.MAP_KEY_PATH_LIST));
+  }
+
+  @Test
+  public void ImageCache_ShouldMigrateAndDeleteLegacyPreferences() {
+    Context context = ApplicationProvider.getApplicationContext();
+    legacyPreferences(context)
+        .edit()
+        .putString("flutter_image_picker_image_path", "legacyPath")
+        .putString("flutter_image_picker_type", "image")
+        .putLong("flutter_image_picker_max_width", Double.doubleToRawLongBits(10.0))
+        .commit();
+
+    Map<String, Object> resultMap = new ImagePickerCache(context).getCacheMap();
+
+    assertThat(resultMap.get(ImagePickerCache.MAP_KEY_PATH), equalTo("legacyPath"));
+    assertThat(resultMap.get(MAP_KEY_MAX_WIDTH), equalTo(10.0));
+    assertTrue(legacyPreferences(context).getAll().isEmpty());
+    assertThat(
+        new ImagePickerCache(context).getCacheMap().get(ImagePickerCache.MAP_KEY_PATH),
+        equalTo("legacyPath"));
+  }
+
+  @Test
+  public void ImageCache_Clear_ShouldRemoveState() {
+    ImagePickerCache cache = new ImagePickerCache(cacheFile);
+    cache.saveResult("path", null, null);
+    cache.clear();
+
+    assertTrue(new ImagePickerCache(cacheFile).getCacheMap().isEmpty());
+  }
+
+  private static SharedPreferences legacyPreferences(Context context) {
+    return context.getSharedPreferences(
+        ImagePickerCache.LEGACY_SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE);
+  }
+
+  private static MethodCall pickImageCall(String key, Object value) {
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put(key, value);
+    return new MethodCall(ImagePickerPlugin.METHOD_CALL_IMAGE, arguments);
+  }
 }
@@ -7,10 +7,12 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import android.Manifest;
 import android.app.Activity;
+import android.content.ClipData;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
@@ -18,6 +20,8 @@ import android.net.Uri;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -31,6 +35,7 @@ public class ImagePickerDelegateTest {
 
   @Mock Activity mockActivity;
   @Mock ImageResizer mockImageResizer;
+  @Mock VideoTranscoder mockVideoTranscoder;
   @Mock MethodCall mockMethodCall;
   @Mock MethodChannel.Result mockResult;
   @Mock ImagePickerDelegate.PermissionManager mockPermissionManager;
@@ -40,6 +45,7 @@ public class ImagePickerDelegateTest {
   @Mock ImagePickerCache cache;
 
   ImagePickerDelegate.FileUriResolver mockFileUriResolver;
+  Executor directExecutor = Runnable::run;
 
   private static class MockFileUriResolver implements ImagePickerDelegate.FileUriResolver {
     @Override
@@ -63,17 +69,24 @@ public class ImagePickerDelegateTest {
     when(mockFileUtils.getPathFromUri(any(Context.class), any(Uri.class)))
         .thenReturn("pathFromUri");
 
-    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, null, null))
+    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, null, null, null))
         .thenReturn("originalPath");
-    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, null, IMAGE_QUALITY))
+    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, null, IMAGE_QUALITY, null))
         .thenReturn("originalPath");
-    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", WIDTH, HEIGHT, null))
+    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", WIDTH, HEIGHT, null, null))
         .thenReturn("scaledPath");
-    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", WIDTH, null, null))
+    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", WIDTH, null, null, null))
         .thenReturn("scaledPath");
-    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, HEIGHT, null))
+    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, HEIGHT, null, null))
         .thenReturn("scaledPath");
 
+    when(mockVideoTranscoder.transcodeVideoIfNeeded(
+            eq("pathFromUri"), any(), any(), any(), any()))
+        .thenReturn("pathFromUri");
+    when(mockVideoTranscoder.transcodeVideoIfNeeded(
+            eq("pathFromUri"), eq(WIDTH), any(), any(), any()))
+        .thenReturn("transcodedPath");
+
     mockFileUriResolver = new MockFileUriResolver();
 
     Uri mockUri = mock(Uri.class);
@@ -124,6 +137,31 @@ public class ImagePickerDelegateTest {
             any(Intent.class), eq(ImagePickerDelegate.REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY));
   }
 
+  @Test
+  public void chooseMultiImageFromGallery_WhenPendingResultExists_FinishesWithAlreadyActiveError() {
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+
+    delegate.chooseMultiImageFromGallery(mockMethodCall, mockResult);
+
+    verifyFinishedWithAlreadyActiveError();
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void
+      chooseMultiImageFromGallery_WhenHasExternalStoragePermission_LaunchesChooseFromGalleryIntent() {
+    when(mockPermissionManager.isPermissionGranted(Manifest.permission.READ_EXTERNAL_STORAGE))
+        .thenReturn(true);
+
+    ImagePickerDelegate delegate = createDelegate();
+    delegate.chooseMultiImageFromGallery(mockMethodCall, mockResult);
+
+    verify(mockActivity)
+        .startActivityForResult(
+            any(Intent.class),
+            eq(ImagePickerDelegate.REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY));
+  }
+
   @Test
   public void takeImageWithCamera_WhenPendingResultExists_FinishesWithAlreadyActiveError() {
     ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
@@ -313,17 +351,52 @@ public class ImagePickerDelegateTest {
     verifyNoMoreInteractions(mockResult);
   }
 
+  @Test
+  public void onActivityResult_WhenMultipleImagesPickedFromGallery_FinishesWithAllPaths() {
+    ClipData mockClipData = mock(ClipData.class);
+    ClipData.Item mockItem = mock(ClipData.Item.class);
+    when(mockItem.getUri()).thenReturn(mock(Uri.class));
+    when(mockClipData.getItemCount()).thenReturn(2);
+    when(mockClipData.getItemAt(any(int.class))).thenReturn(mockItem);
+    when(mockIntent.getClipData()).thenReturn(mockClipData);
+    ImagePickerDelegate.MultiImageListener mockListener =
+        mock(ImagePickerDelegate.MultiImageListener.class);
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.setMultiImageListener(mockListener);
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY,
+        Activity.RESULT_OK,
+        mockIntent);
+
+    verify(mockListener).onImageReady(0, 2, "originalPath");
+    verify(mockListener).onImageReady(1, 2, "originalPath");
+    verify(mockResult).success(Arrays.asList("originalPath", "originalPath"));
+    verifyNoMoreInteractions(mockResult);
+  }
+
   @Test
   public void
-      onActivityResult_WhenVideoPickedFromGallery_AndResizeParametersSupplied_FinishesWithFilePath() {
+      onActivityResult_WhenVideoPickedFromGallery_AndResizeParametersSupplied_FinishesWithTranscodedPath() {
     when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
 
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_VIDEO_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    verify(mockResult).success("transcodedPath");
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void onActivityResult_WhenVideoPickedFromGallery_AndNoResizeNeeded_DoesNotTranscode() {
     ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
     delegate.onActivityResult(
         ImagePickerDelegate.REQUEST_CODE_CHOOSE_VIDEO_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
 
     verify(mockResult).success("pathFromUri");
     verifyNoMoreInteractions(mockResult);
+    verifyZeroInteractions(mockVideoTranscoder);
   }
 
   @Test
@@ -363,14 +436,14 @@ public class ImagePickerDelegateTest {
 
   @Test
   public void
-      onActivityResult_WhenVideoTakenWithCamera_AndResizeParametersSupplied_FinishesWithFilePath() {
+      onActivityResult_WhenVideoTakenWithCamera_AndResizeParametersSupplied_FinishesWithTranscodedPath() {
     when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
 
     ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
     delegate.onActivityResult(
         ImagePickerDelegate.REQUEST_CODE_TAKE_VIDEO_WITH_CAMERA, Activity.RESULT_OK, mockIntent);
 
-    verify(mockResult).success("pathFromUri");
+    verify(mockResult).success("transcodedPath");
     verifyNoMoreInteractions(mockResult);
   }
 
@@ -392,13 +465,15 @@ public class ImagePickerDelegateTest {
         mockActivity,
         null,
         mockImageResizer,
+        mockVideoTranscoder,
         null,
         null,
         cache,
         mockPermissionManager,
         mockIntentResolver,
         mockFileUriResolver,
-        mockFileUtils);
+        mockFileUtils,
+        directExecutor);
   }
 
   private ImagePickerDelegate createDelegateWithPendingResultAndMethodCall() {
@@ -406,13 +481,15 @@ public class ImagePickerDelegateTest {
         mockActivity,
         null,
         mockImageResizer,
+        mockVideoTranscoder,
         mockResult,
         mockMethodCall,
         cache,
         mockPermissionManager,
         mockIntentResolver,
         mockFileUriResolver,
-        mockFileUtils);
+        mockFileUtils,
+        directExecutor);
   }
 
   private void verifyFinishedWithAlreadyActiveError() {
@@ -25,6 +25,7 @@ public class ImagePickerPluginTest {
   private static final int SOURCE_GALLERY = 1;
   private static final String PICK_IMAGE = "pickImage";
   private static final String PICK_VIDEO = "pickVideo";
+  private static final String PICK_MULTI_IMAGE = "pickMultiImage";
 
   @Rule public ExpectedException exception = ExpectedException.none();
 
@@ -92,6 +93,14 @@ public class ImagePickerPluginTest {
     verifyZeroInteractions(mockResult);
   }
 
+  @Test
+  public void onMethodCall_WhenPickingMultiImage_InvokesChooseMultiImageFromGallery() {
+    MethodCall call = buildMethodCall(PICK_MULTI_IMAGE, SOURCE_GALLERY);
+    plugin.onMethodCall(call, mockResult);
+    verify(mockImagePickerDelegate).chooseMultiImageFromGallery(eq(call), any());
+    verifyZeroInteractions(mockResult);
+  }
+
   @Test
   public void onMethodCall_PickingImage_WhenSourceIsCamera_InvokesTakeImageWithCamera_RearCamera() {
     MethodCall call = buildMethodCall(PICK_IMAGE, SOURCE_CAMERA);
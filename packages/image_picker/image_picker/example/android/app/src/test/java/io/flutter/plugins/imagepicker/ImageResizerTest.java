@@ -63,6 +63,25 @@ public class ImageResizerTest {
     assertThat(outoutFile, equalTo(externalDirectory.getPath() + "/scaled_pngImage.png"));
   }
 
+  @Test
+  public void onResizeImageIfNeeded_WhenOutputFormatIsWebp_ReturnResizedFileWithWebpExtension() {
+    String outoutFile =
+        resizer.resizeImageIfNeeded(imageFile.getPath(), null, null, null, "webp");
+    assertThat(outoutFile, equalTo(externalDirectory.getPath() + "/scaled_pngImage.webp"));
+  }
+
+  @Test
+  public void onResizeImageIfNeeded_WhenOutputFormatIsJpeg_ReturnResizedFileWithJpgExtension() {
+    String outoutFile = resizer.resizeImageIfNeeded(imageFile.getPath(), 50.0, null, 80, "jpeg");
+    assertThat(outoutFile, equalTo(externalDirectory.getPath() + "/scaled_pngImage.jpg"));
+  }
+
+  @Test
+  public void onResizeImageIfNeeded_WhenOutputFormatIsUnknown_IgnoresIt() {
+    String outoutFile = resizer.resizeImageIfNeeded(imageFile.getPath(), null, null, null, "bmp");
+    assertThat(outoutFile, equalTo(imageFile.getPath()));
+  }
+
   @Test
   public void onResizeImageIfNeeded_WhenParentDirectoryDoesNotExists_ShouldNotCrash() {
     File nonExistentDirectory = new File(externalDirectory, "/nonExistent");
@@ -0,0 +1,139 @@
+// Copyright 2019 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PickedFileCacheTest {
+  private static final String URI = "content://media/external/images/media/1";
+  private static final String OTHER_URI = "content://media/external/images/media/2";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private PickedFileCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    cache = new PickedFileCache(temporaryFolder.newFolder("cache"), 10);
+  }
+
+  @Test
+  public void get_WhenEntryWasPut_CopiesCachedFile() throws IOException {
+    File firstPick = temporaryFolder.newFile();
+    File secondPick = temporaryFolder.newFile();
+    assertTrue(cache.put(writeTempFile(4), URI, 4, 1000, ".jpg", firstPick));
+
+    assertTrue(cache.get(URI, 4, 1000, ".jpg", secondPick));
+
+    assertArrayEquals(content(4), read(secondPick));
+    assertArrayEquals(content(4), read(firstPick));
+  }
+
+  @Test
+  public void get_WhenContentWasModified_ReturnsFalse() throws IOException {
+    cache.put(writeTempFile(4), URI, 4, 1000, ".jpg", temporaryFolder.newFile());
+
+    assertFalse(cache.get(URI, 4, 2000, ".jpg", temporaryFolder.newFile()));
+    assertFalse(cache.get(URI, 5, 1000, ".jpg", temporaryFolder.newFile()));
+  }
+
+  @Test
+  public void get_WhenThePickedFileWasEditedOrDeleted_CopiesTheOriginalContent()
+      throws IOException {
+    File firstPick = temporaryFolder.newFile();
+    cache.put(writeTempFile(4), URI, 4, 1000, ".jpg", firstPick);
+    FileOutputStream outputStream = new FileOutputStream(firstPick);
+    outputStream.write(new byte[] {9, 9});
+    outputStream.close();
+    File secondPick = temporaryFolder.newFile();
+    File thirdPick = temporaryFolder.newFile();
+
+    assertTrue(cache.get(URI, 4, 1000, ".jpg", secondPick));
+    assertTrue(secondPick.delete());
+    assertTrue(cache.get(URI, 4, 1000, ".jpg", thirdPick));
+
+    assertArrayEquals(content(4), read(thirdPick));
+  }
+
+  @Test
+  public void put_WhenCacheExceedsLimit_EvictsLeastRecentlyUsedEntry() throws IOException {
+    cache.put(writeTempFile(6), URI, 6, 1000, ".jpg", temporaryFolder.newFile());
+    File first = cache.fileFor(URI, 6, 1000, ".jpg");
+    first.setLastModified(first.lastModified() - 10000);
+
+    cache.put(writeTempFile(6), OTHER_URI, 6, 1000, ".jpg", temporaryFolder.newFile());
+
+    assertFalse(first.exists());
+    assertFalse(cache.get(URI, 6, 1000, ".jpg", temporaryFolder.newFile()));
+    assertTrue(cache.get(OTHER_URI, 6, 1000, ".jpg", temporaryFolder.newFile()));
+  }
+
+  @Test
+  public void put_WhenEvictingAnEntry_KeepsTheFilesAlreadyPicked() throws IOException {
+    File firstPick = temporaryFolder.newFile();
+    cache.put(writeTempFile(6), URI, 6, 1000, ".jpg", firstPick);
+    File first = cache.fileFor(URI, 6, 1000, ".jpg");
+    first.setLastModified(first.lastModified() - 10000);
+
+    cache.put(writeTempFile(6), OTHER_URI, 6, 1000, ".jpg", temporaryFolder.newFile());
+
+    assertFalse(first.exists());
+    assertArrayEquals(content(6), read(firstPick));
+  }
+
+  @Test
+  public void put_WhenLengthDiffersFromSize_ReturnsFalse() throws IOException {
+    File tempFile = writeTempFile(3);
+
+    assertFalse(cache.put(tempFile, URI, 4, 1000, ".jpg", temporaryFolder.newFile()));
+    assertFalse(tempFile.exists());
+    assertFalse(cache.get(URI, 4, 1000, ".jpg", temporaryFolder.newFile()));
+  }
+
+  private File writeTempFile(int length) throws IOException {
+    File file = cache.createTempFile(".jpg");
+    FileOutputStream outputStream = new FileOutputStream(file);
+    outputStream.write(content(length));
+    outputStream.close();
+    return file;
+  }
+
+  private static byte[] content(int length) {
+    byte[] content = new byte[length];
+    for (int i = 0; i < length; i++) {
+      content[i] = (byte) (i + 1);
+    }
+    return content;
+  }
+
+  private static byte[] read(File file) throws IOException {
+    byte[] content = new byte[(int) file.length()];
+    FileInputStream inputStream = new FileInputStream(file);
+    try {
+      int offset = 0;
+      while (offset < content.length) {
+        int read = inputStream.read(content, offset, content.length - offset);
+        if (read < 0) {
+          break;
+        }
+        offset += read;
+      }
+    } finally {
+      inputStream.close();
+    }
+    return content;
+  }
+}
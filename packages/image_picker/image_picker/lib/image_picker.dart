@@ -19,6 +19,8 @@ export 'package:image_picker_platform_interface/image_picker_platform_interface.
         CameraDevice,
         LostData,
         LostDataResponse,
+        MultiImageCallback,
+        VideoProgressCallback,
         PickedFile,
         RetrieveType;
 
@@ -112,6 +114,56 @@ class ImagePicker {
     );
   }
 
+  /// Returns a [PickedFile] object wrapping the image that was picked, re-encoded to [outputFormat].
+  ///
+  /// The other arguments behave as in [getImage]. The image is always re-encoded, even when it doesn't need
+  /// to be resized. HEIF needs Android 9 or later and a HEVC encoder, other devices save the image as JPEG.
+  ///
+  /// Only Android re-encodes the image. Other platforms return it as [getImage] does.
+  Future<PickedFile> getImageWithFormat({
+    @required ImageSource source,
+    @required ImageOutputFormat outputFormat,
+    double maxWidth,
+    double maxHeight,
+    int imageQuality,
+    CameraDevice preferredCameraDevice = CameraDevice.rear,
+  }) {
+    return platform.pickImageWithFormat(
+      source: source,
+      outputFormat: outputFormat,
+      maxWidth: maxWidth,
+      maxHeight: maxHeight,
+      imageQuality: imageQuality,
+      preferredCameraDevice: preferredCameraDevice,
+    );
+  }
+
+  /// Returns a list of [PickedFile] objects wrapping the images that were picked from the gallery.
+  ///
+  /// The returned [PickedFile]s are intended to be used within a single APP session. Do not save the file paths and use them across sessions.
+  ///
+  /// The `maxWidth`, `maxHeight` and `imageQuality` arguments are applied to every picked image, as in [getImage].
+  ///
+  /// The images are processed concurrently, and `onImage` is called for each one as soon as it is ready, so
+  /// the UI can show results before the whole selection has been processed.
+  ///
+  /// This method is only implemented on Android. On iOS it throws a `MissingPluginException`.
+  ///
+  /// Returns null if the user cancels picking.
+  Future<List<PickedFile>> getMultiImage({
+    double maxWidth,
+    double maxHeight,
+    int imageQuality,
+    MultiImageCallback onImage,
+  }) {
+    return platform.pickMultiImage(
+      maxWidth: maxWidth,
+      maxHeight: maxHeight,
+      imageQuality: imageQuality,
+      onImage: onImage,
+    );
+  }
+
   /// Returns a [File] object pointing to the video that was picked.
   ///
   /// The returned [File] is intended to be used within a single APP session. Do not save the file path and use it across sessions.
@@ -170,6 +222,34 @@ class ImagePicker {
     );
   }
 
+  /// Returns a [PickedFile] object wrapping the video that was picked, compressed to fit the given limits.
+  ///
+  /// The [source], [preferredCameraDevice] and [maxDuration] arguments behave as in [getVideo].
+  ///
+  /// If specified, the video is downscaled to be at most [maxWidth] wide and [maxHeight] tall, and
+  /// re-encoded with a bitrate of at most [maxBitrate] bits per second. Videos that already fit are
+  /// returned unchanged. On Android, [onProgress] is called with values from 0.0 to 1.0 while the
+  /// video is being compressed.
+  Future<PickedFile> getCompressedVideo({
+    @required ImageSource source,
+    CameraDevice preferredCameraDevice = CameraDevice.rear,
+    Duration maxDuration,
+    double maxWidth,
+    double maxHeight,
+    int maxBitrate,
+    VideoProgressCallback onProgress,
+  }) {
+    return platform.pickCompressedVideo(
+      source: source,
+      preferredCameraDevice: preferredCameraDevice,
+      maxDuration: maxDuration,
+      maxWidth: maxWidth,
+      maxHeight: maxHeight,
+      maxBitrate: maxBitrate,
+      onProgress: onProgress,
+    );
+  }
+
   /// Retrieve the lost image file when [pickImage] or [pickVideo] failed because the  MainActivity is destroyed. (Android only)
   ///
   /// Image or video can be lost if the MainActivity is destroyed. And there is no guarantee that the MainActivity is always alive.
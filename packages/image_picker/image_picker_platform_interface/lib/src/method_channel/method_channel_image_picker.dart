@@ -19,6 +19,9 @@ class MethodChannelImagePicker extends ImagePickerPlatform {
   @visibleForTesting
   MethodChannel get channel => _channel;
 
+  MultiImageCallback _onMultiImage;
+  VideoProgressCallback _onVideoProgress;
+
   @override
   Future<PickedFile> pickImage({
     @required ImageSource source,
@@ -44,8 +47,106 @@ class MethodChannelImagePicker extends ImagePickerPlatform {
     double maxHeight,
     int imageQuality,
     CameraDevice preferredCameraDevice = CameraDevice.rear,
+  }) {
+    return _pickImagePath(
+      source: source,
+      maxWidth: maxWidth,
+      maxHeight: maxHeight,
+      imageQuality: imageQuality,
+      preferredCameraDevice: preferredCameraDevice,
+    );
+  }
+
+  @override
+  Future<PickedFile> pickImageWithFormat({
+    @required ImageSource source,
+    @required ImageOutputFormat outputFormat,
+    double maxWidth,
+    double maxHeight,
+    int imageQuality,
+    CameraDevice preferredCameraDevice = CameraDevice.rear,
+  }) async {
+    assert(outputFormat != null);
+    final String path = await _pickImagePath(
+      source: source,
+      maxWidth: maxWidth,
+      maxHeight: maxHeight,
+      imageQuality: imageQuality,
+      preferredCameraDevice: preferredCameraDevice,
+      outputFormat: outputFormat,
+    );
+    return path != null ? PickedFile(path) : null;
+  }
+
+  Future<String> _pickImagePath({
+    @required ImageSource source,
+    double maxWidth,
+    double maxHeight,
+    int imageQuality,
+    CameraDevice preferredCameraDevice,
+    ImageOutputFormat outputFormat,
   }) {
     assert(source != null);
+    _validateImageOptions(maxWidth, maxHeight, imageQuality);
+
+    final Map<String, dynamic> arguments = <String, dynamic>{
+      'source': source.index,
+      'maxWidth': maxWidth,
+      'maxHeight': maxHeight,
+      'imageQuality': imageQuality,
+      'cameraDevice': preferredCameraDevice.index
+    };
+    if (outputFormat != null) {
+      arguments['outputFormat'] = serializeImageOutputFormat(outputFormat);
+    }
+    return _channel.invokeMethod<String>('pickImage', arguments);
+  }
+
+  @override
+  Future<List<PickedFile>> pickMultiImage({
+    double maxWidth,
+    double maxHeight,
+    int imageQuality,
+    MultiImageCallback onImage,
+  }) async {
+    _validateImageOptions(maxWidth, maxHeight, imageQuality);
+
+    _onMultiImage = onImage;
+    _channel.setMethodCallHandler(_handleMethodCall);
+    try {
+      final List<String> paths = await _channel.invokeListMethod<String>(
+        'pickMultiImage',
+        <String, dynamic>{
+          'maxWidth': maxWidth,
+          'maxHeight': maxHeight,
+          'imageQuality': imageQuality,
+        },
+      );
+      return paths?.map((String path) => PickedFile(path))?.toList();
+    } finally {
+      _onMultiImage = null;
+    }
+  }
+
+  Future<dynamic> _handleMethodCall(MethodCall call) async {
+    switch (call.method) {
+      case 'pickMultiImage#onImage':
+        if (_onMultiImage != null) {
+          final String path = call.arguments['path'];
+          _onMultiImage(
+              call.arguments['index'], path != null ? PickedFile(path) : null);
+        }
+        break;
+      case 'pickVideo#onProgress':
+        if (_onVideoProgress != null) {
+          _onVideoProgress(call.arguments['progress']);
+        }
+        break;
+    }
+  }
+
+  void _validateImageOptions(
+      double maxWidth, double maxHeight, int imageQuality) {
     if (imageQuality != null && (imageQuality < 0 || imageQuality > 100)) {
       throw ArgumentError.value(
           imageQuality, 'imageQuality', 'must be between 0 and 100');
@@ -58,17 +159,6 @@ class MethodChannelImagePicker extends ImagePickerPlatform {
     if (maxHeight != null && maxHeight < 0) {
       throw ArgumentError.value(maxHeight, 'maxHeight', 'cannot be negative');
     }
-
-    return _channel.invokeMethod<String>(
-      'pickImage',
-      <String, dynamic>{
-        'source': source.index,
-        'maxWidth': maxWidth,
-        'maxHeight': maxHeight,
-        'imageQuality': imageQuality,
-        'cameraDevice': preferredCameraDevice.index
-      },
-    );
   }
 
   @override
@@ -102,6 +192,49 @@ class MethodChannelImagePicker extends ImagePickerPlatform {
     );
   }
 
+  @override
+  Future<PickedFile> pickCompressedVideo({
+    @required ImageSource source,
+    CameraDevice preferredCameraDevice = CameraDevice.rear,
+    Duration maxDuration,
+    double maxWidth,
+    double maxHeight,
+    int maxBitrate,
+    VideoProgressCallback onProgress,
+  }) async {
+    assert(source != null);
+    if (maxWidth != null && maxWidth < 0) {
+      throw ArgumentError.value(maxWidth, 'maxWidth', 'cannot be negative');
+    }
+
+    if (maxHeight != null && maxHeight < 0) {
+      throw ArgumentError.value(maxHeight, 'maxHeight', 'cannot be negative');
+    }
+
+    if (maxBitrate != null && maxBitrate <= 0) {
+      throw ArgumentError.value(maxBitrate, 'maxBitrate', 'must be positive');
+    }
+
+    _onVideoProgress = onProgress;
+    _channel.setMethodCallHandler(_handleMethodCall);
+    try {
+      final String path = await _channel.invokeMethod<String>(
+        'pickVideo',
+        <String, dynamic>{
+          'source': source.index,
+          'maxDuration': maxDuration?.inSeconds,
+          'cameraDevice': preferredCameraDevice.index,
+          'maxWidth': maxWidth,
+          'maxHeight': maxHeight,
+          'maxBitrate': maxBitrate,
+        },
+      );
+      return path != null ? PickedFile(path) : null;
+    } finally {
+      _onVideoProgress = null;
+    }
+  }
+
   @override
   Future<LostData> retrieveLostData() async {
     final Map<String, dynamic> result =
@@ -130,11 +263,15 @@ class MethodChannelImagePicker extends ImagePickerPlatform {
     }
 
     final String path = result['path'];
+    final List<dynamic> pathList = result['pathList'];
 
     return LostData(
       file: path != null ? PickedFile(path) : null,
       exception: exception,
       type: retrieveType,
+      files: pathList
+          ?.map((dynamic path) => PickedFile(path as String))
+          ?.toList(),
     );
   }
 
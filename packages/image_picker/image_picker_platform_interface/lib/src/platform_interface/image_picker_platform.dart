@@ -151,6 +151,44 @@ abstract class ImagePickerPlatform extends PlatformInterface {
     throw UnimplementedError('pickImage() has not been implemented.');
   }
 
+  /// Returns a [PickedFile] with the image that was picked, re-encoded to [outputFormat].
+  ///
+  /// The other arguments behave as in [pickImage]. The image is always re-encoded, even when it
+  /// doesn't need to be resized.
+  ///
+  /// Only Android re-encodes the image. Other platforms return it as [pickImage] does.
+  Future<PickedFile> pickImageWithFormat({
+    @required ImageSource source,
+    @required ImageOutputFormat outputFormat,
+    double maxWidth,
+    double maxHeight,
+    int imageQuality,
+    CameraDevice preferredCameraDevice = CameraDevice.rear,
+  }) {
+    throw UnimplementedError('pickImageWithFormat() has not been implemented.');
+  }
+
+  /// Returns a list of [PickedFile]s with the images that were picked from the gallery.
+  ///
+  /// The `maxWidth`, `maxHeight` and `imageQuality` arguments are applied to every picked image, with
+  /// the same meaning as in [pickImage].
+  ///
+  /// Images are copied and resized concurrently. If `onImage` is provided, it is called for each image
+  /// as soon as it is ready, before the returned future completes with the full list.
+  ///
+  /// Only Android implements this method. The iOS plugin has no `pickMultiImage` handler, so the
+  /// method channel implementation throws a `MissingPluginException` there.
+  ///
+  /// Returns null if the user cancels picking.
+  Future<List<PickedFile>> pickMultiImage({
+    double maxWidth,
+    double maxHeight,
+    int imageQuality,
+    MultiImageCallback onImage,
+  }) {
+    throw UnimplementedError('pickMultiImage() has not been implemented.');
+  }
+
   /// Returns a [PickedFile] containing the video that was picked.
   ///
   /// The [source] argument controls where the video comes from. This can
@@ -173,6 +211,26 @@ abstract class ImagePickerPlatform extends PlatformInterface {
     throw UnimplementedError('pickVideo() has not been implemented.');
   }
 
+  /// Returns a [PickedFile] containing the video that was picked, compressed to fit the given limits.
+  ///
+  /// The [source], [preferredCameraDevice] and [maxDuration] arguments behave as in [pickVideo].
+  ///
+  /// If specified, the video is downscaled to be at most [maxWidth] wide and [maxHeight] tall, and
+  /// re-encoded with a bitrate of at most [maxBitrate] bits per second. Videos that already fit are
+  /// returned unchanged. [onProgress] is called with values from 0.0 to 1.0 while the video is
+  /// being compressed.
+  Future<PickedFile> pickCompressedVideo({
+    @required ImageSource source,
+    CameraDevice preferredCameraDevice = CameraDevice.rear,
+    Duration maxDuration,
+    double maxWidth,
+    double maxHeight,
+    int maxBitrate,
+    VideoProgressCallback onProgress,
+  }) {
+    throw UnimplementedError('pickCompressedVideo() has not been implemented.');
+  }
+
   /// Retrieve the lost [PickedFile] file when [pickImage] or [pickVideo] failed because the MainActivity is destroyed. (Android only)
   ///
   /// Image or video can be lost if the MainActivity is destroyed. And there is no guarantee that the MainActivity is always alive.
@@ -0,0 +1,34 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// The format a picked image is re-encoded to.
+enum ImageOutputFormat {
+  /// JPEG, lossy.
+  jpeg,
+
+  /// PNG, lossless. The image quality is ignored.
+  png,
+
+  /// WebP, lossy below a quality of 100.
+  webp,
+
+  /// HEIF, on Android 9 and above with a HEVC encoder. Other devices fall back
+  /// to JPEG.
+  heif,
+}
+
+/// Returns the name [format] is sent to the platform with.
+String serializeImageOutputFormat(ImageOutputFormat format) {
+  switch (format) {
+    case ImageOutputFormat.jpeg:
+      return 'jpeg';
+    case ImageOutputFormat.png:
+      return 'png';
+    case ImageOutputFormat.webp:
+      return 'webp';
+    case ImageOutputFormat.heif:
+      return 'heif';
+  }
+  return null;
+}
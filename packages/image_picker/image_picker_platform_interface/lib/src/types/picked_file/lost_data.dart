@@ -11,9 +11,9 @@ import 'package:image_picker_platform_interface/src/types/types.dart';
 /// See also:
 /// * [ImagePicker.retrieveLostData] for more details on retrieving lost data.
 class LostData {
-  /// Creates an instance with the given [file], [exception], and [type]. Any of
+  /// Creates an instance with the given [file], [exception], [type] and [files]. Any of
   /// the params may be null, but this is never considered to be empty.
-  LostData({this.file, this.exception, this.type});
+  LostData({this.file, this.exception, this.type, this.files});
 
   /// Initializes an instance with all member params set to null and considered
   /// to be empty.
@@ -21,6 +21,7 @@ class LostData {
       : file = null,
         exception = null,
         type = null,
+        files = null,
         _empty = true;
 
   /// Whether it is an empty response.
@@ -33,6 +34,11 @@ class LostData {
   /// Can be null if [exception] exists.
   final PickedFile file;
 
+  /// All the files that were lost in a previous [pickMultiImage] call.
+  ///
+  /// Null unless the lost call picked more than one image. [file] is always the first of them.
+  final List<PickedFile> files;
+
   /// The exception of the last [pickImage] or [pickVideo].
   ///
   /// If the last [pickImage] or [pickVideo] threw some exception before the MainActivity destruction, this variable keeps that
@@ -1,4 +1,5 @@
 export 'camera_device.dart';
+export 'image_output_format.dart';
 export 'image_source.dart';
 export 'lost_data_response.dart';
 export 'retrieve_type.dart';
@@ -9,3 +10,11 @@ const String kTypeImage = 'image';
 
 /// Denotes that a video is being picked.
 const String kTypeVideo = 'video';
+
+/// Signature for the callback invoked as each image of a multi-image pick is ready.
+///
+/// `file` is null if the image at `index` could not be read or resized.
+typedef MultiImageCallback = void Function(int index, PickedFile file);
+
+/// Signature for the callback reporting video compression progress, from 0.0 to 1.0.
+typedef VideoProgressCallback = void Function(double progress);
@@ -196,6 +196,110 @@ void main() {
       });
     });
 
+    group('#pickImageWithFormat', () {
+      test('passes the output format argument correctly', () async {
+        await picker.pickImageWithFormat(
+          source: ImageSource.gallery,
+          outputFormat: ImageOutputFormat.webp,
+          imageQuality: 80,
+        );
+
+        expect(
+          log,
+          <Matcher>[
+            isMethodCall('pickImage', arguments: <String, dynamic>{
+              'source': 1,
+              'maxWidth': null,
+              'maxHeight': null,
+              'imageQuality': 80,
+              'cameraDevice': 0,
+              'outputFormat': 'webp',
+            }),
+          ],
+        );
+      });
+    });
+
+    group('#pickMultiImage', () {
+      test('passes the width, height and quality arguments correctly',
+          () async {
+        picker.channel.setMockMethodCallHandler((MethodCall methodCall) async {
+          log.add(methodCall);
+          return <String>['/example/path1', '/example/path2'];
+        });
+
+        final List<PickedFile> files = await picker.pickMultiImage(
+          maxWidth: 10.0,
+          maxHeight: 20.0,
+          imageQuality: 70,
+        );
+
+        expect(files.map((PickedFile file) => file.path),
+            <String>['/example/path1', '/example/path2']);
+        expect(
+          log,
+          <Matcher>[
+            isMethodCall('pickMultiImage', arguments: <String, dynamic>{
+              'maxWidth': 10.0,
+              'maxHeight': 20.0,
+              'imageQuality': 70,
+            }),
+          ],
+        );
+      });
+
+      test('handles a null result', () async {
+        picker.channel.setMockMethodCallHandler((MethodCall methodCall) => null);
+
+        expect(await picker.pickMultiImage(), isNull);
+      });
+
+      test('does not accept an invalid imageQuality argument', () {
+        expect(
+          () => picker.pickMultiImage(imageQuality: -1),
+          throwsArgumentError,
+        );
+
+        expect(
+          () => picker.pickMultiImage(imageQuality: 101),
+          throwsArgumentError,
+        );
+      });
+    });
+
+    group('#pickCompressedVideo', () {
+      test('passes the compression arguments correctly', () async {
+        await picker.pickCompressedVideo(
+          source: ImageSource.gallery,
+          maxWidth: 1280.0,
+          maxHeight: 720.0,
+          maxBitrate: 2000000,
+        );
+
+        expect(
+          log,
+          <Matcher>[
+            isMethodCall('pickVideo', arguments: <String, dynamic>{
+              'source': 1,
+              'maxDuration': null,
+              'cameraDevice': 0,
+              'maxWidth': 1280.0,
+              'maxHeight': 720.0,
+              'maxBitrate': 2000000,
+            }),
+          ],
+        );
+      });
+
+      test('does not accept a non-positive maxBitrate argument', () {
+        expect(
+          () => picker.pickCompressedVideo(
+              source: ImageSource.gallery, maxBitrate: 0),
+          throwsArgumentError,
+        );
+      });
+    });
+
     group('#pickVideoPath', () {
       test('passes the image source argument correctly', () async {
         await picker.pickVideo(source: ImageSource.camera);
@@ -315,6 +419,20 @@ void main() {
         expect(response.file.path, '/example/path');
       });
 
+      test('retrieveLostData get multi-image response', () async {
+        picker.channel.setMockMethodCallHandler((MethodCall methodCall) async {
+          return <String, dynamic>{
+            'type': 'image',
+            'path': '/example/path1',
+            'pathList': <String>['/example/path1', '/example/path2'],
+          };
+        });
+        final LostData response = await picker.retrieveLostData();
+        expect(response.file.path, '/example/path1');
+        expect(response.files.map((PickedFile file) => file.path),
+            <String>['/example/path1', '/example/path2']);
+      });
+
       test('retrieveLostData get error response', () async {
         picker.channel.setMockMethodCallHandler((MethodCall methodCall) async {
           return <String, String>{
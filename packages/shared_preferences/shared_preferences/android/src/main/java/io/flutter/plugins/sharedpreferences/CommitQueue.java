@@ -0,0 +1,240 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.sharedpreferences;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Writes preference changes on a dedicated thread, one commit at a time.
+ *
+ * <p>Changes that are queued while a commit is running are merged into a single {@link
+ * SharedPreferences.Editor}, so five queued writes cost one commit. Every {@link
+ * MethodChannel.Result} of the merged writes is resolved with the outcome of that commit.
+ *
+ * <p>Queue depth and commit latency are logged under the {@value #TAG} tag when it is loggable at
+ * {@link Log#DEBUG}, e.g. after {@code adb shell setprop log.tag.SharedPreferences DEBUG}.
+ */
+class CommitQueue {
+  private static final String TAG = "SharedPreferences";
+
+  /** Marks a key that should be removed rather than written. */
+  static final Object REMOVE = new Object();
+
+  private final SharedPreferences preferences;
+  private final ExecutorService executor;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+
+  private final Object lock = new Object();
+  // Guarded by lock.
+  private Map<String, Object> pendingChanges = new LinkedHashMap<>();
+  private List<MethodChannel.Result> pendingResults = new ArrayList<>();
+  private boolean flushScheduled;
+
+  // Metrics, guarded by lock.
+  private int maxQueueDepth;
+  private long commitCount;
+  private long committedWriteCount;
+  private long totalCommitLatencyMs;
+  private long maxCommitLatencyMs;
+
+  CommitQueue(SharedPreferences preferences) {
+    this.preferences = preferences;
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+              @Override
+              public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "shared_preferences-commit");
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+              }
+            });
+  }
+
+  /**
+   * Queues {@code changes} to be committed and resolves {@code result} on the platform thread once
+   * they are on disk.
+   *
+   * <p>Values must be already encoded: a {@link Boolean}, a {@link Long}, a {@link String} or
+   * {@link #REMOVE}.
+   */
+  void enqueue(Map<String, Object> changes, MethodChannel.Result result) {
+    boolean schedule;
+    synchronized (lock) {
+      pendingChanges.putAll(changes);
+      pendingResults.add(result);
+      maxQueueDepth = Math.max(maxQueueDepth, pendingResults.size());
+      schedule = !flushScheduled;
+      flushScheduled = true;
+    }
+    if (schedule) {
+      scheduleFlush();
+    }
+  }
+
+  /**
+   * Queues a rewrite of {@code key} from {@code expected} to {@code replacement}.
+   *
+   * <p>The rewrite is skipped if a write to {@code key} is already queued, or if the key no longer
+   * holds {@code expected} when the commit runs, so it never overrides a newer value.
+   */
+  void enqueueMigration(String key, String expected, String replacement) {
+    boolean schedule;
+    synchronized (lock) {
+      if (pendingChanges.containsKey(key)) {
+        return;
+      }
+      pendingChanges.put(key, new Migration(expected, replacement));
+      schedule = !flushScheduled;
+      flushScheduled = true;
+    }
+    if (schedule) {
+      scheduleFlush();
+    }
+  }
+
+  /** Returns whether a write to {@code key} is queued and not yet being committed. */
+  boolean hasPendingWrite(String key) {
+    synchronized (lock) {
+      return pendingChanges.containsKey(key);
+    }
+  }
+
+  /** Returns the keys with a queued write that stores a value. */
+  List<String> getPendingKeys() {
+    List<String> keys = new ArrayList<>();
+    synchronized (lock) {
+      for (Map.Entry<String, Object> change : pendingChanges.entrySet()) {
+        if (change.getValue() != REMOVE && !(change.getValue() instanceof Migration)) {
+          keys.add(change.getKey());
+        }
+      }
+    }
+    return keys;
+  }
+
+  /** Stops the commit thread once the writes that are already queued have been committed. */
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  private void scheduleFlush() {
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            flush();
+          }
+        });
+  }
+
+  private void flush() {
+    final Map<String, Object> changes;
+    final List<MethodChannel.Result> results;
+    synchronized (lock) {
+      changes = pendingChanges;
+      results = pendingResults;
+      pendingChanges = new LinkedHashMap<>();
+      pendingResults = new ArrayList<>();
+      // Writes that arrive from now on are merged into the next commit.
+      flushScheduled = false;
+    }
+
+    SharedPreferences.Editor editor = preferences.edit();
+    for (Map.Entry<String, Object> change : changes.entrySet()) {
+      String key = change.getKey();
+      Object value = change.getValue();
+      if (value == REMOVE) {
+        editor.remove(key);
+      } else if (value instanceof Boolean) {
+        editor.putBoolean(key, (Boolean) value);
+      } else if (value instanceof Long) {
+        editor.putLong(key, (Long) value);
+      } else if (value instanceof Migration) {
+        Migration migration = (Migration) value;
+        if (migration.expected.equals(getStoredString(key))) {
+          editor.putString(key, migration.replacement);
+        }
+      } else {
+        editor.putString(key, (String) value);
+      }
+    }
+    long start = SystemClock.elapsedRealtime();
+    final boolean success = editor.commit();
+    long latencyMs = SystemClock.elapsedRealtime() - start;
+
+    recordCommit(results.size(), latencyMs);
+    handler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            for (MethodChannel.Result result : results) {
+              result.success(success);
+            }
+          }
+        });
+  }
+
+  private String getStoredString(String key) {
+    try {
+      return preferences.getString(key, null);
+    } catch (ClassCastException e) {
+      // The key has been overwritten with a value of another type.
+      return null;
+    }
+  }
+
+  private void recordCommit(int writeCount, long latencyMs) {
+    synchronized (lock) {
+      commitCount++;
+      committedWriteCount += writeCount;
+      totalCommitLatencyMs += latencyMs;
+      maxCommitLatencyMs = Math.max(maxCommitLatencyMs, latencyMs);
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(
+            TAG,
+            "Committed "
+                + writeCount
+                + " write(s) in "
+                + latencyMs
+                + " ms. Queue depth: "
+                + pendingResults.size()
+                + " (max "
+                + maxQueueDepth
+                + "). Commits: "
+                + commitCount
+                + " for "
+                + committedWriteCount
+                + " write(s), average "
+                + (totalCommitLatencyMs / commitCount)
+                + " ms, max "
+                + maxCommitLatencyMs
+                + " ms.");
+      }
+    }
+  }
+
+  private static class Migration {
+    final String expected;
+    final String replacement;
+
+    Migration(String expected, String replacement) {
+      this.expected = expected;
+      this.replacement = replacement;
+    }
+  }
+}
@@ -0,0 +1,736 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.sharedpreferences;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link SharedPreferences} that stores its values in an append-only log instead of an XML file.
+ *
+ * <p>A commit appends one checksummed frame with the changed keys, so its cost depends on the size
+ * of the edit rather than the size of the whole store. When the log has grown to twice its size
+ * after the last load or compaction, it is rewritten with only the live values. A frame that was
+ * cut short by a crash fails its checksum and is dropped, together with anything after it.
+ *
+ * <p>Apps opt in with a {@code <meta-data android:name="io.flutter.plugins.sharedpreferences.
+ * STORAGE_BACKEND" android:value="log" />} element in their manifest. Values from the regular
+ * {@link SharedPreferences} file of the same name are moved into the log the first time it is
+ * opened, and moved back if the app opts out again.
+ */
+class LogSharedPreferences implements SharedPreferences {
+  private static final String TAG = "SharedPreferences";
+  private static final String BACKEND_METADATA_KEY =
+      "io.flutter.plugins.sharedpreferences.STORAGE_BACKEND";
+  private static final String BACKEND_LOG = "log";
+  private static final String DIRECTORY_NAME = "flutter_shared_preferences";
+
+  private static final int MAGIC = 0x46535031; // "FSP1"
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+  private static final int FRAME_HEADER_SIZE = 8;
+  private static final long MIN_COMPACTION_SIZE = 256 * 1024;
+
+  private static final byte TYPE_REMOVED = 0;
+  private static final byte TYPE_STRING = 1;
+  private static final byte TYPE_INT = 2;
+  private static final byte TYPE_LONG = 3;
+  private static final byte TYPE_FLOAT = 4;
+  private static final byte TYPE_BOOLEAN = 5;
+  private static final byte TYPE_STRING_SET = 6;
+
+  // StandardCharsets needs API 19.
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final Object REMOVED = new Object();
+
+  // One instance per file, shared by every engine in the process.
+  private static final Map<String, LogSharedPreferences> instances = new HashMap<>();
+
+  /**
+   * Returns the preferences named {@code name}: backed by a log if the app opted in, otherwise the
+   * regular {@link SharedPreferences}.
+   */
+  static SharedPreferences open(Context context, String name) {
+    File file = new File(new File(context.getFilesDir(), DIRECTORY_NAME), name + ".log");
+    if (isEnabled(context)) {
+      synchronized (instances) {
+        LogSharedPreferences preferences = instances.get(file.getPath());
+        if (preferences == null) {
+          preferences = new LogSharedPreferences(context.getApplicationContext(), name, file);
+          instances.put(file.getPath(), preferences);
+        }
+        return preferences;
+      }
+    }
+    SharedPreferences preferences = context.getSharedPreferences(name, Context.MODE_PRIVATE);
+    synchronized (instances) {
+      if (file.exists()) {
+        restore(file, preferences);
+      }
+    }
+    return preferences;
+  }
+
+  private static boolean isEnabled(Context context) {
+    try {
+      ApplicationInfo info =
+          context
+              .getPackageManager()
+              .getApplicationInfo(context.getPackageName(), PackageManager.GET_META_DATA);
+      return info.metaData != null
+          && BACKEND_LOG.equals(info.metaData.getString(BACKEND_METADATA_KEY));
+    } catch (PackageManager.NameNotFoundException e) {
+      return false;
+    }
+  }
+
+  // Moves the values of a log back into the regular preferences after the app opted out.
+  private static void restore(File file, SharedPreferences preferences) {
+    Map<String, Object> values = new HashMap<>();
+    try {
+      readLog(file, values);
+    } catch (IOException e) {
+      Log.e(TAG, "Could not read " + file + ", keeping it for a later attempt.", e);
+      return;
+    }
+    SharedPreferences.Editor editor = preferences.edit();
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      putValue(editor, entry.getKey(), entry.getValue());
+    }
+    if (editor.commit() && !file.delete()) {
+      Log.w(TAG, "Could not delete " + file + " after restoring it.");
+    }
+  }
+
+  private final Context context;
+  private final String legacyName;
+  private final File file;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+  // Guards everything below it, except the fields marked otherwise.
+  private final Object lock = new Object();
+  private final Map<String, Object> values = new HashMap<>();
+  private final WeakHashMap<OnSharedPreferenceChangeListener, Object> listeners =
+      new WeakHashMap<>();
+  private final List<byte[]> unwrittenFrames = new ArrayList<>();
+  private boolean loaded;
+
+  // Guarded by fileLock. Only one thread appends to or compacts the file at a time.
+  private final Object fileLock = new Object();
+  private long logSize;
+  private long compactedSize;
+  private boolean lastWriteSucceeded = true;
+
+  // Use open(), which shares one instance per file. Visible for tests.
+  LogSharedPreferences(Context context, String legacyName, File file) {
+    this.context = context;
+    this.legacyName = legacyName;
+    this.file = file;
+    // Like the platform implementation, load in the background and block readers until done.
+    new Thread("shared_preferences-load") {
+      @Override
+      public void run() {
+        load();
+      }
+    }.start();
+  }
+
+  private void load() {
+    Map<String, Object> loadedValues = new HashMap<>();
+    synchronized (fileLock) {
+      boolean logExists = file.exists();
+      try {
+        if (logExists) {
+          logSize = readLog(file, loadedValues);
+          if (logSize < file.length()) {
+            Log.w(TAG, "Dropping a partially written frame at the end of " + file);
+            RandomAccessFile truncated = new RandomAccessFile(file, "rw");
+            try {
+              truncated.setLength(logSize);
+            } finally {
+              truncated.close();
+            }
+          }
+          compactedSize = logSize;
+        } else {
+          migrate(loadedValues);
+        }
+      } catch (IOException e) {
+        if (logExists) {
+          Log.e(TAG, "Could not load " + file + ", setting it aside.", e);
+          if (!file.renameTo(new File(file.getPath() + ".corrupt"))) {
+            file.delete();
+          }
+          loadedValues.clear();
+        } else {
+          // The migrated values are kept in memory and written with the next commit.
+          Log.e(TAG, "Could not move " + legacyName + " to " + file, e);
+        }
+        // The next write starts a new log.
+        logSize = 0;
+      }
+    }
+    synchronized (lock) {
+      values.putAll(loadedValues);
+      loaded = true;
+      lock.notifyAll();
+    }
+  }
+
+  // Moves the values of the regular preferences into a new log.
+  private void migrate(Map<String, Object> loadedValues) throws IOException {
+    SharedPreferences legacy = context.getSharedPreferences(legacyName, Context.MODE_PRIVATE);
+    loadedValues.putAll(legacy.getAll());
+    writeCompacted(loadedValues);
+    if (!loadedValues.isEmpty() && !legacy.edit().clear().commit()) {
+      Log.w(TAG, "Could not clear " + legacyName + " after moving it to " + file);
+    }
+  }
+
+  private void awaitLoaded() {
+    boolean interrupted = false;
+    while (!loaded) {
+      try {
+        lock.wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public Map<String, ?> getAll() {
+    synchronized (lock) {
+      awaitLoaded();
+      return new HashMap<>(values);
+    }
+  }
+
+  @Override
+  public String getString(String key, String defValue) {
+    Object value = get(key);
+    return value != null ? (String) value : defValue;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Set<String> getStringSet(String key, Set<String> defValues) {
+    Object value = get(key);
+    return value != null ? (Set<String>) value : defValues;
+  }
+
+  @Override
+  public int getInt(String key, int defValue) {
+    Object value = get(key);
+    return value != null ? (Integer) value : defValue;
+  }
+
+  @Override
+  public long getLong(String key, long defValue) {
+    Object value = get(key);
+    return value != null ? (Long) value : defValue;
+  }
+
+  @Override
+  public float getFloat(String key, float defValue) {
+    Object value = get(key);
+    return value != null ? (Float) value : defValue;
+  }
+
+  @Override
+  public boolean getBoolean(String key, boolean defValue) {
+    Object value = get(key);
+    return value != null ? (Boolean) value : defValue;
+  }
+
+  @Override
+  public boolean contains(String key) {
+    return get(key) != null;
+  }
+
+  private Object get(String key) {
+    synchronized (lock) {
+      awaitLoaded();
+      return values.get(key);
+    }
+  }
+
+  @Override
+  public SharedPreferences.Editor edit() {
+    return new LogEditor();
+  }
+
+  @Override
+  public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    synchronized (lock) {
+      listeners.put(listener, this);
+    }
+  }
+
+  @Override
+  public void unregisterOnSharedPreferenceChangeListener(
+      OnSharedPreferenceChangeListener listener) {
+    synchronized (lock) {
+      listeners.remove(listener);
+    }
+  }
+
+  /**
+   * Applies an edit to memory and queues its frame, in one step so that the order of frames in the
+   * log is the order the edits were applied in. Returns the changed keys; null stands for a clear.
+   */
+  private List<String> applyToMemory(boolean clear, Map<String, Object> changes) {
+    List<String> changedKeys = new ArrayList<>();
+    synchronized (lock) {
+      awaitLoaded();
+      if (clear && !values.isEmpty()) {
+        values.clear();
+        changedKeys.add(null);
+      }
+      for (Map.Entry<String, Object> change : changes.entrySet()) {
+        String key = change.getKey();
+        Object value = change.getValue();
+        Object previous = value == REMOVED ? values.remove(key) : values.put(key, value);
+        boolean changed = value == REMOVED ? previous != null : !value.equals(previous);
+        if (changed) {
+          changedKeys.add(key);
+        }
+      }
+      try {
+        unwrittenFrames.add(encodeFrame(clear, changes));
+      } catch (IOException e) {
+        // Writing to a byte array does not fail.
+        throw new IllegalStateException(e);
+      }
+    }
+    return changedKeys;
+  }
+
+  private void notifyListeners(final List<String> changedKeys) {
+    if (changedKeys.isEmpty()) {
+      return;
+    }
+    if (Looper.myLooper() != Looper.getMainLooper()) {
+      mainHandler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              notifyListeners(changedKeys);
+            }
+          });
+      return;
+    }
+    List<OnSharedPreferenceChangeListener> listenersCopy;
+    synchronized (lock) {
+      listenersCopy = new ArrayList<>(listeners.keySet());
+    }
+    for (String key : changedKeys) {
+      for (OnSharedPreferenceChangeListener listener : listenersCopy) {
+        listener.onSharedPreferenceChanged(this, key);
+      }
+    }
+  }
+
+  /** Appends every queued frame to the log and syncs it. Returns whether that succeeded. */
+  private boolean writeUnwrittenFrames() {
+    synchronized (fileLock) {
+      List<byte[]> frames;
+      synchronized (lock) {
+        frames = new ArrayList<>(unwrittenFrames);
+        unwrittenFrames.clear();
+      }
+      if (frames.isEmpty()) {
+        // Another thread wrote our frame along with its own.
+        return lastWriteSucceeded;
+      }
+      if (logSize == 0) {
+        // There is no valid log to append to, so start one with every value.
+        Map<String, Object> snapshot;
+        synchronized (lock) {
+          snapshot = new HashMap<>(values);
+        }
+        try {
+          writeCompacted(snapshot);
+          lastWriteSucceeded = true;
+        } catch (IOException e) {
+          Log.e(TAG, "Could not write " + file, e);
+          lastWriteSucceeded = false;
+        }
+        return lastWriteSucceeded;
+      }
+      long sizeBeforeWrite = logSize;
+      try {
+        FileOutputStream output = new FileOutputStream(file, true);
+        try {
+          for (byte[] frame : frames) {
+            output.write(frame);
+            logSize += frame.length;
+          }
+          output.getFD().sync();
+        } finally {
+          output.close();
+        }
+        lastWriteSucceeded = true;
+      } catch (IOException e) {
+        Log.e(TAG, "Could not write to " + file, e);
+        lastWriteSucceeded = false;
+        discardPartialWrite(sizeBeforeWrite, frames);
+        return false;
+      }
+      if (logSize > MIN_COMPACTION_SIZE && logSize > 2 * compactedSize) {
+        Map<String, Object> snapshot;
+        synchronized (lock) {
+          snapshot = new HashMap<>(values);
+        }
+        try {
+          writeCompacted(snapshot);
+        } catch (IOException e) {
+          // The log is still complete, just longer than it needs to be.
+          Log.w(TAG, "Could not compact " + file, e);
+        }
+      }
+      return true;
+    }
+  }
+
+  // Must hold fileLock. Cuts the log back to sizeBeforeWrite and queues the frames of a failed
+  // append again, so the next write retries them. If the log cannot be cut back, the next write
+  // starts a new log with every value instead.
+  private void discardPartialWrite(long sizeBeforeWrite, List<byte[]> frames) {
+    try {
+      RandomAccessFile truncated = new RandomAccessFile(file, "rw");
+      try {
+        truncated.setLength(sizeBeforeWrite);
+      } finally {
+        truncated.close();
+      }
+      logSize = sizeBeforeWrite;
+      synchronized (lock) {
+        unwrittenFrames.addAll(0, frames);
+      }
+    } catch (IOException e) {
+      Log.e(TAG, "Could not truncate " + file + ", rewriting it with the next write.", e);
+      logSize = 0;
+    }
+  }
+
+  // Must hold fileLock. Replaces the log with one frame that holds every value.
+  private void writeCompacted(Map<String, Object> snapshot) throws IOException {
+    File directory = file.getParentFile();
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new IOException("Could not create " + directory);
+    }
+    File temp = new File(file.getPath() + ".tmp");
+    FileOutputStream output = new FileOutputStream(temp);
+    long size;
+    try {
+      DataOutputStream header = new DataOutputStream(output);
+      header.writeInt(MAGIC);
+      header.writeInt(FORMAT_VERSION);
+      byte[] frame = encodeFrame(true, snapshot);
+      output.write(frame);
+      output.getFD().sync();
+      size = HEADER_SIZE + frame.length;
+    } finally {
+      output.close();
+    }
+    if (!temp.renameTo(file)) {
+      temp.delete();
+      throw new IOException("Could not replace " + file);
+    }
+    logSize = size;
+    compactedSize = size;
+  }
+
+  /**
+   * Replays the log at {@code file} into {@code values} and returns the length of its valid part.
+   * Replay stops at the first frame that is cut short or fails its checksum.
+   */
+  private static long readLog(File file, Map<String, Object> values) throws IOException {
+    long fileLength = file.length();
+    DataInputStream input =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+    try {
+      if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+        throw new IOException("Unsupported preferences log format in " + file);
+      }
+      long validLength = HEADER_SIZE;
+      CRC32 crc = new CRC32();
+      while (true) {
+        int length;
+        long checksum;
+        byte[] payload;
+        try {
+          length = input.readInt();
+          checksum = input.readInt() & 0xffffffffL;
+          if (length < 0 || validLength + FRAME_HEADER_SIZE + length > fileLength) {
+            break;
+          }
+          payload = new byte[length];
+          input.readFully(payload);
+        } catch (EOFException e) {
+          break;
+        }
+        crc.reset();
+        crc.update(payload, 0, length);
+        if (crc.getValue() != checksum) {
+          break;
+        }
+        applyFrame(payload, values);
+        validLength += FRAME_HEADER_SIZE + length;
+      }
+      return validLength;
+    } finally {
+      input.close();
+    }
+  }
+
+  private static byte[] encodeFrame(boolean clear, Map<String, Object> changes)
+      throws IOException {
+    ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+    DataOutputStream payload = new DataOutputStream(payloadBytes);
+    payload.writeBoolean(clear);
+    payload.writeInt(changes.size());
+    for (Map.Entry<String, Object> change : changes.entrySet()) {
+      writeString(payload, change.getKey());
+      writeValue(payload, change.getValue());
+    }
+    payload.flush();
+    byte[] payloadArray = payloadBytes.toByteArray();
+
+    CRC32 crc = new CRC32();
+    crc.update(payloadArray, 0, payloadArray.length);
+    ByteArrayOutputStream frameBytes =
+        new ByteArrayOutputStream(FRAME_HEADER_SIZE + payloadArray.length);
+    DataOutputStream frame = new DataOutputStream(frameBytes);
+    frame.writeInt(payloadArray.length);
+    frame.writeInt((int) crc.getValue());
+    frame.write(payloadArray);
+    frame.flush();
+    return frameBytes.toByteArray();
+  }
+
+  private static void applyFrame(byte[] payloadArray, Map<String, Object> values)
+      throws IOException {
+    DataInputStream payload =
+        new DataInputStream(new ByteArrayInputStream(payloadArray));
+    if (payload.readBoolean()) {
+      values.clear();
+    }
+    int count = payload.readInt();
+    for (int i = 0; i < count; i++) {
+      String key = readString(payload);
+      Object value = readValue(payload);
+      if (value == REMOVED) {
+        values.remove(key);
+      } else {
+        values.put(key, value);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void writeValue(DataOutputStream output, Object value) throws IOException {
+    if (value == REMOVED) {
+      output.writeByte(TYPE_REMOVED);
+    } else if (value instanceof String) {
+      output.writeByte(TYPE_STRING);
+      writeString(output, (String) value);
+    } else if (value instanceof Integer) {
+      output.writeByte(TYPE_INT);
+      output.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      output.writeByte(TYPE_LONG);
+      output.writeLong((Long) value);
+    } else if (value instanceof Float) {
+      output.writeByte(TYPE_FLOAT);
+      output.writeFloat((Float) value);
+    } else if (value instanceof Boolean) {
+      output.writeByte(TYPE_BOOLEAN);
+      output.writeBoolean((Boolean) value);
+    } else if (value instanceof Set) {
+      Set<String> set = (Set<String>) value;
+      output.writeByte(TYPE_STRING_SET);
+      output.writeInt(set.size());
+      for (String item : set) {
+        writeString(output, item);
+      }
+    } else {
+      throw new IllegalArgumentException("Unsupported value type: " + value.getClass().getName());
+    }
+  }
+
+  private static Object readValue(DataInputStream input) throws IOException {
+    byte type = input.readByte();
+    switch (type) {
+      case TYPE_REMOVED:
+        return REMOVED;
+      case TYPE_STRING:
+        return readString(input);
+      case TYPE_INT:
+        return input.readInt();
+      case TYPE_LONG:
+        return input.readLong();
+      case TYPE_FLOAT:
+        return input.readFloat();
+      case TYPE_BOOLEAN:
+        return input.readBoolean();
+      case TYPE_STRING_SET:
+        int size = input.readInt();
+        Set<String> set = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+          set.add(readString(input));
+        }
+        return set;
+      default:
+        throw new IOException("Unknown value type " + type);
+    }
+  }
+
+  // DataOutputStream.writeUTF is limited to 64 KB, which a long encoded list can exceed.
+  private static void writeString(DataOutputStream output, String value) throws IOException {
+    byte[] bytes = value.getBytes(UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(DataInputStream input) throws IOException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void putValue(SharedPreferences.Editor editor, String key, Object value) {
+    if (value instanceof String) {
+      editor.putString(key, (String) value);
+    } else if (value instanceof Integer) {
+      editor.putInt(key, (Integer) value);
+    } else if (value instanceof Long) {
+      editor.putLong(key, (Long) value);
+    } else if (value instanceof Float) {
+      editor.putFloat(key, (Float) value);
+    } else if (value instanceof Boolean) {
+      editor.putBoolean(key, (Boolean) value);
+    } else if (value instanceof Set) {
+      editor.putStringSet(key, (Set<String>) value);
+    }
+  }
+
+  private class LogEditor implements SharedPreferences.Editor {
+    // Guarded by this.
+    private final Map<String, Object> changes = new HashMap<>();
+    private boolean clear;
+
+    @Override
+    public synchronized SharedPreferences.Editor putString(String key, String value) {
+      changes.put(key, value != null ? value : REMOVED);
+      return this;
+    }
+
+    @Override
+    public synchronized SharedPreferences.Editor putStringSet(String key, Set<String> values) {
+      changes.put(key, values != null ? new HashSet<>(values) : REMOVED);
+      return this;
+    }
+
+    @Override
+    public synchronized SharedPreferences.Editor putInt(String key, int value) {
+      changes.put(key, value);
+      return this;
+    }
+
+    @Override
+    public synchronized SharedPreferences.Editor putLong(String key, long value) {
+      changes.put(key, value);
+      return this;
+    }
+
+    @Override
+    public synchronized SharedPreferences.Editor putFloat(String key, float value) {
+      changes.put(key, value);
+      return this;
+    }
+
+    @Override
+    public synchronized SharedPreferences.Editor putBoolean(String key, boolean value) {
+      changes.put(key, value);
+      return this;
+    }
+
+    @Override
+    public synchronized SharedPreferences.Editor remove(String key) {
+      changes.put(key, REMOVED);
+      return this;
+    }
+
+    @Override
+    public synchronized SharedPreferences.Editor clear() {
+      clear = true;
+      return this;
+    }
+
+    @Override
+    public boolean commit() {
+      notifyListeners(takeAndApply());
+      return writeUnwrittenFrames();
+    }
+
+    @Override
+    public void apply() {
+      notifyListeners(takeAndApply());
+      writer.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              writeUnwrittenFrames();
+            }
+          });
+    }
+
+    private List<String> takeAndApply() {
+      Map<String, Object> changesCopy;
+      boolean clearCopy;
+      synchronized (this) {
+        changesCopy = new HashMap<>(changes);
+        clearCopy = clear;
+        changes.clear();
+        clear = false;
+      }
+      return applyToMemory(clearCopy, changesCopy);
+    }
+  }
+}
@@ -6,44 +6,115 @@ package io.flutter.plugins.sharedpreferences;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Base64;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.math.BigInteger;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Implementation of the {@link MethodChannel.MethodCallHandler} for the plugin. It is also
- * responsible of managing the {@link android.content.SharedPreferences}.
+ * responsible of managing the {@link android.content.SharedPreferences}, and streams the changes
+ * to them as the {@link EventChannel.StreamHandler} of the changes channel.
  */
 @SuppressWarnings("unchecked")
-class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
+class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler, EventChannel.StreamHandler {
 
   private static final String SHARED_PREFERENCES_NAME = "FlutterSharedPreferences";
+  private static final String FLUTTER_PREFIX = "flutter.";
 
   // Fun fact: The following is a base64 encoding of the string "This is the prefix for a list."
   private static final String LIST_IDENTIFIER = "VGhpcyBpcyB0aGUgcHJlZml4IGZvciBhIGxpc3Qu";
   private static final String BIG_INTEGER_PREFIX = "VGhpcyBpcyB0aGUgcHJlZml4IGZvciBCaWdJbnRlZ2Vy";
   private static final String DOUBLE_PREFIX = "VGhpcyBpcyB0aGUgcHJlZml4IGZvciBEb3VibGUu";
+  // Base64 of "This is the prefix for a compact string list." Lists written under this prefix use
+  // encodeCompactList; values under LIST_IDENTIFIER are read and rewritten on the next getAll.
+  private static final String COMPACT_LIST_PREFIX =
+      "VGhpcyBpcyB0aGUgcHJlZml4IGZvciBhIGNvbXBhY3Qgc3RyaW5nIGxpc3Qu";
+  private static final int COMPACT_LIST_VERSION = 1;
+  // StandardCharsets needs API 19.
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
 
   private final android.content.SharedPreferences preferences;
+  private final CommitQueue commitQueue;
+
+  // The decoded flutter.* values, loaded by the first getAll and then kept up to date, so later
+  // reads only decode the keys in staleKeys. Both are only touched on the platform thread.
+  private Map<String, Object> snapshot;
+  private final Set<String> staleKeys = new HashSet<>();
+
+  // Set while Dart listens to the changes channel. The keys changed since the last event are sent
+  // together in one event, posted after the listener calls of a commit. Platform thread only.
+  private EventChannel.EventSink changeSink;
+  private final Set<String> changedKeys = new HashSet<>();
+  private boolean changeEventScheduled;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+
+  // Marks keys changed by any writer, including native code outside the plugin, for re-decoding.
+  // Held in a field because SharedPreferences only keeps a weak reference to its listeners.
+  // Visible for tests, as the regular SharedPreferences only report clears on API 30 and above.
+  final SharedPreferences.OnSharedPreferenceChangeListener preferenceChangeListener =
+      new SharedPreferences.OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+          if (key == null) {
+            // Editor.clear() reports a null key on API 30 and above, instead of the keys it
+            // removed. Those are the keys of the snapshot, which is loaded while Dart listens,
+            // and the keys stored since it was last brought up to date.
+            if (changeSink != null && snapshot != null) {
+              changedKeys.addAll(snapshot.keySet());
+              changedKeys.addAll(staleKeys);
+            }
+            snapshot = null;
+            staleKeys.clear();
+          } else if (key.startsWith(FLUTTER_PREFIX)) {
+            if (snapshot != null) {
+              staleKeys.add(key);
+            }
+            if (changeSink != null) {
+              changedKeys.add(key);
+            }
+          }
+          if (!changedKeys.isEmpty() && !changeEventScheduled) {
+            changeEventScheduled = true;
+            handler.post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    sendChangeEvent();
+                  }
+                });
+          }
+        }
+      };
 
   /**
    * Constructs a {@link MethodCallHandlerImpl} instance. Creates a {@link
-   * android.content.SharedPreferences} based on the {@code context}.
+   * android.content.SharedPreferences} based on the {@code context}, backed by a {@link
+   * LogSharedPreferences} if the app opted in to it.
    */
   MethodCallHandlerImpl(Context context) {
-    preferences = context.getSharedPreferences(SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE);
+    preferences = LogSharedPreferences.open(context, SHARED_PREFERENCES_NAME);
+    commitQueue = new CommitQueue(preferences);
+    preferences.registerOnSharedPreferenceChangeListener(preferenceChangeListener);
   }
 
   @Override
@@ -52,42 +123,28 @@ class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
     try {
       switch (call.method) {
         case "setBool":
-          commitAsync(preferences.edit().putBoolean(key, (boolean) call.argument("value")), result);
+          commitAsync(key, (boolean) call.argument("value"), result);
           break;
         case "setDouble":
           double doubleValue = ((Number) call.argument("value")).doubleValue();
-          String doubleValueStr = Double.toString(doubleValue);
-          commitAsync(preferences.edit().putString(key, DOUBLE_PREFIX + doubleValueStr), result);
+          commitAsync(key, doubleValue, result);
           break;
         case "setInt":
-          Number number = call.argument("value");
-          if (number instanceof BigInteger) {
-            BigInteger integerValue = (BigInteger) number;
-            commitAsync(
-                preferences
-                    .edit()
-                    .putString(
-                        key, BIG_INTEGER_PREFIX + integerValue.toString(Character.MAX_RADIX)),
-                result);
-          } else {
-            commitAsync(preferences.edit().putLong(key, number.longValue()), result);
-          }
-          break;
         case "setString":
-          String value = (String) call.argument("value");
-          if (value.startsWith(LIST_IDENTIFIER) || value.startsWith(BIG_INTEGER_PREFIX)) {
-            result.error(
-                "StorageError",
-                "This string cannot be stored as it clashes with special identifier prefixes.",
-                null);
-            return;
-          }
-          commitAsync(preferences.edit().putString(key, value), result);
-          break;
         case "setStringList":
-          List<String> list = call.argument("value");
-          commitAsync(
-              preferences.edit().putString(key, LIST_IDENTIFIER + encodeList(list)), result);
+          commitAsync(key, call.argument("value"), result);
+          break;
+        case "setAll":
+          // Every put and remove of the batch is committed together.
+          Map<String, Object> values = call.argument("values");
+          Map<String, Object> changes = new LinkedHashMap<>();
+          for (Map.Entry<String, Object> entry : values.entrySet()) {
+            changes.put(entry.getKey(), encodeValue(entry.getValue()));
+          }
+          commitQueue.enqueue(changes, result);
+          for (Map.Entry<String, Object> entry : values.entrySet()) {
+            updateSnapshot(entry.getKey(), entry.getValue());
+          }
           break;
         case "commit":
           // We've been committing the whole time.
@@ -96,39 +153,149 @@ class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         case "getAll":
           result.success(getAllPrefs());
           return;
+        case "getKeys":
+          String prefix = call.argument("prefix");
+          result.success(getKeys(prefix != null ? prefix : FLUTTER_PREFIX));
+          return;
         case "remove":
-          commitAsync(preferences.edit().remove(key), result);
+          commitAsync(key, null, result);
           break;
         case "clear":
-          Set<String> keySet = getAllPrefs().keySet();
-          SharedPreferences.Editor clearEditor = preferences.edit();
-          for (String keyToDelete : keySet) {
-            clearEditor.remove(keyToDelete);
+          removeAll(getKeys(FLUTTER_PREFIX), result);
+          break;
+        case "removeByPrefix":
+          String removalPrefix = call.argument("prefix");
+          if (removalPrefix == null) {
+            throw new IllegalArgumentException("removeByPrefix requires a prefix.");
           }
-          commitAsync(clearEditor, result);
+          removeAll(getKeys(removalPrefix), result);
           break;
         default:
           result.notImplemented();
           break;
       }
+    } catch (IllegalArgumentException e) {
+      result.error("StorageError", e.getMessage(), null);
     } catch (IOException e) {
       result.error("IOException encountered", call.method, e);
     }
   }
 
-  private void commitAsync(
-      final SharedPreferences.Editor editor, final MethodChannel.Result result) {
-    new AsyncTask<Void, Void, Boolean>() {
-      @Override
-      protected Boolean doInBackground(Void... voids) {
-        return editor.commit();
-      }
+  @Override
+  public void onListen(Object arguments, EventChannel.EventSink events) {
+    changeSink = events;
+    // Loads the snapshot, so that a clear can be reported key by key.
+    try {
+      refreshSnapshot();
+    } catch (IOException e) {
+      events.error("IOException encountered", "changes", null);
+    }
+  }
+
+  @Override
+  public void onCancel(Object arguments) {
+    changeSink = null;
+    changedKeys.clear();
+  }
+
+  // Sends the changed keys with their decoded values, or null for the keys that were removed.
+  private void sendChangeEvent() {
+    changeEventScheduled = false;
+    if (changeSink == null) {
+      changedKeys.clear();
+      return;
+    }
+    Map<String, Object> changes = new HashMap<>();
+    try {
+      refreshSnapshot();
+    } catch (IOException e) {
+      changedKeys.clear();
+      changeSink.error("IOException encountered", "changes", null);
+      return;
+    }
+    for (String key : changedKeys) {
+      changes.put(key, snapshot.get(key));
+    }
+    changedKeys.clear();
+    changeSink.success(changes);
+  }
+
+  /** Lets the queued writes finish and stops the commit thread. */
+  void teardown() {
+    preferences.unregisterOnSharedPreferenceChangeListener(preferenceChangeListener);
+    commitQueue.shutdown();
+  }
+
+  /** Queues {@code value} to be written to {@code key}, or the key to be removed if it is null. */
+  private void commitAsync(String key, Object value, MethodChannel.Result result)
+      throws IOException {
+    commitQueue.enqueue(Collections.singletonMap(key, encodeValue(value)), result);
+    updateSnapshot(key, value);
+  }
+
+  /** Removes {@code keys} in a single commit, without reading their values. */
+  private void removeAll(List<String> keys, MethodChannel.Result result) {
+    Map<String, Object> removals = new LinkedHashMap<>();
+    for (String keyToDelete : keys) {
+      removals.put(keyToDelete, CommitQueue.REMOVE);
+    }
+    commitQueue.enqueue(removals, result);
+    for (String keyToDelete : keys) {
+      updateSnapshot(keyToDelete, null);
+    }
+  }
+
+  /** Applies a write from Dart to the snapshot, so it is visible before the commit lands. */
+  private void updateSnapshot(String key, Object value) {
+    if (snapshot == null || !key.startsWith(FLUTTER_PREFIX)) {
+      return;
+    }
+    // This value is newer than whatever the change listener reported for the key.
+    staleKeys.remove(key);
+    if (value == null) {
+      snapshot.remove(key);
+    } else if (value instanceof Integer) {
+      // Ints are stored, and so read back, as longs.
+      snapshot.put(key, ((Integer) value).longValue());
+    } else if (value instanceof List) {
+      snapshot.put(key, new ArrayList<>((List<String>) value));
+    } else {
+      snapshot.put(key, value);
+    }
+  }
 
-      @Override
-      protected void onPostExecute(Boolean value) {
-        result.success(value);
+  /**
+   * Encodes {@code value} the way it is stored in {@link SharedPreferences}: booleans and ints as
+   * themselves, doubles, big integers and lists as prefixed strings. A null value becomes {@link
+   * CommitQueue#REMOVE}.
+   *
+   * @throws IllegalArgumentException if the value has an unsupported type or is a string that
+   *     clashes with the special identifier prefixes.
+   */
+  private Object encodeValue(Object value) throws IOException {
+    if (value == null) {
+      return CommitQueue.REMOVE;
+    } else if (value instanceof Boolean) {
+      return value;
+    } else if (value instanceof Double) {
+      return DOUBLE_PREFIX + Double.toString((Double) value);
+    } else if (value instanceof BigInteger) {
+      return BIG_INTEGER_PREFIX + ((BigInteger) value).toString(Character.MAX_RADIX);
+    } else if (value instanceof Integer || value instanceof Long) {
+      return ((Number) value).longValue();
+    } else if (value instanceof String) {
+      String stringValue = (String) value;
+      if (stringValue.startsWith(LIST_IDENTIFIER)
+          || stringValue.startsWith(COMPACT_LIST_PREFIX)
+          || stringValue.startsWith(BIG_INTEGER_PREFIX)) {
+        throw new IllegalArgumentException(
+            "This string cannot be stored as it clashes with special identifier prefixes.");
       }
-    }.execute();
+      return stringValue;
+    } else if (value instanceof List) {
+      return COMPACT_LIST_PREFIX + encodeCompactList((List<String>) value);
+    }
+    throw new IllegalArgumentException("Unsupported value type: " + value.getClass().getName());
   }
 
   private List<String> decodeList(String encodedList) throws IOException {
@@ -160,44 +327,146 @@ class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
     }
   }
 
+  /**
+   * Decodes a list written by {@link #encodeCompactList}: a version byte, the item count, then each
+   * item as its UTF-8 byte length followed by the bytes.
+   */
+  private List<String> decodeCompactList(String encodedList) throws IOException {
+    DataInputStream stream =
+        new DataInputStream(new ByteArrayInputStream(Base64.decode(encodedList, Base64.NO_WRAP)));
+    try {
+      int version = stream.readByte();
+      if (version != COMPACT_LIST_VERSION) {
+        throw new IOException("Unsupported list encoding version " + version);
+      }
+      int count = stream.readInt();
+      List<String> list = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        byte[] bytes = new byte[stream.readInt()];
+        stream.readFully(bytes);
+        list.add(new String(bytes, UTF_8));
+      }
+      return list;
+    } finally {
+      stream.close();
+    }
+  }
+
+  private String encodeCompactList(List<String> list) throws IOException {
+    ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+    DataOutputStream stream = new DataOutputStream(byteStream);
+    stream.writeByte(COMPACT_LIST_VERSION);
+    stream.writeInt(list.size());
+    for (String item : list) {
+      byte[] bytes = item.getBytes(UTF_8);
+      stream.writeInt(bytes.length);
+      stream.write(bytes);
+    }
+    stream.flush();
+    return Base64.encodeToString(byteStream.toByteArray(), Base64.NO_WRAP);
+  }
+
   // Filter preferences to only those set by the flutter app.
   private Map<String, Object> getAllPrefs() throws IOException {
-    Map<String, ?> allPrefs = preferences.getAll();
-    Map<String, Object> filteredPrefs = new HashMap<>();
-    for (String key : allPrefs.keySet()) {
-      if (key.startsWith("flutter.")) {
-        Object value = allPrefs.get(key);
-        if (value instanceof String) {
-          String stringValue = (String) value;
-          if (stringValue.startsWith(LIST_IDENTIFIER)) {
-            value = decodeList(stringValue.substring(LIST_IDENTIFIER.length()));
-          } else if (stringValue.startsWith(BIG_INTEGER_PREFIX)) {
-            String encoded = stringValue.substring(BIG_INTEGER_PREFIX.length());
-            value = new BigInteger(encoded, Character.MAX_RADIX);
-          } else if (stringValue.startsWith(DOUBLE_PREFIX)) {
-            String doubleStr = stringValue.substring(DOUBLE_PREFIX.length());
-            value = Double.valueOf(doubleStr);
+    refreshSnapshot();
+    return new HashMap<>(snapshot);
+  }
+
+  // Loads the snapshot, or decodes the keys that changed since it was last brought up to date.
+  private void refreshSnapshot() throws IOException {
+    if (snapshot == null) {
+      Map<String, ?> allPrefs = preferences.getAll();
+      Map<String, Object> filteredPrefs = new HashMap<>();
+      for (String key : allPrefs.keySet()) {
+        if (key.startsWith(FLUTTER_PREFIX)) {
+          filteredPrefs.put(key, decodeValue(key, allPrefs.get(key)));
+        }
+      }
+      snapshot = filteredPrefs;
+      staleKeys.clear();
+    } else if (!staleKeys.isEmpty()) {
+      Map<String, ?> allPrefs = preferences.getAll();
+      // Decoding can migrate a value, which reports the key as stale again.
+      List<String> keys = new ArrayList<>(staleKeys);
+      staleKeys.clear();
+      try {
+        for (String key : keys) {
+          // A queued write is newer than the stored value and is already in the snapshot. Its
+          // commit marks the key as stale again.
+          if (commitQueue.hasPendingWrite(key)) {
+            continue;
           }
-        } else if (value instanceof Set) {
-          // This only happens for previous usage of setStringSet. The app expects a list.
-          List<String> listValue = new ArrayList<>((Set) value);
-          // Let's migrate the value too while we are at it.
-          boolean success =
-              preferences
-                  .edit()
-                  .remove(key)
-                  .putString(key, LIST_IDENTIFIER + encodeList(listValue))
-                  .commit();
-          if (!success) {
-            // If we are unable to migrate the existing preferences, it means we potentially lost them.
-            // In this case, an error from getAllPrefs() is appropriate since it will alert the app during plugin initialization.
-            throw new IOException("Could not migrate set to list");
+          Object value = allPrefs.get(key);
+          if (value == null) {
+            snapshot.remove(key);
+          } else {
+            snapshot.put(key, decodeValue(key, value));
           }
-          value = listValue;
         }
-        filteredPrefs.put(key, value);
+      } catch (IOException e) {
+        // Start over from the stored values on the next read.
+        snapshot = null;
+        throw e;
+      }
+    }
+  }
+
+  // Lists the flutter.* keys that start with prefix, without decoding any value.
+  private List<String> getKeys(String prefix) {
+    Set<String> keySet;
+    if (snapshot != null && staleKeys.isEmpty()) {
+      keySet = snapshot.keySet();
+    } else {
+      // getAll() copies the stored values without decoding them. Keys with a queued write are not
+      // stored yet, but are still part of the store.
+      keySet = new HashSet<>(preferences.getAll().keySet());
+      keySet.addAll(commitQueue.getPendingKeys());
+    }
+    List<String> keys = new ArrayList<>();
+    for (String key : keySet) {
+      if (key.startsWith(FLUTTER_PREFIX) && key.startsWith(prefix)) {
+        keys.add(key);
+      }
+    }
+    return keys;
+  }
+
+  private Object decodeValue(String key, Object value) throws IOException {
+    if (value instanceof String) {
+      String stringValue = (String) value;
+      if (stringValue.startsWith(COMPACT_LIST_PREFIX)) {
+        value = decodeCompactList(stringValue.substring(COMPACT_LIST_PREFIX.length()));
+      } else if (stringValue.startsWith(LIST_IDENTIFIER)) {
+        List<String> listValue = decodeList(stringValue.substring(LIST_IDENTIFIER.length()));
+        // Rewrite the list in the compact encoding. Nothing waits on this write; if it fails the
+        // value is still readable and is migrated on a later getAll.
+        commitQueue.enqueueMigration(
+            key, stringValue, COMPACT_LIST_PREFIX + encodeCompactList(listValue));
+        value = listValue;
+      } else if (stringValue.startsWith(BIG_INTEGER_PREFIX)) {
+        String encoded = stringValue.substring(BIG_INTEGER_PREFIX.length());
+        value = new BigInteger(encoded, Character.MAX_RADIX);
+      } else if (stringValue.startsWith(DOUBLE_PREFIX)) {
+        String doubleStr = stringValue.substring(DOUBLE_PREFIX.length());
+        value = Double.valueOf(doubleStr);
+      }
+    } else if (value instanceof Set) {
+      // This only happens for previous usage of setStringSet. The app expects a list.
+      List<String> listValue = new ArrayList<>((Set) value);
+      // Let's migrate the value too while we are at it.
+      boolean success =
+          preferences
+              .edit()
+              .remove(key)
+              .putString(key, COMPACT_LIST_PREFIX + encodeCompactList(listValue))
+              .commit();
+      if (!success) {
+        // If we are unable to migrate the existing preferences, it means we potentially lost them.
+        // In this case, an error from getAllPrefs() is appropriate since it will alert the app during plugin initialization.
+        throw new IOException("Could not migrate set to list");
       }
+      value = listValue;
     }
-    return filteredPrefs;
+    return value;
   }
 }
@@ -7,12 +7,17 @@ package io.flutter.plugins.sharedpreferences;
 import android.content.Context;
 import io.flutter.embedding.engine.plugins.FlutterPlugin;
 import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodChannel;
 
 /** SharedPreferencesPlugin */
 public class SharedPreferencesPlugin implements FlutterPlugin {
   private static final String CHANNEL_NAME = "plugins.flutter.io/shared_preferences";
+  private static final String CHANGES_CHANNEL_NAME =
+      "plugins.flutter.io/shared_preferences_changes";
   private MethodChannel channel;
+  private EventChannel changesChannel;
+  private MethodCallHandlerImpl handler;
 
   @SuppressWarnings("deprecation")
   public static void registerWith(io.flutter.plugin.common.PluginRegistry.Registrar registrar) {
@@ -32,12 +37,18 @@ public class SharedPreferencesPlugin implements FlutterPlugin {
 
   private void setupChannel(BinaryMessenger messenger, Context context) {
     channel = new MethodChannel(messenger, CHANNEL_NAME);
-    MethodCallHandlerImpl handler = new MethodCallHandlerImpl(context);
+    handler = new MethodCallHandlerImpl(context);
     channel.setMethodCallHandler(handler);
+    changesChannel = new EventChannel(messenger, CHANGES_CHANNEL_NAME);
+    changesChannel.setStreamHandler(handler);
   }
 
   private void teardownChannel() {
+    handler.teardown();
     channel.setMethodCallHandler(null);
     channel = null;
+    changesChannel.setStreamHandler(null);
+    changesChannel = null;
+    handler = null;
   }
 }
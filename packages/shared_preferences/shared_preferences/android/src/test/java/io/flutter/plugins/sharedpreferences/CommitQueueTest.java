@@ -0,0 +1,242 @@
+package io.flutter.plugins.sharedpreferences;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.test.core.app.ApplicationProvider;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+public class CommitQueueTest {
+  private SharedPreferences storedPreferences;
+  private SharedPreferences preferences;
+  private CommitQueue commitQueue;
+
+  // Hold the first commit in preferences.edit() until released, so the writes queued meanwhile
+  // are merged into the next one.
+  private final CountDownLatch firstCommitStarted = new CountDownLatch(1);
+  private final CountDownLatch releaseFirstCommit = new CountDownLatch(1);
+
+  @Before
+  public void setUp() {
+    storedPreferences =
+        ApplicationProvider.getApplicationContext()
+            .getSharedPreferences("CommitQueueTest", Context.MODE_PRIVATE);
+    storedPreferences.edit().clear().commit();
+    // CommitQueue only edits and reads back strings for migrations.
+    preferences = mock(SharedPreferences.class);
+    doAnswer(
+            new Answer<String>() {
+              @Override
+              public String answer(InvocationOnMock invocation) {
+                Object[] arguments = invocation.getArguments();
+                return storedPreferences.getString((String) arguments[0], (String) arguments[1]);
+              }
+            })
+        .when(preferences)
+        .getString(any(String.class), any(String.class));
+    doAnswer(
+            new Answer<SharedPreferences.Editor>() {
+              @Override
+              public SharedPreferences.Editor answer(InvocationOnMock invocation)
+                  throws InterruptedException {
+                if (firstCommitStarted.getCount() > 0) {
+                  firstCommitStarted.countDown();
+                  releaseFirstCommit.await(5, TimeUnit.SECONDS);
+                }
+                return storedPreferences.edit();
+              }
+            })
+        .when(preferences)
+        .edit();
+    commitQueue = new CommitQueue(preferences);
+  }
+
+  @After
+  public void tearDown() {
+    releaseFirstCommit.countDown();
+    commitQueue.shutdown();
+  }
+
+  @Test
+  public void enqueue_MergesTheWritesQueuedDuringACommit() throws Exception {
+    RecordingResult first = new RecordingResult();
+    RecordingResult second = new RecordingResult();
+    RecordingResult third = new RecordingResult();
+
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("first", 1L), first);
+    assertTrue(firstCommitStarted.await(5, TimeUnit.SECONDS));
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("second", "value"), second);
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("third", true), third);
+    releaseFirstCommit.countDown();
+    awaitResults(first, second, third);
+
+    verify(preferences, times(2)).edit();
+    assertEquals(Arrays.<Object>asList(true), first.outcomes);
+    assertEquals(Arrays.<Object>asList(true), second.outcomes);
+    assertEquals(Arrays.<Object>asList(true), third.outcomes);
+    assertEquals(1L, storedPreferences.getLong("first", 0));
+    assertEquals("value", storedPreferences.getString("second", null));
+    assertTrue(storedPreferences.getBoolean("third", false));
+  }
+
+  @Test
+  public void enqueue_TheLastMergedWriteToAKeyWins() throws Exception {
+    storedPreferences.edit().putString("removed", "stored").commit();
+    RecordingResult blocker = new RecordingResult();
+    RecordingResult result = new RecordingResult();
+
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("other", 1L), blocker);
+    assertTrue(firstCommitStarted.await(5, TimeUnit.SECONDS));
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("key", "first"), result);
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("key", "second"), result);
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("removed", "written"), result);
+    commitQueue.enqueue(Collections.singletonMap("removed", CommitQueue.REMOVE), result);
+    releaseFirstCommit.countDown();
+    awaitResults(blocker, result);
+
+    assertEquals("second", storedPreferences.getString("key", null));
+    assertFalse(storedPreferences.contains("removed"));
+  }
+
+  @Test
+  public void enqueueMigration_RewritesTheExpectedValue() throws Exception {
+    storedPreferences.edit().putString("key", "legacy").commit();
+    releaseFirstCommit.countDown();
+
+    commitQueue.enqueueMigration("key", "legacy", "compact");
+    awaitQueuedCommits();
+
+    assertEquals("compact", storedPreferences.getString("key", null));
+  }
+
+  @Test
+  public void enqueueMigration_SkipsAValueThatChangedBeforeTheCommit() throws Exception {
+    storedPreferences.edit().putString("key", "legacy").commit();
+    releaseFirstCommit.countDown();
+
+    storedPreferences.edit().putString("key", "newer").commit();
+    commitQueue.enqueueMigration("key", "legacy", "compact");
+    awaitQueuedCommits();
+
+    assertEquals("newer", storedPreferences.getString("key", null));
+  }
+
+  @Test
+  public void enqueueMigration_IsSkippedWhenAWriteIsQueued() throws Exception {
+    storedPreferences.edit().putString("key", "legacy").commit();
+    RecordingResult blocker = new RecordingResult();
+    RecordingResult result = new RecordingResult();
+
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("other", 1L), blocker);
+    assertTrue(firstCommitStarted.await(5, TimeUnit.SECONDS));
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("key", "newer"), result);
+    commitQueue.enqueueMigration("key", "legacy", "compact");
+    releaseFirstCommit.countDown();
+    awaitResults(blocker, result);
+
+    assertEquals("newer", storedPreferences.getString("key", null));
+  }
+
+  @Test
+  public void enqueue_OverridesAQueuedMigration() throws Exception {
+    storedPreferences.edit().putString("key", "legacy").commit();
+    RecordingResult blocker = new RecordingResult();
+    RecordingResult result = new RecordingResult();
+
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("other", 1L), blocker);
+    assertTrue(firstCommitStarted.await(5, TimeUnit.SECONDS));
+    commitQueue.enqueueMigration("key", "legacy", "compact");
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("key", "newer"), result);
+    releaseFirstCommit.countDown();
+    awaitResults(blocker, result);
+
+    assertEquals("newer", storedPreferences.getString("key", null));
+  }
+
+  @Test
+  public void getPendingKeys_ListsOnlyTheQueuedValues() throws Exception {
+    RecordingResult blocker = new RecordingResult();
+    RecordingResult result = new RecordingResult();
+
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("other", 1L), blocker);
+    assertTrue(firstCommitStarted.await(5, TimeUnit.SECONDS));
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("written", "value"), result);
+    commitQueue.enqueue(Collections.singletonMap("removed", CommitQueue.REMOVE), result);
+    commitQueue.enqueueMigration("migrated", "legacy", "compact");
+
+    assertEquals(Arrays.asList("written"), commitQueue.getPendingKeys());
+    assertTrue(commitQueue.hasPendingWrite("removed"));
+    assertTrue(commitQueue.hasPendingWrite("migrated"));
+    assertFalse(commitQueue.hasPendingWrite("other"));
+
+    releaseFirstCommit.countDown();
+    awaitResults(blocker, result);
+    assertTrue(commitQueue.getPendingKeys().isEmpty());
+  }
+
+  // Commits run one at a time, so once a later write is resolved every earlier one is on disk.
+  private void awaitQueuedCommits() throws InterruptedException {
+    RecordingResult result = new RecordingResult();
+    commitQueue.enqueue(Collections.<String, Object>singletonMap("barrier", true), result);
+    awaitResults(result);
+  }
+
+  // Results are posted to the main looper, which only runs when the test idles it.
+  private static void awaitResults(RecordingResult... results) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (System.currentTimeMillis() < deadline) {
+      ShadowLooper.idleMainLooper();
+      boolean resolved = true;
+      for (RecordingResult result : results) {
+        resolved &= !result.outcomes.isEmpty();
+      }
+      if (resolved) {
+        return;
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("The queued writes were not committed in time.");
+  }
+
+  private static class RecordingResult implements MethodChannel.Result {
+    final List<Object> outcomes = new ArrayList<>();
+
+    @Override
+    public void success(Object result) {
+      outcomes.add(result);
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {
+      outcomes.add(errorCode);
+    }
+
+    @Override
+    public void notImplemented() {
+      outcomes.add("notImplemented");
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package io.flutter.plugins.sharedpreferences;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.test.core.app.ApplicationProvider;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.zip.CRC32;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class LogSharedPreferencesTest {
+  private static final String NAME = "LogSharedPreferencesTest";
+
+  private Context context;
+  private File file;
+
+  @Before
+  public void setUp() {
+    context = ApplicationProvider.getApplicationContext();
+    context.getSharedPreferences(NAME, Context.MODE_PRIVATE).edit().clear().commit();
+    // The file open() uses, so that opting out can be tested too.
+    file = new File(new File(context.getFilesDir(), "flutter_shared_preferences"), NAME + ".log");
+    file.delete();
+  }
+
+  @Test
+  public void commit_AppendsOneChecksummedFrame() throws IOException {
+    SharedPreferences preferences = new LogSharedPreferences(context, NAME, file);
+    assertTrue(preferences.edit().putString("key", "value").commit());
+
+    DataInputStream input = new DataInputStream(new FileInputStream(file));
+    try {
+      assertEquals(0x46535031, input.readInt());
+      assertEquals(1, input.readInt());
+      // The empty store the log was started with.
+      byte[] initial = readFrame(input);
+      assertEquals(5, initial.length);
+
+      DataInputStream payload = new DataInputStream(new ByteArrayInputStream(readFrame(input)));
+      assertFalse(payload.readBoolean());
+      assertEquals(1, payload.readInt());
+      assertEquals("key", readString(payload));
+      assertEquals(1, payload.readByte());
+      assertEquals("value", readString(payload));
+      assertEquals(-1, payload.read());
+      assertEquals(-1, input.read());
+    } finally {
+      input.close();
+    }
+  }
+
+  @Test
+  public void load_ReplaysEveryFrame() {
+    SharedPreferences preferences = new LogSharedPreferences(context, NAME, file);
+    preferences.edit().putString("string", "value").putLong("long", 1L).commit();
+    preferences.edit().putBoolean("bool", true).remove("long").commit();
+    preferences
+        .edit()
+        .putStringSet("set", new HashSet<>(Arrays.asList("first", "second")))
+        .putFloat("float", 1.5f)
+        .putInt("int", 2)
+        .commit();
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("string", "value");
+    expected.put("bool", true);
+    expected.put("set", new HashSet<>(Arrays.asList("first", "second")));
+    expected.put("float", 1.5f);
+    expected.put("int", 2);
+    assertEquals(expected, new LogSharedPreferences(context, NAME, file).getAll());
+  }
+
+  @Test
+  public void load_DropsAFrameThatFailsItsChecksum() throws IOException {
+    SharedPreferences preferences = new LogSharedPreferences(context, NAME, file);
+    preferences.edit().putString("first", "value").commit();
+    long validLength = file.length();
+    preferences.edit().putString("second", "value").commit();
+
+    RandomAccessFile corrupted = new RandomAccessFile(file, "rw");
+    try {
+      corrupted.seek(file.length() - 1);
+      int last = corrupted.read();
+      corrupted.seek(file.length() - 1);
+      corrupted.write(last ^ 0xff);
+    } finally {
+      corrupted.close();
+    }
+
+    SharedPreferences reloaded = new LogSharedPreferences(context, NAME, file);
+    assertEquals("value", reloaded.getString("first", null));
+    assertNull(reloaded.getString("second", null));
+    assertEquals(validLength, file.length());
+  }
+
+  @Test
+  public void load_DropsAFrameThatWasCutShort() throws IOException {
+    SharedPreferences preferences = new LogSharedPreferences(context, NAME, file);
+    preferences.edit().putString("first", "value").commit();
+    long validLength = file.length();
+    preferences.edit().putString("second", "value").commit();
+
+    RandomAccessFile truncated = new RandomAccessFile(file, "rw");
+    try {
+      truncated.setLength(file.length() - 3);
+    } finally {
+      truncated.close();
+    }
+
+    SharedPreferences reloaded = new LogSharedPreferences(context, NAME, file);
+    assertEquals("value", reloaded.getString("first", null));
+    assertNull(reloaded.getString("second", null));
+    assertEquals(validLength, file.length());
+
+    // Appending continues after the last valid frame.
+    reloaded.edit().putString("third", "value").commit();
+    SharedPreferences appended = new LogSharedPreferences(context, NAME, file);
+    assertEquals("value", appended.getString("first", null));
+    assertEquals("value", appended.getString("third", null));
+  }
+
+  @Test
+  public void commit_CompactsALogThatHasGrown() {
+    SharedPreferences preferences = new LogSharedPreferences(context, NAME, file);
+    String lastValue = null;
+    for (int i = 0; i < 3; i++) {
+      lastValue = largeString(100 * 1024, (char) ('a' + i));
+      preferences.edit().putString("key", lastValue).commit();
+    }
+
+    // Three frames of 100 KB exceed the 256 KB threshold and leave a single live value.
+    assertTrue(file.length() < 150 * 1024);
+    assertEquals(lastValue, new LogSharedPreferences(context, NAME, file).getString("key", null));
+  }
+
+  @Test
+  public void load_MovesTheRegularPreferencesIntoTheLog() {
+    SharedPreferences legacy = context.getSharedPreferences(NAME, Context.MODE_PRIVATE);
+    legacy
+        .edit()
+        .putString("string", "value")
+        .putLong("long", 1L)
+        .putStringSet("set", new HashSet<>(Arrays.asList("item")))
+        .commit();
+    Map<String, ?> values = new HashMap<>(legacy.getAll());
+
+    assertEquals(values, new LogSharedPreferences(context, NAME, file).getAll());
+    assertTrue(legacy.getAll().isEmpty());
+    assertEquals(values, new LogSharedPreferences(context, NAME, file).getAll());
+  }
+
+  @Test
+  public void open_MovesTheLogBackWhenTheAppOptsOut() {
+    SharedPreferences preferences = new LogSharedPreferences(context, NAME, file);
+    preferences.edit().putString("string", "value").putBoolean("bool", true).commit();
+
+    // The test app does not opt in to the log.
+    SharedPreferences restored = LogSharedPreferences.open(context, NAME);
+
+    assertFalse(restored instanceof LogSharedPreferences);
+    assertEquals("value", restored.getString("string", null));
+    assertTrue(restored.getBoolean("bool", false));
+    assertFalse(file.exists());
+  }
+
+  // Reads a frame and checks its checksum.
+  private static byte[] readFrame(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    long checksum = input.readInt() & 0xffffffffL;
+    byte[] payload = new byte[length];
+    input.readFully(payload);
+    CRC32 crc = new CRC32();
+    crc.update(payload, 0, length);
+    assertEquals(checksum, crc.getValue());
+    return payload;
+  }
+
+  private static String readString(DataInputStream input) throws IOException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return new String(bytes, "UTF-8");
+  }
+
+  private static String largeString(int length, char fill) {
+    char[] chars = new char[length];
+    Arrays.fill(chars, fill);
+    return new String(chars);
+  }
+}
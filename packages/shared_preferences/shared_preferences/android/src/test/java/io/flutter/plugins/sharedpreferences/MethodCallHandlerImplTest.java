@@ -0,0 +1,344 @@
+package io.flutter.plugins.sharedpreferences;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+import androidx.test.core.app.ApplicationProvider;
+import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+public class MethodCallHandlerImplTest {
+  private static final String LIST_IDENTIFIER = "VGhpcyBpcyB0aGUgcHJlZml4IGZvciBhIGxpc3Qu";
+  private static final String COMPACT_LIST_PREFIX =
+      "VGhpcyBpcyB0aGUgcHJlZml4IGZvciBhIGNvbXBhY3Qgc3RyaW5nIGxpc3Qu";
+  private static final List<String> LIST = Arrays.asList("first", "", "ünïcödé", "last");
+
+  private Context context;
+  private SharedPreferences preferences;
+  private MethodCallHandlerImpl handler;
+
+  @Before
+  public void setUp() {
+    context = ApplicationProvider.getApplicationContext();
+    preferences = context.getSharedPreferences("FlutterSharedPreferences", Context.MODE_PRIVATE);
+    preferences.edit().clear().commit();
+    handler = new MethodCallHandlerImpl(context);
+  }
+
+  @After
+  public void tearDown() {
+    handler.teardown();
+  }
+
+  @Test
+  public void setStringList_StoresTheCompactEncoding() throws Exception {
+    RecordingResult result = call("setStringList", "flutter.list", LIST);
+    awaitResults(result);
+
+    assertEquals(true, result.value);
+    String stored = preferences.getString("flutter.list", null);
+    assertTrue(stored.startsWith(COMPACT_LIST_PREFIX));
+    assertEquals(LIST, getAllFromNewHandler().get("flutter.list"));
+  }
+
+  @Test
+  public void setStringList_RoundTripsAnEmptyList() throws Exception {
+    RecordingResult result = call("setStringList", "flutter.list", new ArrayList<String>());
+    awaitResults(result);
+
+    assertEquals(new ArrayList<String>(), getAllFromNewHandler().get("flutter.list"));
+  }
+
+  @Test
+  public void getAll_DecodesALegacyListAndMigratesIt() throws Exception {
+    preferences.edit().putString("flutter.list", LIST_IDENTIFIER + encodeLegacyList(LIST)).commit();
+
+    assertEquals(LIST, getAll(handler).get("flutter.list"));
+    awaitQueuedCommits();
+
+    String stored = preferences.getString("flutter.list", null);
+    assertTrue(stored.startsWith(COMPACT_LIST_PREFIX));
+    assertEquals(LIST, getAllFromNewHandler().get("flutter.list"));
+  }
+
+  @Test
+  public void getAll_MigratesAStringSet() throws Exception {
+    preferences.edit().putStringSet("flutter.set", new HashSet<>(Arrays.asList("value"))).commit();
+
+    assertEquals(Arrays.asList("value"), getAll(handler).get("flutter.set"));
+
+    String stored = preferences.getString("flutter.set", null);
+    assertTrue(stored.startsWith(COMPACT_LIST_PREFIX));
+  }
+
+  @Test
+  public void setStringList_WinsOverAQueuedMigration() throws Exception {
+    preferences.edit().putString("flutter.list", LIST_IDENTIFIER + encodeLegacyList(LIST)).commit();
+    List<String> newer = Arrays.asList("newer");
+
+    getAll(handler);
+    RecordingResult result = call("setStringList", "flutter.list", newer);
+    awaitResults(result);
+
+    assertEquals(newer, getAll(handler).get("flutter.list"));
+    assertEquals(newer, getAllFromNewHandler().get("flutter.list"));
+  }
+
+  @Test
+  public void setString_RejectsAStringWithTheCompactListPrefix() {
+    RecordingResult result = call("setString", "flutter.string", COMPACT_LIST_PREFIX + "value");
+
+    assertEquals("StorageError", result.value);
+  }
+
+  @Test
+  public void removeByPrefix_RemovesOnlyTheMatchingKeys() throws Exception {
+    awaitResults(call("setString", "flutter.user.name", "name"));
+    awaitResults(call("setString", "flutter.other", "value"));
+
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("prefix", "flutter.user.");
+    RecordingResult result = new RecordingResult();
+    handler.onMethodCall(new MethodCall("removeByPrefix", arguments), result);
+    awaitResults(result);
+
+    assertEquals(true, result.value);
+    assertFalse(preferences.contains("flutter.user.name"));
+    assertEquals("value", preferences.getString("flutter.other", null));
+  }
+
+  @Test
+  public void removeByPrefix_ReportsAMissingPrefix() {
+    RecordingResult result = new RecordingResult();
+    handler.onMethodCall(new MethodCall("removeByPrefix", new HashMap<String, Object>()), result);
+
+    assertEquals("StorageError", result.value);
+  }
+
+  @Test
+  public void getAll_AfterWritesFromDart_MatchesAFullRebuild() throws Exception {
+    preferences
+        .edit()
+        .putString("flutter.string", "stored")
+        .putLong("flutter.int", 1)
+        .putString("flutter.list", LIST_IDENTIFIER + encodeLegacyList(LIST))
+        .commit();
+    getAll(handler);
+
+    call("setInt", "flutter.int", 2);
+    call("setDouble", "flutter.double", 1.5);
+    call("setStringList", "flutter.list", Arrays.asList("newer"));
+    call("remove", "flutter.string", null);
+    Map<String, Object> values = new HashMap<>();
+    values.put("flutter.batch", "batch");
+    values.put("flutter.int", 3);
+    values.put("flutter.double", null);
+    RecordingResult result = new RecordingResult();
+    handler.onMethodCall(
+        new MethodCall("setAll", Collections.singletonMap("values", values)), result);
+    awaitResults(result);
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("flutter.int", 3L);
+    expected.put("flutter.list", Arrays.asList("newer"));
+    expected.put("flutter.batch", "batch");
+    assertEquals(expected, getAll(handler));
+    assertEquals(getAllFromNewHandler(), getAll(handler));
+  }
+
+  @Test
+  public void getAll_AfterNativeWrites_MatchesAFullRebuild() throws Exception {
+    preferences.edit().putString("flutter.string", "stored").putLong("flutter.int", 1).commit();
+    getAll(handler);
+
+    preferences.edit().putString("flutter.string", "changed").remove("flutter.int").commit();
+    preferences
+        .edit()
+        .putBoolean("flutter.bool", true)
+        .putStringSet("flutter.set", new HashSet<>(Arrays.asList("value")))
+        .putString("other.key", "ignored")
+        .commit();
+    awaitResults(call("setString", "flutter.dart", "dart"));
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("flutter.string", "changed");
+    expected.put("flutter.bool", true);
+    expected.put("flutter.set", Arrays.asList("value"));
+    expected.put("flutter.dart", "dart");
+    assertEquals(expected, getAll(handler));
+    assertEquals(getAllFromNewHandler(), getAll(handler));
+  }
+
+  @Test
+  public void onListen_SendsAddedUpdatedAndRemovedKeys() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    handler.onListen(null, sink);
+
+    awaitResults(call("setString", "flutter.name", "first"));
+    assertEquals(Collections.singletonMap("flutter.name", "first"), awaitEvent(sink));
+
+    awaitResults(call("setString", "flutter.name", "second"));
+    assertEquals(Collections.singletonMap("flutter.name", "second"), awaitEvent(sink));
+
+    awaitResults(call("remove", "flutter.name", null));
+    assertEquals(Collections.singletonMap("flutter.name", null), awaitEvent(sink));
+  }
+
+  @Test
+  public void onListen_SendsTheKeysRemovedByClear() throws Exception {
+    awaitResults(call("setString", "flutter.first", "first"));
+    awaitResults(call("setString", "flutter.second", "second"));
+    RecordingSink sink = new RecordingSink();
+    handler.onListen(null, sink);
+
+    RecordingResult result = new RecordingResult();
+    handler.onMethodCall(new MethodCall("clear", null), result);
+    awaitResults(result);
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("flutter.first", null);
+    expected.put("flutter.second", null);
+    assertEquals(expected, awaitEvent(sink));
+  }
+
+  @Test
+  public void onListen_SendsTheKeysRemovedByANativeClear() throws Exception {
+    // Written before anything was read, so the handler has no snapshot until Dart listens.
+    preferences.edit().putString("flutter.first", "first").putLong("flutter.second", 2).commit();
+    RecordingSink sink = new RecordingSink();
+    handler.onListen(null, sink);
+
+    preferences.edit().clear().commit();
+    // Editor.clear() reports a single null key from API 30.
+    handler.preferenceChangeListener.onSharedPreferenceChanged(preferences, null);
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("flutter.first", null);
+    expected.put("flutter.second", null);
+    assertEquals(expected, awaitEvent(sink));
+    assertEquals(new HashMap<String, Object>(), getAll(handler));
+  }
+
+  private RecordingResult call(String method, String key, Object value) {
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("key", key);
+    arguments.put("value", value);
+    RecordingResult result = new RecordingResult();
+    handler.onMethodCall(new MethodCall(method, arguments), result);
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> getAll(MethodCallHandlerImpl handler) {
+    RecordingResult result = new RecordingResult();
+    handler.onMethodCall(new MethodCall("getAll", null), result);
+    return (Map<String, Object>) result.value;
+  }
+
+  // Decodes the stored values from scratch rather than from the snapshot of the handler.
+  private Map<String, Object> getAllFromNewHandler() {
+    MethodCallHandlerImpl newHandler = new MethodCallHandlerImpl(context);
+    try {
+      return getAll(newHandler);
+    } finally {
+      newHandler.teardown();
+    }
+  }
+
+  // Writes run one at a time, so once a later write is resolved every earlier one is on disk.
+  private void awaitQueuedCommits() throws InterruptedException {
+    RecordingResult result = call("setBool", "flutter.barrier", true);
+    awaitResults(result);
+  }
+
+  // Results are posted to the main looper, which only runs when the test idles it.
+  private static void awaitResults(RecordingResult result) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!result.resolved && System.currentTimeMillis() < deadline) {
+      ShadowLooper.idleMainLooper();
+      Thread.sleep(10);
+    }
+    assertTrue("The write was not committed in time.", result.resolved);
+  }
+
+  // Change events are posted to the main looper after the listener calls of a commit.
+  private static Object awaitEvent(RecordingSink sink) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (sink.events.isEmpty() && System.currentTimeMillis() < deadline) {
+      ShadowLooper.idleMainLooper();
+      Thread.sleep(10);
+    }
+    assertFalse("No change event was sent in time.", sink.events.isEmpty());
+    return sink.events.remove(0);
+  }
+
+  // The encoding used before COMPACT_LIST_PREFIX.
+  private static String encodeLegacyList(List<String> list) throws IOException {
+    ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+    ObjectOutputStream stream = new ObjectOutputStream(byteStream);
+    stream.writeObject(new ArrayList<>(list));
+    stream.close();
+    return Base64.encodeToString(byteStream.toByteArray(), 0);
+  }
+
+  private static class RecordingSink implements EventChannel.EventSink {
+    final List<Object> events = new ArrayList<>();
+
+    @Override
+    public void success(Object event) {
+      events.add(event);
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {
+      events.add(errorCode);
+    }
+
+    @Override
+    public void endOfStream() {}
+  }
+
+  private static class RecordingResult implements MethodChannel.Result {
+    boolean resolved;
+    Object value;
+
+    @Override
+    public void success(Object result) {
+      resolved = true;
+      value = result;
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {
+      resolved = true;
+      value = errorCode;
+    }
+
+    @Override
+    public void notImplemented() {
+      resolved = true;
+    }
+  }
+}
@@ -45,6 +45,18 @@ static NSString *const CHANNEL_NAME = @"plugins.flutter.io/shared_preferences";
       NSArray *value = arguments[@"value"];
       [[NSUserDefaults standardUserDefaults] setValue:value forKey:key];
       result(@YES);
+    } else if ([method isEqualToString:@"setAll"]) {
+      NSDictionary *values = arguments[@"values"];
+      NSUserDefaults *defaults = [NSUserDefaults standardUserDefaults];
+      for (NSString *key in values) {
+        id value = values[key];
+        if (value == [NSNull null]) {
+          [defaults removeObjectForKey:key];
+        } else {
+          [defaults setValue:value forKey:key];
+        }
+      }
+      result(@YES);
     } else if ([method isEqualToString:@"commit"]) {
       // synchronize is deprecated.
       // "this method is unnecessary and shouldn't be used."
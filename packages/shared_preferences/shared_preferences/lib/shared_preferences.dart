@@ -149,6 +149,26 @@ class SharedPreferences {
   /// Removes an entry from persistent storage.
   Future<bool> remove(String key) => _setValue(null, key, null);
 
+  /// Saves every entry of [values] to persistent storage in the background,
+  /// using a single write on platforms that support it.
+  ///
+  /// Values must be `bool`, `int`, `double`, `String` or `List<String>`. A key
+  /// mapped to null is removed.
+  Future<bool> setAll(Map<String, Object> values) {
+    final Map<String, Object> prefixedValues = <String, Object>{};
+    values.forEach((String key, Object value) {
+      // Make a copy of lists so that later mutations won't propagate
+      final Object storedValue = value is List<String> ? value.toList() : value;
+      if (storedValue == null) {
+        _preferenceCache.remove(key);
+      } else {
+        _preferenceCache[key] = storedValue;
+      }
+      prefixedValues['$_prefix$key'] = storedValue;
+    });
+    return _store.setAll(prefixedValues);
+  }
+
   Future<bool> _setValue(String valueType, String key, Object value) {
     final String prefixedKey = '$_prefix$key';
     if (value == null) {
@@ -165,11 +185,47 @@ class SharedPreferences {
     }
   }
 
+  /// A stream of the preferences changed by any writer, including other
+  /// isolates and native code.
+  ///
+  /// Each event maps the changed keys to their new values, or to null for the
+  /// keys that were removed. The values returned by this instance are updated
+  /// before the event is delivered, so listening keeps this instance in sync
+  /// without calling [reload].
+  ///
+  /// Only supported on Android.
+  Stream<Map<String, Object>> get onChanged {
+    return _store.onChanged().map((Map<String, Object> prefixedChanges) {
+      final Map<String, Object> changes = <String, Object>{};
+      for (String prefixedKey in prefixedChanges.keys) {
+        if (!prefixedKey.startsWith(_prefix)) {
+          continue;
+        }
+        final String key = prefixedKey.substring(_prefix.length);
+        final Object value = prefixedChanges[prefixedKey];
+        if (value == null) {
+          _preferenceCache.remove(key);
+        } else {
+          _preferenceCache[key] = value;
+        }
+        changes[key] = value;
+      }
+      return changes;
+    });
+  }
+
   /// Always returns true.
   /// On iOS, synchronize is marked deprecated. On Android, we commit every set.
   @deprecated
   Future<bool> commit() async => true;
 
+  /// Removes every entry whose key starts with [prefix] from persistent
+  /// storage, without reading their values on the platform side.
+  Future<bool> removeByPrefix(String prefix) {
+    _preferenceCache.removeWhere((String key, _) => key.startsWith(prefix));
+    return _store.removeByPrefix('$_prefix$prefix');
+  }
+
   /// Completes with true once the user preferences for the app has been cleared.
   Future<bool> clear() {
     _preferenceCache.clear();
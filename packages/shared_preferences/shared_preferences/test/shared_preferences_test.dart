@@ -125,6 +125,58 @@ void main() {
           ));
     });
 
+    test('writing all at once', () async {
+      await preferences.setAll(<String, Object>{
+        'String': kTestValues2['flutter.String'],
+        'bool': kTestValues2['flutter.bool'],
+        'int': null,
+      });
+      expect(store.log, <Matcher>[
+        isMethodCall('setAll', arguments: <String, Object>{
+          'flutter.String': kTestValues2['flutter.String'],
+          'flutter.bool': kTestValues2['flutter.bool'],
+          'flutter.int': null,
+        }),
+      ]);
+      expect(preferences.getString('String'), kTestValues2['flutter.String']);
+      expect(preferences.getBool('bool'), kTestValues2['flutter.bool']);
+      expect(preferences.containsKey('int'), false);
+      expect(await store.backend.getAll(), <String, Object>{
+        'flutter.String': kTestValues2['flutter.String'],
+        'flutter.bool': kTestValues2['flutter.bool'],
+        'flutter.double': kTestValues['flutter.double'],
+        'flutter.List': kTestValues['flutter.List'],
+      });
+    });
+
+    test('onChanged', () async {
+      final Future<Map<String, Object>> change = preferences.onChanged.first;
+      // Another writer, such as a background isolate.
+      await store.backend.setValue('String', 'flutter.String', 'from elsewhere');
+
+      expect(await change, <String, Object>{'String': 'from elsewhere'});
+      expect(preferences.getString('String'), 'from elsewhere');
+    });
+
+    test('removing by prefix', () async {
+      await preferences.setString('settings.name', 'value');
+      await preferences.setBool('settings.enabled', true);
+      store.log.clear();
+
+      await preferences.removeByPrefix('settings.');
+
+      expect(store.log, <Matcher>[
+        isMethodCall('removeByPrefix', arguments: 'flutter.settings.'),
+      ]);
+      expect(preferences.containsKey('settings.name'), false);
+      expect(preferences.containsKey('settings.enabled'), false);
+      expect(await store.backend.getAll(), contains('flutter.String'));
+      expect(
+          (await store.backend.getAll()).keys
+              .where((String key) => key.startsWith('flutter.settings.')),
+          isEmpty);
+    });
+
     test('containsKey', () async {
       const String key = 'testKey';
 
@@ -228,6 +280,21 @@ class FakeSharedPreferencesStore implements SharedPreferencesStorePlatform {
     return backend.getAll();
   }
 
+  @override
+  Future<Set<String>> getKeys(String prefix) {
+    log.add(MethodCall('getKeys', prefix));
+    return backend.getKeys(prefix);
+  }
+
+  @override
+  Stream<Map<String, Object>> onChanged() => backend.onChanged();
+
+  @override
+  Future<bool> removeByPrefix(String prefix) {
+    log.add(MethodCall('removeByPrefix', prefix));
+    return backend.removeByPrefix(prefix);
+  }
+
   @override
   Future<bool> remove(String key) {
     log.add(MethodCall('remove', key));
@@ -239,4 +306,9 @@ class FakeSharedPreferencesStore implements SharedPreferencesStorePlatform {
     log.add(MethodCall('setValue', <dynamic>[valueType, key, value]));
     return backend.setValue(valueType, key, value);
   }
+  @override
+  Future<bool> setAll(Map<String, Object> values) {
+    log.add(MethodCall('setAll', values));
+    return backend.setAll(values);
+  }
 }
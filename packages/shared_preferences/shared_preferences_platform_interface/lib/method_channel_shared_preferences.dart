@@ -11,12 +11,17 @@ import 'shared_preferences_platform_interface.dart';
 const MethodChannel _kChannel =
     MethodChannel('plugins.flutter.io/shared_preferences');
 
+const EventChannel _kChangesChannel =
+    EventChannel('plugins.flutter.io/shared_preferences_changes');
+
 /// Wraps NSUserDefaults (on iOS) and SharedPreferences (on Android), providing
 /// a persistent store for simple data.
 ///
 /// Data is persisted to disk asynchronously.
 class MethodChannelSharedPreferencesStore
     extends SharedPreferencesStorePlatform {
+  Stream<Map<String, Object>> _onChanged;
+
   @override
   Future<bool> remove(String key) {
     return _invokeBoolMethod('remove', <String, dynamic>{
@@ -32,6 +37,18 @@ class MethodChannelSharedPreferencesStore
     });
   }
 
+  @override
+  Future<bool> setAll(Map<String, Object> values) async {
+    try {
+      return await _invokeBoolMethod('setAll', <String, dynamic>{
+        'values': values,
+      });
+    } on MissingPluginException {
+      // Hosts that predate `setAll` still get every value, one call at a time.
+      return super.setAll(values);
+    }
+  }
+
   Future<bool> _invokeBoolMethod(String method, Map<String, dynamic> params) {
     return _kChannel
         .invokeMethod<bool>(method, params)
@@ -49,8 +66,41 @@ class MethodChannelSharedPreferencesStore
     return _kChannel.invokeMethod<bool>('clear');
   }
 
+  @override
+  Future<bool> removeByPrefix(String prefix) async {
+    try {
+      return await _invokeBoolMethod('removeByPrefix', <String, dynamic>{
+        'prefix': prefix,
+      });
+    } on MissingPluginException {
+      return super.removeByPrefix(prefix);
+    }
+  }
+
   @override
   Future<Map<String, Object>> getAll() {
     return _kChannel.invokeMapMethod<String, Object>('getAll');
   }
+
+  /// Only supported on Android.
+  @override
+  Stream<Map<String, Object>> onChanged() {
+    _onChanged ??= _kChangesChannel
+        .receiveBroadcastStream()
+        .map((dynamic event) => Map<String, Object>.from(event));
+    return _onChanged;
+  }
+
+  @override
+  Future<Set<String>> getKeys(String prefix) async {
+    try {
+      final List<String> keys = await _kChannel
+          .invokeListMethod<String>('getKeys', <String, dynamic>{
+        'prefix': prefix,
+      });
+      return keys.toSet();
+    } on MissingPluginException {
+      return super.getKeys(prefix);
+    }
+  }
 }
@@ -60,9 +60,57 @@ abstract class SharedPreferencesStorePlatform {
   /// * Value type "StringList" must be passed if the value is of type `List<String>`.
   Future<bool> setValue(String valueType, String key, Object value);
 
+  /// Stores every entry of [values] and removes every key mapped to null.
+  ///
+  /// The value types follow the same rules as [setValue]. Implementations that
+  /// can write several values at once should override this so the whole batch
+  /// is persisted in a single write. The default implementation calls
+  /// [setValue] and [remove] for each entry.
+  Future<bool> setAll(Map<String, Object> values) async {
+    bool success = true;
+    for (String key in values.keys) {
+      final Object value = values[key];
+      final bool entrySuccess = value == null
+          ? await remove(key)
+          : await setValue(_valueTypeOf(value), key, value);
+      success = success && entrySuccess;
+    }
+    return success;
+  }
+
   /// Removes all keys and values in the store.
   Future<bool> clear();
 
+  /// Removes every key that starts with [prefix], without reading the values.
+  ///
+  /// The default implementation removes the keys listed by [getKeys] with one
+  /// call to [setAll].
+  Future<bool> removeByPrefix(String prefix) async {
+    final Set<String> keys = await getKeys(prefix);
+    if (keys.isEmpty) {
+      return true;
+    }
+    return setAll(Map<String, Object>.fromIterable(keys, value: (_) => null));
+  }
+
+  /// Returns the keys in this store that start with [prefix], without reading
+  /// their values where the platform allows it.
+  ///
+  /// The default implementation filters the keys of [getAll].
+  Future<Set<String>> getKeys(String prefix) async {
+    final Map<String, Object> all = await getAll();
+    return all.keys.where((String key) => key.startsWith(prefix)).toSet();
+  }
+
+  /// Returns a stream of the values changed by any writer, such as another
+  /// isolate or native code.
+  ///
+  /// Each event maps the changed keys to their new values, or to null for the
+  /// keys that were removed.
+  Stream<Map<String, Object>> onChanged() {
+    throw UnimplementedError('onChanged() has not been implemented.');
+  }
+
   /// Returns all key/value pairs persisted in this store.
   Future<Map<String, Object>> getAll();
 
@@ -75,6 +123,23 @@ abstract class SharedPreferencesStorePlatform {
   void _verifyProvidesDefaultImplementations() {}
 }
 
+/// Returns the value type that [SharedPreferencesStorePlatform.setValue]
+/// expects for [value].
+String _valueTypeOf(Object value) {
+  if (value is bool) {
+    return 'Bool';
+  } else if (value is int) {
+    return 'Int';
+  } else if (value is double) {
+    return 'Double';
+  } else if (value is String) {
+    return 'String';
+  } else if (value is List<String>) {
+    return 'StringList';
+  }
+  throw ArgumentError.value(value, 'value', 'Unsupported value type');
+}
+
 /// Stores data in memory.
 ///
 /// Data does not persist across application restarts. This is useful in unit-tests.
@@ -87,10 +152,15 @@ class InMemorySharedPreferencesStore extends SharedPreferencesStorePlatform {
       : _data = Map<String, Object>.from(data);
 
   final Map<String, Object> _data;
+  final StreamController<Map<String, Object>> _changes =
+      StreamController<Map<String, Object>>.broadcast(sync: true);
 
   @override
   Future<bool> clear() async {
+    final Map<String, Object> removed = _data.map(
+        (String key, Object value) => MapEntry<String, Object>(key, null));
     _data.clear();
+    _addChanges(removed);
     return true;
   }
 
@@ -102,12 +172,36 @@ class InMemorySharedPreferencesStore extends SharedPreferencesStorePlatform {
   @override
   Future<bool> remove(String key) async {
     _data.remove(key);
+    _addChanges(<String, Object>{key: null});
     return true;
   }
 
   @override
   Future<bool> setValue(String valueType, String key, Object value) async {
     _data[key] = value;
+    _addChanges(<String, Object>{key: value});
     return true;
   }
+
+  @override
+  Future<bool> setAll(Map<String, Object> values) async {
+    values.forEach((String key, Object value) {
+      if (value == null) {
+        _data.remove(key);
+      } else {
+        _data[key] = value;
+      }
+    });
+    _addChanges(values);
+    return true;
+  }
+
+  @override
+  Stream<Map<String, Object>> onChanged() => _changes.stream;
+
+  void _addChanges(Map<String, Object> changes) {
+    if (changes.isNotEmpty) {
+      _changes.add(Map<String, Object>.from(changes));
+    }
+  }
 }
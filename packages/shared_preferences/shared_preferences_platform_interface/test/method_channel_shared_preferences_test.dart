@@ -27,15 +27,26 @@ void main() {
 
     final List<MethodCall> log = <MethodCall>[];
     MethodChannelSharedPreferencesStore store;
+    bool setAllUnsupported;
+    bool getKeysUnsupported;
 
     setUp(() async {
       testData = InMemorySharedPreferencesStore.empty();
+      setAllUnsupported = false;
+      getKeysUnsupported = false;
 
       channel.setMockMethodCallHandler((MethodCall methodCall) async {
         log.add(methodCall);
         if (methodCall.method == 'getAll') {
           return await testData.getAll();
         }
+        if (methodCall.method == 'getKeys') {
+          if (getKeysUnsupported) {
+            throw MissingPluginException();
+          }
+          final String prefix = methodCall.arguments['prefix'];
+          return (await testData.getKeys(prefix)).toList();
+        }
         if (methodCall.method == 'remove') {
           final String key = methodCall.arguments['key'];
           return await testData.remove(key);
@@ -43,6 +54,17 @@ void main() {
         if (methodCall.method == 'clear') {
           return await testData.clear();
         }
+        if (methodCall.method == 'removeByPrefix') {
+          final String prefix = methodCall.arguments['prefix'];
+          return await testData.removeByPrefix(prefix);
+        }
+        if (methodCall.method == 'setAll') {
+          if (setAllUnsupported) {
+            throw MissingPluginException();
+          }
+          final Map<dynamic, dynamic> values = methodCall.arguments['values'];
+          return await testData.setAll(values.cast<String, Object>());
+        }
         final RegExp setterRegExp = RegExp(r'set(.*)');
         final Match match = setterRegExp.matchAsPrefix(methodCall.method);
         if (match.groupCount == 1) {
@@ -69,6 +91,23 @@ void main() {
       expect(log.single.method, 'getAll');
     });
 
+    test('getKeys', () async {
+      testData = InMemorySharedPreferencesStore.withData(kTestValues);
+      expect(await store.getKeys('flutter.S'),
+          <String>{'flutter.String', 'flutter.StringList'});
+      expect(log.single.method, 'getKeys');
+      expect(log.single.arguments, <String, dynamic>{'prefix': 'flutter.S'});
+    });
+
+    test('getKeys falls back to getAll', () async {
+      getKeysUnsupported = true;
+      testData = InMemorySharedPreferencesStore.withData(kTestValues);
+      expect(await store.getKeys('flutter.S'),
+          <String>{'flutter.String', 'flutter.StringList'});
+      expect(log.map((MethodCall call) => call.method),
+          <String>['getKeys', 'getAll']);
+    });
+
     test('remove', () async {
       testData = InMemorySharedPreferencesStore.withData(kTestValues);
       expect(await store.remove('flutter.String'), true);
@@ -101,6 +140,72 @@ void main() {
       expect(log[4].method, 'setStringList');
     });
 
+    test('setAll', () async {
+      testData = InMemorySharedPreferencesStore.withData(<String, dynamic>{
+        'flutter.Removed': 'goodbye',
+      });
+      final Map<String, Object> values = Map<String, Object>.from(kTestValues);
+      values['flutter.Removed'] = null;
+      expect(await store.setAll(values), true);
+      expect(await testData.getAll(), kTestValues);
+      expect(log.single.method, 'setAll');
+    });
+
+    test('setAll falls back to individual calls', () async {
+      setAllUnsupported = true;
+      testData = InMemorySharedPreferencesStore.withData(<String, dynamic>{
+        'flutter.Removed': 'goodbye',
+      });
+      final Map<String, Object> values = Map<String, Object>.from(kTestValues);
+      values['flutter.Removed'] = null;
+      expect(await store.setAll(values), true);
+      expect(await testData.getAll(), kTestValues);
+      expect(log.map((MethodCall call) => call.method), <String>[
+        'setAll',
+        'setString',
+        'setBool',
+        'setInt',
+        'setDouble',
+        'setStringList',
+        'remove',
+      ]);
+    });
+
+    test('onChanged', () async {
+      const EventChannel changesChannel =
+          EventChannel('plugins.flutter.io/shared_preferences_changes');
+      MethodChannel(changesChannel.name)
+          .setMockMethodCallHandler((MethodCall methodCall) async {
+        if (methodCall.method == 'listen') {
+          await ServicesBinding.instance.defaultBinaryMessenger
+              .handlePlatformMessage(
+            changesChannel.name,
+            changesChannel.codec.encodeSuccessEnvelope(<String, dynamic>{
+              'flutter.String': 'changed',
+              'flutter.Bool': null,
+            }),
+            (_) {},
+          );
+        }
+        return null;
+      });
+      expect(await store.onChanged().first, <String, Object>{
+        'flutter.String': 'changed',
+        'flutter.Bool': null,
+      });
+    });
+
+    test('removeByPrefix', () async {
+      testData = InMemorySharedPreferencesStore.withData(kTestValues);
+      expect(await store.removeByPrefix('flutter.String'), true);
+      expect(await testData.getAll(), <String, dynamic>{
+        'flutter.Bool': true,
+        'flutter.Int': 42,
+        'flutter.Double': 3.14159,
+      });
+      expect(log.single.method, 'removeByPrefix');
+    });
+
     test('clear', () async {
       testData = InMemorySharedPreferencesStore.withData(kTestValues);
       expect(await testData.getAll(), isNotEmpty);
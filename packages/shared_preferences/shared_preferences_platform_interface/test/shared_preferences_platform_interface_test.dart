@@ -36,6 +36,26 @@ class IllegalImplementation implements SharedPreferencesStorePlatform {
     throw UnimplementedError();
   }
 
+  @override
+  Future<bool> setAll(Map<String, Object> values) {
+    throw UnimplementedError();
+  }
+
+  @override
+  Future<Set<String>> getKeys(String prefix) {
+    throw UnimplementedError();
+  }
+
+  @override
+  Stream<Map<String, Object>> onChanged() {
+    throw UnimplementedError();
+  }
+
+  @override
+  Future<bool> removeByPrefix(String prefix) {
+    throw UnimplementedError();
+  }
+
   @override
   Future<bool> remove(String key) {
     throw UnimplementedError();